@@ -30,11 +30,9 @@ import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.function.Consumer;
 
 import org.ojalgo.data.DataBatch;
 import org.ojalgo.function.PrimitiveFunction;
-import org.ojalgo.function.aggregator.Aggregator;
 import org.ojalgo.function.constant.PrimitiveMath;
 import org.ojalgo.function.special.MissingMath;
 import org.ojalgo.matrix.store.MatrixStore;
@@ -56,48 +54,108 @@ public final class ArtificialNeuralNetwork {
         /**
          * (-,+)
          */
-        IDENTITY(ArtificialNeuralNetwork::doIdentity, arg -> ONE, true),
+        IDENTITY(arg -> arg, arg -> ONE, true),
         /**
          * ReLU: [0,+)
          */
-        RELU(ArtificialNeuralNetwork::doReLU, arg -> arg > ZERO ? ONE : ZERO, true),
+        RELU(arg -> arg > ZERO ? arg : ZERO, arg -> arg > ZERO ? ONE : ZERO, true),
         /**
          * [0,1]
          */
-        SIGMOID(ArtificialNeuralNetwork::doSigmoid, arg -> arg * (ONE - arg), true),
+        SIGMOID(PrimitiveMath.LOGISTIC, arg -> arg * (ONE - arg), true),
         /**
          * [0,1] <br>
          * Currently this can only be used in the final layer in combination with
          * {@link ArtificialNeuralNetwork.Error#CROSS_ENTROPY}. All other usage will give incorrect network
          * training.
          */
-        SOFTMAX(ArtificialNeuralNetwork::doSoftMax, arg -> ONE, false),
+        SOFTMAX(PrimitiveMath.EXP, arg -> ONE, false),
         /**
          * [-1,1]
          */
-        TANH(ArtificialNeuralNetwork::doTanh, arg -> ONE - arg * arg, true);
+        TANH(PrimitiveMath.TANH, arg -> ONE - arg * arg, true);
 
         private final PrimitiveFunction.Unary myDerivativeInTermsOfOutput;
-        private final Consumer<PhysicalStore<Double>> myFunction;
+        private final PrimitiveFunction.Unary myElementFunction;
         private final boolean mySingleFolded;
 
-        Activator(final Consumer<PhysicalStore<Double>> function, final PrimitiveFunction.Unary derivativeInTermsOfOutput, final boolean singleFolded) {
-            myFunction = function;
+        Activator(final PrimitiveFunction.Unary elementFunction, final PrimitiveFunction.Unary derivativeInTermsOfOutput, final boolean singleFolded) {
+            myElementFunction = elementFunction;
             myDerivativeInTermsOfOutput = derivativeInTermsOfOutput;
             mySingleFolded = singleFolded;
         }
 
-        void activate(final PhysicalStore<Double> output) {
-            myFunction.accept(output);
+        /**
+         * Add the bias (to each row) and apply the activation function in a single pass over the output. The
+         * softmax is calculated with the row maximum subtracted, to avoid overflow.
+         */
+        void activate(final PhysicalStore<Double> output, final Access1D<Double> bias) {
+
+            int nbRows = output.getRowDim();
+            int nbCols = output.getColDim();
+
+            if (output instanceof R032Store) {
+
+                float[] data = ((R032Store) output).data;
+
+                for (int j = 0, index = 0; j < nbCols; j++) {
+                    double b = bias.doubleValue(j);
+                    for (int i = 0; i < nbRows; i++, index++) {
+                        data[index] = (float) (mySingleFolded ? myElementFunction.invoke(data[index] + b) : data[index] + b);
+                    }
+                }
+
+            } else if (output instanceof R064Store) {
+
+                double[] data = ((R064Store) output).data;
+
+                for (int j = 0, index = 0; j < nbCols; j++) {
+                    double b = bias.doubleValue(j);
+                    for (int i = 0; i < nbRows; i++, index++) {
+                        data[index] = mySingleFolded ? myElementFunction.invoke(data[index] + b) : data[index] + b;
+                    }
+                }
+
+            } else {
+
+                for (int j = 0; j < nbCols; j++) {
+                    double b = bias.doubleValue(j);
+                    for (int i = 0; i < nbRows; i++) {
+                        double value = output.doubleValue(i, j) + b;
+                        output.set(i, j, mySingleFolded ? myElementFunction.invoke(value) : value);
+                    }
+                }
+            }
+
+            if (!mySingleFolded) {
+                for (int i = 0; i < nbRows; i++) {
+
+                    double max = NEGATIVE_INFINITY;
+                    for (int j = 0; j < nbCols; j++) {
+                        max = Math.max(max, output.doubleValue(i, j));
+                    }
+
+                    double sum = ZERO;
+                    for (int j = 0; j < nbCols; j++) {
+                        double value = myElementFunction.invoke(output.doubleValue(i, j) - max);
+                        output.set(i, j, value);
+                        sum += value;
+                    }
+
+                    for (int j = 0; j < nbCols; j++) {
+                        output.set(i, j, output.doubleValue(i, j) / sum);
+                    }
+                }
+            }
         }
 
-        void activate(final PhysicalStore<Double> output, final double probabilityToKeep) {
+        void activate(final PhysicalStore<Double> output, final Access1D<Double> bias, final double probabilityToKeep) {
 
             if (ZERO >= probabilityToKeep || probabilityToKeep > ONE) {
                 throw new IllegalArgumentException();
             }
 
-            myFunction.accept(output);
+            this.activate(output, bias);
             output.modifyAll(NodeDropper.of(probabilityToKeep));
         }
 
@@ -105,6 +163,13 @@ public final class ArtificialNeuralNetwork {
             return myDerivativeInTermsOfOutput;
         }
 
+        /**
+         * The element-wise activation function. Not meaningful for {@link #SOFTMAX} that is not single folded.
+         */
+        double invoke(final double arg) {
+            return myElementFunction.invoke(arg);
+        }
+
         boolean isSingleFolded() {
             return mySingleFolded;
         }
@@ -166,6 +231,19 @@ public final class ArtificialNeuralNetwork {
         return new NetworkBuilder(factory, numberOfNetworkInputNodes);
     }
 
+    /**
+     * For image (or other spatial) input. The input vectors should contain the elements in channel-last
+     * order: the element for (row, column, channel) at index (row * width + column) * channels + channel.
+     * Start with convolution and/or pooling layers, and then continue with ordinary (dense) layers.
+     *
+     * @see NetworkBuilder#convolution(int, int, Activator)
+     * @see NetworkBuilder#maxPooling(int)
+     * @see NetworkBuilder#flatten()
+     */
+    public static NetworkBuilder builder(final PhysicalStore.Factory<Double, ?> factory, final int height, final int width, final int channels) {
+        return new NetworkBuilder(factory, height, width, channels);
+    }
+
     /**
      * @deprecated Use {@link #builder(org.ojalgo.matrix.store.PhysicalStore.Factory, int)} instead
      */
@@ -228,43 +306,23 @@ public final class ArtificialNeuralNetwork {
         }
     }
 
-    static void doIdentity(final PhysicalStore<Double> output) {
-        // no-op activator
-    }
-
-    static void doReLU(final PhysicalStore<Double> output) {
-        output.modifyAll(MAX.second(ZERO));
-    }
-
-    static void doSigmoid(final PhysicalStore<Double> output) {
-        output.modifyAll(LOGISTIC);
-    }
-
-    static void doSoftMax(final PhysicalStore<Double> output) {
-        output.modifyAll(EXP);
-        R064Store totals = output.reduceRows(Aggregator.SUM).collect(R064Store.FACTORY);
-        output.onRows(DIVIDE, totals).supplyTo(output);
-    }
-
-    static void doTanh(final PhysicalStore<Double> output) {
-        output.modifyAll(PrimitiveMath.TANH);
-    }
-
     private transient TrainingConfiguration myConfiguration = null;
     private final PhysicalStore.Factory<Double, ?> myFactory;
     private final CalculationLayer[] myLayers;
 
     ArtificialNeuralNetwork(final NetworkBuilder builder) {
+        this(builder.getFactory(), builder.getLayers());
+    }
+
+    ArtificialNeuralNetwork(final PhysicalStore.Factory<Double, ?> factory, final List<LayerTemplate> templates) {
 
         super();
 
-        myFactory = builder.getFactory();
+        myFactory = factory;
 
-        List<LayerTemplate> templates = builder.getLayers();
         myLayers = new CalculationLayer[templates.size()];
         for (int i = 0; i < myLayers.length; i++) {
-            LayerTemplate layerTemplate = templates.get(i);
-            myLayers[i] = new CalculationLayer(myFactory, layerTemplate.inputs, layerTemplate.outputs, layerTemplate.activator);
+            myLayers[i] = templates.get(i).newLayer(factory);
         }
     }
 
@@ -324,6 +382,28 @@ public final class ArtificialNeuralNetwork {
         return prime * result + Arrays.hashCode(myLayers);
     }
 
+    /**
+     * An invoker that can be shared between threads, using weights stored with the same factory as this
+     * network.
+     *
+     * @see #newConcurrentInvoker(int, PhysicalStore.Factory)
+     */
+    public ConcurrentInvoker newConcurrentInvoker(final int batchSize) {
+        return this.newConcurrentInvoker(batchSize, myFactory);
+    }
+
+    /**
+     * An invoker that can be shared between threads. It works on a snapshot of the current weights, stored
+     * using the specified factory – use R032Store.FACTORY for a single precision inference path regardless
+     * of how this network was built.
+     *
+     * @param batchSize The number of rows processed (per thread) at the time
+     * @param factory Determines the precision of the invoker's weights and activations
+     */
+    public ConcurrentInvoker newConcurrentInvoker(final int batchSize, final PhysicalStore.Factory<Double, ?> factory) {
+        return new ConcurrentInvoker(myLayers, factory, batchSize);
+    }
+
     /**
      * With batch size 1
      *
@@ -410,6 +490,11 @@ public final class ArtificialNeuralNetwork {
      */
     public void writeTo(final DataOutput output) throws IOException {
         int version = myFactory == R032Store.FACTORY ? 2 : 1;
+        for (CalculationLayer layer : myLayers) {
+            if (layer.getType() != LayerTemplate.Type.DENSE) {
+                version = 3;
+            }
+        }
         FileFormat.write(this, version, output);
     }
 
@@ -441,6 +526,12 @@ public final class ArtificialNeuralNetwork {
                 myConfiguration.probabilityDidKeepInput(layer), myConfiguration.regularisation());
     }
 
+    void backpropagate(final int layer, final PhysicalStore<Double> input, final PhysicalStore<Double> output, final PhysicalStore<Double> upstreamGradient,
+            final PhysicalStore<Double> downstreamGradient, final PhysicalStore<Double> weightsGradient, final PhysicalStore<Double> biasGradient) {
+        myLayers[layer].backpropagate(input, output, upstreamGradient, downstreamGradient, myConfiguration.probabilityDidKeepInput(layer), weightsGradient,
+                biasGradient);
+    }
+
     int countInputNodes() {
         return myLayers[0].countInputNodes();
     }
@@ -457,6 +548,10 @@ public final class ArtificialNeuralNetwork {
         return myLayers[layer].countOutputNodes();
     }
 
+    CalculationLayer getLayer(final int layer) {
+        return myLayers[layer];
+    }
+
     Activator getOutputActivator() {
         return myLayers[myLayers.length - 1].getActivator();
     }
@@ -515,4 +610,9 @@ public final class ArtificialNeuralNetwork {
         myLayers[layer].setWeight(input, output, weight);
     }
 
+    void update(final int layer, final PhysicalStore<Double> weightsGradient, final PhysicalStore<Double> biasGradient, final double gradientScale,
+            final double learningRate) {
+        myLayers[layer].update(weightsGradient, biasGradient, gradientScale, -learningRate, myConfiguration.regularisation(), myConfiguration.optimiser);
+    }
+
 }
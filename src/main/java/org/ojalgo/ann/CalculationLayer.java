@@ -23,6 +23,7 @@ package org.ojalgo.ann;
 
 import static org.ojalgo.function.constant.PrimitiveMath.*;
 
+import java.util.Arrays;
 import java.util.function.DoubleUnaryOperator;
 
 import org.ojalgo.function.PrimitiveFunction;
@@ -31,10 +32,19 @@ import org.ojalgo.matrix.store.PhysicalStore;
 import org.ojalgo.random.Uniform;
 import org.ojalgo.structure.Structure2D;
 
-final class CalculationLayer {
+/**
+ * A fully connected (dense) layer, and the base class for the other layer types. All layer types keep their
+ * parameters in a weights matrix and a bias row, so that the trainer, the optimisers and the file format can
+ * treat them all the same way.
+ */
+class CalculationLayer {
 
     private ArtificialNeuralNetwork.Activator myActivator;
     private final PhysicalStore<Double> myBias;
+    private double[] myFirstMoments = null;
+    private Optimiser myOptimiser = null;
+    private double[] mySecondMoments = null;
+    private int mySteps = 0;
     private final PhysicalStore<Double> myWeights;
 
     CalculationLayer(final PhysicalStore.Factory<Double, ?> factory, final int numberOfInputs, final int numberOfOutputs,
@@ -60,6 +70,9 @@ final class CalculationLayer {
         if (myActivator != other.myActivator) {
             return false;
         }
+        if (this.getType() != other.getType() || !Arrays.equals(this.getParameters(), other.getParameters())) {
+            return false;
+        }
         if (myBias == null) {
             if (other.myBias != null) {
                 return false;
@@ -83,6 +96,7 @@ final class CalculationLayer {
         int result = 1;
         result = prime * result + (myActivator == null ? 0 : myActivator.hashCode());
         result = prime * result + (myBias == null ? 0 : myBias.hashCode());
+        result = prime * result + this.getType().hashCode();
         result = prime * result + (myWeights == null ? 0 : myWeights.hashCode());
         return result;
     }
@@ -90,7 +104,9 @@ final class CalculationLayer {
     @Override
     public String toString() {
         StringBuilder tmpBuilder = new StringBuilder();
-        tmpBuilder.append("CalculationLayer [Weights=");
+        tmpBuilder.append("CalculationLayer [Type=");
+        tmpBuilder.append(this.getType());
+        tmpBuilder.append(", Weights=");
         tmpBuilder.append(myWeights);
         tmpBuilder.append(", Bias=");
         tmpBuilder.append(myBias);
@@ -130,6 +146,52 @@ final class CalculationLayer {
         }
     }
 
+    /**
+     * Same calculations as {@link #adjust(PhysicalStore, PhysicalStore, PhysicalStore, PhysicalStore, double, double, DoubleUnaryOperator)}
+     * but the weights and bias are not modified. Instead their gradients are written to the supplied stores, and
+     * can be applied later using {@link #update(PhysicalStore, PhysicalStore, double, DoubleUnaryOperator)}.
+     * This method only reads the layer's state, and may be called from several threads simultaneously.
+     */
+    void backpropagate(final PhysicalStore<Double> input, final PhysicalStore<Double> output, final PhysicalStore<Double> upstreamGradient,
+            final PhysicalStore<Double> downstreamGradient, final double dropoutsFactor, final PhysicalStore<Double> weightsGradient,
+            final PhysicalStore<Double> biasGradient) {
+
+        downstreamGradient.modifyMatching(MULTIPLY, output.onAll(myActivator.getDerivativeInTermsOfOutput()).transpose());
+
+        if (upstreamGradient != null) {
+            myWeights.multiply(downstreamGradient, upstreamGradient);
+        }
+
+        weightsGradient.fillByMultiplying(input.transpose(), downstreamGradient.transpose());
+        if (dropoutsFactor != ONE) {
+            weightsGradient.modifyAll(DIVIDE.second(dropoutsFactor));
+        }
+
+        for (long j = 0L, nbOutput = myWeights.countColumns(); j < nbOutput; j++) {
+            double sum = ZERO;
+            for (long b = 0L, batchSize = input.countRows(); b < batchSize; b++) {
+                sum += downstreamGradient.doubleValue(j, b);
+            }
+            biasGradient.set(j, sum);
+        }
+    }
+
+    /**
+     * A copy of this layer with its weights and bias stored in stores from the specified factory. Optimiser
+     * state is not copied.
+     */
+    CalculationLayer copy(final PhysicalStore.Factory<Double, ?> factory) {
+
+        LayerTemplate template = new LayerTemplate(this.getType(), this.countInputNodes(), this.countOutputNodes(), myActivator, this.getParameters());
+
+        CalculationLayer retVal = template.newLayer(factory);
+
+        retVal.myWeights.fillMatching(myWeights);
+        retVal.myBias.fillMatching(myBias);
+
+        return retVal;
+    }
+
     int countInputNodes() {
         return Math.toIntExact(myWeights.countRows());
     }
@@ -146,39 +208,66 @@ final class CalculationLayer {
         return myBias.doubleValue(output);
     }
 
+    PhysicalStore<Double> getBiasStore() {
+        return myBias;
+    }
+
     MatrixStore<Double> getLogicalWeights() {
         return myWeights.below(myBias);
     }
 
+    /**
+     * The (int) parameters, in addition to the weights and bias, needed to recreate this layer.
+     */
+    int[] getParameters() {
+        return new int[0];
+    }
+
     Structure2D getStructure() {
         return myWeights;
     }
 
+    LayerTemplate.Type getType() {
+        return LayerTemplate.Type.DENSE;
+    }
+
     double getWeight(final int input, final int output) {
         return myWeights.doubleValue(input, output);
     }
 
+    PhysicalStore<Double> getWeightsStore() {
+        return myWeights;
+    }
+
+    /**
+     * The product is written directly to the output, and the bias-add and activation are then done in a
+     * single pass. Nothing is allocated.
+     */
     PhysicalStore<Double> invoke(final PhysicalStore<Double> input, final PhysicalStore<Double> output) {
-        myWeights.premultiply(input).onColumns(ADD, myBias).supplyTo(output);
-        myActivator.activate(output);
+        output.fillByMultiplying(input, myWeights);
+        myActivator.activate(output, myBias);
         return output;
     }
 
     PhysicalStore<Double> invoke(final PhysicalStore<Double> input, final PhysicalStore<Double> output, final double probabilityToKeep) {
-        myWeights.premultiply(input).onColumns(ADD, myBias).supplyTo(output);
-        myActivator.activate(output, probabilityToKeep);
+        output.fillByMultiplying(input, myWeights);
+        myActivator.activate(output, myBias, probabilityToKeep);
         return output;
     }
 
     void randomise() {
 
-        double magnitude = ONE / Math.sqrt(this.countInputNodes());
+        double magnitude = ONE / Math.sqrt(myWeights.countRows());
 
         Uniform randomiser = new Uniform(-magnitude, 2 * magnitude);
 
         myWeights.fillAll(randomiser);
 
         myBias.fillAll(randomiser);
+
+        myFirstMoments = null;
+        mySecondMoments = null;
+        mySteps = 0;
     }
 
     void scale(final double factor) {
@@ -197,4 +286,28 @@ final class CalculationLayer {
         myWeights.set(input, output, weight);
     }
 
+    /**
+     * Apply gradients calculated by
+     * {@link #backpropagate(PhysicalStore, PhysicalStore, PhysicalStore, PhysicalStore, double, PhysicalStore, PhysicalStore)}
+     * using the specified optimiser. Any optimiser state (moments and the step count used for bias
+     * correction) is kept by this layer, and is reset if the optimiser is changed.
+     */
+    void update(final PhysicalStore<Double> weightsGradient, final PhysicalStore<Double> biasGradient, final double gradientScale, final double learningRate,
+            final DoubleUnaryOperator regularisation, final Optimiser optimiser) {
+
+        int nbWeights = Math.toIntExact(myWeights.count());
+
+        if (optimiser.isStateful() && (myFirstMoments == null || !optimiser.equals(myOptimiser))) {
+            int nbParameters = nbWeights + Math.toIntExact(myBias.count());
+            myFirstMoments = new double[nbParameters];
+            mySecondMoments = new double[nbParameters];
+            mySteps = 0;
+        }
+        myOptimiser = optimiser;
+        mySteps++;
+
+        optimiser.update(myWeights, weightsGradient, gradientScale, learningRate, regularisation, myFirstMoments, mySecondMoments, 0, mySteps);
+        optimiser.update(myBias, biasGradient, gradientScale, learningRate, null, myFirstMoments, mySecondMoments, nbWeights, mySteps);
+    }
+
 }
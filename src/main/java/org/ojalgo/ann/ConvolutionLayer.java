@@ -0,0 +1,558 @@
+/*
+ * Copyright 1997-2025 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.ann;
+
+import static org.ojalgo.function.constant.PrimitiveMath.*;
+
+import java.util.Arrays;
+import java.util.function.DoubleUnaryOperator;
+
+import org.ojalgo.data.transform.DiscreteFourierTransform;
+import org.ojalgo.function.special.PowerOf2;
+import org.ojalgo.matrix.store.PhysicalStore;
+
+/**
+ * A 2D convolution layer. The input and output vectors are images stored channel-last: the element for (row,
+ * column, channel) is at index (row * width + column) * channels + channel.
+ * <p>
+ * The kernels are stored as an ordinary weights matrix with one row per (kernel row, kernel column, input
+ * channel) and one column per filter (output channel), and one bias per filter. The calculations are done
+ * using im2col – the input patches are unrolled in to a matrix that is multiplied with the weights, one
+ * matrix multiplication for the entire batch. For large kernels the forward pass instead uses FFT based
+ * correlation.
+ */
+final class ConvolutionLayer extends CalculationLayer {
+
+    /**
+     * Per thread work stores, reallocated only when the batch size changes.
+     */
+    private static final class Buffers {
+
+        PhysicalStore<Double> biasGradient = null;
+        double[] binsIm = null;
+        double[] binsRe = null;
+        PhysicalStore<Double> columns = null;
+        DiscreteFourierTransform.InPlace columnsFFT = null;
+        PhysicalStore<Double> gradient = null;
+        double[] image = null;
+        double[] inputIm = null;
+        double[] inputRe = null;
+        PhysicalStore<Double> product = null;
+        double[] row = null;
+        DiscreteFourierTransform.Real rowsFFT = null;
+        double[] sumIm = null;
+        double[] sumRe = null;
+        PhysicalStore<Double> weightsGradient = null;
+
+    }
+
+    /**
+     * The (half, real input) spectra of the zero padded kernels, and a copy of the weights they were
+     * calculated from. Immutable, and shared between threads.
+     */
+    private static final class KernelSpectra {
+
+        final double[] im;
+        final double[] re;
+        final double[] weights;
+
+        KernelSpectra(final double[] weights, final double[] re, final double[] im) {
+
+            super();
+
+            this.weights = weights;
+            this.re = re;
+            this.im = im;
+        }
+
+        boolean isCalculatedFrom(final PhysicalStore<Double> current) {
+            for (int i = 0; i < weights.length; i++) {
+                if (Double.doubleToLongBits(weights[i]) != Double.doubleToLongBits(current.doubleValue(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+    }
+
+    /**
+     * Kernels with at least this many elements (kernel height * kernel width) use FFT based correlation in
+     * the forward pass.
+     */
+    static int FFT_THRESHOLD = 64;
+
+    private final ThreadLocal<Buffers> myBuffers = ThreadLocal.withInitial(Buffers::new);
+    private final int myChannels;
+    private final PhysicalStore.Factory<Double, ?> myFactory;
+    private final int myFilters;
+    private final int myHeight;
+    private final int myKernelHeight;
+    private volatile KernelSpectra myKernelSpectra = null;
+    private final int myKernelWidth;
+    private final int myOutputHeight;
+    private final int myOutputWidth;
+    private final int myPadding;
+    private final int myStride;
+    private final int myWidth;
+
+    ConvolutionLayer(final PhysicalStore.Factory<Double, ?> factory, final ArtificialNeuralNetwork.Activator activator, final int... parameters) {
+
+        super(factory, parameters[3] * parameters[4] * parameters[2], parameters[5], activator);
+
+        myFactory = factory;
+
+        myHeight = parameters[0];
+        myWidth = parameters[1];
+        myChannels = parameters[2];
+        myKernelHeight = parameters[3];
+        myKernelWidth = parameters[4];
+        myFilters = parameters[5];
+        myStride = parameters[6];
+        myPadding = parameters[7];
+
+        myOutputHeight = ConvolutionLayer.countOutputs(myHeight, myKernelHeight, myStride, myPadding);
+        myOutputWidth = ConvolutionLayer.countOutputs(myWidth, myKernelWidth, myStride, myPadding);
+
+        if (myOutputHeight <= 0 || myOutputWidth <= 0 || myStride <= 0 || myPadding < 0) {
+            throw new IllegalArgumentException();
+        }
+    }
+
+    /**
+     * Inverse of {@link #transform(Buffers, double[], int, int, double[], double[], int)}, but only the rows
+     * 0, stride, 2 * stride... (nbOutputRows of them) of the image are calculated. The spectrum is
+     * overwritten.
+     */
+    private static void inverse(final Buffers buffers, final double[] re, final double[] im, final int nbRows, final int nbCols, final int nbOutputRows,
+            final int stride, final double[] image) {
+
+        int nbBins = nbCols / 2 + 1;
+
+        double[] workRe = buffers.columnsFFT.getWorkRe();
+        double[] workIm = buffers.columnsFFT.getWorkIm();
+
+        for (int k = 0; k < nbBins; k++) {
+            for (int r = 0; r < nbRows; r++) {
+                workRe[r] = re[r * nbBins + k];
+                workIm[r] = -im[r * nbBins + k];
+            }
+            buffers.columnsFFT.compute();
+            for (int r = 0; r < nbRows; r++) {
+                re[r * nbBins + k] = workRe[r] / nbRows;
+                im[r * nbBins + k] = -workIm[r] / nbRows;
+            }
+        }
+
+        for (int oy = 0; oy < nbOutputRows; oy++) {
+            int r = oy * stride;
+            System.arraycopy(re, r * nbBins, buffers.binsRe, 0, nbBins);
+            System.arraycopy(im, r * nbBins, buffers.binsIm, 0, nbBins);
+            buffers.rowsFFT.inverse(buffers.binsRe, buffers.binsIm, buffers.row);
+            System.arraycopy(buffers.row, 0, image, r * nbCols, nbCols);
+        }
+    }
+
+    /**
+     * 2D FFT of a real, row-major, (nbRows x nbCols) image. Only the non-redundant nbCols / 2 + 1 columns of
+     * the spectrum are calculated – stored row-major starting at offset.
+     */
+    private static void transform(final Buffers buffers, final double[] image, final int nbRows, final int nbCols, final double[] re, final double[] im,
+            final int offset) {
+
+        int nbBins = nbCols / 2 + 1;
+
+        for (int r = 0; r < nbRows; r++) {
+            System.arraycopy(image, r * nbCols, buffers.row, 0, nbCols);
+            buffers.rowsFFT.transform(buffers.row, buffers.binsRe, buffers.binsIm);
+            System.arraycopy(buffers.binsRe, 0, re, offset + r * nbBins, nbBins);
+            System.arraycopy(buffers.binsIm, 0, im, offset + r * nbBins, nbBins);
+        }
+
+        double[] workRe = buffers.columnsFFT.getWorkRe();
+        double[] workIm = buffers.columnsFFT.getWorkIm();
+
+        for (int k = 0; k < nbBins; k++) {
+            for (int r = 0; r < nbRows; r++) {
+                workRe[r] = re[offset + r * nbBins + k];
+                workIm[r] = im[offset + r * nbBins + k];
+            }
+            buffers.columnsFFT.compute();
+            for (int r = 0; r < nbRows; r++) {
+                re[offset + r * nbBins + k] = workRe[r];
+                im[offset + r * nbBins + k] = workIm[r];
+            }
+        }
+    }
+
+    static int countOutputs(final int size, final int kernel, final int stride, final int padding) {
+        return (size + 2 * padding - kernel) / stride + 1;
+    }
+
+    @Override
+    void adjust(final PhysicalStore<Double> input, final PhysicalStore<Double> output, final PhysicalStore<Double> upstreamGradient,
+            final PhysicalStore<Double> downstreamGradient, final double learningRate, final double dropoutsFactor, final DoubleUnaryOperator regularisation) {
+
+        Buffers buffers = myBuffers.get();
+        if (buffers.weightsGradient == null) {
+            buffers.weightsGradient = myFactory.make(this.getStructure().countRows(), myFilters);
+            buffers.biasGradient = myFactory.make(1, myFilters);
+        }
+
+        this.backpropagate(input, output, upstreamGradient, downstreamGradient, dropoutsFactor, buffers.weightsGradient, buffers.biasGradient);
+
+        PhysicalStore<Double> weights = this.getWeightsStore();
+        PhysicalStore<Double> bias = this.getBiasStore();
+
+        if (regularisation != null) {
+            for (long i = 0L, limit = weights.count(); i < limit; i++) {
+                double weight = weights.doubleValue(i);
+                weights.set(i, weight + learningRate * regularisation.applyAsDouble(weight));
+            }
+        }
+
+        for (long i = 0L, limit = weights.count(); i < limit; i++) {
+            weights.add(i, learningRate * buffers.weightsGradient.doubleValue(i));
+        }
+        for (long j = 0L; j < myFilters; j++) {
+            bias.add(j, learningRate * buffers.biasGradient.doubleValue(j));
+        }
+    }
+
+    /**
+     * Always im2col based, also when the forward pass uses FFT.
+     */
+    @Override
+    void backpropagate(final PhysicalStore<Double> input, final PhysicalStore<Double> output, final PhysicalStore<Double> upstreamGradient,
+            final PhysicalStore<Double> downstreamGradient, final double dropoutsFactor, final PhysicalStore<Double> weightsGradient,
+            final PhysicalStore<Double> biasGradient) {
+
+        downstreamGradient.modifyMatching(MULTIPLY, output.onAll(this.getActivator().getDerivativeInTermsOfOutput()).transpose());
+
+        int batchSize = input.getRowDim();
+        int nbPositions = myOutputHeight * myOutputWidth;
+
+        Buffers buffers = this.getBuffers(batchSize);
+
+        PhysicalStore<Double> columns = buffers.columns;
+        this.unroll(input, columns);
+
+        PhysicalStore<Double> product = buffers.product;
+        for (int b = 0; b < batchSize; b++) {
+            for (int pos = 0; pos < nbPositions; pos++) {
+                int row = b * nbPositions + pos;
+                for (int f = 0; f < myFilters; f++) {
+                    product.set(row, f, downstreamGradient.doubleValue(pos * myFilters + f, b));
+                }
+            }
+        }
+
+        weightsGradient.fillByMultiplying(columns.transpose(), product);
+        if (dropoutsFactor != ONE) {
+            weightsGradient.modifyAll(DIVIDE.second(dropoutsFactor));
+        }
+
+        for (int f = 0; f < myFilters; f++) {
+            double sum = ZERO;
+            for (int row = 0, limit = product.getRowDim(); row < limit; row++) {
+                sum += product.doubleValue(row, f);
+            }
+            biasGradient.set(f, sum);
+        }
+
+        if (upstreamGradient != null) {
+
+            PhysicalStore<Double> gradient = buffers.gradient;
+            gradient.fillByMultiplying(product, this.getWeightsStore().transpose());
+
+            upstreamGradient.fillAll(ZERO);
+
+            for (int b = 0; b < batchSize; b++) {
+                for (int oy = 0; oy < myOutputHeight; oy++) {
+                    for (int ox = 0; ox < myOutputWidth; ox++) {
+                        int row = b * nbPositions + oy * myOutputWidth + ox;
+                        for (int ky = 0; ky < myKernelHeight; ky++) {
+                            int y = oy * myStride + ky - myPadding;
+                            if (y < 0 || y >= myHeight) {
+                                continue;
+                            }
+                            for (int kx = 0; kx < myKernelWidth; kx++) {
+                                int x = ox * myStride + kx - myPadding;
+                                if (x < 0 || x >= myWidth) {
+                                    continue;
+                                }
+                                int k = (ky * myKernelWidth + kx) * myChannels;
+                                int i = (y * myWidth + x) * myChannels;
+                                for (int c = 0; c < myChannels; c++) {
+                                    upstreamGradient.add(i + c, b, gradient.doubleValue(row, k + c));
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    int countInputNodes() {
+        return myHeight * myWidth * myChannels;
+    }
+
+    @Override
+    int countOutputNodes() {
+        return myOutputHeight * myOutputWidth * myFilters;
+    }
+
+    @Override
+    int[] getParameters() {
+        return new int[] { myHeight, myWidth, myChannels, myKernelHeight, myKernelWidth, myFilters, myStride, myPadding };
+    }
+
+    @Override
+    LayerTemplate.Type getType() {
+        return LayerTemplate.Type.CONVOLUTION;
+    }
+
+    @Override
+    PhysicalStore<Double> invoke(final PhysicalStore<Double> input, final PhysicalStore<Double> output) {
+
+        if (myKernelHeight * myKernelWidth >= FFT_THRESHOLD) {
+            this.correlate(input, output);
+            return output;
+        }
+
+        int batchSize = input.getRowDim();
+        int nbPositions = myOutputHeight * myOutputWidth;
+
+        Buffers buffers = this.getBuffers(batchSize);
+
+        this.unroll(input, buffers.columns);
+
+        PhysicalStore<Double> product = buffers.product;
+        product.fillByMultiplying(buffers.columns, this.getWeightsStore());
+
+        ArtificialNeuralNetwork.Activator activator = this.getActivator();
+        PhysicalStore<Double> bias = this.getBiasStore();
+
+        for (int f = 0; f < myFilters; f++) {
+            double b = bias.doubleValue(f);
+            for (int s = 0; s < batchSize; s++) {
+                for (int pos = 0; pos < nbPositions; pos++) {
+                    output.set(s, pos * myFilters + f, activator.invoke(product.doubleValue(s * nbPositions + pos, f) + b));
+                }
+            }
+        }
+
+        return output;
+    }
+
+    @Override
+    PhysicalStore<Double> invoke(final PhysicalStore<Double> input, final PhysicalStore<Double> output, final double probabilityToKeep) {
+
+        if (ZERO >= probabilityToKeep || probabilityToKeep > ONE) {
+            throw new IllegalArgumentException();
+        }
+
+        this.invoke(input, output);
+        output.modifyAll(NodeDropper.of(probabilityToKeep));
+
+        return output;
+    }
+
+    /**
+     * Forward pass using FFT: Per sample the padded input channels are transformed, multiplied by the
+     * (conjugated) kernel spectra, summed over the input channels and transformed back – one inverse
+     * transform per filter. The result is sampled with the stride. All signals are real, so only the
+     * non-redundant half of each spectrum is calculated. The kernel spectra are cached, and recalculated only
+     * when the weights have changed.
+     */
+    private void correlate(final PhysicalStore<Double> input, final PhysicalStore<Double> output) {
+
+        int nbRows = PowerOf2.adjustUp(myHeight + 2 * myPadding);
+        int nbCols = PowerOf2.adjustUp(myWidth + 2 * myPadding);
+        int nbBins = nbCols / 2 + 1;
+        int area = nbRows * nbBins;
+
+        Buffers buffers = this.getSpectralBuffers(nbRows, nbCols);
+        KernelSpectra kernels = this.getKernelSpectra(buffers, nbRows, nbCols);
+
+        PhysicalStore<Double> bias = this.getBiasStore();
+        ArtificialNeuralNetwork.Activator activator = this.getActivator();
+
+        double[] image = buffers.image;
+        double[] inputRe = buffers.inputRe;
+        double[] inputIm = buffers.inputIm;
+        double[] sumRe = buffers.sumRe;
+        double[] sumIm = buffers.sumIm;
+
+        for (int b = 0, batchSize = input.getRowDim(); b < batchSize; b++) {
+
+            for (int c = 0; c < myChannels; c++) {
+                Arrays.fill(image, ZERO);
+                for (int y = 0; y < myHeight; y++) {
+                    for (int x = 0; x < myWidth; x++) {
+                        image[(y + myPadding) * nbCols + x + myPadding] = input.doubleValue(b, (y * myWidth + x) * myChannels + c);
+                    }
+                }
+                ConvolutionLayer.transform(buffers, image, nbRows, nbCols, inputRe, inputIm, c * area);
+            }
+
+            for (int f = 0; f < myFilters; f++) {
+
+                Arrays.fill(sumRe, ZERO);
+                Arrays.fill(sumIm, ZERO);
+
+                for (int c = 0; c < myChannels; c++) {
+                    int kOffset = (c * myFilters + f) * area;
+                    int iOffset = c * area;
+                    for (int i = 0; i < area; i++) {
+                        double kRe = kernels.re[kOffset + i];
+                        double kIm = kernels.im[kOffset + i];
+                        double xRe = inputRe[iOffset + i];
+                        double xIm = inputIm[iOffset + i];
+                        sumRe[i] += kRe * xRe + kIm * xIm;
+                        sumIm[i] += kRe * xIm - kIm * xRe;
+                    }
+                }
+
+                ConvolutionLayer.inverse(buffers, sumRe, sumIm, nbRows, nbCols, myOutputHeight, myStride, image);
+
+                double biasValue = bias.doubleValue(f);
+                for (int oy = 0; oy < myOutputHeight; oy++) {
+                    for (int ox = 0; ox < myOutputWidth; ox++) {
+                        double value = image[oy * myStride * nbCols + ox * myStride];
+                        output.set(b, (oy * myOutputWidth + ox) * myFilters + f, activator.invoke(value + biasValue));
+                    }
+                }
+            }
+        }
+    }
+
+    private Buffers getBuffers(final int batchSize) {
+
+        Buffers retVal = myBuffers.get();
+
+        int nbRows = batchSize * myOutputHeight * myOutputWidth;
+        int nbKernel = Math.toIntExact(this.getStructure().countRows());
+
+        if (retVal.columns == null || retVal.columns.getRowDim() != nbRows) {
+            retVal.columns = myFactory.make(nbRows, nbKernel);
+            retVal.product = myFactory.make(nbRows, myFilters);
+            retVal.gradient = myFactory.make(nbRows, nbKernel);
+        }
+
+        return retVal;
+    }
+
+    private KernelSpectra getKernelSpectra(final Buffers buffers, final int nbRows, final int nbCols) {
+
+        PhysicalStore<Double> weights = this.getWeightsStore();
+
+        KernelSpectra retVal = myKernelSpectra;
+        if (retVal != null && retVal.isCalculatedFrom(weights)) {
+            return retVal;
+        }
+
+        int area = nbRows * (nbCols / 2 + 1);
+
+        double[] re = new double[myChannels * myFilters * area];
+        double[] im = new double[myChannels * myFilters * area];
+
+        double[] image = buffers.image;
+        for (int c = 0; c < myChannels; c++) {
+            for (int f = 0; f < myFilters; f++) {
+                Arrays.fill(image, ZERO);
+                for (int ky = 0; ky < myKernelHeight; ky++) {
+                    for (int kx = 0; kx < myKernelWidth; kx++) {
+                        image[ky * nbCols + kx] = weights.doubleValue((ky * myKernelWidth + kx) * myChannels + c, f);
+                    }
+                }
+                ConvolutionLayer.transform(buffers, image, nbRows, nbCols, re, im, (c * myFilters + f) * area);
+            }
+        }
+
+        retVal = new KernelSpectra(weights.toRawCopy1D(), re, im);
+        myKernelSpectra = retVal;
+        return retVal;
+    }
+
+    private Buffers getSpectralBuffers(final int nbRows, final int nbCols) {
+
+        Buffers retVal = myBuffers.get();
+
+        if (retVal.rowsFFT == null) {
+
+            int nbBins = nbCols / 2 + 1;
+            int area = nbRows * nbBins;
+
+            retVal.rowsFFT = DiscreteFourierTransform.newReal(nbCols);
+            retVal.columnsFFT = DiscreteFourierTransform.newInPlace(nbRows);
+
+            retVal.binsRe = new double[nbBins];
+            retVal.binsIm = new double[nbBins];
+            retVal.image = new double[nbRows * nbCols];
+            retVal.row = new double[nbCols];
+            retVal.inputRe = new double[myChannels * area];
+            retVal.inputIm = new double[myChannels * area];
+            retVal.sumRe = new double[area];
+            retVal.sumIm = new double[area];
+        }
+
+        return retVal;
+    }
+
+    /**
+     * im2col: One row per (sample, output position) and one column per (kernel row, kernel column, input
+     * channel). Positions outside the input (padding) are 0.
+     */
+    private void unroll(final PhysicalStore<Double> input, final PhysicalStore<Double> columns) {
+
+        int nbPositions = myOutputHeight * myOutputWidth;
+
+        for (int b = 0, batchSize = input.getRowDim(); b < batchSize; b++) {
+            for (int oy = 0; oy < myOutputHeight; oy++) {
+                for (int ox = 0; ox < myOutputWidth; ox++) {
+                    int row = b * nbPositions + oy * myOutputWidth + ox;
+                    for (int ky = 0; ky < myKernelHeight; ky++) {
+                        int y = oy * myStride + ky - myPadding;
+                        for (int kx = 0; kx < myKernelWidth; kx++) {
+                            int x = ox * myStride + kx - myPadding;
+                            int k = (ky * myKernelWidth + kx) * myChannels;
+                            if (y < 0 || y >= myHeight || x < 0 || x >= myWidth) {
+                                for (int c = 0; c < myChannels; c++) {
+                                    columns.set(row, k + c, ZERO);
+                                }
+                            } else {
+                                int i = (y * myWidth + x) * myChannels;
+                                for (int c = 0; c < myChannels; c++) {
+                                    columns.set(row, k + c, input.doubleValue(b, i + c));
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+}
@@ -24,6 +24,8 @@ package org.ojalgo.ann;
 import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.ojalgo.ann.ArtificialNeuralNetwork.Activator;
 import org.ojalgo.matrix.store.PhysicalStore;
@@ -181,6 +183,133 @@ abstract class FileFormat {
 
     }
 
+    /**
+     * Supports all layer types. Each layer is written with its type, (int) parameters, weights, bias and
+     * activator. The precision, double or float, is a property of the network as a whole.
+     */
+    abstract static class Version3 {
+
+        static final int ID = 3;
+
+        static ArtificialNeuralNetwork read(final PhysicalStore.Factory<Double, ?> factory, final DataInput input) throws IOException {
+
+            boolean singlePrecision = input.readBoolean();
+
+            int numberOfLayers = input.readInt();
+
+            List<LayerTemplate> templates = new ArrayList<>(numberOfLayers);
+            List<double[]> weights = new ArrayList<>(numberOfLayers);
+            List<double[]> biases = new ArrayList<>(numberOfLayers);
+
+            for (int l = 0; l < numberOfLayers; l++) {
+
+                LayerTemplate.Type type = LayerTemplate.Type.valueOf(input.readUTF());
+
+                int numberOfInputs = input.readInt();
+                int numberOfOutputs = input.readInt();
+
+                int[] parameters = new int[input.readInt()];
+                for (int p = 0; p < parameters.length; p++) {
+                    parameters[p] = input.readInt();
+                }
+
+                double[] layerWeights = new double[input.readInt()];
+                for (int i = 0; i < layerWeights.length; i++) {
+                    layerWeights[i] = singlePrecision ? input.readFloat() : input.readDouble();
+                }
+                double[] layerBias = new double[input.readInt()];
+                for (int i = 0; i < layerBias.length; i++) {
+                    layerBias[i] = singlePrecision ? input.readFloat() : input.readDouble();
+                }
+
+                Activator activator = Activator.valueOf(input.readUTF());
+
+                templates.add(new LayerTemplate(type, numberOfInputs, numberOfOutputs, activator, parameters));
+                weights.add(layerWeights);
+                biases.add(layerBias);
+            }
+
+            PhysicalStore.Factory<Double, ?> fallback = singlePrecision ? R032Store.FACTORY : R064Store.FACTORY;
+
+            ArtificialNeuralNetwork retVal = new ArtificialNeuralNetwork(factory != null ? factory : fallback, templates);
+
+            for (int l = 0; l < numberOfLayers; l++) {
+
+                CalculationLayer layer = retVal.getLayer(l);
+
+                PhysicalStore<Double> layerWeights = layer.getWeightsStore();
+                double[] values = weights.get(l);
+                if (values.length != layerWeights.count()) {
+                    throw new IOException("Corrupt weights!");
+                }
+                for (int i = 0; i < values.length; i++) {
+                    layerWeights.set(i, values[i]);
+                }
+
+                PhysicalStore<Double> layerBias = layer.getBiasStore();
+                values = biases.get(l);
+                if (values.length != layerBias.count()) {
+                    throw new IOException("Corrupt bias!");
+                }
+                for (int i = 0; i < values.length; i++) {
+                    layerBias.set(i, values[i]);
+                }
+            }
+
+            return retVal;
+        }
+
+        static void write(final ArtificialNeuralNetwork network, final DataOutput output) throws IOException {
+
+            boolean singlePrecision = network.newStore(1, 1) instanceof R032Store;
+
+            output.writeBoolean(singlePrecision);
+
+            int numberOfLayers = network.depth();
+
+            output.writeInt(numberOfLayers);
+
+            for (int l = 0; l < numberOfLayers; l++) {
+
+                CalculationLayer layer = network.getLayer(l);
+
+                output.writeUTF(layer.getType().name());
+
+                output.writeInt(layer.countInputNodes());
+                output.writeInt(layer.countOutputNodes());
+
+                int[] parameters = layer.getParameters();
+                output.writeInt(parameters.length);
+                for (int p = 0; p < parameters.length; p++) {
+                    output.writeInt(parameters[p]);
+                }
+
+                PhysicalStore<Double> weights = layer.getWeightsStore();
+                output.writeInt(Math.toIntExact(weights.count()));
+                for (long i = 0L, limit = weights.count(); i < limit; i++) {
+                    if (singlePrecision) {
+                        output.writeFloat(weights.floatValue(i));
+                    } else {
+                        output.writeDouble(weights.doubleValue(i));
+                    }
+                }
+
+                PhysicalStore<Double> bias = layer.getBiasStore();
+                output.writeInt(Math.toIntExact(bias.count()));
+                for (long i = 0L, limit = bias.count(); i < limit; i++) {
+                    if (singlePrecision) {
+                        output.writeFloat(bias.floatValue(i));
+                    } else {
+                        output.writeDouble(bias.doubleValue(i));
+                    }
+                }
+
+                output.writeUTF(layer.getActivator().name());
+            }
+        }
+
+    }
+
     private static final String FORMAT = "ojAlgo ANN";
 
     static ArtificialNeuralNetwork read(final PhysicalStore.Factory<Double, ?> factory, final DataInput input) throws IOException {
@@ -197,6 +326,8 @@ abstract class FileFormat {
                 return Version1.read(factory, input);
             case Version2.ID:
                 return Version2.read(factory, input);
+            case Version3.ID:
+                return Version3.read(factory, input);
             default:
                 throw new IOException("Unsupported version!");
         }
@@ -215,6 +346,9 @@ abstract class FileFormat {
             case Version2.ID:
                 Version2.write(network, output);
                 break;
+            case Version3.ID:
+                Version3.write(network, output);
+                break;
             default:
                 throw new IOException("Unsupported version!");
         }
@@ -21,19 +21,55 @@
  */
 package org.ojalgo.ann;
 
+import java.util.Arrays;
+
 import org.ojalgo.ann.ArtificialNeuralNetwork.Activator;
+import org.ojalgo.matrix.store.PhysicalStore;
 
 final class LayerTemplate {
 
+    /**
+     * The kinds of calculation layers. The (int) parameters needed to recreate a layer, in addition to its
+     * weights and bias, are specific to each type.
+     */
+    enum Type {
+
+        /**
+         * No parameters
+         */
+        DENSE,
+        /**
+         * height, width, channels, kernel height, kernel width, filters, stride, padding
+         */
+        CONVOLUTION,
+        /**
+         * height, width, channels, size, stride
+         */
+        MAX_POOLING,
+        /**
+         * height, width, channels, size, stride
+         */
+        AVERAGE_POOLING;
+
+    }
+
     final ArtificialNeuralNetwork.Activator activator;
     final int inputs;
     final int outputs;
+    final int[] parameters;
+    final Type type;
 
     LayerTemplate(final int pInputs, final int pOutputs, final Activator pActivator) {
+        this(Type.DENSE, pInputs, pOutputs, pActivator);
+    }
+
+    LayerTemplate(final Type type, final int inputs, final int outputs, final Activator activator, final int... parameters) {
         super();
-        inputs = pInputs;
-        outputs = pOutputs;
-        activator = pActivator;
+        this.type = type;
+        this.inputs = inputs;
+        this.outputs = outputs;
+        this.activator = activator;
+        this.parameters = parameters;
     }
 
     @Override
@@ -54,6 +90,12 @@ final class LayerTemplate {
         if (outputs != other.outputs) {
             return false;
         }
+        if (type != other.type) {
+            return false;
+        }
+        if (!Arrays.equals(parameters, other.parameters)) {
+            return false;
+        }
         return true;
     }
 
@@ -64,7 +106,22 @@ final class LayerTemplate {
         result = (prime * result) + ((activator == null) ? 0 : activator.hashCode());
         result = (prime * result) + inputs;
         result = (prime * result) + outputs;
+        result = (prime * result) + Arrays.hashCode(parameters);
+        result = (prime * result) + ((type == null) ? 0 : type.hashCode());
         return result;
     }
 
+    CalculationLayer newLayer(final PhysicalStore.Factory<Double, ?> factory) {
+        switch (type) {
+            case CONVOLUTION:
+                return new ConvolutionLayer(factory, activator, parameters);
+            case MAX_POOLING:
+                return new PoolingLayer(factory, true, parameters);
+            case AVERAGE_POOLING:
+                return new PoolingLayer(factory, false, parameters);
+            default:
+                return new CalculationLayer(factory, inputs, outputs, activator);
+        }
+    }
+
 }
@@ -22,6 +22,7 @@
 package org.ojalgo.ann;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.function.Supplier;
 
@@ -38,6 +39,10 @@ public final class NetworkBuilder implements Supplier<ArtificialNeuralNetwork> {
     private final PhysicalStore.Factory<Double, ?> myFactory;
     private final List<LayerTemplate> myLayers = new ArrayList<>();
     private int myNextInputs = 0;
+    /**
+     * height, width, channels – null when the next input is not spatial
+     */
+    private int[] myNextShape = null;
 
     NetworkBuilder(final PhysicalStore.Factory<Double, ?> factory, final int networkInputs) {
         super();
@@ -45,6 +50,71 @@ public final class NetworkBuilder implements Supplier<ArtificialNeuralNetwork> {
         myNextInputs = networkInputs;
     }
 
+    NetworkBuilder(final PhysicalStore.Factory<Double, ?> factory, final int height, final int width, final int channels) {
+        this(factory, height * width * channels);
+        myNextShape = new int[] { height, width, channels };
+    }
+
+    /**
+     * Average pooling with stride equal to the size.
+     *
+     * @see #averagePooling(int, int)
+     */
+    public NetworkBuilder averagePooling(final int size) {
+        return this.averagePooling(size, size);
+    }
+
+    /**
+     * @see #maxPooling(int, int)
+     */
+    public NetworkBuilder averagePooling(final int size, final int stride) {
+        return this.pooling(LayerTemplate.Type.AVERAGE_POOLING, size, stride);
+    }
+
+    /**
+     * A 2D convolution with stride 1 and no padding.
+     *
+     * @see #convolution(int, int, int, int, Activator)
+     */
+    public NetworkBuilder convolution(final int filters, final int kernelSize, final Activator activator) {
+        return this.convolution(filters, kernelSize, 1, 0, activator);
+    }
+
+    /**
+     * A 2D convolution layer. Requires spatial input – the network must have been built with a spatial input
+     * shape, and the previous layer must be a convolution or pooling layer.
+     *
+     * @param filters The number of filters (output channels)
+     * @param kernelSize The kernels are kernelSize x kernelSize (x input channels)
+     * @param stride The step between kernel positions
+     * @param padding The number of zeros added to each side of the input
+     * @param activator Any activator except {@link Activator#SOFTMAX}
+     */
+    public NetworkBuilder convolution(final int filters, final int kernelSize, final int stride, final int padding, final Activator activator) {
+
+        int[] shape = this.getSpatialShape();
+
+        if (!activator.isSingleFolded()) {
+            throw new IllegalArgumentException("Not supported for convolution: " + activator);
+        }
+
+        int outputHeight = ConvolutionLayer.countOutputs(shape[0], kernelSize, stride, padding);
+        int outputWidth = ConvolutionLayer.countOutputs(shape[1], kernelSize, stride, padding);
+        if (filters <= 0 || kernelSize <= 0 || stride <= 0 || padding < 0 || outputHeight <= 0 || outputWidth <= 0) {
+            throw new IllegalArgumentException();
+        }
+
+        int outputs = outputHeight * outputWidth * filters;
+
+        myLayers.add(new LayerTemplate(LayerTemplate.Type.CONVOLUTION, myNextInputs, outputs, activator, shape[0], shape[1], shape[2], kernelSize, kernelSize,
+                filters, stride, padding));
+
+        myNextInputs = outputs;
+        myNextShape = new int[] { outputHeight, outputWidth, filters };
+
+        return this;
+    }
+
     @Override
     public boolean equals(final Object obj) {
         if (this == obj) {
@@ -54,7 +124,7 @@ public final class NetworkBuilder implements Supplier<ArtificialNeuralNetwork> {
             return false;
         }
         NetworkBuilder other = (NetworkBuilder) obj;
-        if (myNextInputs != other.myNextInputs) {
+        if (myNextInputs != other.myNextInputs || !Arrays.equals(myNextShape, other.myNextShape)) {
             return false;
         }
         if (myFactory == null) {
@@ -70,6 +140,16 @@ public final class NetworkBuilder implements Supplier<ArtificialNeuralNetwork> {
         return true;
     }
 
+    /**
+     * Marks the end of the spatial (convolution and pooling) part of the network. The data is already stored
+     * as flat vectors, so this does not add a calculation layer – it just drops the spatial shape. Adding an
+     * ordinary (dense) layer implicitly does the same.
+     */
+    public NetworkBuilder flatten() {
+        myNextShape = null;
+        return this;
+    }
+
     public ArtificialNeuralNetwork get() {
         ArtificialNeuralNetwork network = new ArtificialNeuralNetwork(this);
         network.randomise();
@@ -83,6 +163,7 @@ public final class NetworkBuilder implements Supplier<ArtificialNeuralNetwork> {
         result = (prime * result) + ((myFactory == null) ? 0 : myFactory.hashCode());
         result = (prime * result) + myLayers.hashCode();
         result = (prime * result) + myNextInputs;
+        result = (prime * result) + Arrays.hashCode(myNextShape);
         return result;
     }
 
@@ -93,9 +174,26 @@ public final class NetworkBuilder implements Supplier<ArtificialNeuralNetwork> {
     public NetworkBuilder layer(final int outputs, final Activator activator) {
         myLayers.add(new LayerTemplate(myNextInputs, outputs, activator));
         myNextInputs = outputs;
+        myNextShape = null;
         return this;
     }
 
+    /**
+     * Max pooling with stride equal to the size.
+     *
+     * @see #maxPooling(int, int)
+     */
+    public NetworkBuilder maxPooling(final int size) {
+        return this.maxPooling(size, size);
+    }
+
+    /**
+     * Pooling over size x size windows, separately for each channel. Requires spatial input.
+     */
+    public NetworkBuilder maxPooling(final int size, final int stride) {
+        return this.pooling(LayerTemplate.Type.MAX_POOLING, size, stride);
+    }
+
     PhysicalStore.Factory<Double, ?> getFactory() {
         return myFactory;
     }
@@ -104,4 +202,31 @@ public final class NetworkBuilder implements Supplier<ArtificialNeuralNetwork> {
         return myLayers;
     }
 
+    private int[] getSpatialShape() {
+        if (myNextShape == null) {
+            throw new IllegalStateException("Requires spatial input!");
+        }
+        return myNextShape;
+    }
+
+    private NetworkBuilder pooling(final LayerTemplate.Type type, final int size, final int stride) {
+
+        int[] shape = this.getSpatialShape();
+
+        int outputHeight = ConvolutionLayer.countOutputs(shape[0], size, stride, 0);
+        int outputWidth = ConvolutionLayer.countOutputs(shape[1], size, stride, 0);
+        if (size <= 0 || stride <= 0 || outputHeight <= 0 || outputWidth <= 0) {
+            throw new IllegalArgumentException();
+        }
+
+        int outputs = outputHeight * outputWidth * shape[2];
+
+        myLayers.add(new LayerTemplate(type, myNextInputs, outputs, Activator.IDENTITY, shape[0], shape[1], shape[2], size, stride));
+
+        myNextInputs = outputs;
+        myNextShape = new int[] { outputHeight, outputWidth, shape[2] };
+
+        return this;
+    }
+
 }
@@ -21,12 +21,19 @@
  */
 package org.ojalgo.ann;
 
+import static org.ojalgo.function.constant.PrimitiveMath.*;
+
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
+import java.util.List;
+import java.util.function.IntToDoubleFunction;
 
 import org.ojalgo.ann.ArtificialNeuralNetwork.Activator;
 import org.ojalgo.ann.ArtificialNeuralNetwork.Error;
+import org.ojalgo.concurrent.ProcessingService;
 import org.ojalgo.data.DataBatch;
+import org.ojalgo.function.aggregator.Aggregator;
 import org.ojalgo.matrix.store.MatrixStore;
 import org.ojalgo.matrix.store.PhysicalStore;
 import org.ojalgo.structure.Access1D;
@@ -40,8 +47,75 @@ import org.ojalgo.structure.Structure2D;
  */
 public final class NetworkTrainer extends WrappedANN {
 
+    /**
+     * A worker replica used for data-parallel training. It has its own activation and gradient buffers, and
+     * calculates the weight and bias gradients for a contiguous range of rows (examples) of each batch. The
+     * network itself is only read.
+     */
+    static final class Shard extends WrappedANN {
+
+        private final List<PhysicalStore<Double>> myBiasGradients;
+        private final int myFirst;
+        private final List<PhysicalStore<Double>> myGradients;
+        private final int myLimit;
+        private final List<PhysicalStore<Double>> myWeightsGradients;
+
+        Shard(final ArtificialNeuralNetwork network, final int first, final int limit) {
+
+            super(network, limit - first);
+
+            myFirst = first;
+            myLimit = limit;
+
+            int depth = network.depth();
+
+            myGradients = new ArrayList<>(depth);
+            myWeightsGradients = new ArrayList<>(depth);
+            myBiasGradients = new ArrayList<>(depth);
+            Structure2D[] structure = network.structure();
+
+            for (int l = 0; l < depth; l++) {
+                int nbRows = Math.toIntExact(structure[l].countRows());
+                int nbCols = Math.toIntExact(structure[l].countColumns());
+                myGradients.add(network.newStore(network.countOutputNodes(l), limit - first));
+                myWeightsGradients.add(network.newStore(nbRows, nbCols));
+                myBiasGradients.add(network.newStore(1, nbCols));
+            }
+        }
+
+        void calculate(final MatrixStore<Double> batchInput, final MatrixStore<Double> batchTarget, final ArtificialNeuralNetwork.Error error) {
+
+            MatrixStore<Double> current = this.propagate(batchInput.limits(myLimit, -1).offsets(myFirst, -1));
+
+            myGradients.get(myGradients.size() - 1).regionByTransposing().fillMatching(batchTarget.limits(myLimit, -1).offsets(myFirst, -1),
+                    error.getDerivative(), current);
+
+            for (int l = this.depth() - 1; l >= 0; l--) {
+
+                PhysicalStore<Double> upstreamGradient = l == 0 ? null : myGradients.get(l - 1);
+
+                this.backpropagate(l, this.getInput(l), this.getOutput(l), upstreamGradient, myGradients.get(l), myWeightsGradients.get(l),
+                        myBiasGradients.get(l));
+            }
+        }
+
+        PhysicalStore<Double> getBiasGradient(final int layer) {
+            return myBiasGradients.get(layer);
+        }
+
+        PhysicalStore<Double> getWeightsGradient(final int layer) {
+            return myWeightsGradients.get(layer);
+        }
+
+    }
+
+    private PhysicalStore<Double> myBatchInput = null;
+    private PhysicalStore<Double> myBatchTarget = null;
     private final TrainingConfiguration myConfiguration = new TrainingConfiguration();
     private final PhysicalStore<Double>[] myGradients;
+    private Shard[] myShards = null;
+    private int myUpdates = 0;
+    private int myWorkers = 1;
 
     NetworkTrainer(final ArtificialNeuralNetwork network, final int batchSize) {
 
@@ -93,6 +167,15 @@ public final class NetworkTrainer extends WrappedANN {
         return this;
     }
 
+    /**
+     * Gradient clipping: If the (global, all layers) L2 norm of the gradients is larger than the specified
+     * value, they are scaled down to that norm.
+     */
+    public NetworkTrainer clipping(final double maxNorm) {
+        myConfiguration.clipping = maxNorm;
+        return this;
+    }
+
     public NetworkTrainer dropouts() {
         myConfiguration.dropouts = true;
         return this;
@@ -151,6 +234,38 @@ public final class NetworkTrainer extends WrappedANN {
         return super.newOutputBatch();
     }
 
+    /**
+     * The optimiser used to update the weights. The default is {@link Optimiser#SGD}.
+     */
+    public NetworkTrainer optimiser(final Optimiser optimiser) {
+        myConfiguration.optimiser = optimiser;
+        return this;
+    }
+
+    /**
+     * Data-parallel training: Each batch is split in (contiguous) shards that are processed by separate
+     * workers, each with its own activation and gradient buffers. The gradients calculated by the workers are
+     * then reduced, in a fixed order, and applied to the network in a single update. The result is (apart from
+     * floating-point rounding) the same as training without parallelism, and it is deterministic for a given
+     * number of workers (unless using dropouts).
+     *
+     * @param workers The number of workers (shards) to split each batch into. 1 means no parallelism, and it
+     *        can't be larger than the batch size.
+     */
+    public NetworkTrainer parallelism(final int workers) {
+
+        int batchSize = this.getBatchSize();
+
+        if (workers < 1 || workers > batchSize) {
+            throw new IllegalArgumentException("The number of workers must be in the range [1," + batchSize + "]!");
+        }
+
+        myWorkers = workers;
+        myShards = null;
+
+        return this;
+    }
+
     public NetworkTrainer rate(final double rate) {
         myConfiguration.learningRate = rate;
         return this;
@@ -165,6 +280,16 @@ public final class NetworkTrainer extends WrappedANN {
         return this;
     }
 
+    /**
+     * Learning rate schedule: The learning rate used for an update is the one set using {@link #rate(double)}
+     * multiplied by the value of this function for the (0-based) update count. For instance exponential
+     * decay could be specified as <code>step -> Math.pow(0.99, step)</code>.
+     */
+    public NetworkTrainer schedule(final IntToDoubleFunction multiplier) {
+        myConfiguration.schedule = multiplier;
+        return this;
+    }
+
     @Override
     public Structure2D[] structure() {
         return super.structure();
@@ -193,6 +318,11 @@ public final class NetworkTrainer extends WrappedANN {
      */
     public void train(final Access1D<Double> givenInput, final Access1D<Double> targetOutput) {
 
+        if (myWorkers > 1 || myConfiguration.isGradientBased()) {
+            this.train(this.getShards(), givenInput, targetOutput);
+            return;
+        }
+
         MatrixStore<Double> current = this.invoke(givenInput, myConfiguration);
 
         myGradients[myGradients.length - 1].regionByTransposing().fillMatching(targetOutput, myConfiguration.error.getDerivative(), current);
@@ -231,6 +361,80 @@ public final class NetworkTrainer extends WrappedANN {
         return this;
     }
 
+    private void train(final Shard[] shards, final Access1D<Double> givenInput, final Access1D<Double> targetOutput) {
+
+        int batchSize = this.getBatchSize();
+        int depth = this.depth();
+
+        MatrixStore<Double> input;
+        if (givenInput instanceof MatrixStore && ((MatrixStore<Double>) givenInput).getRowDim() == batchSize) {
+            input = (MatrixStore<Double>) givenInput;
+        } else {
+            if (myBatchInput == null) {
+                myBatchInput = this.newStore(batchSize, this.get().countInputNodes());
+            }
+            myBatchInput.fillMatching(givenInput);
+            input = myBatchInput;
+        }
+        if (myBatchTarget == null) {
+            myBatchTarget = this.newStore(batchSize, this.get().countOutputNodes());
+        }
+        myBatchTarget.fillMatching(targetOutput);
+
+        this.setConfiguration(myConfiguration);
+
+        ProcessingService.INSTANCE.divider().parallelism(() -> shards.length).threshold(1).divide(0, shards.length, (first, limit) -> {
+            for (int s = first; s < limit; s++) {
+                shards[s].calculate(input, myBatchTarget, myConfiguration.error);
+            }
+        });
+
+        for (int l = 0; l < depth; l++) {
+            PhysicalStore<Double> weightsGradient = shards[0].getWeightsGradient(l);
+            PhysicalStore<Double> biasGradient = shards[0].getBiasGradient(l);
+            for (int s = 1; s < shards.length; s++) {
+                weightsGradient.modifyMatching(ADD, shards[s].getWeightsGradient(l));
+                biasGradient.modifyMatching(ADD, shards[s].getBiasGradient(l));
+            }
+        }
+
+        double gradientScale = ONE;
+        if (myConfiguration.clipping > ZERO) {
+            double sumOfSquares = ZERO;
+            for (int l = 0; l < depth; l++) {
+                double weightsNorm = shards[0].getWeightsGradient(l).aggregateAll(Aggregator.NORM2).doubleValue();
+                double biasNorm = shards[0].getBiasGradient(l).aggregateAll(Aggregator.NORM2).doubleValue();
+                sumOfSquares += weightsNorm * weightsNorm + biasNorm * biasNorm;
+            }
+            double norm = Math.sqrt(sumOfSquares);
+            if (norm > myConfiguration.clipping) {
+                gradientScale = myConfiguration.clipping / norm;
+            }
+        }
+
+        double rate = myConfiguration.learningRate;
+        if (myConfiguration.schedule != null) {
+            rate *= myConfiguration.schedule.applyAsDouble(myUpdates);
+        }
+        myUpdates++;
+
+        for (int l = 0; l < depth; l++) {
+            this.update(l, shards[0].getWeightsGradient(l), shards[0].getBiasGradient(l), gradientScale, rate);
+        }
+    }
+
+    private Shard[] getShards() {
+        if (myShards == null) {
+            int batchSize = this.getBatchSize();
+            ArtificialNeuralNetwork network = this.get();
+            myShards = new Shard[myWorkers];
+            for (int s = 0; s < myWorkers; s++) {
+                myShards[s] = new Shard(network, s * batchSize / myWorkers, (s + 1) * batchSize / myWorkers);
+            }
+        }
+        return myShards;
+    }
+
     double error(final Access1D<?> target, final Access1D<?> current) {
         return myConfiguration.error.invoke(target, current);
     }
@@ -0,0 +1,213 @@
+/*
+ * Copyright 1997-2025 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.ann;
+
+import static org.ojalgo.function.constant.PrimitiveMath.*;
+
+import java.util.function.DoubleUnaryOperator;
+
+import org.ojalgo.array.ArrayR064;
+import org.ojalgo.matrix.store.PhysicalStore;
+import org.ojalgo.structure.Access1D;
+
+/**
+ * How the (back-propagated) gradients are used to update the weights and biases of the network. Apart from
+ * plain (stochastic) gradient descent the optimisers keep per-parameter state – first and/or second moments
+ * of the gradients. That state is kept, per {@link CalculationLayer}, by the network.
+ * <p>
+ * Each update is a single pass over the parameters, fusing regularisation, moment updates and parameter
+ * updates, without allocating anything.
+ *
+ * @see NetworkTrainer#optimiser(Optimiser)
+ * @author apete
+ */
+public final class Optimiser {
+
+    enum Type {
+        ADAM, MOMENTUM, RMSPROP, SGD;
+    }
+
+    /**
+     * Plain gradient descent – no state. This is the default.
+     */
+    public static final Optimiser SGD = new Optimiser(Type.SGD, ZERO, ZERO);
+
+    private static final double EPSILON = 1E-8;
+
+    /**
+     * Adam with the commonly used default decay rates 0.9 and 0.999
+     */
+    public static Optimiser adam() {
+        return Optimiser.adam(0.9, 0.999);
+    }
+
+    /**
+     * @param beta1 Decay rate of the first moment (mean) estimates
+     * @param beta2 Decay rate of the second moment (uncentered variance) estimates
+     */
+    public static Optimiser adam(final double beta1, final double beta2) {
+        return new Optimiser(Type.ADAM, beta1, beta2);
+    }
+
+    /**
+     * Momentum with the commonly used default 0.9
+     */
+    public static Optimiser momentum() {
+        return Optimiser.momentum(0.9);
+    }
+
+    /**
+     * @param momentum How much of the previous update "velocity" to keep (in the range [0,1))
+     */
+    public static Optimiser momentum(final double momentum) {
+        return new Optimiser(Type.MOMENTUM, momentum, ZERO);
+    }
+
+    /**
+     * RMSProp with the commonly used default decay rate 0.9
+     */
+    public static Optimiser rmsprop() {
+        return Optimiser.rmsprop(0.9);
+    }
+
+    /**
+     * @param decay Decay rate of the moving average of the squared gradients
+     */
+    public static Optimiser rmsprop(final double decay) {
+        return new Optimiser(Type.RMSPROP, ZERO, decay);
+    }
+
+    private final double myBeta1;
+    private final double myBeta2;
+    private final Type myType;
+
+    private Optimiser(final Type type, final double beta1, final double beta2) {
+
+        super();
+
+        if (beta1 < ZERO || beta1 >= ONE || beta2 < ZERO || beta2 >= ONE) {
+            throw new IllegalArgumentException("Decay rates must be in the range [0,1)!");
+        }
+
+        myType = type;
+        myBeta1 = beta1;
+        myBeta2 = beta2;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof Optimiser)) {
+            return false;
+        }
+        Optimiser other = (Optimiser) obj;
+        return myType == other.myType && Double.doubleToLongBits(myBeta1) == Double.doubleToLongBits(other.myBeta1)
+                && Double.doubleToLongBits(myBeta2) == Double.doubleToLongBits(other.myBeta2);
+    }
+
+    @Override
+    public int hashCode() {
+        final int prime = 31;
+        int result = 1;
+        long temp;
+        temp = Double.doubleToLongBits(myBeta1);
+        result = prime * result + (int) (temp ^ temp >>> 32);
+        temp = Double.doubleToLongBits(myBeta2);
+        result = prime * result + (int) (temp ^ temp >>> 32);
+        return prime * result + (myType == null ? 0 : myType.hashCode());
+    }
+
+    @Override
+    public String toString() {
+        return myType + " [beta1=" + myBeta1 + ", beta2=" + myBeta2 + "]";
+    }
+
+    private double delta(final double gradient, final double[] first, final double[] second, final int index, final double correction1,
+            final double correction2) {
+        switch (myType) {
+        case MOMENTUM:
+            return first[index] = myBeta1 * first[index] + gradient;
+        case RMSPROP:
+            second[index] = myBeta2 * second[index] + (ONE - myBeta2) * gradient * gradient;
+            return gradient / (Math.sqrt(second[index]) + EPSILON);
+        case ADAM:
+            first[index] = myBeta1 * first[index] + (ONE - myBeta1) * gradient;
+            second[index] = myBeta2 * second[index] + (ONE - myBeta2) * gradient * gradient;
+            return first[index] / correction1 / (Math.sqrt(second[index] / correction2) + EPSILON);
+        default:
+            return gradient;
+        }
+    }
+
+    boolean isStateful() {
+        return myType != Type.SGD;
+    }
+
+    /**
+     * @param parameters The weights or biases to update
+     * @param gradient The gradient (same shape as the parameters)
+     * @param gradientScale Gradient multiplier (used for clipping)
+     * @param learningRate Step size, including sign (negative to descend)
+     * @param regularisation Added to the gradient, may be null
+     * @param first First moments, null when not stateful
+     * @param second Second moments, null when not stateful
+     * @param offset Where in the moment arrays this set of parameters starts
+     * @param step The 1-based update count (used for Adam's bias correction)
+     */
+    void update(final PhysicalStore<Double> parameters, final Access1D<Double> gradient, final double gradientScale, final double learningRate,
+            final DoubleUnaryOperator regularisation, final double[] first, final double[] second, final int offset, final int step) {
+
+        double correction1 = ONE - Math.pow(myBeta1, step);
+        double correction2 = ONE - Math.pow(myBeta2, step);
+
+        int limit = Math.toIntExact(parameters.count());
+
+        if (parameters instanceof ArrayR064 && gradient instanceof ArrayR064) {
+
+            double[] values = ((ArrayR064) parameters).data;
+            double[] gradients = ((ArrayR064) gradient).data;
+
+            for (int k = 0; k < limit; k++) {
+                double value = values[k];
+                double grad = gradientScale * gradients[k];
+                if (regularisation != null) {
+                    grad += regularisation.applyAsDouble(value);
+                }
+                values[k] = value + learningRate * this.delta(grad, first, second, offset + k, correction1, correction2);
+            }
+
+        } else {
+
+            for (int k = 0; k < limit; k++) {
+                double value = parameters.doubleValue(k);
+                double grad = gradientScale * gradient.doubleValue(k);
+                if (regularisation != null) {
+                    grad += regularisation.applyAsDouble(value);
+                }
+                parameters.set(k, value + learningRate * this.delta(grad, first, second, offset + k, correction1, correction2));
+            }
+        }
+    }
+
+}
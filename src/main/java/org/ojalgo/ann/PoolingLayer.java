@@ -0,0 +1,206 @@
+/*
+ * Copyright 1997-2025 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.ann;
+
+import static org.ojalgo.function.constant.PrimitiveMath.*;
+
+import java.util.function.DoubleUnaryOperator;
+
+import org.ojalgo.matrix.store.PhysicalStore;
+
+/**
+ * Max or average pooling over (square) windows, separately for each channel. Uses the same channel-last
+ * layout as {@link ConvolutionLayer}. There are no weights or bias (they are empty) and the activator is
+ * always {@link ArtificialNeuralNetwork.Activator#IDENTITY}.
+ */
+final class PoolingLayer extends CalculationLayer {
+
+    private final int myChannels;
+    private final int myHeight;
+    private final boolean myMax;
+    private final int myOutputHeight;
+    private final int myOutputWidth;
+    private final int mySize;
+    private final int myStride;
+    private final int myWidth;
+
+    PoolingLayer(final PhysicalStore.Factory<Double, ?> factory, final boolean max, final int... parameters) {
+
+        super(factory, 0, 0, ArtificialNeuralNetwork.Activator.IDENTITY);
+
+        myMax = max;
+
+        myHeight = parameters[0];
+        myWidth = parameters[1];
+        myChannels = parameters[2];
+        mySize = parameters[3];
+        myStride = parameters[4];
+
+        myOutputHeight = ConvolutionLayer.countOutputs(myHeight, mySize, myStride, 0);
+        myOutputWidth = ConvolutionLayer.countOutputs(myWidth, mySize, myStride, 0);
+
+        if (myOutputHeight <= 0 || myOutputWidth <= 0 || myStride <= 0) {
+            throw new IllegalArgumentException();
+        }
+    }
+
+    @Override
+    void adjust(final PhysicalStore<Double> input, final PhysicalStore<Double> output, final PhysicalStore<Double> upstreamGradient,
+            final PhysicalStore<Double> downstreamGradient, final double learningRate, final double dropoutsFactor, final DoubleUnaryOperator regularisation) {
+        this.backpropagate(input, output, upstreamGradient, downstreamGradient, dropoutsFactor, null, null);
+    }
+
+    /**
+     * Max pooling passes the gradient to the (first) input that was the max, average pooling distributes it
+     * evenly over the window.
+     */
+    @Override
+    void backpropagate(final PhysicalStore<Double> input, final PhysicalStore<Double> output, final PhysicalStore<Double> upstreamGradient,
+            final PhysicalStore<Double> downstreamGradient, final double dropoutsFactor, final PhysicalStore<Double> weightsGradient,
+            final PhysicalStore<Double> biasGradient) {
+
+        if (upstreamGradient == null) {
+            return;
+        }
+
+        upstreamGradient.fillAll(ZERO);
+
+        double share = ONE / (mySize * mySize);
+
+        for (int b = 0, batchSize = input.getRowDim(); b < batchSize; b++) {
+            for (int oy = 0; oy < myOutputHeight; oy++) {
+                for (int ox = 0; ox < myOutputWidth; ox++) {
+                    for (int c = 0; c < myChannels; c++) {
+
+                        double gradient = downstreamGradient.doubleValue((oy * myOutputWidth + ox) * myChannels + c, b);
+
+                        if (myMax) {
+                            int argMax = this.findMax(input, b, oy, ox, c);
+                            upstreamGradient.add(argMax, b, gradient);
+                        } else {
+                            for (int dy = 0; dy < mySize; dy++) {
+                                for (int dx = 0; dx < mySize; dx++) {
+                                    int y = oy * myStride + dy;
+                                    int x = ox * myStride + dx;
+                                    upstreamGradient.add((y * myWidth + x) * myChannels + c, b, share * gradient);
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    int countInputNodes() {
+        return myHeight * myWidth * myChannels;
+    }
+
+    @Override
+    int countOutputNodes() {
+        return myOutputHeight * myOutputWidth * myChannels;
+    }
+
+    @Override
+    int[] getParameters() {
+        return new int[] { myHeight, myWidth, myChannels, mySize, myStride };
+    }
+
+    @Override
+    LayerTemplate.Type getType() {
+        return myMax ? LayerTemplate.Type.MAX_POOLING : LayerTemplate.Type.AVERAGE_POOLING;
+    }
+
+    @Override
+    PhysicalStore<Double> invoke(final PhysicalStore<Double> input, final PhysicalStore<Double> output) {
+
+        double share = ONE / (mySize * mySize);
+
+        for (int b = 0, batchSize = input.getRowDim(); b < batchSize; b++) {
+            for (int oy = 0; oy < myOutputHeight; oy++) {
+                for (int ox = 0; ox < myOutputWidth; ox++) {
+                    for (int c = 0; c < myChannels; c++) {
+
+                        double value;
+                        if (myMax) {
+                            value = input.doubleValue(b, this.findMax(input, b, oy, ox, c));
+                        } else {
+                            value = ZERO;
+                            for (int dy = 0; dy < mySize; dy++) {
+                                for (int dx = 0; dx < mySize; dx++) {
+                                    value += input.doubleValue(b, ((oy * myStride + dy) * myWidth + ox * myStride + dx) * myChannels + c);
+                                }
+                            }
+                            value *= share;
+                        }
+
+                        output.set(b, (oy * myOutputWidth + ox) * myChannels + c, value);
+                    }
+                }
+            }
+        }
+
+        return output;
+    }
+
+    @Override
+    PhysicalStore<Double> invoke(final PhysicalStore<Double> input, final PhysicalStore<Double> output, final double probabilityToKeep) {
+
+        if (ZERO >= probabilityToKeep || probabilityToKeep > ONE) {
+            throw new IllegalArgumentException();
+        }
+
+        this.invoke(input, output);
+        output.modifyAll(NodeDropper.of(probabilityToKeep));
+
+        return output;
+    }
+
+    @Override
+    void randomise() {
+        // No weights
+    }
+
+    /**
+     * @return The input index of the max value in the window
+     */
+    private int findMax(final PhysicalStore<Double> input, final int b, final int oy, final int ox, final int c) {
+
+        int retVal = -1;
+        double max = NEGATIVE_INFINITY;
+
+        for (int dy = 0; dy < mySize; dy++) {
+            for (int dx = 0; dx < mySize; dx++) {
+                int index = ((oy * myStride + dy) * myWidth + ox * myStride + dx) * myChannels + c;
+                double value = input.doubleValue(b, index);
+                if (retVal < 0 || value > max) {
+                    max = value;
+                    retVal = index;
+                }
+            }
+        }
+
+        return retVal;
+    }
+
+}
@@ -23,17 +23,28 @@ package org.ojalgo.ann;
 
 import static org.ojalgo.function.constant.PrimitiveMath.*;
 
+import java.util.Objects;
 import java.util.function.DoubleUnaryOperator;
+import java.util.function.IntToDoubleFunction;
 
 final class TrainingConfiguration {
 
+    /**
+     * Max (global, all layers) L2 norm of the gradients. Larger gradients are scaled down. 0 means no clipping.
+     */
+    double clipping = ZERO;
     boolean dropouts = false;
     ArtificialNeuralNetwork.Error error = ArtificialNeuralNetwork.Error.HALF_SQUARED_DIFFERENCE;
     double learningRate = HUNDREDTH;
+    Optimiser optimiser = Optimiser.SGD;
     boolean regularisationL1 = false;
     double regularisationL1Factor = ZERO;
     boolean regularisationL2 = false;
     double regularisationL2Factor = ZERO;
+    /**
+     * Learning rate multiplier as a function of the (0-based) update count. null means constant rate.
+     */
+    IntToDoubleFunction schedule = null;
 
     TrainingConfiguration() {
         super();
@@ -61,6 +72,10 @@ final class TrainingConfiguration {
         if (Double.doubleToLongBits(regularisationL2Factor) != Double.doubleToLongBits(other.regularisationL2Factor)) {
             return false;
         }
+        if (Double.doubleToLongBits(clipping) != Double.doubleToLongBits(other.clipping) || !optimiser.equals(other.optimiser)
+                || !Objects.equals(schedule, other.schedule)) {
+            return false;
+        }
         return true;
     }
 
@@ -78,7 +93,11 @@ final class TrainingConfiguration {
         result = (prime * result) + (int) (temp ^ (temp >>> 32));
         result = (prime * result) + (regularisationL2 ? 1231 : 1237);
         temp = Double.doubleToLongBits(regularisationL2Factor);
-        return (prime * result) + (int) (temp ^ (temp >>> 32));
+        result = (prime * result) + (int) (temp ^ (temp >>> 32));
+        temp = Double.doubleToLongBits(clipping);
+        result = (prime * result) + (int) (temp ^ (temp >>> 32));
+        result = (prime * result) + optimiser.hashCode();
+        return (prime * result) + Objects.hashCode(schedule);
     }
 
     private double doL1(final double current) {
@@ -93,6 +112,14 @@ final class TrainingConfiguration {
         return regularisationL2Factor * current;
     }
 
+    /**
+     * @return true if the gradients need to be calculated separately before the weights are updated – if
+     *         anything other than plain SGD with a constant learning rate is configured
+     */
+    boolean isGradientBased() {
+        return optimiser.isStateful() || clipping > ZERO || schedule != null;
+    }
+
     /**
      * Used to scale the weights after training with dropouts, and also to adjut the learning rate
      *
@@ -0,0 +1,455 @@
+/*
+ * Copyright 1997-2025 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.ann;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import org.ojalgo.array.ArrayR064;
+import org.ojalgo.concurrent.DaemonPoolExecutor;
+import org.ojalgo.concurrent.Parallelism;
+import org.ojalgo.data.DataBatch;
+import org.ojalgo.data.batch.BatchNode;
+import org.ojalgo.netio.FromFileReader;
+import org.ojalgo.netio.IDX;
+import org.ojalgo.type.keyvalue.EntryPair;
+
+/**
+ * Feeds a {@link NetworkTrainer} from data that does not fit in memory – {@link BatchNode} shards, IDX
+ * files or any other set of {@link FromFileReader} sources.
+ * <p>
+ * Reading, decoding and training overlap: The sources are read in parallel (in a new random order each
+ * epoch) into a bounded queue. A background thread shuffles the items (using a bounded shuffle buffer) and
+ * decodes them into input/output {@link DataBatch} pairs. The pairs are recycled, and at most
+ * {@link Builder#prefetch(int)} of them are prepared ahead of the one currently being trained on. The
+ * trainer itself is only ever called from the thread calling {@link #train()}.
+ * <p>
+ * An incomplete last batch of an epoch is dropped. With shuffling enabled it is different items that are
+ * dropped each epoch.
+ *
+ * @author apete
+ */
+public final class TrainingPipeline<T> {
+
+    public static final class Builder<T> {
+
+        private final Encoder<T> myEncoder;
+        private ExecutorService myExecutor = null;
+        private int myParallelism = Parallelism.CORES.limit(32).getAsInt();
+        private int myPrefetch = 2;
+        private int myQueueCapacity = 1024;
+        private long mySeed = System.nanoTime();
+        private int myShuffle = 1024;
+        private final List<Supplier<? extends FromFileReader<T>>> mySources;
+
+        Builder(final Collection<? extends Supplier<? extends FromFileReader<T>>> sources, final Encoder<T> encoder) {
+            super();
+            mySources = new ArrayList<>(sources);
+            myEncoder = encoder;
+        }
+
+        public TrainingPipeline<T> build(final NetworkTrainer trainer) {
+            return new TrainingPipeline<>(this, trainer);
+        }
+
+        /**
+         * The executor used to run the reader and decoder tasks. There will be {@link #parallelism(int)}
+         * reader tasks and 1 decoder task running at the same time.
+         */
+        public TrainingPipeline.Builder<T> executor(final ExecutorService executor) {
+            myExecutor = executor;
+            return this;
+        }
+
+        /**
+         * How many sources should be read in parallel?
+         */
+        public TrainingPipeline.Builder<T> parallelism(final int parallelism) {
+            if (parallelism < 1) {
+                throw new IllegalArgumentException();
+            }
+            myParallelism = parallelism;
+            return this;
+        }
+
+        /**
+         * The number of batches that may be prepared ahead of the one currently being trained on. The default
+         * is 2.
+         */
+        public TrainingPipeline.Builder<T> prefetch(final int batches) {
+            if (batches < 1) {
+                throw new IllegalArgumentException();
+            }
+            myPrefetch = batches;
+            return this;
+        }
+
+        /**
+         * The maximum number of (read but not yet decoded) items kept in the queue between the readers and
+         * the decoder.
+         */
+        public TrainingPipeline.Builder<T> queue(final int capacity) {
+            if (capacity < 1) {
+                throw new IllegalArgumentException();
+            }
+            myQueueCapacity = capacity;
+            return this;
+        }
+
+        /**
+         * The seed of the random number generator used to shuffle the sources and the items. The order in
+         * which items arrive from parallel readers is not deterministic, so with parallelism greater than 1
+         * the seed does not fully determine the order of the items.
+         */
+        public TrainingPipeline.Builder<T> seed(final long seed) {
+            mySeed = seed;
+            return this;
+        }
+
+        /**
+         * The size of the shuffle buffer. The sources are read in a random order, and the items are shuffled
+         * within a window of this size. The default is 1024. Set it to 0 to turn shuffling off entirely –
+         * then the sources are read in the order they were given.
+         */
+        public TrainingPipeline.Builder<T> shuffle(final int bufferSize) {
+            if (bufferSize < 0) {
+                throw new IllegalArgumentException();
+            }
+            myShuffle = bufferSize;
+            return this;
+        }
+
+    }
+
+    /**
+     * Decodes an item, adding exactly 1 row to each of the input and output batches.
+     */
+    @FunctionalInterface
+    public interface Encoder<T> {
+
+        void encode(T item, DataBatch input, DataBatch output);
+
+    }
+
+    private static final class Batch {
+
+        final DataBatch input;
+        final DataBatch output;
+
+        Batch(final DataBatch input, final DataBatch output) {
+            super();
+            this.input = input;
+            this.output = output;
+        }
+
+        boolean isFull() {
+            return input.isFull();
+        }
+
+        void reset() {
+            input.reset();
+            output.reset();
+        }
+
+    }
+
+    private static final class IDXReader implements FromFileReader<EntryPair<ArrayR064, ArrayR064>> {
+
+        private final FromFileReader<ArrayR064> myInputs;
+        private final FromFileReader<ArrayR064> myOutputs;
+
+        IDXReader(final FromFileReader<ArrayR064> inputs, final FromFileReader<ArrayR064> outputs) {
+            super();
+            myInputs = inputs;
+            myOutputs = outputs;
+        }
+
+        @Override
+        public void close() throws IOException {
+            myInputs.close();
+            myOutputs.close();
+        }
+
+        @Override
+        public EntryPair<ArrayR064, ArrayR064> read() {
+
+            ArrayR064 input = myInputs.read();
+            ArrayR064 output = myOutputs.read();
+
+            if (input == null || output == null) {
+                return null;
+            }
+
+            return EntryPair.of(input, output);
+        }
+
+    }
+
+    private static final Batch END = new Batch(null, null);
+
+    private static volatile ExecutorService EXECUTOR = null;
+
+    /**
+     * One source per shard of the {@link BatchNode}.
+     */
+    public static <T> TrainingPipeline.Builder<T> newBuilder(final BatchNode<T> node, final Encoder<T> encoder) {
+
+        List<Supplier<FromFileReader<T>>> sources = new ArrayList<>();
+        for (File shard : node.shards()) {
+            sources.add(() -> node.newReader(shard));
+        }
+
+        return new TrainingPipeline.Builder<>(sources, encoder);
+    }
+
+    /**
+     * Any collection of sources. Each source is read (from start to end) once per epoch, and the sources
+     * themselves are read in parallel.
+     */
+    public static <T> TrainingPipeline.Builder<T> newBuilder(final Collection<? extends Supplier<? extends FromFileReader<T>>> sources,
+            final Encoder<T> encoder) {
+        return new TrainingPipeline.Builder<>(sources, encoder);
+    }
+
+    /**
+     * A pair of IDX files, such as the MNIST images and labels, where the records of the two files
+     * correspond. The files are split in to the specified number of partitions – each partition is a source
+     * that can be read independently.
+     *
+     * @see IDX#newReader(File, long, long)
+     */
+    public static TrainingPipeline.Builder<EntryPair<ArrayR064, ArrayR064>> newBuilder(final File inputs, final File outputs, final int partitions,
+            final Encoder<EntryPair<ArrayR064, ArrayR064>> encoder) {
+
+        long nbRecords = IDX.countRecords(inputs);
+
+        if (IDX.countRecords(outputs) != nbRecords) {
+            throw new IllegalArgumentException("The files must have the same number of records!");
+        }
+
+        List<Supplier<FromFileReader<EntryPair<ArrayR064, ArrayR064>>>> sources = new ArrayList<>();
+        for (int p = 0; p < partitions; p++) {
+            long first = p * nbRecords / partitions;
+            long limit = (p + 1) * nbRecords / partitions;
+            if (limit > first) {
+                sources.add(() -> new IDXReader(IDX.newReader(inputs, first, limit), IDX.newReader(outputs, first, limit)));
+            }
+        }
+
+        return new TrainingPipeline.Builder<>(sources, encoder);
+    }
+
+    private static ExecutorService executor() {
+        if (EXECUTOR == null) {
+            synchronized (TrainingPipeline.class) {
+                if (EXECUTOR == null) {
+                    EXECUTOR = DaemonPoolExecutor.newCachedThreadPool("ojAlgo-TrainingPipeline");
+                }
+            }
+        }
+        return EXECUTOR;
+    }
+
+    private final Batch[] myBatches;
+    private final Encoder<T> myEncoder;
+    private int myEpochs = 0;
+    private final ExecutorService myExecutor;
+    private final BlockingQueue<Batch> myFree;
+    private final int myParallelism;
+    private final int myQueueCapacity;
+    private final BlockingQueue<Batch> myReady;
+    private final long mySeed;
+    private final int myShuffle;
+    private final List<Supplier<? extends FromFileReader<T>>> mySources;
+    private final NetworkTrainer myTrainer;
+
+    TrainingPipeline(final TrainingPipeline.Builder<T> builder, final NetworkTrainer trainer) {
+
+        super();
+
+        myTrainer = trainer;
+
+        myEncoder = builder.myEncoder;
+        myExecutor = builder.myExecutor != null ? builder.myExecutor : TrainingPipeline.executor();
+        myParallelism = builder.myParallelism;
+        myQueueCapacity = builder.myQueueCapacity;
+        mySeed = builder.mySeed;
+        myShuffle = builder.myShuffle;
+        mySources = new ArrayList<>(builder.mySources);
+
+        myBatches = new Batch[builder.myPrefetch + 1];
+        for (int i = 0; i < myBatches.length; i++) {
+            myBatches[i] = new Batch(trainer.newInputBatch(), trainer.newOutputBatch());
+        }
+
+        myFree = new ArrayBlockingQueue<>(myBatches.length);
+        myReady = new ArrayBlockingQueue<>(myBatches.length + 1);
+    }
+
+    /**
+     * The number of completed epochs.
+     */
+    public int countEpochs() {
+        return myEpochs;
+    }
+
+    /**
+     * Run 1 epoch – read all sources once and train on every complete batch.
+     *
+     * @return The number of batches trained on
+     */
+    public int train() {
+
+        myFree.clear();
+        myReady.clear();
+        for (Batch batch : myBatches) {
+            batch.reset();
+            myFree.add(batch);
+        }
+
+        Random random = new Random(mySeed + myEpochs);
+
+        // The reader is built from the (shuffled) source indices – an array of suppliers would be a generic array
+        Integer[] order = new Integer[mySources.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = Integer.valueOf(i);
+        }
+        if (myShuffle > 0) {
+            Collections.shuffle(Arrays.asList(order), random);
+        }
+
+        FromFileReader<T> reader = FromFileReader.newBuilder(order).executor(myExecutor).parallelism(Math.min(myParallelism, order.length))
+                .queue(myQueueCapacity).build(index -> mySources.get(index.intValue()).get());
+
+        Future<?> decoder = myExecutor.submit(() -> this.decode(reader, random));
+
+        int retVal = 0;
+        boolean completed = false;
+
+        try {
+
+            for (Batch batch = myReady.take(); batch != END; batch = myReady.take()) {
+                myTrainer.train(batch.input, batch.output);
+                batch.reset();
+                myFree.put(batch);
+                retVal++;
+            }
+
+            decoder.get();
+            completed = true;
+
+        } catch (InterruptedException | ExecutionException cause) {
+            throw new RuntimeException(cause);
+        } finally {
+
+            if (!completed) {
+                decoder.cancel(true);
+                while (reader.read() != null) {
+                    // Drain so that the reader tasks can finish
+                }
+            }
+
+            try {
+                reader.close();
+            } catch (IOException cause) {
+                throw new RuntimeException(cause);
+            }
+        }
+
+        myEpochs++;
+
+        return retVal;
+    }
+
+    /**
+     * Run the specified number of epochs.
+     */
+    public void train(final int epochs) {
+        for (int e = 0; e < epochs; e++) {
+            this.train();
+        }
+    }
+
+    private void decode(final FromFileReader<T> reader, final Random random) {
+
+        try {
+
+            Batch batch = myFree.take();
+
+            List<T> buffer = new ArrayList<>(myShuffle);
+
+            for (T item = reader.read(); item != null; item = reader.read()) {
+                if (myShuffle > 0) {
+                    if (buffer.size() < myShuffle) {
+                        buffer.add(item);
+                        continue;
+                    }
+                    item = buffer.set(random.nextInt(myShuffle), item);
+                }
+                batch = this.encode(item, batch);
+            }
+
+            while (!buffer.isEmpty()) {
+                int last = buffer.size() - 1;
+                T item = buffer.set(random.nextInt(buffer.size()), buffer.get(last));
+                buffer.remove(last);
+                batch = this.encode(item, batch);
+            }
+
+        } catch (InterruptedException cause) {
+            throw new RuntimeException(cause);
+        } finally {
+            myReady.add(END);
+        }
+    }
+
+    private Batch encode(final T item, final Batch batch) throws InterruptedException {
+
+        int remaining = batch.input.remaining();
+
+        myEncoder.encode(item, batch.input, batch.output);
+
+        if (batch.input.remaining() != remaining - 1 || batch.output.remaining() != remaining - 1) {
+            throw new IllegalStateException("The encoder must add exactly 1 row to each batch!");
+        }
+
+        if (batch.isFull()) {
+            myReady.put(batch);
+            return myFree.take();
+        } else {
+            return batch;
+        }
+    }
+
+}
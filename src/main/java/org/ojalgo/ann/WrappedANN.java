@@ -106,6 +106,11 @@ abstract class WrappedANN implements Supplier<ArtificialNeuralNetwork> {
         myNetwork.adjust(layer, input, output, upstreamGradient, downstreamGradient);
     }
 
+    void backpropagate(final int layer, final PhysicalStore<Double> input, final PhysicalStore<Double> output, final PhysicalStore<Double> upstreamGradient,
+            final PhysicalStore<Double> downstreamGradient, final PhysicalStore<Double> weightsGradient, final PhysicalStore<Double> biasGradient) {
+        myNetwork.backpropagate(layer, input, output, upstreamGradient, downstreamGradient, weightsGradient, biasGradient);
+    }
+
     int depth() {
         return myNetwork.depth();
     }
@@ -152,10 +157,26 @@ abstract class WrappedANN implements Supplier<ArtificialNeuralNetwork> {
 
     MatrixStore<Double> invoke(final Access1D<Double> input, final TrainingConfiguration configuration) {
 
-        this.setInput(input);
-
         myNetwork.setConfiguration(configuration);
 
+        return this.propagate(input);
+    }
+
+    DataBatch newOutputBatch() {
+        return myNetwork.newBatch(myBatchSize, myNetwork.countOutputNodes());
+    }
+
+    PhysicalStore<Double> newStore(final int rows, final int columns) {
+        return myNetwork.newStore(rows, columns);
+    }
+
+    /**
+     * Forward pass using whatever configuration is currently set – does not modify the network.
+     */
+    MatrixStore<Double> propagate(final Access1D<Double> input) {
+
+        this.setInput(input);
+
         PhysicalStore<Double> retVal = myInput;
         for (int l = 0, limit = this.depth(); l < limit; l++) {
             retVal = myNetwork.invoke(l, retVal, myOutputs[l]);
@@ -163,10 +184,6 @@ abstract class WrappedANN implements Supplier<ArtificialNeuralNetwork> {
         return retVal;
     }
 
-    DataBatch newOutputBatch() {
-        return myNetwork.newBatch(myBatchSize, myNetwork.countOutputNodes());
-    }
-
     void randomise() {
         myNetwork.randomise();
     }
@@ -179,10 +196,19 @@ abstract class WrappedANN implements Supplier<ArtificialNeuralNetwork> {
         myNetwork.setBias(layer, output, bias);
     }
 
+    void setConfiguration(final TrainingConfiguration configuration) {
+        myNetwork.setConfiguration(configuration);
+    }
+
     void setWeight(final int layer, final int input, final int output, final double weight) {
         myNetwork.setWeight(layer, input, output, weight);
     }
 
+    void update(final int layer, final PhysicalStore<Double> weightsGradient, final PhysicalStore<Double> biasGradient, final double gradientScale,
+            final double learningRate) {
+        myNetwork.update(layer, weightsGradient, biasGradient, gradientScale, learningRate);
+    }
+
     Structure2D[] structure() {
         return myNetwork.structure();
     }
@@ -23,9 +23,12 @@ package org.ojalgo.array;
 
 import java.math.BigDecimal;
 import java.util.AbstractList;
+import java.util.Arrays;
 import java.util.RandomAccess;
 
 import org.ojalgo.ProgrammingError;
+import org.ojalgo.algebra.NumberSet;
+import org.ojalgo.array.operation.SortAll;
 import org.ojalgo.function.BinaryFunction;
 import org.ojalgo.function.FunctionSet;
 import org.ojalgo.function.NullaryFunction;
@@ -198,6 +201,9 @@ public final class Array1D<N extends Comparable<N>> extends AbstractList<N> impl
 
     @Override
     public N aggregateRange(final long first, final long limit, final Aggregator aggregator) {
+        if (myStep == 1L) {
+            return myDelegate.aggregateRange(this.convert(first), this.convert(limit), aggregator);
+        }
         AggregatorFunction<N> visitor = aggregator.getFunction(myDelegate.factory().aggregator());
         this.visitRange(first, limit, visitor);
         return visitor.get();
@@ -543,9 +549,17 @@ public final class Array1D<N extends Comparable<N>> extends AbstractList<N> impl
 
             ((Mutate1D.Sortable) myDelegate).sortAscending();
 
-        } else {
+        } else if (myDelegate instanceof ArrayR064 && myStep == 1L) {
+
+            SortAll.sort(((ArrayR064) myDelegate).data, (int) myFirst, (int) (myFirst + length));
+
+        } else if (myDelegate.isPrimitive() && length > 1L) {
 
-            this.sortAscending(0L, this.count() - 1L);
+            this.sortCopy(false);
+
+        } else if (length > 1L) {
+
+            this.sortAscending(0L, length - 1L);
         }
     }
 
@@ -556,9 +570,25 @@ public final class Array1D<N extends Comparable<N>> extends AbstractList<N> impl
 
             ((Mutate1D.Sortable) myDelegate).sortDescending();
 
-        } else {
+        } else if (myDelegate instanceof ArrayR064 && myStep == 1L) {
 
-            this.sortDescending(0L, this.count() - 1L);
+            double[] data = ((ArrayR064) myDelegate).data;
+            int first = (int) myFirst;
+            int limit = (int) (myFirst + length);
+            SortAll.sort(data, first, limit);
+            for (int i = first, j = limit - 1; i < j; i++, j--) {
+                double tmp = data[i];
+                data[i] = data[j];
+                data[j] = tmp;
+            }
+
+        } else if (myDelegate.isPrimitive() && length > 1L) {
+
+            this.sortCopy(true);
+
+        } else if (length > 1L) {
+
+            this.sortDescending(0L, length - 1L);
         }
     }
 
@@ -608,6 +638,36 @@ public final class Array1D<N extends Comparable<N>> extends AbstractList<N> impl
         return myFirst + myStep * index;
     }
 
+    /**
+     * Sorts a copy of the elements and writes them back. Integer types are sorted as long, as converting to
+     * double would not preserve every (64-bit) value.
+     */
+    private void sortCopy(final boolean descending) {
+
+        int size = Math.toIntExact(length);
+        int last = size - 1;
+
+        if (myDelegate.getMathType().getNumberSet() == NumberSet.Z) {
+
+            long[] values = new long[size];
+            for (int i = 0; i < size; i++) {
+                values[i] = this.longValue(i);
+            }
+            Arrays.sort(values);
+            for (int i = 0; i < size; i++) {
+                this.set(i, values[descending ? last - i : i]);
+            }
+
+        } else {
+
+            double[] values = this.toRawCopy1D();
+            SortAll.sort(values);
+            for (int i = 0; i < size; i++) {
+                this.set(i, values[descending ? last - i : i]);
+            }
+        }
+    }
+
     void exchange(final long indexA, final long indexB) {
 
         if (myDelegate.isPrimitive()) {
@@ -26,16 +26,19 @@ import static org.ojalgo.function.constant.PrimitiveMath.ZERO;
 import java.util.Arrays;
 import java.util.Spliterator.OfDouble;
 import java.util.Spliterators;
+import java.util.function.IntSupplier;
 import java.util.stream.DoubleStream;
 import java.util.stream.StreamSupport;
 
 import org.ojalgo.array.operation.*;
+import org.ojalgo.concurrent.Parallelism;
 import org.ojalgo.function.BinaryFunction;
 import org.ojalgo.function.FunctionSet;
 import org.ojalgo.function.NullaryFunction;
 import org.ojalgo.function.PrimitiveFunction;
 import org.ojalgo.function.UnaryFunction;
 import org.ojalgo.function.VoidFunction;
+import org.ojalgo.function.aggregator.Aggregator;
 import org.ojalgo.function.aggregator.AggregatorSet;
 import org.ojalgo.function.aggregator.PrimitiveAggregator;
 import org.ojalgo.function.special.MissingMath;
@@ -109,6 +112,21 @@ public class ArrayR064 extends PrimitiveArray {
         data = new double[size];
     }
 
+    /**
+     * Same as {@link #aggregateAll(Aggregator)} but with a parallelism hint.
+     *
+     * @param parallelism The max number of threads to use. {@link Parallelism#ONE} forces sequential
+     *        execution.
+     */
+    public double aggregateAll(final Aggregator aggregator, final IntSupplier parallelism) {
+        return AggregateAll.invoke(data, 0, data.length, 1, aggregator, parallelism);
+    }
+
+    @Override
+    public Double aggregateRange(final long first, final long limit, final Aggregator aggregator) {
+        return Double.valueOf(AggregateAll.invoke(data, Math.toIntExact(first), Math.toIntExact(limit), 1, aggregator));
+    }
+
     @Override
     public void axpy(final double a, final Mutate1D.Modifiable<?> y) {
         AXPY.invoke(y, a, data);
@@ -221,13 +239,13 @@ public class ArrayR064 extends PrimitiveArray {
 
     @Override
     public void sortAscending() {
-        Arrays.sort(data);
+        SortAll.sort(data);
     }
 
     @Override
     public void sortDescending() {
         CorePrimitiveOperation.negate(data, 0, data.length, 1, data);
-        Arrays.sort(data);
+        SortAll.sort(data);
         CorePrimitiveOperation.negate(data, 0, data.length, 1, data);
     }
 
@@ -32,6 +32,7 @@ import java.util.List;
 
 import org.ojalgo.ProgrammingError;
 import org.ojalgo.array.operation.AMAX;
+import org.ojalgo.array.operation.AggregateAll;
 import org.ojalgo.array.operation.FillAll;
 import org.ojalgo.array.operation.OperationBinary;
 import org.ojalgo.array.operation.OperationUnary;
@@ -42,6 +43,7 @@ import org.ojalgo.function.NullaryFunction;
 import org.ojalgo.function.PrimitiveFunction;
 import org.ojalgo.function.UnaryFunction;
 import org.ojalgo.function.VoidFunction;
+import org.ojalgo.function.aggregator.Aggregator;
 import org.ojalgo.function.aggregator.AggregatorSet;
 import org.ojalgo.function.aggregator.PrimitiveAggregator;
 import org.ojalgo.function.constant.PrimitiveMath;
@@ -238,6 +240,11 @@ public abstract class BufferArray extends PlainArray<Double> implements AutoClos
         myFile = file;
     }
 
+    @Override
+    public Double aggregateRange(final long first, final long limit, final Aggregator aggregator) {
+        return Double.valueOf(AggregateAll.invoke(this, first, limit, aggregator));
+    }
+
     @Override
     public void close() {
         if (myFile != null) {
@@ -53,12 +53,29 @@ public final class NumberList<N extends Comparable<N>> implements List<N>, Rando
 
     public static final class ListFactory<N extends Comparable<N>> extends StrategyBuildingFactory<N, NumberList<N>, ListFactory<N>> {
 
+        private boolean myChunked = false;
+
         ListFactory(final DenseArray.Factory<N> denseFactory) {
             super(denseFactory);
         }
 
+        /**
+         * Switch to chunked storage. The list is then always backed by a sequence of equally sized chunks
+         * (the segment size of this factory) and grows by adding another chunk. Existing elements are never
+         * copied or moved, and indexed access is a shift and a mask. Suitable for very large, append-heavy,
+         * lists. Each chunk is allocated in full, so set the segment size to something reasonable. Combine
+         * with an off-heap factory, such as {@link OffHeapArray#R064}, to keep the chunks outside the Java
+         * heap.
+         *
+         * @return this
+         */
+        public ListFactory<N> chunked() {
+            myChunked = true;
+            return this;
+        }
+
         public NumberList<N> make() {
-            return new NumberList<>(this.getDenseFactory(), this.getGrowthStrategy());
+            return new NumberList<>(this.getDenseFactory(), this.getGrowthStrategy(), myChunked);
         }
 
     }
@@ -81,20 +98,32 @@ public final class NumberList<N extends Comparable<N>> implements List<N>, Rando
     }
 
     private long myActualCount;
+    private final boolean myChunked;
     private final DenseArray.Factory<N> myDenseFactory;
     private final GrowthStrategy myGrowthStrategy;
     private BasicArray<N> myStorage;
 
     NumberList(final DenseArray.Factory<N> denseFactory, final GrowthStrategy growthStrategy) {
-        this(denseFactory, growthStrategy, growthStrategy.makeInitial(denseFactory), 0L);
+        this(denseFactory, growthStrategy, false);
+    }
+
+    NumberList(final DenseArray.Factory<N> denseFactory, final GrowthStrategy growthStrategy, final boolean chunked) {
+        this(denseFactory, growthStrategy, chunked ? denseFactory.wrapAsSegments(growthStrategy.makeSegment(denseFactory))
+                : growthStrategy.makeInitial(denseFactory), 0L, chunked);
     }
 
     NumberList(final DenseArray.Factory<N> denseFactory, final GrowthStrategy growthStrategy, final BasicArray<N> storage, final long actualCount) {
+        this(denseFactory, growthStrategy, storage, actualCount, false);
+    }
+
+    private NumberList(final DenseArray.Factory<N> denseFactory, final GrowthStrategy growthStrategy, final BasicArray<N> storage, final long actualCount,
+            final boolean chunked) {
 
         super();
 
         myDenseFactory = denseFactory;
         myGrowthStrategy = growthStrategy;
+        myChunked = chunked;
 
         myStorage = storage;
         myActualCount = actualCount;
@@ -150,10 +179,66 @@ public final class NumberList<N extends Comparable<N>> implements List<N>, Rando
     }
 
     public boolean addAll(final double[] elements) {
-        for (final double tmpElement : elements) {
-            this.add(tmpElement);
+        return this.addAll(elements, 0, elements.length);
+    }
+
+    /**
+     * Bulk append of a range of primitive values. Capacity is ensured once per (available) block rather than
+     * once per element, and when the backing storage (or chunk) is a plain double[] the values are copied
+     * using {@link System#arraycopy(Object, int, Object, int, int)}.
+     *
+     * @param elements The source array
+     * @param offset The index of the first element to add
+     * @param length The number of elements to add
+     */
+    public boolean addAll(final double[] elements, final int offset, final int length) {
+
+        if (offset < 0 || length < 0 || length > elements.length - offset) {
+            throw new ArrayIndexOutOfBoundsException();
         }
-        return true;
+
+        if (!myChunked && !(myStorage instanceof SegmentedArray) && !myGrowthStrategy.isSegmented(myActualCount + length)
+                && myStorage.count() < myActualCount + length) {
+            // Grow once, rather than repeatedly while adding
+            BasicArray<N> newStorage = myDenseFactory.make(myGrowthStrategy.grow(myActualCount + length - 1L));
+            newStorage.fillMatching(myStorage);
+            myStorage = newStorage;
+        }
+
+        int first = offset;
+        int remaining = length;
+
+        while (remaining > 0) {
+
+            this.ensureCapacity();
+
+            BasicArray<N> block = myStorage;
+            long blockOffset = myActualCount;
+            long available = myStorage.count() - myActualCount;
+
+            if (myStorage instanceof SegmentedArray) {
+                SegmentedArray<N> segmented = (SegmentedArray<N>) myStorage;
+                block = segmented.getSegment(myActualCount);
+                blockOffset = segmented.getIndexInSegment(myActualCount);
+                available = block.count() - blockOffset;
+            }
+
+            int batch = (int) Math.min(available, remaining);
+
+            if (block instanceof ArrayR064) {
+                System.arraycopy(elements, first, ((ArrayR064) block).data, (int) blockOffset, batch);
+            } else {
+                for (int i = 0; i < batch; i++) {
+                    block.set(blockOffset + i, elements[first + i]);
+                }
+            }
+
+            myActualCount += batch;
+            first += batch;
+            remaining -= batch;
+        }
+
+        return length > 0;
     }
 
     @Override
@@ -433,7 +518,7 @@ public final class NumberList<N extends Comparable<N>> implements List<N>, Rando
 
     @Override
     public NumberList<N> subList(final int fromIndex, final int toIndex) {
-        final NumberList<N> retVal = new NumberList<>(myDenseFactory, myGrowthStrategy);
+        final NumberList<N> retVal = new NumberList<>(myDenseFactory, myGrowthStrategy, myChunked);
         if (myStorage instanceof ArrayR064) {
             for (int i = 0; i < toIndex; i++) {
                 retVal.add(this.doubleValue(i));
@@ -479,6 +564,11 @@ public final class NumberList<N extends Comparable<N>> implements List<N>, Rando
         if (myStorage.count() > myActualCount) {
             // It fits, just add to the end
 
+        } else if (myChunked) {
+            // Doesn't fit, add another chunk - existing chunks are left untouched
+
+            myStorage = ((SegmentedArray<N>) myStorage).grow();
+
         } else if (myGrowthStrategy.isSegmented(myActualCount + 1L)) {
             // Doesn't fit, create or grow segment, then add
 
@@ -23,11 +23,13 @@ package org.ojalgo.array;
 
 import java.util.function.LongFunction;
 
+import org.ojalgo.array.operation.AggregateAll;
 import org.ojalgo.function.BinaryFunction;
 import org.ojalgo.function.FunctionSet;
 import org.ojalgo.function.PrimitiveFunction;
 import org.ojalgo.function.UnaryFunction;
 import org.ojalgo.function.VoidFunction;
+import org.ojalgo.function.aggregator.Aggregator;
 import org.ojalgo.function.aggregator.AggregatorSet;
 import org.ojalgo.function.aggregator.PrimitiveAggregator;
 import org.ojalgo.scalar.PrimitiveScalar;
@@ -136,6 +138,11 @@ public abstract class OffHeapArray extends DenseArray<Double> {
         this.set(index, this.shortValue(index) + addend);
     }
 
+    @Override
+    public Double aggregateRange(final long first, final long limit, final Aggregator aggregator) {
+        return Double.valueOf(AggregateAll.invoke(this, first, limit, aggregator));
+    }
+
     @Override
     public final long count() {
         return myCount;
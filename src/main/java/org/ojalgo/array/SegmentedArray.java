@@ -429,6 +429,14 @@ final class SegmentedArray<N extends Comparable<N>> extends BasicArray<N> {
         }
     }
 
+    long getIndexInSegment(final long index) {
+        return index & myIndexMask;
+    }
+
+    BasicArray<N> getSegment(final long index) {
+        return mySegments[(int) (index >> myIndexBits)];
+    }
+
     /**
      * Will either grow the last segment to be the same size as all the others, or add another segment (with
      * the same size). The returned (could be the same) instance is guaranteed to have a last segement of the
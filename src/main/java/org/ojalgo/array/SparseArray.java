@@ -26,6 +26,7 @@ import java.util.Arrays;
 import java.util.function.Consumer;
 import java.util.stream.LongStream;
 
+import org.ojalgo.array.operation.SortAll;
 import org.ojalgo.function.BinaryFunction;
 import org.ojalgo.function.NullaryFunction;
 import org.ojalgo.function.UnaryFunction;
@@ -449,6 +450,48 @@ public final class SparseArray<N extends Comparable<N>> extends BasicArray<N> {
         return new NonzeroView<>(myIndices, myValues, myActualLength);
     }
 
+    /**
+     * Bulk (re)build from index/value pairs that may be unsorted and contain duplicates. The pairs are sorted
+     * by index (a stable, parallel for large inputs, key-value sort), at duplicate indices the last value
+     * wins – same as calling {@link #set(long, double)} for each pair in turn – and zeros are dropped. Any
+     * existing content is replaced. Note that the input arrays are reordered.
+     */
+    public void putAll(final long[] indices, final double[] values) {
+
+        int length = Math.min(indices.length, values.length);
+
+        SortAll.sort(indices, values);
+
+        int capacity = Math.max(myGrowthStrategy.initial(), length);
+        long[] newIndices = new long[capacity];
+        DenseArray<N> newValues = myDenseFactory.make(capacity);
+
+        int nbNonzeros = 0;
+        for (int i = 0; i < length;) {
+
+            long index = indices[i];
+            double value = values[i++];
+            while (i < length && indices[i] == index) {
+                value = values[i++];
+            }
+
+            if (index < 0L || index >= myCount) {
+                throw new ArrayIndexOutOfBoundsException();
+            }
+
+            if (NumberContext.compare(value, PrimitiveMath.ZERO) != 0) {
+                newIndices[nbNonzeros] = index;
+                newValues.set(nbNonzeros, value);
+                nbNonzeros++;
+            }
+        }
+        Arrays.fill(newIndices, nbNonzeros, capacity, Long.MAX_VALUE);
+
+        myIndices = newIndices;
+        myValues = newValues;
+        myActualLength = nbNonzeros;
+    }
+
     @Override
     public void reset() {
         myActualLength = 0;
@@ -21,8 +21,315 @@
  */
 package org.ojalgo.array.operation;
 
+import java.util.function.IntSupplier;
+
+import org.ojalgo.concurrent.Parallelism;
+import org.ojalgo.concurrent.ProcessingService;
+import org.ojalgo.function.aggregator.Aggregator;
+import org.ojalgo.function.constant.PrimitiveMath;
+import org.ojalgo.scalar.PrimitiveScalar;
+import org.ojalgo.structure.Access1D;
+import org.ojalgo.type.context.NumberContext;
+
+/**
+ * Reductions (aggregations) working directly on primitive double values, without going via an
+ * {@link org.ojalgo.function.aggregator.AggregatorFunction}. The sums (SUM, SUM2, NORM1, NORM2 and AVERAGE)
+ * are compensated (Neumaier's variant of Kahan summation), and large ranges are split in to pieces that are
+ * reduced in parallel. The partial results are always combined in the same order, so for a given parallelism
+ * the result is deterministic.
+ *
+ * @author apete
+ */
 public abstract class AggregateAll implements ArrayOperation {
 
+    static final class Partial {
+
+        private final Aggregator myAggregator;
+        private double myCompensation = PrimitiveMath.ZERO;
+        private long myCount = 0L;
+        private double myValue;
+
+        Partial(final Aggregator aggregator) {
+
+            super();
+
+            myAggregator = aggregator;
+
+            switch (aggregator) {
+            case MAXIMUM:
+                myValue = PrimitiveMath.NEGATIVE_INFINITY;
+                break;
+            case MINIMUM:
+            case SMALLEST:
+                myValue = PrimitiveMath.POSITIVE_INFINITY;
+                break;
+            case PRODUCT:
+            case PRODUCT2:
+                myValue = PrimitiveMath.ONE;
+                break;
+            default:
+                myValue = PrimitiveMath.ZERO;
+                break;
+            }
+        }
+
+        void combine(final Partial other) {
+            switch (myAggregator) {
+            case AVERAGE:
+            case NORM1:
+            case NORM2:
+            case SUM:
+            case SUM2:
+                this.sum(other.myValue);
+                this.sum(other.myCompensation);
+                break;
+            case LARGEST:
+            case MAXIMUM:
+                myValue = Math.max(myValue, other.myValue);
+                break;
+            case MINIMUM:
+            case SMALLEST:
+                myValue = Math.min(myValue, other.myValue);
+                break;
+            case PRODUCT:
+            case PRODUCT2:
+                myValue *= other.myValue;
+                break;
+            default:
+                break;
+            }
+            myCount += other.myCount;
+        }
+
+        double doubleValue() {
+            switch (myAggregator) {
+            case AVERAGE:
+                return this.total() / myCount;
+            case CARDINALITY:
+                return myCount;
+            case NORM1:
+            case SUM:
+            case SUM2:
+                return this.total();
+            case NORM2:
+                return PrimitiveMath.SQRT.invoke(this.total());
+            case MINIMUM:
+            case SMALLEST:
+                // Same as PrimitiveAggregator, and therefore ZERO for an empty range
+                return Double.isInfinite(myValue) ? PrimitiveMath.ZERO : myValue;
+            default:
+                return myValue;
+            }
+        }
+
+        void invoke(final Access1D<?> data, final long first, final long limit) {
+            for (long i = first; i < limit; i++) {
+                this.invoke(data.doubleValue(i));
+            }
+        }
+
+        void invoke(final double value) {
+            switch (myAggregator) {
+            case AVERAGE:
+            case SUM:
+                this.sum(value);
+                myCount++;
+                break;
+            case CARDINALITY:
+                if (!PrimitiveScalar.isSmall(PrimitiveMath.ONE, value)) {
+                    myCount++;
+                }
+                break;
+            case LARGEST:
+                myValue = Math.max(myValue, Math.abs(value));
+                break;
+            case MAXIMUM:
+                myValue = Math.max(myValue, value);
+                break;
+            case MINIMUM:
+                myValue = Math.min(myValue, value);
+                break;
+            case NORM1:
+                this.sum(Math.abs(value));
+                break;
+            case NORM2:
+            case SUM2:
+                this.sum(value * value);
+                break;
+            case PRODUCT:
+                myValue *= value;
+                break;
+            case PRODUCT2:
+                myValue *= value * value;
+                break;
+            case SMALLEST:
+                double abs = Math.abs(value);
+                if (NumberContext.compare(abs, PrimitiveMath.ZERO) != 0) {
+                    myValue = Math.min(myValue, abs);
+                }
+                break;
+            default:
+                break;
+            }
+        }
+
+        void invoke(final double[] data, final int first, final int limit, final int step) {
+            switch (myAggregator) {
+            case AVERAGE:
+            case SUM:
+                for (int i = first; i < limit; i += step) {
+                    this.sum(data[i]);
+                    myCount++;
+                }
+                break;
+            case LARGEST:
+                for (int i = first; i < limit; i += step) {
+                    myValue = Math.max(myValue, Math.abs(data[i]));
+                }
+                break;
+            case MAXIMUM:
+                for (int i = first; i < limit; i += step) {
+                    myValue = Math.max(myValue, data[i]);
+                }
+                break;
+            case MINIMUM:
+                for (int i = first; i < limit; i += step) {
+                    myValue = Math.min(myValue, data[i]);
+                }
+                break;
+            case NORM1:
+                for (int i = first; i < limit; i += step) {
+                    this.sum(Math.abs(data[i]));
+                }
+                break;
+            case NORM2:
+            case SUM2:
+                for (int i = first; i < limit; i += step) {
+                    double value = data[i];
+                    this.sum(value * value);
+                }
+                break;
+            case PRODUCT:
+                for (int i = first; i < limit; i += step) {
+                    myValue *= data[i];
+                }
+                break;
+            default:
+                for (int i = first; i < limit; i += step) {
+                    this.invoke(data[i]);
+                }
+                break;
+            }
+        }
+
+        /**
+         * Neumaier's improved Kahan–Babuška summation
+         */
+        private void sum(final double addend) {
+            double sum = myValue + addend;
+            if (!Double.isFinite(sum)) {
+                // Inf - Inf would turn the compensation into NaN
+            } else if (Math.abs(myValue) >= Math.abs(addend)) {
+                myCompensation += myValue - sum + addend;
+            } else {
+                myCompensation += addend - sum + myValue;
+            }
+            myValue = sum;
+        }
+
+        /**
+         * The compensated sum, or the plain (infinite/NaN) sum if it overflowed
+         */
+        private double total() {
+            return Double.isFinite(myValue) ? myValue + myCompensation : myValue;
+        }
+
+    }
+
+    /**
+     * Ranges with more than this number of elements are reduced in parallel.
+     */
+    public static int PARALLELISM_THRESHOLD = 65_536;
     public static int THRESHOLD = 64;
 
+    public static double invoke(final Access1D<?> data, final long first, final long limit, final Aggregator aggregator) {
+        return AggregateAll.invoke(data, first, limit, aggregator, Parallelism.CORES);
+    }
+
+    /**
+     * @param parallelism The max number of parallel pieces. {@link Parallelism#ONE} forces sequential
+     *        execution.
+     */
+    public static double invoke(final Access1D<?> data, final long first, final long limit, final Aggregator aggregator, final IntSupplier parallelism) {
+
+        long count = limit - first;
+        int pieces = AggregateAll.pieces(count, parallelism);
+
+        if (pieces <= 1) {
+            Partial partial = new Partial(aggregator);
+            partial.invoke(data, first, limit);
+            return partial.doubleValue();
+        }
+
+        Partial[] partials = new Partial[pieces];
+
+        ProcessingService.INSTANCE.divider().threshold(1).parallelism(() -> pieces).divide(0, pieces, (f, l) -> {
+            for (int p = f; p < l; p++) {
+                partials[p] = new Partial(aggregator);
+                partials[p].invoke(data, first + count * p / pieces, first + count * (p + 1) / pieces);
+            }
+        });
+
+        return AggregateAll.combine(partials);
+    }
+
+    public static double invoke(final double[] data, final int first, final int limit, final int step, final Aggregator aggregator) {
+        return AggregateAll.invoke(data, first, limit, step, aggregator, Parallelism.CORES);
+    }
+
+    /**
+     * @param parallelism The max number of parallel pieces. {@link Parallelism#ONE} forces sequential
+     *        execution.
+     */
+    public static double invoke(final double[] data, final int first, final int limit, final int step, final Aggregator aggregator,
+            final IntSupplier parallelism) {
+
+        long count = limit > first ? (limit - first + step - 1) / step : 0L;
+        int pieces = AggregateAll.pieces(count, parallelism);
+
+        if (pieces <= 1) {
+            Partial partial = new Partial(aggregator);
+            partial.invoke(data, first, limit, step);
+            return partial.doubleValue();
+        }
+
+        Partial[] partials = new Partial[pieces];
+
+        ProcessingService.INSTANCE.divider().threshold(1).parallelism(() -> pieces).divide(0, pieces, (f, l) -> {
+            for (int p = f; p < l; p++) {
+                int pieceFirst = first + (int) (count * p / pieces) * step;
+                int pieceLimit = Math.min(limit, first + (int) (count * (p + 1) / pieces) * step);
+                partials[p] = new Partial(aggregator);
+                partials[p].invoke(data, pieceFirst, pieceLimit, step);
+            }
+        });
+
+        return AggregateAll.combine(partials);
+    }
+
+    private static double combine(final Partial[] partials) {
+        Partial retVal = partials[0];
+        for (int p = 1; p < partials.length; p++) {
+            retVal.combine(partials[p]);
+        }
+        return retVal.doubleValue();
+    }
+
+    private static int pieces(final long count, final IntSupplier parallelism) {
+        if (count <= PARALLELISM_THRESHOLD) {
+            return 1;
+        }
+        return (int) Math.max(1L, Math.min(parallelism.getAsInt(), count / PARALLELISM_THRESHOLD));
+    }
+
 }
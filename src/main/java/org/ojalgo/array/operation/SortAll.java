@@ -21,52 +21,619 @@
  */
 package org.ojalgo.array.operation;
 
+import java.util.Arrays;
+
+import org.ojalgo.concurrent.DivideAndConquer;
+import org.ojalgo.concurrent.Parallelism;
+import org.ojalgo.concurrent.ProcessingService;
+import org.ojalgo.structure.Structure1D;
+
+/**
+ * Sorting, selection and ranking kernels for primitive arrays. Large arrays are sorted in parallel – the
+ * array is split into (a power of 2 number of) pieces that are sorted concurrently and then merged pairwise,
+ * also concurrently. Selection (quantiles, medians...) is done using introselect that is O(n) and only
+ * partially reorders the array.
+ * <p>
+ * NaN values are not supported by the selection and co-sorting methods.
+ *
+ * @author apete
+ */
 public abstract class SortAll implements ArrayOperation {
 
+    /**
+     * Arrays longer than this are sorted in parallel, and each parallel piece will be at least this long.
+     */
+    public static int PARALLELISM_THRESHOLD = 8_192;
     public static int THRESHOLD = 128;
 
-    public static void sort(final long[] primary, final double[] secondary) {
+    private static final int INSERTION = 32;
+
+    /**
+     * @return The permutation that sorts the values (in ascending order). The input array is not modified.
+     */
+    public static int[] argsort(final double[] values) {
+
+        double[] keys = values.clone();
+        int[] permutation = Structure1D.newIncreasingRange(0, keys.length);
+
+        SortAll.sort(keys, permutation);
+
+        return permutation;
+    }
+
+    /**
+     * @return The (1-based) ranks of the values. Tied values are all given the average of the ranks they
+     *         span. The input array is not modified.
+     */
+    public static double[] rank(final double[] values) {
+
+        int length = values.length;
+
+        double[] keys = values.clone();
+        int[] permutation = Structure1D.newIncreasingRange(0, length);
+
+        SortAll.sort(keys, permutation);
+
+        double[] retVal = new double[length];
+
+        for (int first = 0, limit; first < length; first = limit) {
+            limit = first + 1;
+            while (limit < length && keys[limit] == keys[first]) {
+                limit++;
+            }
+            double average = (first + limit + 1) / 2.0;
+            for (int i = first; i < limit; i++) {
+                retVal[permutation[i]] = average;
+            }
+        }
+
+        return retVal;
+    }
+
+    /**
+     * Partially reorders the array so that the element at index k is the one that would be there if the
+     * entire array was sorted. All elements before it are &lt;= and all after are &gt;=.
+     *
+     * @return The k:th smallest value
+     */
+    public static double select(final double[] data, final int k) {
+        return SortAll.select(data, 0, data.length, k);
+    }
+
+    /**
+     * Same as {@link #select(double[], int)} but limited to the range [first, limit).
+     */
+    public static double select(final double[] data, final int first, final int limit, final int k) {
+
+        if (k < first || k >= limit) {
+            throw new ArrayIndexOutOfBoundsException(k);
+        }
+
+        int low = first;
+        int high = limit - 1;
+        int depth = 2 * SortAll.log2(limit - first);
+
+        while (high - low >= INSERTION) {
+
+            if (depth-- == 0) {
+                Arrays.sort(data, low, high + 1);
+                return data[k];
+            }
+
+            double pivot = SortAll.median(data, low, low + (high - low) / 2, high);
+
+            // Three-way partition: [low, lt) < pivot, [lt, gt] == pivot, (gt, high] > pivot
+            int lt = low;
+            int gt = high;
+            int i = low;
+            while (i <= gt) {
+                double value = data[i];
+                if (value < pivot) {
+                    data[i++] = data[lt];
+                    data[lt++] = value;
+                } else if (value > pivot) {
+                    data[i] = data[gt];
+                    data[gt--] = value;
+                } else {
+                    i++;
+                }
+            }
+
+            if (k < lt) {
+                high = lt - 1;
+            } else if (k > gt) {
+                low = gt + 1;
+            } else {
+                return data[k];
+            }
+        }
+
+        SortAll.insertion(data, low, high + 1);
+
+        return data[k];
+    }
+
+    /**
+     * Multi-select. Will partially reorder the array so that every index in ranks holds the value it would
+     * have if the entire array was sorted.
+     *
+     * @param data The values
+     * @param ranks The indices to select, must be sorted in ascending order.
+     */
+    public static void select(final double[] data, final int[] ranks) {
+        SortAll.select(data, 0, data.length, ranks, 0, ranks.length);
+    }
 
-        boolean tmpSwapped;
-
-        int tmpLimit = Math.min(primary.length, secondary.length) - 1;
-
-        do {
-            tmpSwapped = false;
-            for (int i = 0; i < tmpLimit; i++) {
-                if (primary[i] > primary[i + 1]) {
-                    long tmpPrimVal = primary[i];
-                    primary[i] = primary[i + 1];
-                    primary[i + 1] = tmpPrimVal;
-                    double tmpSecoVal = secondary[i];
-                    secondary[i] = secondary[i + 1];
-                    secondary[i + 1] = tmpSecoVal;
-                    tmpSwapped = true;
+    public static void sort(final double[] data) {
+        SortAll.sort(data, 0, data.length);
+    }
+
+    /**
+     * Sorts the range [first, limit) in ascending order, in parallel if the range is large enough.
+     */
+    public static void sort(final double[] data, final int first, final int limit) {
+        if (limit - first > PARALLELISM_THRESHOLD) {
+            Arrays.parallelSort(data, first, limit);
+        } else {
+            Arrays.sort(data, first, limit);
+        }
+    }
+
+    /**
+     * Sorts the values in ascending order and applies the same reordering to the permutation array. If the
+     * permutation initially is [0, 1, 2...] then it will afterwards contain the "argsort" of the values.
+     */
+    public static void sort(final double[] values, final int[] permutation) {
+
+        int length = Math.min(values.length, permutation.length);
+        int pieces = SortAll.pieces(length);
+
+        if (pieces <= 1) {
+            SortAll.introsort(values, permutation, 0, length, 2 * SortAll.log2(length));
+            return;
+        }
+
+        int[] bounds = SortAll.bounds(length, pieces);
+        DivideAndConquer.Divider divider = SortAll.divider(pieces);
+
+        divider.divide(0, pieces, (f, l) -> {
+            for (int p = f; p < l; p++) {
+                SortAll.introsort(values, permutation, bounds[p], bounds[p + 1], 2 * SortAll.log2(bounds[p + 1] - bounds[p]));
+            }
+        });
+
+        double[] srcK = values;
+        int[] srcP = permutation;
+        double[] dstK = new double[length];
+        int[] dstP = new int[length];
+
+        for (int width = 1; width < pieces; width *= 2) {
+
+            int w = width;
+            double[] fromK = srcK;
+            int[] fromP = srcP;
+            double[] toK = dstK;
+            int[] toP = dstP;
+
+            divider.divide(0, pieces / (2 * w), (f, l) -> {
+                for (int j = f; j < l; j++) {
+                    SortAll.merge(fromK, fromP, bounds[2 * w * j], bounds[2 * w * j + w], bounds[2 * w * (j + 1)], toK, toP);
                 }
+            });
+
+            srcK = toK;
+            srcP = toP;
+            dstK = fromK;
+            dstP = fromP;
+        }
+
+        if (srcK != values) {
+            System.arraycopy(srcK, 0, values, 0, length);
+            System.arraycopy(srcP, 0, permutation, 0, length);
+        }
+    }
+
+    /**
+     * Sorts the keys in ascending order and applies the same reordering to the permutation array.
+     *
+     * @see #sort(double[], int[])
+     */
+    public static void sort(final long[] keys, final int[] permutation) {
+
+        int length = Math.min(keys.length, permutation.length);
+        int pieces = SortAll.pieces(length);
+
+        if (pieces <= 1) {
+            SortAll.introsort(keys, permutation, 0, length, 2 * SortAll.log2(length));
+            return;
+        }
+
+        int[] bounds = SortAll.bounds(length, pieces);
+        DivideAndConquer.Divider divider = SortAll.divider(pieces);
+
+        divider.divide(0, pieces, (f, l) -> {
+            for (int p = f; p < l; p++) {
+                SortAll.introsort(keys, permutation, bounds[p], bounds[p + 1], 2 * SortAll.log2(bounds[p + 1] - bounds[p]));
             }
-        } while (tmpSwapped);
+        });
+
+        long[] srcK = keys;
+        int[] srcP = permutation;
+        long[] dstK = new long[length];
+        int[] dstP = new int[length];
+
+        for (int width = 1; width < pieces; width *= 2) {
+
+            int w = width;
+            long[] fromK = srcK;
+            int[] fromP = srcP;
+            long[] toK = dstK;
+            int[] toP = dstP;
+
+            divider.divide(0, pieces / (2 * w), (f, l) -> {
+                for (int j = f; j < l; j++) {
+                    SortAll.merge(fromK, fromP, bounds[2 * w * j], bounds[2 * w * j + w], bounds[2 * w * (j + 1)], toK, toP);
+                }
+            });
+
+            srcK = toK;
+            srcP = toP;
+            dstK = fromK;
+            dstP = fromP;
+        }
+
+        if (srcK != keys) {
+            System.arraycopy(srcK, 0, keys, 0, length);
+            System.arraycopy(srcP, 0, permutation, 0, length);
+        }
     }
 
+    /**
+     * Key-value sort. The primary (key) array is sorted in ascending order, and the secondary (value) array is
+     * reordered accordingly. The sort is stable – values with equal keys keep their relative order.
+     */
+    public static void sort(final long[] primary, final double[] secondary) {
+
+        int length = Math.min(primary.length, secondary.length);
+
+        int[] permutation = Structure1D.newIncreasingRange(0, length);
+        SortAll.sort(primary, permutation);
+        SortAll.stabilise(primary, permutation, length);
+
+        double[] copy = Arrays.copyOf(secondary, length);
+        for (int i = 0; i < length; i++) {
+            secondary[i] = copy[permutation[i]];
+        }
+    }
+
+    /**
+     * Key-value sort. The primary (key) array is sorted in ascending order, and the secondary (value) array is
+     * reordered accordingly. The sort is stable – values with equal keys keep their relative order.
+     */
     public static void sort(final long[] primary, final Object[] secondary) {
 
-        boolean tmpSwapped;
-
-        int tmpLimit = Math.min(primary.length, secondary.length) - 1;
-
-        do {
-            tmpSwapped = false;
-            for (int i = 0; i < tmpLimit; i++) {
-                if (primary[i] > primary[i + 1]) {
-                    long tmpPrimVal = primary[i];
-                    primary[i] = primary[i + 1];
-                    primary[i + 1] = tmpPrimVal;
-                    Object tmpSecoVal = secondary[i];
-                    secondary[i] = secondary[i + 1];
-                    secondary[i + 1] = tmpSecoVal;
-                    tmpSwapped = true;
+        int length = Math.min(primary.length, secondary.length);
+
+        int[] permutation = Structure1D.newIncreasingRange(0, length);
+        SortAll.sort(primary, permutation);
+        SortAll.stabilise(primary, permutation, length);
+
+        Object[] copy = Arrays.copyOf(secondary, length);
+        for (int i = 0; i < length; i++) {
+            secondary[i] = copy[permutation[i]];
+        }
+    }
+
+    private static int[] bounds(final int length, final int pieces) {
+        int[] retVal = new int[pieces + 1];
+        for (int p = 0; p <= pieces; p++) {
+            retVal[p] = (int) ((long) length * p / pieces);
+        }
+        return retVal;
+    }
+
+    private static DivideAndConquer.Divider divider(final int pieces) {
+        return ProcessingService.INSTANCE.divider().threshold(1).parallelism(() -> pieces);
+    }
+
+    private static void heapsort(final double[] keys, final int[] perm, final int first, final int limit) {
+        int count = limit - first;
+        for (int i = count / 2 - 1; i >= 0; i--) {
+            SortAll.sift(keys, perm, first, i, count);
+        }
+        for (int end = count - 1; end > 0; end--) {
+            SortAll.swap(keys, perm, first, first + end);
+            SortAll.sift(keys, perm, first, 0, end);
+        }
+    }
+
+    private static void heapsort(final long[] keys, final int[] perm, final int first, final int limit) {
+        int count = limit - first;
+        for (int i = count / 2 - 1; i >= 0; i--) {
+            SortAll.sift(keys, perm, first, i, count);
+        }
+        for (int end = count - 1; end > 0; end--) {
+            SortAll.swap(keys, perm, first, first + end);
+            SortAll.sift(keys, perm, first, 0, end);
+        }
+    }
+
+    private static void insertion(final double[] data, final int first, final int limit) {
+        for (int i = first + 1; i < limit; i++) {
+            double value = data[i];
+            int j = i - 1;
+            while (j >= first && data[j] > value) {
+                data[j + 1] = data[j];
+                j--;
+            }
+            data[j + 1] = value;
+        }
+    }
+
+    private static void insertion(final double[] keys, final int[] perm, final int first, final int limit) {
+        for (int i = first + 1; i < limit; i++) {
+            double key = keys[i];
+            int index = perm[i];
+            int j = i - 1;
+            while (j >= first && keys[j] > key) {
+                keys[j + 1] = keys[j];
+                perm[j + 1] = perm[j];
+                j--;
+            }
+            keys[j + 1] = key;
+            perm[j + 1] = index;
+        }
+    }
+
+    private static void insertion(final long[] keys, final int[] perm, final int first, final int limit) {
+        for (int i = first + 1; i < limit; i++) {
+            long key = keys[i];
+            int index = perm[i];
+            int j = i - 1;
+            while (j >= first && keys[j] > key) {
+                keys[j + 1] = keys[j];
+                perm[j + 1] = perm[j];
+                j--;
+            }
+            keys[j + 1] = key;
+            perm[j + 1] = index;
+        }
+    }
+
+    private static void introsort(final double[] keys, final int[] perm, final int first, final int limit, final int depth) {
+
+        int low = first;
+        int high = limit;
+        int budget = depth;
+
+        while (high - low > INSERTION) {
+
+            if (budget-- == 0) {
+                SortAll.heapsort(keys, perm, low, high);
+                return;
+            }
+
+            double pivot = SortAll.median(keys, low, low + (high - low) / 2, high - 1);
+
+            int i = low;
+            int j = high - 1;
+            while (i <= j) {
+                while (keys[i] < pivot) {
+                    i++;
+                }
+                while (keys[j] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    SortAll.swap(keys, perm, i++, j--);
+                }
+            }
+
+            // Recurse on the smaller part, loop on the larger
+            if (j + 1 - low < high - i) {
+                SortAll.introsort(keys, perm, low, j + 1, budget);
+                low = i;
+            } else {
+                SortAll.introsort(keys, perm, i, high, budget);
+                high = j + 1;
+            }
+        }
+
+        SortAll.insertion(keys, perm, low, high);
+    }
+
+    private static void introsort(final long[] keys, final int[] perm, final int first, final int limit, final int depth) {
+
+        int low = first;
+        int high = limit;
+        int budget = depth;
+
+        while (high - low > INSERTION) {
+
+            if (budget-- == 0) {
+                SortAll.heapsort(keys, perm, low, high);
+                return;
+            }
+
+            long pivot = SortAll.median(keys, low, low + (high - low) / 2, high - 1);
+
+            int i = low;
+            int j = high - 1;
+            while (i <= j) {
+                while (keys[i] < pivot) {
+                    i++;
+                }
+                while (keys[j] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    SortAll.swap(keys, perm, i++, j--);
                 }
             }
-        } while (tmpSwapped);
+
+            if (j + 1 - low < high - i) {
+                SortAll.introsort(keys, perm, low, j + 1, budget);
+                low = i;
+            } else {
+                SortAll.introsort(keys, perm, i, high, budget);
+                high = j + 1;
+            }
+        }
+
+        SortAll.insertion(keys, perm, low, high);
+    }
+
+    private static int log2(final int count) {
+        return count <= 1 ? 0 : 31 - Integer.numberOfLeadingZeros(count);
+    }
+
+    private static double median(final double[] data, final int a, final int b, final int c) {
+        double x = data[a], y = data[b], z = data[c];
+        if (x < y) {
+            return y < z ? y : x < z ? z : x;
+        } else {
+            return x < z ? x : y < z ? z : y;
+        }
+    }
+
+    private static long median(final long[] data, final int a, final int b, final int c) {
+        long x = data[a], y = data[b], z = data[c];
+        if (x < y) {
+            return y < z ? y : x < z ? z : x;
+        } else {
+            return x < z ? x : y < z ? z : y;
+        }
+    }
+
+    private static void merge(final double[] keys, final int[] perm, final int first, final int middle, final int limit, final double[] toKeys,
+            final int[] toPerm) {
+        int i = first, j = middle, k = first;
+        while (i < middle && j < limit) {
+            if (keys[j] < keys[i]) {
+                toKeys[k] = keys[j];
+                toPerm[k++] = perm[j++];
+            } else {
+                toKeys[k] = keys[i];
+                toPerm[k++] = perm[i++];
+            }
+        }
+        System.arraycopy(keys, i, toKeys, k, middle - i);
+        System.arraycopy(perm, i, toPerm, k, middle - i);
+        k += middle - i;
+        System.arraycopy(keys, j, toKeys, k, limit - j);
+        System.arraycopy(perm, j, toPerm, k, limit - j);
+    }
+
+    private static void merge(final long[] keys, final int[] perm, final int first, final int middle, final int limit, final long[] toKeys,
+            final int[] toPerm) {
+        int i = first, j = middle, k = first;
+        while (i < middle && j < limit) {
+            if (keys[j] < keys[i]) {
+                toKeys[k] = keys[j];
+                toPerm[k++] = perm[j++];
+            } else {
+                toKeys[k] = keys[i];
+                toPerm[k++] = perm[i++];
+            }
+        }
+        System.arraycopy(keys, i, toKeys, k, middle - i);
+        System.arraycopy(perm, i, toPerm, k, middle - i);
+        k += middle - i;
+        System.arraycopy(keys, j, toKeys, k, limit - j);
+        System.arraycopy(perm, j, toPerm, k, limit - j);
+    }
+
+    private static int pieces(final int length) {
+        if (length <= PARALLELISM_THRESHOLD) {
+            return 1;
+        }
+        int workers = Math.min(Parallelism.CORES.getAsInt(), length / PARALLELISM_THRESHOLD);
+        return workers > 1 ? Integer.highestOneBit(workers) : 1;
+    }
+
+    private static void select(final double[] data, final int first, final int limit, final int[] ranks, final int firstRank, final int limitRank) {
+
+        if (firstRank >= limitRank || limit - first <= 1) {
+            return;
+        }
+
+        int middleRank = (firstRank + limitRank) >>> 1;
+        int k = ranks[middleRank];
+
+        if (k >= first && k < limit) {
+            SortAll.select(data, first, limit, k);
+            SortAll.select(data, first, k, ranks, firstRank, middleRank);
+            SortAll.select(data, k + 1, limit, ranks, middleRank + 1, limitRank);
+        } else if (k < first) {
+            SortAll.select(data, first, limit, ranks, middleRank + 1, limitRank);
+        } else {
+            SortAll.select(data, first, limit, ranks, firstRank, middleRank);
+        }
+    }
+
+    private static void sift(final double[] keys, final int[] perm, final int offset, final int root, final int count) {
+        int parent = root;
+        int child;
+        while ((child = 2 * parent + 1) < count) {
+            if (child + 1 < count && keys[offset + child] < keys[offset + child + 1]) {
+                child++;
+            }
+            if (keys[offset + parent] >= keys[offset + child]) {
+                return;
+            }
+            SortAll.swap(keys, perm, offset + parent, offset + child);
+            parent = child;
+        }
+    }
+
+    private static void sift(final long[] keys, final int[] perm, final int offset, final int root, final int count) {
+        int parent = root;
+        int child;
+        while ((child = 2 * parent + 1) < count) {
+            if (child + 1 < count && keys[offset + child] < keys[offset + child + 1]) {
+                child++;
+            }
+            if (keys[offset + parent] >= keys[offset + child]) {
+                return;
+            }
+            SortAll.swap(keys, perm, offset + parent, offset + child);
+            parent = child;
+        }
+    }
+
+    /**
+     * Introsort is not stable. With a permutation that started out as [0, 1, 2...] the original order is
+     * restored by sorting the permutation within each run of equal keys.
+     */
+    private static void stabilise(final long[] keys, final int[] perm, final int length) {
+        for (int i = 0; i < length;) {
+            int j = i + 1;
+            while (j < length && keys[j] == keys[i]) {
+                j++;
+            }
+            if (j - i > 1) {
+                Arrays.sort(perm, i, j);
+            }
+            i = j;
+        }
+    }
+
+    private static void swap(final double[] keys, final int[] perm, final int a, final int b) {
+        double key = keys[a];
+        keys[a] = keys[b];
+        keys[b] = key;
+        int index = perm[a];
+        perm[a] = perm[b];
+        perm[b] = index;
+    }
+
+    private static void swap(final long[] keys, final int[] perm, final int a, final int b) {
+        long key = keys[a];
+        keys[a] = keys[b];
+        keys[b] = key;
+        int index = perm[a];
+        perm[a] = perm[b];
+        perm[b] = index;
     }
 
 }
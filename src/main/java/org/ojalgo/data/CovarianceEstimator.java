@@ -0,0 +1,375 @@
+/*
+ * Copyright 1997-2025 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.data;
+
+import static org.ojalgo.function.constant.PrimitiveMath.*;
+
+import java.util.Arrays;
+import java.util.stream.Collector;
+
+import org.ojalgo.concurrent.DivideAndConquer;
+import org.ojalgo.concurrent.ProcessingService;
+import org.ojalgo.matrix.store.R064Store;
+import org.ojalgo.structure.Access1D;
+import org.ojalgo.structure.Access2D;
+import org.ojalgo.type.function.TwoStepMapper;
+
+/**
+ * Incrementally updated covariance (and correlation) matrix estimates. Compared to
+ * {@link DataProcessors#covariances(org.ojalgo.structure.Factory2D, Access1D...)} the data does not have to
+ * be available up front, and nothing is recalculated from scratch.
+ * <ul>
+ * <li>{@link #update(Access1D)} adds one sample (one value per variable) – a Welford style rank-1 update.
+ * <li>{@link #update(Access2D)} adds a batch of samples (rows). The batch scatter matrix is calculated as
+ * X<sup>T</sup>X, using the ordinary (blocked/parallel) matrix multiplication, and then merged.
+ * <li>{@link #combine(CovarianceEstimator)} merges partial states, calculated independently (in parallel),
+ * for the same variables.
+ * <li>With a decay factor (less than 1.0) older samples are exponentially down-weighted – each new sample
+ * multiplies the weight of all previous ones by the decay factor.
+ * </ul>
+ * Covariances are normalised to be unbiased (reliability weights), and with no decay they match
+ * {@link org.ojalgo.random.SampleSet#getCovariance(org.ojalgo.random.SampleSet)}.
+ */
+public final class CovarianceEstimator implements TwoStepMapper.Combineable<Access1D<?>, R064Store, CovarianceEstimator> {
+
+    /**
+     * Rank-1 updates of matrices with more than THRESHOLD x THRESHOLD elements are done in parallel.
+     */
+    public static int THRESHOLD = 256;
+
+    private static final DivideAndConquer.Divider DIVIDER = ProcessingService.INSTANCE.divider();
+
+    /**
+     * The scatter matrix is stored scaled, so that the decay does not require touching every element with
+     * every update. When the scale factor gets this small it's multiplied in.
+     */
+    private static final double SMALLEST_SCALE = 1E-100;
+
+    public static Collector<Access1D<?>, CovarianceEstimator, R064Store> newCollector(final int nbVariables) {
+        return TwoStepMapper.Combineable.newCollector(() -> new CovarianceEstimator(nbVariables, ONE));
+    }
+
+    public static CovarianceEstimator of(final int nbVariables) {
+        return new CovarianceEstimator(nbVariables, ONE);
+    }
+
+    /**
+     * @param decay In the range (0,1]. 1.0 means no decay.
+     */
+    public static CovarianceEstimator of(final int nbVariables, final double decay) {
+        return new CovarianceEstimator(nbVariables, decay);
+    }
+
+    private long myCount = 0L;
+    private final double myDecay;
+    private final double[] myDelta;
+    private final double[] myMeans;
+    private double myScale = ONE;
+    /**
+     * The sum of weighted outer products of deviations from the mean (column-major, only the upper triangle
+     * is maintained), divided by myScale.
+     */
+    private final double[] myScatter;
+    private final int myVariables;
+    private double myWeight = ZERO;
+    private double myWeightOfSquares = ZERO;
+
+    CovarianceEstimator(final int nbVariables, final double decay) {
+
+        super();
+
+        if (nbVariables <= 0 || decay <= ZERO || decay > ONE) {
+            throw new IllegalArgumentException();
+        }
+
+        myVariables = nbVariables;
+        myDecay = decay;
+
+        myMeans = new double[nbVariables];
+        myDelta = new double[nbVariables];
+        myScatter = new double[nbVariables * nbVariables];
+    }
+
+    @Override
+    public void combine(final CovarianceEstimator other) {
+
+        if (other.getVariables() != myVariables) {
+            throw new IllegalArgumentException();
+        }
+        if (other.count() == 0L) {
+            return;
+        }
+
+        double total = myWeight + other.myWeight;
+        double factor = myWeight * other.myWeight / total;
+
+        for (int i = 0; i < myVariables; i++) {
+            myDelta[i] = other.myMeans[i] - myMeans[i];
+        }
+
+        double otherScale = other.myScale / myScale;
+        for (int j = 0; j < myVariables; j++) {
+            for (int i = 0, offset = j * myVariables; i <= j; i++) {
+                myScatter[offset + i] += otherScale * other.myScatter[offset + i];
+            }
+        }
+        this.addOuterProduct(factor);
+
+        for (int i = 0; i < myVariables; i++) {
+            myMeans[i] += myDelta[i] * other.myWeight / total;
+        }
+
+        myWeight = total;
+        myWeightOfSquares += other.myWeightOfSquares;
+        myCount += other.count();
+    }
+
+    /**
+     * Same as {@link #update(Access1D)}
+     */
+    @Override
+    public void consume(final Access1D<?> sample) {
+        this.update(sample);
+    }
+
+    /**
+     * The number of samples added
+     */
+    public long count() {
+        return myCount;
+    }
+
+    /**
+     * The correlation matrix
+     */
+    public R064Store getCorrelations() {
+
+        R064Store retVal = this.getCovariances();
+        double[] data = retVal.data;
+
+        double[] stdDev = new double[myVariables];
+        for (int i = 0; i < myVariables; i++) {
+            stdDev[i] = Math.sqrt(data[i + i * myVariables]);
+        }
+
+        for (int j = 0; j < myVariables; j++) {
+            for (int i = 0; i < myVariables; i++) {
+                data[i + j * myVariables] = i == j ? ONE : data[i + j * myVariables] / (stdDev[i] * stdDev[j]);
+            }
+        }
+
+        return retVal;
+    }
+
+    /**
+     * The covariance matrix
+     */
+    public R064Store getCovariances() {
+
+        double[] data = new double[myVariables * myVariables];
+
+        double divisor = myWeight - myWeightOfSquares / myWeight;
+        double factor = myScale / divisor;
+
+        for (int j = 0; j < myVariables; j++) {
+            for (int i = 0; i <= j; i++) {
+                double covariance = factor * myScatter[i + j * myVariables];
+                data[i + j * myVariables] = covariance;
+                data[j + i * myVariables] = covariance;
+            }
+        }
+
+        return R064Store.wrap(data, myVariables);
+    }
+
+    public double getDecay() {
+        return myDecay;
+    }
+
+    /**
+     * The (weighted) means as a column vector
+     */
+    public R064Store getMeans() {
+        return R064Store.wrap(myMeans.clone(), myVariables);
+    }
+
+    /**
+     * Same as {@link #getCovariances()}
+     */
+    @Override
+    public R064Store getResults() {
+        return this.getCovariances();
+    }
+
+    public int getVariables() {
+        return myVariables;
+    }
+
+    @Override
+    public void reset() {
+        myCount = 0L;
+        myScale = ONE;
+        myWeight = ZERO;
+        myWeightOfSquares = ZERO;
+        Arrays.fill(myMeans, ZERO);
+        Arrays.fill(myScatter, ZERO);
+    }
+
+    /**
+     * Add one sample – one value per variable.
+     */
+    public void update(final Access1D<?> sample) {
+
+        if (sample.count() != myVariables) {
+            throw new IllegalArgumentException();
+        }
+
+        this.decay(myDecay);
+
+        double total = myWeight + ONE;
+
+        for (int i = 0; i < myVariables; i++) {
+            double delta = sample.doubleValue(i) - myMeans[i];
+            myDelta[i] = delta;
+            myMeans[i] += delta / total;
+        }
+
+        this.addOuterProduct(myWeight / total);
+
+        myWeight = total;
+        myWeightOfSquares += ONE;
+        myCount++;
+    }
+
+    /**
+     * Add a batch of samples – each row is one sample and the rows are in chronological order (that matters
+     * only when there is decay).
+     */
+    public void update(final Access2D<?> samples) {
+
+        int nbSamples = samples.getRowDim();
+
+        if (samples.getColDim() != myVariables) {
+            throw new IllegalArgumentException();
+        }
+        if (nbSamples == 0) {
+            return;
+        }
+
+        double[] weights = new double[nbSamples];
+        double batchWeight = ZERO, batchWeightOfSquares = ZERO;
+        for (int s = nbSamples - 1, w = 0; s >= 0; s--, w++) {
+            weights[s] = myDecay == ONE ? ONE : Math.pow(myDecay, w);
+            batchWeight += weights[s];
+            batchWeightOfSquares += weights[s] * weights[s];
+        }
+
+        double[] batchMeans = new double[myVariables];
+        for (int j = 0; j < myVariables; j++) {
+            double sum = ZERO;
+            for (int s = 0; s < nbSamples; s++) {
+                sum += weights[s] * samples.doubleValue(s, j);
+            }
+            batchMeans[j] = sum / batchWeight;
+        }
+
+        R064Store centered = R064Store.FACTORY.make(nbSamples, myVariables);
+        for (int j = 0; j < myVariables; j++) {
+            for (int s = 0; s < nbSamples; s++) {
+                centered.set(s, j, Math.sqrt(weights[s]) * (samples.doubleValue(s, j) - batchMeans[j]));
+            }
+        }
+
+        R064Store scatter = R064Store.FACTORY.make(myVariables, myVariables);
+        scatter.fillByMultiplying(centered.transpose(), centered);
+
+        this.decay(myDecay == ONE ? ONE : Math.pow(myDecay, nbSamples));
+
+        double total = myWeight + batchWeight;
+
+        for (int i = 0; i < myVariables; i++) {
+            myDelta[i] = batchMeans[i] - myMeans[i];
+        }
+
+        double[] data = scatter.data;
+        for (int j = 0; j < myVariables; j++) {
+            for (int i = 0, offset = j * myVariables; i <= j; i++) {
+                myScatter[offset + i] += data[offset + i] / myScale;
+            }
+        }
+        this.addOuterProduct(myWeight * batchWeight / total);
+
+        for (int i = 0; i < myVariables; i++) {
+            myMeans[i] += myDelta[i] * batchWeight / total;
+        }
+
+        myWeight = total;
+        myWeightOfSquares += batchWeightOfSquares;
+        myCount += nbSamples;
+    }
+
+    /**
+     * Adds factor * delta * delta<sup>T</sup> to the (upper triangle of the) scatter matrix.
+     */
+    private void addOuterProduct(final double factor) {
+
+        if (factor == ZERO) {
+            return;
+        }
+
+        double scaled = factor / myScale;
+
+        if (myVariables > THRESHOLD) {
+            DIVIDER.threshold(1).divide(0, myVariables, (first, limit) -> this.addOuterProduct(scaled, first, limit));
+        } else {
+            this.addOuterProduct(scaled, 0, myVariables);
+        }
+    }
+
+    private void addOuterProduct(final double factor, final int first, final int limit) {
+        for (int j = first; j < limit; j++) {
+            double deltaJ = factor * myDelta[j];
+            for (int i = 0, offset = j * myVariables; i <= j; i++) {
+                myScatter[offset + i] += deltaJ * myDelta[i];
+            }
+        }
+    }
+
+    private void decay(final double factor) {
+
+        if (factor == ONE) {
+            return;
+        }
+
+        myWeight *= factor;
+        myWeightOfSquares *= factor * factor;
+        myScale *= factor;
+
+        if (myScale < SMALLEST_SCALE) {
+            for (int i = 0; i < myScatter.length; i++) {
+                myScatter[i] *= myScale;
+            }
+            myScale = ONE;
+        }
+    }
+
+}
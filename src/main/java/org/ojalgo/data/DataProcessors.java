@@ -115,6 +115,8 @@ public class DataProcessors {
     /**
      * Calculate the covariance matrix from a set of variables' samples. Each {@link Access1D} instance
      * represents one variable, and contains an ordered sequence of samples.
+     *
+     * @see CovarianceEstimator for incremental updates
      */
     public static <M extends Mutate2D> M covariances(final Factory2D<M> factory, final Access1D<?>... data) {
 
@@ -197,6 +199,7 @@ public class DataProcessors {
      * @param svd A pre-decomposed SVD instance. The original matrix is assumed to have centered data in its
      *        columns
      * @param complexity The maximum number of singular values that should be considered
+     * @see IncrementalPCA for a rank limited decomposition that is updated incrementally
      */
     public static <M extends PhysicalStore<Double>> M covariances(final Factory2D<M> factory, final SingularValue<Double> svd, final int complexity) {
 
@@ -0,0 +1,265 @@
+/*
+ * Copyright 1997-2025 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.data;
+
+import static org.ojalgo.function.constant.PrimitiveMath.*;
+
+import org.ojalgo.array.Array1D;
+import org.ojalgo.matrix.decomposition.SingularValue;
+import org.ojalgo.matrix.store.MatrixStore;
+import org.ojalgo.matrix.store.R064Store;
+import org.ojalgo.structure.Access1D;
+import org.ojalgo.structure.Access2D;
+import org.ojalgo.structure.Mutate1D;
+import org.ojalgo.structure.Mutate2D;
+
+/**
+ * Principal component analysis that is updated incrementally, one batch of samples (rows) at the time,
+ * rather than recalculated from a full {@link SingularValue} decomposition of all data. Variables are in
+ * columns, same as with {@link DataProcessors}.
+ * <p>
+ * A rank-k basis (the principal components) and the corresponding singular values are maintained. With each
+ * batch an augmented matrix – the current basis scaled by its singular values, the centered batch rows and
+ * a mean correction row – is decomposed, and the top k singular vectors kept. That SVD is of size (k + batch
+ * size + 1) x variables, regardless of how many samples have been processed (Ross et al. 2008, similar to
+ * Brand's method).
+ * <p>
+ * With a forgetting factor (less than 1.0) older samples are exponentially down-weighted – each new sample
+ * multiplies the weight of all previous ones by that factor (same as {@link CovarianceEstimator}).
+ * <p>
+ * The transform/project methods don't allocate anything, and may be called concurrently (but not
+ * concurrently with an update).
+ */
+public final class IncrementalPCA {
+
+    public static IncrementalPCA of(final int nbVariables, final int nbComponents) {
+        return new IncrementalPCA(nbVariables, nbComponents, ONE);
+    }
+
+    /**
+     * @param forgettingFactor In the range (0,1]. 1.0 means no forgetting.
+     */
+    public static IncrementalPCA of(final int nbVariables, final int nbComponents, final double forgettingFactor) {
+        return new IncrementalPCA(nbVariables, nbComponents, forgettingFactor);
+    }
+
+    private final int myComponents;
+    private long myCount = 0L;
+    private final double myForgettingFactor;
+    private final double[] myMeans;
+    private int myRank = 0;
+    private final double[] mySingularValues;
+    private final SingularValue<Double> mySVD = SingularValue.R064.make();
+    private final int myVariables;
+    /**
+     * variables x components, column-major
+     */
+    private final double[] myVectors;
+    private double myWeight = ZERO;
+    private double myWeightOfSquares = ZERO;
+
+    IncrementalPCA(final int nbVariables, final int nbComponents, final double forgettingFactor) {
+
+        super();
+
+        if (nbVariables <= 0 || nbComponents <= 0 || nbComponents > nbVariables || forgettingFactor <= ZERO || forgettingFactor > ONE) {
+            throw new IllegalArgumentException();
+        }
+
+        myVariables = nbVariables;
+        myComponents = nbComponents;
+        myForgettingFactor = forgettingFactor;
+
+        myMeans = new double[nbVariables];
+        myVectors = new double[nbVariables * nbComponents];
+        mySingularValues = new double[nbComponents];
+    }
+
+    /**
+     * The number of samples processed
+     */
+    public long count() {
+        return myCount;
+    }
+
+    /**
+     * The actual number of components – less than the requested number until enough (linearly independent)
+     * samples have been processed.
+     */
+    public int countComponents() {
+        return myRank;
+    }
+
+    /**
+     * The principal components (eigenvectors of the covariance matrix) in columns, ordered by decreasing
+     * variance.
+     */
+    public R064Store getComponents() {
+        R064Store retVal = R064Store.FACTORY.make(myVariables, myRank);
+        for (int c = 0; c < myRank; c++) {
+            for (int j = 0; j < myVariables; j++) {
+                retVal.set(j, c, myVectors[j + c * myVariables]);
+            }
+        }
+        return retVal;
+    }
+
+    /**
+     * The (weighted) means of the variables as a column vector
+     */
+    public R064Store getMeans() {
+        return R064Store.wrap(myMeans.clone(), myVariables);
+    }
+
+    /**
+     * The variance along each of the principal components (the eigenvalues of the covariance matrix),
+     * normalised the same way as {@link CovarianceEstimator#getCovariances()}.
+     */
+    public R064Store getVariances() {
+        double divisor = myWeight - myWeightOfSquares / myWeight;
+        R064Store retVal = R064Store.FACTORY.make(myRank, 1);
+        for (int c = 0; c < myRank; c++) {
+            retVal.set(c, mySingularValues[c] * mySingularValues[c] / divisor);
+        }
+        return retVal;
+    }
+
+    /**
+     * Project one sample (row) onto the principal components.
+     *
+     * @param sample The variables' values
+     * @param scores The component scores, at least {@link #countComponents()} long.
+     */
+    public void transform(final Access1D<?> sample, final Mutate1D scores) {
+        for (int c = 0; c < myRank; c++) {
+            double score = ZERO;
+            for (int j = 0, offset = c * myVariables; j < myVariables; j++) {
+                score += (sample.doubleValue(j) - myMeans[j]) * myVectors[offset + j];
+            }
+            scores.set(c, score);
+        }
+    }
+
+    /**
+     * Project many samples (rows) onto the principal components.
+     *
+     * @param samples The variables' values, one row per sample
+     * @param scores The component scores, one row per sample
+     */
+    public void transform(final Access2D<?> samples, final Mutate2D scores) {
+        for (int s = 0, nbSamples = samples.getRowDim(); s < nbSamples; s++) {
+            for (int c = 0; c < myRank; c++) {
+                double score = ZERO;
+                for (int j = 0, offset = c * myVariables; j < myVariables; j++) {
+                    score += (samples.doubleValue(s, j) - myMeans[j]) * myVectors[offset + j];
+                }
+                scores.set(s, c, score);
+            }
+        }
+    }
+
+    /**
+     * Update with a batch of samples – one row per sample, in chronological order (that matters only with a
+     * forgetting factor).
+     */
+    public void update(final Access2D<?> samples) {
+
+        int nbSamples = samples.getRowDim();
+
+        if (samples.getColDim() != myVariables) {
+            throw new IllegalArgumentException();
+        }
+        if (nbSamples == 0) {
+            return;
+        }
+
+        double[] weights = new double[nbSamples];
+        double batchWeight = ZERO, batchWeightOfSquares = ZERO;
+        for (int s = nbSamples - 1, w = 0; s >= 0; s--, w++) {
+            weights[s] = myForgettingFactor == ONE ? ONE : Math.pow(myForgettingFactor, w);
+            batchWeight += weights[s];
+            batchWeightOfSquares += weights[s] * weights[s];
+        }
+
+        double[] batchMeans = new double[myVariables];
+        for (int j = 0; j < myVariables; j++) {
+            double sum = ZERO;
+            for (int s = 0; s < nbSamples; s++) {
+                sum += weights[s] * samples.doubleValue(s, j);
+            }
+            batchMeans[j] = sum / batchWeight;
+        }
+
+        double decay = myForgettingFactor == ONE ? ONE : Math.pow(myForgettingFactor, nbSamples);
+        double oldWeight = decay * myWeight;
+        double newWeight = oldWeight + batchWeight;
+        double singularScale = Math.sqrt(decay);
+        double correction = Math.sqrt(oldWeight * batchWeight / newWeight);
+
+        // The augmented matrix, transposed: variables x (rank + samples + 1)
+
+        int nbColumns = myRank + nbSamples + (myCount > 0L ? 1 : 0);
+        R064Store augmented = R064Store.FACTORY.make(myVariables, nbColumns);
+
+        for (int c = 0; c < myRank; c++) {
+            double scale = singularScale * mySingularValues[c];
+            for (int j = 0; j < myVariables; j++) {
+                augmented.set(j, c, scale * myVectors[j + c * myVariables]);
+            }
+        }
+        for (int s = 0; s < nbSamples; s++) {
+            double scale = Math.sqrt(weights[s]);
+            for (int j = 0; j < myVariables; j++) {
+                augmented.set(j, myRank + s, scale * (samples.doubleValue(s, j) - batchMeans[j]));
+            }
+        }
+        if (myCount > 0L) {
+            for (int j = 0; j < myVariables; j++) {
+                augmented.set(j, nbColumns - 1, correction * (batchMeans[j] - myMeans[j]));
+            }
+        }
+
+        if (!mySVD.decompose(augmented)) {
+            throw new IllegalStateException("SVD failed!");
+        }
+
+        Array1D<Double> values = mySVD.getSingularValues();
+        MatrixStore<Double> vectors = mySVD.getU();
+
+        myRank = Math.min(myComponents, Math.min(mySVD.getRank(), Math.toIntExact(vectors.countColumns())));
+        for (int c = 0; c < myRank; c++) {
+            mySingularValues[c] = values.doubleValue(c);
+            for (int j = 0; j < myVariables; j++) {
+                myVectors[j + c * myVariables] = vectors.doubleValue(j, c);
+            }
+        }
+
+        for (int j = 0; j < myVariables; j++) {
+            myMeans[j] += (batchMeans[j] - myMeans[j]) * batchWeight / newWeight;
+        }
+
+        myWeight = newWeight;
+        myWeightOfSquares = decay * decay * myWeightOfSquares + batchWeightOfSquares;
+        myCount += nbSamples;
+    }
+
+}
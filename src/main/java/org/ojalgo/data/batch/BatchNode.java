@@ -268,6 +268,14 @@ public final class BatchNode<T> {
         myShards.delete();
     }
 
+    /**
+     * A reader for one of the underlying shards. Together with {@link #shards()} this lets you build custom
+     * processing, such as reading the shards in a different (shuffled) order each time.
+     */
+    public FromFileReader<T> newReader(final File shard) {
+        return this.getReaderFactory().apply(shard);
+    }
+
     public ToFileWriter<T> newWriter() {
         return ToFileWriter.newBuilder(myShards).queue(myQueueCapacity).parallelism(myParallelism).statistics(myWriterManger).build(myDistributor,
                 shard -> DataWriter.of(shard, myInterpreter));
@@ -393,6 +401,15 @@ public final class BatchNode<T> {
         return this.reduceByMerging(aggregatorFactory);
     }
 
+    /**
+     * The underlying files/shards.
+     *
+     * @see #newReader(File)
+     */
+    public File[] shards() {
+        return myShards.shards().clone();
+    }
+
     private Function<File, FromFileReader<T>> getReaderFactory() {
         if (myReaderFactory == null) {
             Function<File, DataReader<T>> baseReader = file -> DataReader.of(file, myInterpreter);
@@ -457,8 +474,4 @@ public final class BatchNode<T> {
         }
     }
 
-    FromFileReader<T> newReader(final File file) {
-        return this.getReaderFactory().apply(file);
-    }
-
 }
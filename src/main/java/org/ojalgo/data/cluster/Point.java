@@ -50,9 +50,21 @@ public final class Point implements Comparable<Point> {
      * <li>Filter out centroids/clusters corresponding to extremely small clusters (This determines the 'k')
      * <li>Perform k-means clustering to refine the clusters and centroids
      * </ol>
+     * For larger inputs, storing all pairwise distances is not feasible. Instead the points are put in a
+     * {@link PointIndex}, the distance threshold is estimated from a sample, and the greedy clustering is
+     * done using radius queries.
      */
     public static List<Set<Point>> cluster(final Collection<Point> input) {
 
+        if (input.size() > PointIndex.THRESHOLD) {
+
+            PointIndex index = PointIndex.of(input);
+
+            GeneralisedKMeans<Point> clusterer = new GeneralisedKMeans<>(index::initialiser, index::centroid, Point::distance);
+
+            return clusterer.cluster(input);
+        }
+
         PointDistanceCache cache = new PointDistanceCache();
         cache.setup(input, Point::distance);
 
@@ -0,0 +1,360 @@
+package org.ojalgo.data.cluster;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.IntConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.ojalgo.concurrent.ProcessingService;
+import org.ojalgo.function.constant.PrimitiveMath;
+import org.ojalgo.random.SampleSet;
+
+/**
+ * A k-d tree over a set of {@link Point}s, supporting nearest neighbour (k-NN) and radius queries. Distances
+ * are measured the same way as {@link Point#distance(Point)} – the squared Euclidean distance – so a radius
+ * query threshold should be specified in squared units too.
+ * <p>
+ * Memory use is linear in the number of points, and construction (done in parallel) is O(n log n). This is
+ * what the {@link Point} based clustering switches to, instead of {@link PointDistanceCache}, when the number
+ * of points is larger than {@link #THRESHOLD}.
+ */
+public final class PointIndex {
+
+    private static final class Neighbour {
+
+        final double distance;
+        final int position;
+
+        Neighbour(final int position, final double distance) {
+            super();
+            this.position = position;
+            this.distance = distance;
+        }
+
+    }
+
+    /**
+     * Max number of points in a leaf (that is scanned linearly)
+     */
+    private static final int LEAF_SIZE = 8;
+    /**
+     * Subtrees larger than this are built in parallel
+     */
+    private static final int PARALLEL_SIZE = 8192;
+    private static final int SAMPLE_SIZE = 10_000;
+
+    /**
+     * Above this number of points {@link Point#cluster(Collection)} uses a {@link PointIndex} rather than a
+     * {@link PointDistanceCache}. The cache stores all pairwise distances, n²/2 of them, which quickly becomes
+     * too much.
+     */
+    static int THRESHOLD = 2_048;
+
+    public static PointIndex of(final Collection<Point> points) {
+        return new PointIndex(points.toArray(new Point[points.size()]));
+    }
+
+    private static void swap(final Point[] points, final int i, final int j) {
+        Point tmp = points[i];
+        points[i] = points[j];
+        points[j] = tmp;
+    }
+
+    /**
+     * Partially sorts the range [first, limit) so that the element at position nth is the one that would be
+     * there if the range was fully sorted (by the specified coordinate).
+     */
+    static void select(final Point[] points, final int first, final int limit, final int nth, final int dimension) {
+
+        int low = first;
+        int high = limit - 1;
+
+        while (high > low) {
+
+            float pivot = points[(low + high) >>> 1].coordinates[dimension];
+
+            int i = low;
+            int j = high;
+            while (i <= j) {
+                while (points[i].coordinates[dimension] < pivot) {
+                    i++;
+                }
+                while (points[j].coordinates[dimension] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    PointIndex.swap(points, i++, j--);
+                }
+            }
+
+            if (nth <= j) {
+                high = j;
+            } else if (nth >= i) {
+                low = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private final int myDimensions;
+    private final Point[] myPoints;
+    /**
+     * The split dimension for the node (subtree) with its median at that position. -1 for positions that are
+     * part of a leaf.
+     */
+    private final byte[] mySplits;
+
+    PointIndex(final Point[] points) {
+
+        super();
+
+        myPoints = points;
+        myDimensions = points.length > 0 ? points[0].coordinates.length : 0;
+        if (myDimensions > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many dimensions!");
+        }
+        mySplits = new byte[points.length];
+        Arrays.fill(mySplits, (byte) -1);
+
+        this.build(0, points.length);
+    }
+
+    /**
+     * The k nearest neighbours of the query point, ordered from nearest to farthest. If the query point is
+     * itself part of the index it is included (as its own nearest neighbour).
+     */
+    public List<Point> nearest(final Point query, final int k) {
+
+        if (k <= 0) {
+            return new ArrayList<>(0);
+        }
+
+        PriorityQueue<Neighbour> heap = new PriorityQueue<>(k + 1, Comparator.comparingDouble((final Neighbour n) -> n.distance).reversed());
+
+        this.nearest(query, k, heap, 0, myPoints.length);
+
+        Neighbour[] sorted = heap.toArray(new Neighbour[heap.size()]);
+        Arrays.sort(sorted, Comparator.comparingDouble(n -> n.distance));
+
+        List<Point> retVal = new ArrayList<>(sorted.length);
+        for (Neighbour neighbour : sorted) {
+            retVal.add(myPoints[neighbour.position]);
+        }
+        return retVal;
+    }
+
+    /**
+     * @return The number of points in the index
+     */
+    public int size() {
+        return myPoints.length;
+    }
+
+    /**
+     * All points with {@link Point#distance(Point)} to the query point less than or equal to the threshold.
+     */
+    public List<Point> within(final Point query, final double threshold) {
+        List<Point> retVal = new ArrayList<>();
+        this.within(query, threshold, position -> retVal.add(myPoints[position]), 0, myPoints.length);
+        return retVal;
+    }
+
+    private void build(final int first, final int limit) {
+
+        int count = limit - first;
+
+        if (count <= LEAF_SIZE) {
+            return;
+        }
+
+        int dimension = this.findWidestDimension(first, limit);
+        int median = (first + limit) >>> 1;
+
+        PointIndex.select(myPoints, first, limit, median, dimension);
+        mySplits[median] = (byte) dimension;
+
+        if (count > PARALLEL_SIZE) {
+            ProcessingService.INSTANCE.processPair(new int[] { first, median }, new int[] { median + 1, limit }, range -> this.build(range[0], range[1]));
+        } else {
+            this.build(first, median);
+            this.build(median + 1, limit);
+        }
+    }
+
+    private int findWidestDimension(final int first, final int limit) {
+
+        int retVal = 0;
+        float widest = -1F;
+
+        for (int d = 0; d < myDimensions; d++) {
+            float min = Float.POSITIVE_INFINITY;
+            float max = Float.NEGATIVE_INFINITY;
+            for (int i = first; i < limit; i++) {
+                float value = myPoints[i].coordinates[d];
+                min = Math.min(min, value);
+                max = Math.max(max, value);
+            }
+            if (max - min > widest) {
+                widest = max - min;
+                retVal = d;
+            }
+        }
+
+        return retVal;
+    }
+
+    private void nearest(final Point query, final int k, final PriorityQueue<Neighbour> heap, final int first, final int limit) {
+
+        if (limit - first <= LEAF_SIZE) {
+            for (int i = first; i < limit; i++) {
+                this.offer(query, k, heap, i);
+            }
+            return;
+        }
+
+        int median = (first + limit) >>> 1;
+        int dimension = mySplits[median];
+
+        this.offer(query, k, heap, median);
+
+        double diff = query.coordinates[dimension] - myPoints[median].coordinates[dimension];
+
+        if (diff < PrimitiveMath.ZERO) {
+            this.nearest(query, k, heap, first, median);
+            if (heap.size() < k || diff * diff < heap.peek().distance) {
+                this.nearest(query, k, heap, median + 1, limit);
+            }
+        } else {
+            this.nearest(query, k, heap, median + 1, limit);
+            if (heap.size() < k || diff * diff < heap.peek().distance) {
+                this.nearest(query, k, heap, first, median);
+            }
+        }
+    }
+
+    private void offer(final Point query, final int k, final PriorityQueue<Neighbour> heap, final int position) {
+        double distance = query.distance(myPoints[position]);
+        if (heap.size() < k) {
+            heap.offer(new Neighbour(position, distance));
+        } else if (distance < heap.peek().distance) {
+            heap.poll();
+            heap.offer(new Neighbour(position, distance));
+        }
+    }
+
+    private void within(final Point query, final double threshold, final IntConsumer consumer, final int first, final int limit) {
+
+        if (limit - first <= LEAF_SIZE) {
+            for (int i = first; i < limit; i++) {
+                if (query.distance(myPoints[i]) <= threshold) {
+                    consumer.accept(i);
+                }
+            }
+            return;
+        }
+
+        int median = (first + limit) >>> 1;
+        int dimension = mySplits[median];
+
+        if (query.distance(myPoints[median]) <= threshold) {
+            consumer.accept(median);
+        }
+
+        double diff = query.coordinates[dimension] - myPoints[median].coordinates[dimension];
+
+        if (diff <= PrimitiveMath.ZERO || diff * diff <= threshold) {
+            this.within(query, threshold, consumer, first, median);
+        }
+        if (diff >= PrimitiveMath.ZERO || diff * diff <= threshold) {
+            this.within(query, threshold, consumer, median + 1, limit);
+        }
+    }
+
+    /**
+     * Same role as {@link PointDistanceCache#centroid(Collection)} – the member that minimises the sum of
+     * distances to the other members. With squared Euclidean distances that is the member nearest to the
+     * mean, and can be found in linear time.
+     */
+    Point centroid(final Collection<Point> cluster) {
+
+        Point mean = Point.mean(cluster);
+
+        Point retVal = null;
+        double minDistance = Double.POSITIVE_INFINITY;
+
+        for (Point candidate : cluster) {
+            double distance = candidate.distance(mean);
+            if (distance < minDistance) {
+                minDistance = distance;
+                retVal = candidate;
+            }
+        }
+
+        return retVal;
+    }
+
+    /**
+     * Same role as {@link PointDistanceCache#getThreshold()} – the median pairwise distance, but estimated from
+     * a (reproducible) random sample of pairs.
+     */
+    double getThreshold() {
+
+        int nbPoints = myPoints.length;
+        Random random = new Random(nbPoints);
+
+        double[] samples = new double[SAMPLE_SIZE];
+        for (int s = 0; s < SAMPLE_SIZE; s++) {
+            int i = random.nextInt(nbPoints);
+            int j = random.nextInt(nbPoints - 1);
+            samples[s] = myPoints[i].distance(myPoints[j < i ? j : j + 1]);
+        }
+
+        return SampleSet.wrap(samples).getMedian();
+    }
+
+    /**
+     * Same role as {@link PointDistanceCache#initialiser(Collection)}, but the greedy clustering is done using
+     * radius queries: Points are visited in index order, and each not yet assigned point claims all
+     * unassigned points within the threshold distance.
+     */
+    List<Point> initialiser(final Collection<Point> input) {
+
+        double threshold = this.getThreshold();
+
+        int nbPoints = myPoints.length;
+        boolean[] assigned = new boolean[nbPoints];
+
+        List<Set<Point>> clusters = new ArrayList<>();
+
+        for (int p = 0; p < nbPoints; p++) {
+            if (!assigned[p]) {
+                Set<Point> cluster = new HashSet<>();
+                this.within(myPoints[p], threshold, position -> {
+                    if (!assigned[position]) {
+                        assigned[position] = true;
+                        cluster.add(myPoints[position]);
+                    }
+                }, 0, nbPoints);
+                clusters.add(cluster);
+            }
+        }
+
+        double total = nbPoints;
+        double largest = clusters.stream().mapToInt(Set::size).max().orElse(0);
+
+        return IntStream.range(0, clusters.size()).filter(i -> {
+            double size = clusters.get(i).size();
+            return size > 1D && size / total > 0.01D && size / largest > 0.02D;
+        }).mapToObj(i -> this.centroid(clusters.get(i))).collect(Collectors.toList());
+    }
+
+}
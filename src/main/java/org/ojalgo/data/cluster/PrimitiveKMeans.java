@@ -0,0 +1,683 @@
+package org.ojalgo.data.cluster;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Consumer;
+import java.util.function.IntSupplier;
+
+import org.ojalgo.concurrent.DivideAndConquer;
+import org.ojalgo.concurrent.Parallelism;
+import org.ojalgo.concurrent.ProcessingService;
+import org.ojalgo.function.constant.PrimitiveMath;
+import org.ojalgo.matrix.store.R064Store;
+import org.ojalgo.structure.Access1D;
+import org.ojalgo.structure.Access2D;
+
+/**
+ * k-means specialised for numeric data – each row of an {@link Access2D} is a point. Compared to
+ * {@link GeneralisedKMeans} this:
+ * <ul>
+ * <li>Uses k-means++ seeding
+ * <li>Does the assignment step in parallel
+ * <li>Uses Hamerly's bounds (the triangle inequality) to skip most distance calculations once the clustering
+ * starts to settle
+ * <li>Has a mini-batch mode, {@link #newMiniBatch()}, for data that does not fit in memory or arrives as a
+ * stream
+ * </ul>
+ * Distances are (squared) Euclidean, the same as {@link Point#distance(Point)}.
+ */
+public final class PrimitiveKMeans {
+
+    public static final class Builder {
+
+        private int myIterations = 100;
+        private final int myK;
+        private IntSupplier myParallelism = Parallelism.CORES;
+        private boolean myPruning = true;
+        private Long mySeed = null;
+        private double myTolerance = PrimitiveMath.ZERO;
+
+        Builder(final int k) {
+            super();
+            if (k <= 0) {
+                throw new IllegalArgumentException();
+            }
+            myK = k;
+        }
+
+        public PrimitiveKMeans build() {
+            return new PrimitiveKMeans(myK, myIterations, myParallelism, myPruning, mySeed, myTolerance);
+        }
+
+        /**
+         * The max number of (full) iterations.
+         */
+        public Builder iterations(final int iterations) {
+            if (iterations <= 0) {
+                throw new IllegalArgumentException();
+            }
+            myIterations = iterations;
+            return this;
+        }
+
+        public Builder parallelism(final IntSupplier parallelism) {
+            if (parallelism != null) {
+                myParallelism = parallelism;
+            }
+            return this;
+        }
+
+        /**
+         * Pruning (on by default) skips the distance calculations that the (triangle inequality) bounds show
+         * can not change an assignment. Up to floating point rounding it does not change the result, only how
+         * much work it takes to get there. Turning it off gives plain Lloyd iterations.
+         */
+        public Builder pruning(final boolean pruning) {
+            myPruning = pruning;
+            return this;
+        }
+
+        /**
+         * Fixes the random seed used for k-means++ seeding. With the same seed, data and parallelism the
+         * results are reproducible.
+         */
+        public Builder seed(final long seed) {
+            mySeed = Long.valueOf(seed);
+            return this;
+        }
+
+        /**
+         * Stop iterating when no centroid moves more than this (Euclidean distance). The default is 0.0,
+         * meaning it iterates until no point changes cluster (or the max number of iterations is reached).
+         */
+        public Builder tolerance(final double tolerance) {
+            myTolerance = tolerance;
+            return this;
+        }
+
+    }
+
+    /**
+     * Mini-batch k-means (Sculley 2010). Each call to {@link #update(Access2D)} assigns the batch rows to
+     * their nearest centroids, and then moves those centroids towards the rows with a per-centroid learning
+     * rate that decreases as the centroid accumulates points. The first batch is used for k-means++ seeding,
+     * and must contain at least k rows.
+     */
+    public final class MiniBatch {
+
+        private double[] myCentroids = null;
+        private final long[] myCounts = new long[myK];
+        private int myDimensions = 0;
+
+        MiniBatch() {
+            super();
+        }
+
+        /**
+         * The index of the nearest centroid
+         */
+        public int assign(final Access1D<Double> point) {
+            this.assertInitialised();
+            return PrimitiveKMeans.nearest(PrimitiveKMeans.copy(point, new double[myDimensions]), myCentroids, myK, null);
+        }
+
+        public R064Store getCentroids() {
+            this.assertInitialised();
+            return PrimitiveKMeans.toStore(myCentroids, myK, myDimensions);
+        }
+
+        public void update(final Access2D<Double> batch) {
+
+            int nbRows = batch.getRowDim();
+
+            if (myCentroids == null) {
+                if (nbRows < myK) {
+                    throw new IllegalArgumentException("The first batch must contain at least k rows!");
+                }
+                myDimensions = batch.getColDim();
+                myCentroids = PrimitiveKMeans.this.seed(batch, PrimitiveKMeans.this.newRandom(), new double[nbRows]);
+            } else if (batch.getColDim() != myDimensions) {
+                throw new IllegalArgumentException();
+            }
+
+            int[] nearest = new int[nbRows];
+            double[] centroids = myCentroids;
+
+            PrimitiveKMeans.this.divide(nbRows, (first, limit) -> {
+                double[] row = new double[myDimensions];
+                for (int i = first; i < limit; i++) {
+                    nearest[i] = PrimitiveKMeans.nearest(PrimitiveKMeans.copy(batch, i, row), centroids, myK, null);
+                }
+            });
+
+            for (int i = 0; i < nbRows; i++) {
+                int j = nearest[i];
+                double rate = PrimitiveMath.ONE / ++myCounts[j];
+                for (int c = 0, offset = j * myDimensions; c < myDimensions; c++) {
+                    centroids[offset + c] += rate * (batch.doubleValue(i, c) - centroids[offset + c]);
+                }
+            }
+        }
+
+        private void assertInitialised() {
+            if (myCentroids == null) {
+                throw new IllegalStateException("No batch has been processed yet!");
+            }
+        }
+
+    }
+
+    public static final class Result {
+
+        private final int[] myAssignments;
+        private final double[] myCentroids;
+        private final int myDimensions;
+        private final double myInertia;
+        private final int myIterations;
+        private final int myK;
+
+        Result(final int[] assignments, final double[] centroids, final int k, final int dimensions, final double inertia, final int iterations) {
+            super();
+            myAssignments = assignments;
+            myCentroids = centroids;
+            myK = k;
+            myDimensions = dimensions;
+            myInertia = inertia;
+            myIterations = iterations;
+        }
+
+        /**
+         * The index of the nearest centroid
+         */
+        public int assign(final Access1D<Double> point) {
+            return PrimitiveKMeans.nearest(PrimitiveKMeans.copy(point, new double[myDimensions]), myCentroids, myK, null);
+        }
+
+        public int countIterations() {
+            return myIterations;
+        }
+
+        /**
+         * The cluster index of each input row
+         */
+        public int[] getAssignments() {
+            return myAssignments.clone();
+        }
+
+        /**
+         * One row per cluster
+         */
+        public R064Store getCentroids() {
+            return PrimitiveKMeans.toStore(myCentroids, myK, myDimensions);
+        }
+
+        /**
+         * The row indices of the members of each cluster
+         */
+        public List<int[]> getClusters() {
+
+            int k = myK;
+
+            int[] sizes = new int[k];
+            for (int i = 0; i < myAssignments.length; i++) {
+                sizes[myAssignments[i]]++;
+            }
+
+            List<int[]> retVal = new ArrayList<>(k);
+            for (int j = 0; j < k; j++) {
+                retVal.add(new int[sizes[j]]);
+            }
+
+            Arrays.fill(sizes, 0);
+            for (int i = 0; i < myAssignments.length; i++) {
+                int j = myAssignments[i];
+                retVal.get(j)[sizes[j]++] = i;
+            }
+
+            return retVal;
+        }
+
+        /**
+         * The sum of squared distances from each point to its centroid
+         */
+        public double getInertia() {
+            return myInertia;
+        }
+
+    }
+
+    /**
+     * Per thread/piece workspace
+     */
+    private static final class Piece {
+
+        int changes;
+        final int[] counts;
+        final int first;
+        final int limit;
+        final double[] row;
+        final double[] sums;
+        double total;
+
+        Piece(final int first, final int limit, final int k, final int dimensions) {
+            super();
+            this.first = first;
+            this.limit = limit;
+            counts = new int[k];
+            row = new double[dimensions];
+            sums = new double[k * dimensions];
+        }
+
+        void add(final int cluster, final double[] point, final int sign) {
+            counts[cluster] += sign;
+            for (int c = 0, offset = cluster * row.length; c < row.length; c++) {
+                sums[offset + c] += sign * point[c];
+            }
+        }
+
+        void reset() {
+            changes = 0;
+            total = PrimitiveMath.ZERO;
+            Arrays.fill(counts, 0);
+            Arrays.fill(sums, PrimitiveMath.ZERO);
+        }
+
+    }
+
+    /**
+     * Minimum number of rows per parallel piece
+     */
+    static int THRESHOLD = 512;
+
+    public static Builder newBuilder(final int k) {
+        return new Builder(k);
+    }
+
+    static double[] copy(final Access1D<?> point, final double[] destination) {
+        for (int c = 0; c < destination.length; c++) {
+            destination[c] = point.doubleValue(c);
+        }
+        return destination;
+    }
+
+    static double[] copy(final Access2D<?> data, final int row, final double[] destination) {
+        for (int c = 0; c < destination.length; c++) {
+            destination[c] = data.doubleValue(row, c);
+        }
+        return destination;
+    }
+
+    static double distance(final double[] point, final double[] centroids, final int centroid) {
+        double retVal = PrimitiveMath.ZERO;
+        for (int c = 0, offset = centroid * point.length; c < point.length; c++) {
+            double diff = point[c] - centroids[offset + c];
+            retVal += diff * diff;
+        }
+        return retVal;
+    }
+
+    /**
+     * @param secondBest If not null, [0] is set to the squared distance to the nearest centroid, and [1] to
+     *        the second nearest.
+     * @return The index of the nearest centroid
+     */
+    static int nearest(final double[] point, final double[] centroids, final int k, final double[] secondBest) {
+
+        int retVal = 0;
+        double best = Double.POSITIVE_INFINITY;
+        double second = Double.POSITIVE_INFINITY;
+
+        for (int j = 0; j < k; j++) {
+            double distance = PrimitiveKMeans.distance(point, centroids, j);
+            if (distance < best) {
+                second = best;
+                best = distance;
+                retVal = j;
+            } else if (distance < second) {
+                second = distance;
+            }
+        }
+
+        if (secondBest != null) {
+            secondBest[0] = best;
+            secondBest[1] = second;
+        }
+
+        return retVal;
+    }
+
+    static R064Store toStore(final double[] centroids, final int k, final int dimensions) {
+        R064Store retVal = R064Store.FACTORY.make(k, dimensions);
+        for (int j = 0; j < k; j++) {
+            for (int c = 0; c < dimensions; c++) {
+                retVal.set(j, c, centroids[j * dimensions + c]);
+            }
+        }
+        return retVal;
+    }
+
+    private final int myIterations;
+    private final int myK;
+    private final IntSupplier myParallelism;
+    private final boolean myPruning;
+    private final Long mySeed;
+    private final double myTolerance;
+
+    PrimitiveKMeans(final int k, final int iterations, final IntSupplier parallelism, final boolean pruning, final Long seed, final double tolerance) {
+        super();
+        myK = k;
+        myIterations = iterations;
+        myParallelism = parallelism;
+        myPruning = pruning;
+        mySeed = seed;
+        myTolerance = tolerance;
+    }
+
+    public Result cluster(final Access2D<Double> data) {
+
+        int nbRows = data.getRowDim();
+        int dimensions = data.getColDim();
+        int k = myK;
+
+        if (nbRows < k) {
+            throw new IllegalArgumentException("Need at least k rows!");
+        }
+
+        int[] assignments = new int[nbRows];
+        double[] upper = new double[nbRows];
+        double[] lower = new double[nbRows];
+
+        double[] centroids = this.seed(data, this.newRandom(), lower);
+
+        double[] sums = new double[k * dimensions];
+        int[] counts = new int[k];
+        double[] shifts = new double[k];
+        double[] separations = new double[k];
+
+        Piece[] pieces = this.newPieces(nbRows, k, dimensions);
+
+        // First pass – full assignment that also initialises the bounds and the sums
+
+        this.process(pieces, piece -> {
+            double[] distances = new double[2];
+            for (int i = piece.first; i < piece.limit; i++) {
+                double[] row = PrimitiveKMeans.copy(data, i, piece.row);
+                int j = PrimitiveKMeans.nearest(row, centroids, k, distances);
+                assignments[i] = j;
+                upper[i] = Math.sqrt(distances[0]);
+                lower[i] = Math.sqrt(distances[1]);
+                piece.add(j, row, 1);
+            }
+            piece.changes = piece.limit - piece.first;
+        });
+
+        int iterations = 0;
+        int changes = this.merge(pieces, sums, counts);
+
+        while (true) {
+
+            iterations++;
+
+            double maxShift = PrimitiveKMeans.move(centroids, sums, counts, shifts, dimensions);
+
+            if (changes == 0 || maxShift <= myTolerance || iterations >= myIterations) {
+                break;
+            }
+
+            int maxIndex = 0;
+            double largest = PrimitiveMath.ZERO, secondLargest = PrimitiveMath.ZERO;
+            for (int j = 0; j < k; j++) {
+                if (shifts[j] > largest) {
+                    secondLargest = largest;
+                    largest = shifts[j];
+                    maxIndex = j;
+                } else if (shifts[j] > secondLargest) {
+                    secondLargest = shifts[j];
+                }
+            }
+            int largestIndex = maxIndex;
+            double largestShift = largest, secondLargestShift = secondLargest;
+
+            for (int j = 0; j < k; j++) {
+                double min = Double.POSITIVE_INFINITY;
+                for (int jj = 0; jj < k; jj++) {
+                    if (jj != j) {
+                        double distance = PrimitiveMath.ZERO;
+                        for (int c = 0; c < dimensions; c++) {
+                            double diff = centroids[j * dimensions + c] - centroids[jj * dimensions + c];
+                            distance += diff * diff;
+                        }
+                        min = Math.min(min, distance);
+                    }
+                }
+                separations[j] = PrimitiveMath.HALF * Math.sqrt(min);
+            }
+
+            this.process(pieces, piece -> {
+
+                double[] distances = new double[2];
+
+                for (int i = piece.first; i < piece.limit; i++) {
+
+                    int current = assignments[i];
+
+                    upper[i] += shifts[current];
+                    lower[i] -= current == largestIndex ? secondLargestShift : largestShift;
+
+                    double bound = myPruning ? Math.max(separations[current], lower[i]) : Double.NEGATIVE_INFINITY;
+
+                    if (upper[i] > bound) {
+
+                        double[] row = PrimitiveKMeans.copy(data, i, piece.row);
+
+                        upper[i] = Math.sqrt(PrimitiveKMeans.distance(row, centroids, current));
+
+                        if (upper[i] > bound) {
+
+                            int j = PrimitiveKMeans.nearest(row, centroids, k, distances);
+                            upper[i] = Math.sqrt(distances[0]);
+                            lower[i] = Math.sqrt(distances[1]);
+
+                            if (j != current) {
+                                assignments[i] = j;
+                                piece.add(current, row, -1);
+                                piece.add(j, row, 1);
+                                piece.changes++;
+                            }
+                        }
+                    }
+                }
+            });
+
+            changes = this.merge(pieces, sums, counts);
+        }
+
+        this.process(pieces, piece -> {
+            for (int i = piece.first; i < piece.limit; i++) {
+                piece.total += PrimitiveKMeans.distance(PrimitiveKMeans.copy(data, i, piece.row), centroids, assignments[i]);
+            }
+        });
+
+        double inertia = PrimitiveMath.ZERO;
+        for (Piece piece : pieces) {
+            inertia += piece.total;
+        }
+
+        return new Result(assignments, centroids, k, dimensions, inertia, iterations);
+    }
+
+    public MiniBatch newMiniBatch() {
+        return new MiniBatch();
+    }
+
+    /**
+     * Moves the centroids to the mean of their members. Empty clusters keep their centroid.
+     *
+     * @return The largest shift (Euclidean distance)
+     */
+    private static double move(final double[] centroids, final double[] sums, final int[] counts, final double[] shifts, final int dimensions) {
+
+        double retVal = PrimitiveMath.ZERO;
+
+        for (int j = 0; j < counts.length; j++) {
+            double shift = PrimitiveMath.ZERO;
+            if (counts[j] > 0) {
+                for (int c = 0, offset = j * dimensions; c < dimensions; c++) {
+                    double mean = sums[offset + c] / counts[j];
+                    double diff = mean - centroids[offset + c];
+                    shift += diff * diff;
+                    centroids[offset + c] = mean;
+                }
+            }
+            shifts[j] = Math.sqrt(shift);
+            retVal = Math.max(retVal, shifts[j]);
+        }
+
+        return retVal;
+    }
+
+    private int countPieces(final int nbRows) {
+        return Math.max(1, Math.min(myParallelism.getAsInt(), nbRows / THRESHOLD));
+    }
+
+    private void divide(final int nbRows, final DivideAndConquer.Conquerer conquerer) {
+        int nbPieces = this.countPieces(nbRows);
+        if (nbPieces == 1) {
+            conquerer.conquer(0, nbRows);
+        } else {
+            ProcessingService.INSTANCE.divider().threshold(1).parallelism(() -> nbPieces).divide(0, nbPieces, (f, l) -> {
+                for (int p = f; p < l; p++) {
+                    conquerer.conquer((int) ((long) nbRows * p / nbPieces), (int) ((long) nbRows * (p + 1) / nbPieces));
+                }
+            });
+        }
+    }
+
+    /**
+     * Adds the per piece sums and counts to the totals, and resets the pieces.
+     *
+     * @return The total number of assignment changes
+     */
+    private int merge(final Piece[] pieces, final double[] sums, final int[] counts) {
+        int retVal = 0;
+        for (Piece piece : pieces) {
+            for (int j = 0; j < counts.length; j++) {
+                counts[j] += piece.counts[j];
+            }
+            for (int i = 0; i < sums.length; i++) {
+                sums[i] += piece.sums[i];
+            }
+            retVal += piece.changes;
+            piece.reset();
+        }
+        return retVal;
+    }
+
+    private Piece[] newPieces(final int nbRows, final int k, final int dimensions) {
+        int nbPieces = this.countPieces(nbRows);
+        Piece[] retVal = new Piece[nbPieces];
+        for (int p = 0; p < nbPieces; p++) {
+            retVal[p] = new Piece((int) ((long) nbRows * p / nbPieces), (int) ((long) nbRows * (p + 1) / nbPieces), k, dimensions);
+        }
+        return retVal;
+    }
+
+    private Random newRandom() {
+        return mySeed != null ? new Random(mySeed.longValue()) : new Random();
+    }
+
+    private void process(final Piece[] pieces, final Consumer<Piece> processor) {
+        if (pieces.length == 1) {
+            processor.accept(pieces[0]);
+        } else {
+            ProcessingService.INSTANCE.divider().threshold(1).parallelism(() -> pieces.length).divide(0, pieces.length, (f, l) -> {
+                for (int p = f; p < l; p++) {
+                    processor.accept(pieces[p]);
+                }
+            });
+        }
+    }
+
+    /**
+     * k-means++ seeding: The first centroid is picked uniformly at random, and each subsequent one with
+     * probability proportional to the squared distance to the nearest already picked centroid. The distance
+     * updates are done in parallel.
+     *
+     * @param work Workspace – at least as long as the number of rows
+     * @return The centroids, k x dimensions, row-major
+     */
+    double[] seed(final Access2D<?> data, final Random random, final double[] work) {
+
+        int nbRows = data.getRowDim();
+        int dimensions = data.getColDim();
+
+        double[] retVal = new double[myK * dimensions];
+        Arrays.fill(work, 0, nbRows, Double.POSITIVE_INFINITY);
+
+        Piece[] pieces = this.newPieces(nbRows, 0, dimensions);
+
+        int picked = random.nextInt(nbRows);
+
+        for (int j = 0; j < myK; j++) {
+
+            for (int c = 0; c < dimensions; c++) {
+                retVal[j * dimensions + c] = data.doubleValue(picked, c);
+            }
+
+            if (j + 1 == myK) {
+                break;
+            }
+
+            int latest = j;
+            this.process(pieces, piece -> {
+                double sum = PrimitiveMath.ZERO;
+                for (int i = piece.first; i < piece.limit; i++) {
+                    double distance = PrimitiveKMeans.distance(PrimitiveKMeans.copy(data, i, piece.row), retVal, latest);
+                    if (distance < work[i]) {
+                        work[i] = distance;
+                    }
+                    sum += work[i];
+                }
+                piece.total = sum;
+            });
+
+            double total = PrimitiveMath.ZERO;
+            for (Piece piece : pieces) {
+                total += piece.total;
+            }
+
+            if (total <= PrimitiveMath.ZERO) {
+                // All (remaining) points coincide with already picked centroids
+                picked = random.nextInt(nbRows);
+                continue;
+            }
+
+            double target = random.nextDouble() * total;
+
+            int start = 0;
+            for (int p = 0; p + 1 < pieces.length && target >= pieces[p].total; p++) {
+                target -= pieces[p].total;
+                start = pieces[p + 1].first;
+            }
+
+            picked = -1;
+            for (int i = start; i < nbRows; i++) {
+                if (work[i] > PrimitiveMath.ZERO) {
+                    picked = i;
+                    target -= work[i];
+                    if (target < PrimitiveMath.ZERO) {
+                        break;
+                    }
+                }
+            }
+            if (picked < 0) {
+                picked = random.nextInt(nbRows);
+            }
+        }
+
+        return retVal;
+    }
+
+}
@@ -22,23 +22,40 @@
 package org.ojalgo.data.domain.finance.portfolio.simulator;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntSupplier;
 
-import org.ojalgo.array.Array1D;
 import org.ojalgo.array.Array2D;
-import org.ojalgo.array.ArrayR064;
+import org.ojalgo.concurrent.Parallelism;
+import org.ojalgo.concurrent.ProcessingService;
 import org.ojalgo.data.domain.finance.portfolio.SimplePortfolio;
-import org.ojalgo.function.aggregator.Aggregator;
-import org.ojalgo.function.aggregator.AggregatorFunction;
-import org.ojalgo.function.aggregator.PrimitiveAggregator;
+import org.ojalgo.random.PseudoRandom;
 import org.ojalgo.random.process.GeometricBrownianMotion;
 import org.ojalgo.random.process.Process1D;
 import org.ojalgo.random.process.RandomProcess;
 import org.ojalgo.structure.Access2D;
 
+/**
+ * Monte Carlo simulation of a portfolio of assets, each modelled as a {@link GeometricBrownianMotion}.
+ * <p>
+ * The realisations are split between worker threads, each with its own copy of the processes. Every
+ * realisation has its own random number stream, seeded from a master sequence, so that the results are
+ * identical for a given {@link #seed(long)} regardless of how the work is split.
+ */
 public class PortfolioSimulator {
 
-    private Process1D<GeometricBrownianMotion> myProcess;
+    /**
+     * The minimum number of realisations per parallel task
+     */
+    static int THRESHOLD = 64;
+
+    private final List<GeometricBrownianMotion> myAssetProcesses;
+    private final Access2D<?> myCorrelations;
+    private IntSupplier myParallelism = Parallelism.CORES;
+    private Long mySeed = null;
 
     public PortfolioSimulator(final Access2D<?> correlations, final List<GeometricBrownianMotion> assetProcesses) {
 
@@ -48,16 +65,33 @@ public class PortfolioSimulator {
             throw new IllegalArgumentException();
         }
 
-        if (correlations != null) {
-            myProcess = Process1D.of(correlations, assetProcesses);
-        } else {
-            myProcess = Process1D.of(assetProcesses);
-        }
+        myCorrelations = correlations;
+        myAssetProcesses = new ArrayList<>(assetProcesses);
     }
 
     @SuppressWarnings("unused")
     private PortfolioSimulator() {
+
         super();
+
+        myAssetProcesses = null;
+        myCorrelations = null;
+    }
+
+    /**
+     * The (max) number of worker threads to use. The results do not depend on this.
+     */
+    public PortfolioSimulator parallelism(final IntSupplier parallelism) {
+        myParallelism = parallelism;
+        return this;
+    }
+
+    /**
+     * Makes the simulations reproducible. Without a seed each simulation is different.
+     */
+    public PortfolioSimulator seed(final long seed) {
+        mySeed = Long.valueOf(seed);
+        return this;
     }
 
     public RandomProcess.SimulationResults simulate(final int aNumberOfRealisations, final int aNumberOfSteps, final double aStepSize) {
@@ -72,45 +106,82 @@ public class PortfolioSimulator {
     RandomProcess.SimulationResults simulate(final int aNumberOfRealisations, final int aNumberOfSteps, final double aStepSize,
             final Integer rebalancingInterval) {
 
-        int tmpProcDim = myProcess.size();
+        int tmpProcDim = myAssetProcesses.size();
 
-        ArrayR064 tmpInitialValues = myProcess.getValues();
+        double[] tmpInitialValues = new double[tmpProcDim];
         Comparable<?>[] tmpValues = new Comparable<?>[tmpProcDim];
+        double tmpInitialSum = 0.0;
+        for (int p = 0; p < tmpProcDim; p++) {
+            tmpInitialValues[p] = myAssetProcesses.get(p).getValue();
+            tmpValues[p] = tmpInitialValues[p];
+            tmpInitialSum += tmpInitialValues[p];
+        }
+        List<BigDecimal> tmpWeightsList = new SimplePortfolio(tmpValues).normalise().getWeights();
+        double[] tmpWeights = new double[tmpProcDim];
         for (int p = 0; p < tmpProcDim; p++) {
-            tmpValues[p] = tmpInitialValues.get(p);
+            tmpWeights[p] = tmpWeightsList.get(p).doubleValue();
+        }
+
+        // One seed per realisation, generated sequentially, makes the results independent of the parallel split
+        SplittableRandom tmpMaster = new SplittableRandom(mySeed != null ? mySeed.longValue() : ThreadLocalRandom.current().nextLong());
+        long[] tmpSeeds = new long[aNumberOfRealisations];
+        for (int r = 0; r < aNumberOfRealisations; r++) {
+            tmpSeeds[r] = tmpMaster.nextLong();
         }
-        List<BigDecimal> tmpWeights = new SimplePortfolio(tmpValues).normalise().getWeights();
 
         Array2D<Double> tmpRealisationValues = Array2D.R064.make(aNumberOfRealisations, aNumberOfSteps);
 
-        for (int r = 0; r < aNumberOfRealisations; r++) {
+        ProcessingService.INSTANCE.divider().parallelism(myParallelism).threshold(THRESHOLD).divide(0, aNumberOfRealisations, (first, limit) -> {
+
+            PseudoRandom tmpRandom = new PseudoRandom.Xoshiro256();
+            Process1D<GeometricBrownianMotion> tmpProcess = this.newProcess();
+            tmpProcess.setRandom(tmpRandom);
+
+            double[] tmpStepValues = new double[tmpProcDim];
+
+            for (int r = first; r < limit; r++) {
+
+                tmpRandom.setSeed(tmpSeeds[r]);
+                for (int p = 0; p < tmpProcDim; p++) {
+                    tmpProcess.setValue(p, tmpInitialValues[p]);
+                }
+
+                for (int s = 0; s < aNumberOfSteps; s++) {
 
-            for (int s = 0; s < aNumberOfSteps; s++) {
+                    if (rebalancingInterval != null && s != 0 && s % rebalancingInterval == 0) {
 
-                if (rebalancingInterval != null && s != 0 && s % rebalancingInterval == 0) {
+                        double tmpPortfolioValue = tmpRealisationValues.doubleValue(r, s - 1);
 
-                    double tmpPortfolioValue = tmpRealisationValues.doubleValue(r, s - 1);
+                        for (int p = 0; p < tmpProcDim; p++) {
+                            tmpProcess.setValue(p, tmpPortfolioValue * tmpWeights[p]);
+                        }
+                    }
+
+                    tmpProcess.step(aStepSize, tmpStepValues);
 
+                    double tmpSum = 0.0;
                     for (int p = 0; p < tmpProcDim; p++) {
-                        myProcess.setValue(p, tmpPortfolioValue * tmpWeights.get(p).doubleValue());
+                        tmpSum += tmpStepValues[p];
                     }
+                    tmpRealisationValues.set(r, s, tmpSum);
                 }
+            }
+        });
 
-                Array1D<Double> tmpRealisation = myProcess.step(aStepSize);
+        return new RandomProcess.SimulationResults(tmpInitialSum, tmpRealisationValues);
+    }
 
-                AggregatorFunction<Double> tmpAggregator = Aggregator.SUM.getFunction(PrimitiveAggregator.getSet());
-                tmpRealisation.visitAll(tmpAggregator);
-                tmpRealisationValues.set(r, s, tmpAggregator.doubleValue());
-            }
+    private Process1D<GeometricBrownianMotion> newProcess() {
 
-            myProcess.setValues(tmpInitialValues);
+        List<GeometricBrownianMotion> tmpCopies = new ArrayList<>(myAssetProcesses.size());
+        for (GeometricBrownianMotion tmpProcess : myAssetProcesses) {
+            tmpCopies.add(tmpProcess.copy());
         }
 
-        AggregatorFunction<Double> tmpAggregator = Aggregator.SUM.getFunction(PrimitiveAggregator.getSet());
-        for (int i = 0; i < tmpInitialValues.count(); i++) {
-            tmpAggregator.invoke(tmpInitialValues.doubleValue(i));
+        if (myCorrelations != null) {
+            return Process1D.of(myCorrelations, tmpCopies);
+        } else {
+            return Process1D.of(tmpCopies);
         }
-
-        return new RandomProcess.SimulationResults(tmpAggregator.doubleValue(), tmpRealisationValues);
     }
 }
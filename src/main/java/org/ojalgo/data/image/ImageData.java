@@ -22,16 +22,16 @@
 package org.ojalgo.data.image;
 
 import java.awt.Graphics;
-import java.awt.Graphics2D;
-import java.awt.RenderingHints;
 import java.awt.image.BufferedImage;
-import java.awt.image.ConvolveOp;
-import java.awt.image.Kernel;
+import java.awt.image.WritableRaster;
 import java.io.File;
 import java.io.IOException;
 
 import javax.imageio.ImageIO;
 
+import org.ojalgo.array.ArrayR064;
+import org.ojalgo.data.transform.Convolution;
+import org.ojalgo.data.transform.Convolution.Boundary;
 import org.ojalgo.data.transform.DiscreteFourierTransform;
 import org.ojalgo.function.aggregator.Aggregator;
 import org.ojalgo.function.constant.PrimitiveMath;
@@ -112,6 +112,9 @@ public class ImageData implements MatrixStore<Double>, Mutate2D.Receiver<Double>
 
     }
 
+    private static final ArrayR064 SOBEL_DERIVATIVE = ArrayR064.wrap(0.5, 0.0, -0.5);
+    private static final ArrayR064 SOBEL_SMOOTHING = ArrayR064.wrap(0.25, 0.5, 0.25);
+
     static final int MASK_ALPHA = 0xFF000000;
     static final int MASK_BLUE = 0xFF;
     static final int MASK_GREEN = 0xFF00;
@@ -222,29 +225,6 @@ public class ImageData implements MatrixStore<Double>, Mutate2D.Receiver<Double>
         return new ImageData(image);
     }
 
-    private static Kernel getGaussianKernel(final double sigma, final int radius) {
-        int size = radius * 2 + 1;
-        float[] data = new float[size];
-
-        double twoSigmaSquared = 2.0 * sigma * sigma;
-        double sigmaRoot = Math.sqrt(twoSigmaSquared * Math.PI);
-        double total = 0.0;
-
-        for (int i = -radius; i <= radius; i++) {
-            double distance = i * i;
-            int index = i + radius;
-            data[index] = (float) (Math.exp(-distance / twoSigmaSquared) / sigmaRoot);
-            total += data[index];
-        }
-
-        // Normalize the kernel
-        for (int i = 0; i < data.length; i++) {
-            data[i] /= total;
-        }
-
-        return new Kernel(size, 1, data);
-    }
-
     static int toRanged(final int value) {
         return Math.max(0, Math.min(value, 255));
     }
@@ -257,25 +237,66 @@ public class ImageData implements MatrixStore<Double>, Mutate2D.Receiver<Double>
     }
 
     /**
-     * Creates a new image (of the same type) blurring the input using a Gaussian blur kernel.
-     * 
+     * Creates a new image (of the same type) that shows the edges of this one – the magnitude of the (Sobel)
+     * gradient, as a grey scale image.
+     *
+     * @see #toGradient(boolean)
+     */
+    public ImageData applyEdgeDetection() {
+
+        R064Store horizontal = this.toGradient(false);
+        R064Store vertical = this.toGradient(true);
+
+        ImageData retVal = new ImageData(new BufferedImage(myImage.getWidth(), myImage.getHeight(), myImage.getType()));
+
+        for (int i = 0, nbRows = this.getRowDim(); i < nbRows; i++) {
+            for (int j = 0, nbCols = this.getColDim(); j < nbCols; j++) {
+                retVal.set(i, j, Math.hypot(horizontal.doubleValue(i, j), vertical.doubleValue(i, j)));
+            }
+        }
+
+        return retVal;
+    }
+
+    /**
+     * Creates a new image (of the same type) blurring the input using a Gaussian blur kernel. Each band
+     * (colour channel) of the image raster is blurred separately, in floating point, using a separable
+     * {@link Convolution}.
+     *
      * @param sigma The standard deviation of the Gaussian blur kernel
      */
     public ImageData applyGaussianBlur(final double sigma) {
 
-        int radius = (int) (3.0 * sigma);
-        if (radius % 2 == 0) {
-            radius++; // Ensure radius is odd
-        }
+        ArrayR064 kernel = Convolution.newGaussianKernel(sigma);
+
+        int width = myImage.getWidth();
+        int height = myImage.getHeight();
+
+        BufferedImage blurredImage = new BufferedImage(width, height, myImage.getType());
+
+        WritableRaster input = myImage.getRaster();
+        WritableRaster output = blurredImage.getRaster();
+
+        double[] samples = new double[width * height];
+        // The samples are ordered row by row, so this is the transpose of the image – doesn't matter as the
+        // same kernel is used in both directions.
+        R064Store channel = R064Store.wrap(samples, width);
+        R064Store blurred = R064Store.FACTORY.make(width, height);
+
+        for (int band = 0, nbBands = input.getNumBands(); band < nbBands; band++) {
 
-        Kernel kernel = ImageData.getGaussianKernel(sigma, radius);
-        ConvolveOp op = new ConvolveOp(kernel, ConvolveOp.EDGE_NO_OP, null);
+            double max = (1 << input.getSampleModel().getSampleSize(band)) - 1;
 
-        BufferedImage blurredImage = new BufferedImage(myImage.getWidth(), myImage.getHeight(), myImage.getType());
-        Graphics2D g2d = blurredImage.createGraphics();
-        g2d.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
-        g2d.drawImage(myImage, op, 0, 0);
-        g2d.dispose();
+            input.getSamples(0, 0, width, height, band, samples);
+
+            Convolution.convolve(channel, kernel, kernel, Boundary.EXTEND, blurred);
+
+            for (int i = 0; i < samples.length; i++) {
+                samples[i] = Math.max(PrimitiveMath.ZERO, Math.min(Math.rint(blurred.data[i]), max));
+            }
+
+            output.setSamples(0, 0, width, height, band, samples);
+        }
 
         return new ImageData(blurredImage);
     }
@@ -484,6 +505,26 @@ public class ImageData implements MatrixStore<Double>, Mutate2D.Receiver<Double>
         return new SingleChannel(myImage, MASK_RED, SHIFT_RED);
     }
 
+    /**
+     * The (Sobel) derivative of the pixel values – in floating point, and not limited to [0,255].
+     *
+     * @param vertical If true the derivative along the columns (downwards), otherwise along the rows (to the
+     *        right)
+     * @return The change in pixel value per pixel
+     */
+    public R064Store toGradient(final boolean vertical) {
+
+        R064Store retVal = R064Store.FACTORY.make(this.getRowDim(), this.getColDim());
+
+        if (vertical) {
+            Convolution.convolve(this, SOBEL_DERIVATIVE, SOBEL_SMOOTHING, Boundary.EXTEND, retVal);
+        } else {
+            Convolution.convolve(this, SOBEL_SMOOTHING, SOBEL_DERIVATIVE, Boundary.EXTEND, retVal);
+        }
+
+        return retVal;
+    }
+
     /**
      * Transforms the spatial representation of the image to its frequency representation using the discrete
      * Fourier transform.
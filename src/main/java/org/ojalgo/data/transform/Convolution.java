@@ -0,0 +1,687 @@
+/*
+ * Copyright 1997-2025 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.data.transform;
+
+import java.util.Arrays;
+
+import org.ojalgo.array.ArrayR064;
+import org.ojalgo.concurrent.DivideAndConquer;
+import org.ojalgo.concurrent.ProcessingService;
+import org.ojalgo.data.transform.DiscreteFourierTransform.InPlace;
+import org.ojalgo.data.transform.DiscreteFourierTransform.MixedRadix;
+import org.ojalgo.data.transform.DiscreteFourierTransform.Real;
+import org.ojalgo.function.constant.PrimitiveMath;
+import org.ojalgo.function.special.PowerOf2;
+import org.ojalgo.matrix.store.R064Store;
+import org.ojalgo.structure.Access1D;
+import org.ojalgo.structure.Access2D;
+import org.ojalgo.structure.Mutate1D;
+import org.ojalgo.structure.Mutate2D;
+
+/**
+ * Convolution and correlation of 1D signals and 2D data (images), calculated in floating point. The strategy
+ * is chosen based on the kernel size:
+ * <ul>
+ * <li>Small kernels are applied directly.
+ * <li>Large 1D kernels are applied using FFT overlap-add – the signal is split in blocks that are convolved
+ * separately and then added together.
+ * <li>Large 2D kernels are applied by multiplying in the frequency domain, using real-to-complex transforms
+ * of the (padded) input.
+ * <li>Separable 2D kernels (Gaussian, box, Sobel...) are applied as two 1D passes – first along the columns
+ * then along the rows.
+ * </ul>
+ * Large inputs are processed in parallel (over rows, columns or blocks).
+ * <p>
+ * The 1D methods that return an {@link R064Store} calculate the full convolution (length n+m-1), while the
+ * methods that take an output argument calculate a "same size" result, with the kernel centred on each
+ * element and values outside the input given by the {@link Boundary}.
+ */
+public final class Convolution {
+
+    public enum Boundary {
+
+        /**
+         * Values outside the input are assumed to be the same as the nearest edge value.
+         */
+        EXTEND,
+        /**
+         * Values outside the input are assumed to be zero.
+         */
+        ZERO;
+
+        double get(final Access1D<?> input, final int index) {
+            int size = input.size();
+            if (index >= 0 && index < size) {
+                return input.doubleValue(index);
+            } else if (this == ZERO) {
+                return PrimitiveMath.ZERO;
+            } else {
+                return input.doubleValue(index < 0 ? 0 : size - 1);
+            }
+        }
+
+        double get(final Access2D<?> input, final int row, final int col) {
+            int nbRows = input.getRowDim();
+            int nbCols = input.getColDim();
+            if (row >= 0 && row < nbRows && col >= 0 && col < nbCols) {
+                return input.doubleValue(row, col);
+            } else if (this == ZERO) {
+                return PrimitiveMath.ZERO;
+            } else {
+                return input.doubleValue(Math.max(0, Math.min(row, nbRows - 1)), Math.max(0, Math.min(col, nbCols - 1)));
+            }
+        }
+
+    }
+
+    /**
+     * Applies a 1D kernel to padded input: output[i] = &Sigma; kernel[j] * padded[i + m - 1 - j]. Instances
+     * have work arrays and must not be shared between threads – use {@link #copy()}.
+     */
+    static final class Kernel1D {
+
+        private final double[] myBinsIm;
+        private final double[] myBinsRe;
+        private final double[] myBlock;
+        private final double[] myKernel;
+        private final double[] myKernelIm;
+        private final double[] myKernelRe;
+        private final Real myReal;
+
+        Kernel1D(final double[] kernel) {
+
+            super();
+
+            myKernel = kernel;
+
+            if (kernel.length > DIRECT_LIMIT) {
+
+                int size = PowerOf2.smallestNotLessThan(4 * kernel.length);
+
+                myReal = new Real(size);
+                myBlock = new double[size];
+                myBinsRe = new double[myReal.countBins()];
+                myBinsIm = new double[myReal.countBins()];
+
+                System.arraycopy(kernel, 0, myBlock, 0, kernel.length);
+                myKernelRe = new double[myReal.countBins()];
+                myKernelIm = new double[myReal.countBins()];
+                myReal.transform(myBlock, myKernelRe, myKernelIm);
+
+            } else {
+
+                myReal = null;
+                myBlock = null;
+                myBinsRe = null;
+                myBinsIm = null;
+                myKernelRe = null;
+                myKernelIm = null;
+            }
+        }
+
+        private Kernel1D(final Kernel1D template) {
+
+            super();
+
+            myKernel = template.myKernel;
+            myKernelRe = template.myKernelRe;
+            myKernelIm = template.myKernelIm;
+
+            if (template.myReal != null) {
+                myReal = new Real(template.myReal.size());
+                myBlock = new double[template.myBlock.length];
+                myBinsRe = new double[template.myBinsRe.length];
+                myBinsIm = new double[template.myBinsIm.length];
+            } else {
+                myReal = null;
+                myBlock = null;
+                myBinsRe = null;
+                myBinsIm = null;
+            }
+        }
+
+        /**
+         * @param padded The padded input
+         * @param length The length of the output (the padded input is m-1 longer)
+         * @param output Where to write the result
+         */
+        void apply(final double[] padded, final int length, final double[] output) {
+            if (myReal != null) {
+                Arrays.fill(output, 0, length, PrimitiveMath.ZERO);
+                this.blocks(padded, length, output, 0, this.countBlocks(length), 1);
+            } else {
+                this.direct(padded, output, 0, length);
+            }
+        }
+
+        /**
+         * FFT overlap-add. The blocks first, first+step, first+2*step... (before limit) are convolved with the
+         * kernel and added to the output. Consecutive blocks overlap (in the output), so processing every
+         * second block (step 2) allows doing that in parallel.
+         */
+        void blocks(final double[] padded, final int length, final double[] output, final int first, final int limit, final int step) {
+
+            int m = myKernel.length;
+            int size = myBlock.length;
+            int blockLength = this.getBlockLength();
+            int paddedLength = length + m - 1;
+
+            for (int b = first; b < limit; b += step) {
+
+                int offset = b * blockLength;
+                int count = Math.min(blockLength, paddedLength - offset);
+
+                System.arraycopy(padded, offset, myBlock, 0, count);
+                Arrays.fill(myBlock, count, size, PrimitiveMath.ZERO);
+
+                myReal.transform(myBlock, myBinsRe, myBinsIm);
+
+                for (int k = 0; k < myBinsRe.length; k++) {
+                    double re = myBinsRe[k], im = myBinsIm[k];
+                    myBinsRe[k] = re * myKernelRe[k] - im * myKernelIm[k];
+                    myBinsIm[k] = re * myKernelIm[k] + im * myKernelRe[k];
+                }
+
+                myReal.inverse(myBinsRe, myBinsIm, myBlock);
+
+                // The full convolution y[t], for t = offset..offset+count+m-2, maps to output[t-m+1]
+                int firstT = Math.max(offset, m - 1);
+                int limitT = Math.min(offset + count + m - 1, paddedLength);
+                for (int t = firstT; t < limitT; t++) {
+                    output[t - m + 1] += myBlock[t - offset];
+                }
+            }
+        }
+
+        Kernel1D copy() {
+            return new Kernel1D(this);
+        }
+
+        int countBlocks(final int length) {
+            int paddedLength = length + myKernel.length - 1;
+            int blockLength = this.getBlockLength();
+            return (paddedLength + blockLength - 1) / blockLength;
+        }
+
+        void direct(final double[] padded, final double[] output, final int first, final int limit) {
+
+            int m = myKernel.length;
+
+            for (int i = first; i < limit; i++) {
+                double sum = PrimitiveMath.ZERO;
+                for (int j = 0, p = i + m - 1; j < m; j++, p--) {
+                    sum += myKernel[j] * padded[p];
+                }
+                output[i] = sum;
+            }
+        }
+
+        int getBlockLength() {
+            return myBlock.length - myKernel.length + 1;
+        }
+
+        boolean isFFT() {
+            return myReal != null;
+        }
+
+        int length() {
+            return myKernel.length;
+        }
+
+    }
+
+    /**
+     * Kernels with more elements than this are applied using FFT:s, smaller kernels are applied directly.
+     */
+    static int DIRECT_LIMIT = 64;
+    /**
+     * Inputs with more elements than this are processed in parallel.
+     */
+    static int THRESHOLD = 65_536;
+
+    /**
+     * Full convolution – the output has length n+m-1.
+     */
+    public static R064Store convolve(final Access1D<?> signal, final Access1D<?> kernel) {
+
+        int n = signal.size();
+        int m = kernel.size();
+
+        double[] padded = new double[n + 2 * (m - 1)];
+        for (int i = 0; i < n; i++) {
+            padded[m - 1 + i] = signal.doubleValue(i);
+        }
+
+        R064Store retVal = R064Store.FACTORY.make(n + m - 1, 1);
+
+        Convolution.apply(padded, Convolution.toArray(kernel, false), retVal.data);
+
+        return retVal;
+    }
+
+    /**
+     * "Same size" convolution with the kernel centred on each element.
+     */
+    public static void convolve(final Access1D<?> signal, final Access1D<?> kernel, final Boundary boundary, final Mutate1D output) {
+        Convolution.same(signal, Convolution.toArray(kernel, false), boundary, output);
+    }
+
+    /**
+     * Separable 2D convolution – the kernel is the outer product of the column and row kernels. First the
+     * column kernel is applied along the columns, then the row kernel along the rows.
+     *
+     * @param input The input data (image)
+     * @param columnKernel Applied along the columns (vertically)
+     * @param rowKernel Applied along the rows (horizontally)
+     * @param boundary How to treat values outside the input
+     * @param output "Same size" output
+     */
+    public static void convolve(final Access2D<?> input, final Access1D<?> columnKernel, final Access1D<?> rowKernel, final Boundary boundary,
+            final Mutate2D output) {
+
+        int nbRows = input.getRowDim();
+        int nbCols = input.getColDim();
+
+        Kernel1D colKernel = new Kernel1D(Convolution.toArray(columnKernel, false));
+        Kernel1D rKernel = new Kernel1D(Convolution.toArray(rowKernel, false));
+
+        R064Store intermediate = R064Store.FACTORY.make(nbRows, nbCols);
+
+        boolean parallel = (long) nbRows * nbCols > THRESHOLD;
+
+        Convolution.divide(parallel, nbCols, nbRows, (first, limit) -> {
+
+            Kernel1D kernel = first == 0 ? colKernel : colKernel.copy();
+            int m = kernel.length();
+            int before = m / 2;
+
+            double[] padded = new double[nbRows + m - 1];
+            double[] result = new double[nbRows];
+
+            for (int j = first; j < limit; j++) {
+                for (int p = 0; p < padded.length; p++) {
+                    padded[p] = boundary.get(input, p - before, j);
+                }
+                kernel.apply(padded, nbRows, result);
+                for (int i = 0; i < nbRows; i++) {
+                    intermediate.set(i, j, result[i]);
+                }
+            }
+        });
+
+        Convolution.divide(parallel, nbRows, nbCols, (first, limit) -> {
+
+            Kernel1D kernel = first == 0 ? rKernel : rKernel.copy();
+            int m = kernel.length();
+            int before = m / 2;
+
+            double[] padded = new double[nbCols + m - 1];
+            double[] result = new double[nbCols];
+
+            for (int i = first; i < limit; i++) {
+                for (int p = 0; p < padded.length; p++) {
+                    padded[p] = boundary.get(intermediate, i, p - before);
+                }
+                kernel.apply(padded, nbCols, result);
+                for (int j = 0; j < nbCols; j++) {
+                    output.set(i, j, result[j]);
+                }
+            }
+        });
+    }
+
+    /**
+     * "Same size" 2D convolution with the kernel centred on each element.
+     */
+    public static void convolve(final Access2D<?> input, final Access2D<?> kernel, final Boundary boundary, final Mutate2D output) {
+        Convolution.same(input, kernel, false, boundary, output);
+    }
+
+    /**
+     * Full cross-correlation – the output has length n+m-1. Same as convolution with the kernel reversed.
+     */
+    public static R064Store correlate(final Access1D<?> signal, final Access1D<?> kernel) {
+
+        int n = signal.size();
+        int m = kernel.size();
+
+        double[] padded = new double[n + 2 * (m - 1)];
+        for (int i = 0; i < n; i++) {
+            padded[m - 1 + i] = signal.doubleValue(i);
+        }
+
+        R064Store retVal = R064Store.FACTORY.make(n + m - 1, 1);
+
+        Convolution.apply(padded, Convolution.toArray(kernel, true), retVal.data);
+
+        return retVal;
+    }
+
+    /**
+     * "Same size" cross-correlation with the kernel centred on each element.
+     */
+    public static void correlate(final Access1D<?> signal, final Access1D<?> kernel, final Boundary boundary, final Mutate1D output) {
+        Convolution.same(signal, Convolution.toArray(kernel, true), boundary, output);
+    }
+
+    /**
+     * "Same size" 2D cross-correlation with the kernel centred on each element.
+     */
+    public static void correlate(final Access2D<?> input, final Access2D<?> kernel, final Boundary boundary, final Mutate2D output) {
+        Convolution.same(input, kernel, true, boundary, output);
+    }
+
+    /**
+     * A normalised box (moving average) kernel of length 2 * radius + 1.
+     */
+    public static ArrayR064 newBoxKernel(final int radius) {
+
+        int size = 2 * radius + 1;
+
+        double[] retVal = new double[size];
+        for (int i = 0; i < size; i++) {
+            retVal[i] = PrimitiveMath.ONE / size;
+        }
+
+        return ArrayR064.wrap(retVal);
+    }
+
+    /**
+     * A normalised Gaussian kernel with radius 3 * sigma (rounded up).
+     */
+    public static ArrayR064 newGaussianKernel(final double sigma) {
+        return Convolution.newGaussianKernel(sigma, (int) Math.ceil(3.0 * sigma));
+    }
+
+    /**
+     * A normalised Gaussian kernel of length 2 * radius + 1.
+     */
+    public static ArrayR064 newGaussianKernel(final double sigma, final int radius) {
+
+        if (sigma <= PrimitiveMath.ZERO || radius < 0) {
+            throw new IllegalArgumentException();
+        }
+
+        int size = 2 * radius + 1;
+        double twoSigmaSquared = 2.0 * sigma * sigma;
+
+        double[] retVal = new double[size];
+        double total = PrimitiveMath.ZERO;
+        for (int i = -radius; i <= radius; i++) {
+            retVal[i + radius] = Math.exp(-i * i / twoSigmaSquared);
+            total += retVal[i + radius];
+        }
+        for (int i = 0; i < size; i++) {
+            retVal[i] /= total;
+        }
+
+        return ArrayR064.wrap(retVal);
+    }
+
+    private static void apply(final double[] padded, final double[] kernel, final double[] output) {
+
+        int length = output.length;
+
+        Kernel1D engine = new Kernel1D(kernel);
+
+        if ((long) length * kernel.length <= THRESHOLD) {
+
+            engine.apply(padded, length, output);
+
+        } else if (engine.isFFT()) {
+
+            Arrays.fill(output, PrimitiveMath.ZERO);
+
+            int nbBlocks = engine.countBlocks(length);
+
+            // Every second block (the even, then the odd, ones) at the time, so that no two blocks processed
+            // concurrently write to the same output elements.
+            for (int parity = 0; parity < 2; parity++) {
+                int offset = parity;
+                Convolution.divide(true, (nbBlocks - parity + 1) / 2, engine.getBlockLength(), (first, limit) -> {
+                    Kernel1D copy = engine.copy();
+                    copy.blocks(padded, length, output, offset + 2 * first, offset + 2 * limit, 2);
+                });
+            }
+
+        } else {
+
+            Convolution.divide(true, length, kernel.length, (first, limit) -> engine.direct(padded, output, first, limit));
+        }
+    }
+
+    private static void divide(final boolean parallel, final int nbItems, final int itemSize, final DivideAndConquer.Conquerer conquerer) {
+        if (parallel) {
+            ProcessingService.INSTANCE.divider().threshold(Math.max(1, THRESHOLD / Math.max(1, itemSize))).divide(0, nbItems, conquerer);
+        } else {
+            conquerer.conquer(0, nbItems);
+        }
+    }
+
+    /**
+     * The smallest size, not less than the input, that factorises into 2, 3 and 5 (fast mixed radix FFT).
+     */
+    private static int findSmoothSize(final int size) {
+        int retVal = size;
+        while (MixedRadix.factorise(retVal) == null) {
+            retVal++;
+        }
+        return retVal;
+    }
+
+    /**
+     * Circular 2D convolution, using FFT:s, of the (already padded) input and the kernel – both zero-padded
+     * to nbRows x nbCols. Arrays are row-major.
+     */
+    private static void frequencyDomain(final double[] input, final int inRows, final int inCols, final double[] kernel, final int kRows, final int kCols,
+            final double[] output, final int nbRows, final int nbCols, final boolean parallel) {
+
+        int nbBins = nbCols / 2 + 1;
+
+        double[] inRe = new double[nbRows * nbBins];
+        double[] inIm = new double[nbRows * nbBins];
+        double[] kRe = new double[nbRows * nbBins];
+        double[] kIm = new double[nbRows * nbBins];
+
+        Convolution.divide(parallel, nbRows, nbCols, (first, limit) -> {
+
+            Real real = new Real(nbCols);
+            double[] row = new double[nbCols];
+            double[] binsRe = new double[nbBins];
+            double[] binsIm = new double[nbBins];
+
+            for (int i = first; i < limit; i++) {
+
+                if (i < inRows) {
+                    System.arraycopy(input, i * inCols, row, 0, inCols);
+                    Arrays.fill(row, inCols, nbCols, PrimitiveMath.ZERO);
+                    real.transform(row, binsRe, binsIm);
+                    System.arraycopy(binsRe, 0, inRe, i * nbBins, nbBins);
+                    System.arraycopy(binsIm, 0, inIm, i * nbBins, nbBins);
+                }
+
+                if (i < kRows) {
+                    System.arraycopy(kernel, i * kCols, row, 0, kCols);
+                    Arrays.fill(row, kCols, nbCols, PrimitiveMath.ZERO);
+                    real.transform(row, binsRe, binsIm);
+                    System.arraycopy(binsRe, 0, kRe, i * nbBins, nbBins);
+                    System.arraycopy(binsIm, 0, kIm, i * nbBins, nbBins);
+                }
+            }
+        });
+
+        Convolution.divide(parallel, nbBins, nbRows, (first, limit) -> {
+
+            InPlace engine = DiscreteFourierTransform.newInPlace(nbRows);
+            double[] workRe = engine.getWorkRe();
+            double[] workIm = engine.getWorkIm();
+            double[] tmpRe = new double[nbRows];
+            double[] tmpIm = new double[nbRows];
+
+            for (int b = first; b < limit; b++) {
+
+                for (int i = 0; i < nbRows; i++) {
+                    workRe[i] = kRe[i * nbBins + b];
+                    workIm[i] = kIm[i * nbBins + b];
+                }
+                engine.compute();
+                System.arraycopy(workRe, 0, tmpRe, 0, nbRows);
+                System.arraycopy(workIm, 0, tmpIm, 0, nbRows);
+
+                for (int i = 0; i < nbRows; i++) {
+                    workRe[i] = inRe[i * nbBins + b];
+                    workIm[i] = inIm[i * nbBins + b];
+                }
+                engine.compute();
+
+                // Multiply, and conjugate to do the inverse with a forward transform
+                for (int i = 0; i < nbRows; i++) {
+                    double re = workRe[i], im = workIm[i];
+                    workRe[i] = re * tmpRe[i] - im * tmpIm[i];
+                    workIm[i] = -(re * tmpIm[i] + im * tmpRe[i]);
+                }
+                engine.compute();
+
+                double divisor = nbRows;
+                for (int i = 0; i < nbRows; i++) {
+                    inRe[i * nbBins + b] = workRe[i] / divisor;
+                    inIm[i * nbBins + b] = -workIm[i] / divisor;
+                }
+            }
+        });
+
+        Convolution.divide(parallel, nbRows, nbCols, (first, limit) -> {
+
+            Real real = new Real(nbCols);
+            double[] binsRe = new double[nbBins];
+            double[] binsIm = new double[nbBins];
+            double[] row = new double[nbCols];
+
+            for (int i = first; i < limit; i++) {
+                System.arraycopy(inRe, i * nbBins, binsRe, 0, nbBins);
+                System.arraycopy(inIm, i * nbBins, binsIm, 0, nbBins);
+                real.inverse(binsRe, binsIm, row);
+                System.arraycopy(row, 0, output, i * nbCols, nbCols);
+            }
+        });
+    }
+
+    private static void same(final Access1D<?> signal, final double[] kernel, final Boundary boundary, final Mutate1D output) {
+
+        int n = signal.size();
+        int m = kernel.length;
+        int before = m / 2;
+
+        double[] padded = new double[n + m - 1];
+        for (int p = 0; p < padded.length; p++) {
+            padded[p] = boundary.get(signal, p - before);
+        }
+
+        double[] result = new double[n];
+
+        Convolution.apply(padded, kernel, result);
+
+        for (int i = 0; i < n; i++) {
+            output.set(i, result[i]);
+        }
+    }
+
+    private static void same(final Access2D<?> input, final Access2D<?> kernel, final boolean reverse, final Boundary boundary, final Mutate2D output) {
+
+        int nbRows = input.getRowDim();
+        int nbCols = input.getColDim();
+        int kRows = kernel.getRowDim();
+        int kCols = kernel.getColDim();
+
+        int pRows = nbRows + kRows - 1;
+        int pCols = nbCols + kCols - 1;
+        int top = kRows / 2;
+        int left = kCols / 2;
+
+        double[] padded = new double[pRows * pCols];
+        for (int i = 0; i < pRows; i++) {
+            for (int j = 0; j < pCols; j++) {
+                padded[i * pCols + j] = boundary.get(input, i - top, j - left);
+            }
+        }
+
+        double[] k = new double[kRows * kCols];
+        for (int i = 0; i < kRows; i++) {
+            for (int j = 0; j < kCols; j++) {
+                k[i * kCols + j] = reverse ? kernel.doubleValue(kRows - 1 - i, kCols - 1 - j) : kernel.doubleValue(i, j);
+            }
+        }
+
+        boolean parallel = (long) nbRows * nbCols > THRESHOLD;
+
+        if (k.length > DIRECT_LIMIT) {
+
+            int fRows = Convolution.findSmoothSize(pRows);
+            int fCols = Convolution.findSmoothSize(pCols);
+            if (fCols % 2 != 0) {
+                fCols = Convolution.findSmoothSize(fCols + 1);
+            }
+
+            double[] result = new double[fRows * fCols];
+
+            Convolution.frequencyDomain(padded, pRows, pCols, k, kRows, kCols, result, fRows, fCols, parallel);
+
+            for (int i = 0; i < nbRows; i++) {
+                for (int j = 0; j < nbCols; j++) {
+                    output.set(i, j, result[(i + kRows - 1) * fCols + j + kCols - 1]);
+                }
+            }
+
+        } else {
+
+            Convolution.divide(parallel, nbRows, nbCols * k.length, (first, limit) -> {
+                for (int i = first; i < limit; i++) {
+                    for (int j = 0; j < nbCols; j++) {
+                        double sum = PrimitiveMath.ZERO;
+                        for (int a = 0; a < kRows; a++) {
+                            int rowOffset = (i + kRows - 1 - a) * pCols + j + kCols - 1;
+                            int kOffset = a * kCols;
+                            for (int b = 0; b < kCols; b++) {
+                                sum += k[kOffset + b] * padded[rowOffset - b];
+                            }
+                        }
+                        output.set(i, j, sum);
+                    }
+                }
+            });
+        }
+    }
+
+    private static double[] toArray(final Access1D<?> kernel, final boolean reverse) {
+        int size = kernel.size();
+        double[] retVal = new double[size];
+        for (int i = 0; i < size; i++) {
+            retVal[reverse ? size - 1 - i : i] = kernel.doubleValue(i);
+        }
+        return retVal;
+    }
+
+    private Convolution() {
+        super();
+    }
+
+}
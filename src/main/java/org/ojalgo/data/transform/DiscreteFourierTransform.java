@@ -21,9 +21,14 @@
  */
 package org.ojalgo.data.transform;
 
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.DoubleUnaryOperator;
 
 import org.ojalgo.array.ArrayR064;
+import org.ojalgo.concurrent.DivideAndConquer;
+import org.ojalgo.concurrent.ProcessingService;
 import org.ojalgo.function.PrimitiveFunction;
 import org.ojalgo.function.constant.ComplexMath;
 import org.ojalgo.function.constant.PrimitiveMath;
@@ -37,6 +42,7 @@ import org.ojalgo.matrix.store.PhysicalStore;
 import org.ojalgo.matrix.store.TransformableRegion;
 import org.ojalgo.scalar.ComplexNumber;
 import org.ojalgo.structure.Access1D;
+import org.ojalgo.structure.Access2D;
 import org.ojalgo.structure.Access2D.ColumnView;
 import org.ojalgo.structure.Access2D.RowView;
 import org.ojalgo.structure.Factory2D;
@@ -54,11 +60,137 @@ import org.ojalgo.structure.Structure1D;
  * The fast Fourier transform (FFT) is an algorithm for computing the DFT; it achieves its high speed by
  * storing and reusing results of computations as it progresses.
  * <p>
- * Calling the factory method {@linkplain #newInstance(int)} will return an FFT implementation if the size is
- * a power of 2, and a full matrix implementation otherwise.
+ * Calling the factory method {@linkplain #newInstance(int)} will return an O(n log n) FFT implementation for
+ * any size – radix 2 if the size is a power of 2, mixed radix if it factorises into 2, 3 and 5, and
+ * Bluestein's algorithm otherwise.
  */
 public abstract class DiscreteFourierTransform implements DataTransform<Access1D<?>, MatrixStore<ComplexNumber>> {
 
+    /**
+     * Complex transform of primitive work arrays, in place: Fill the work arrays (real and imaginary parts)
+     * with the input, call {@link #compute()}, and read the (unscaled) transform from the same arrays. To do
+     * an inverse transform conjugate before and after, and divide by the size.
+     * <p>
+     * Instances should not be shared between threads. Get one using
+     * {@link DiscreteFourierTransform#newInPlace(int)}.
+     */
+    public interface InPlace {
+
+        void compute();
+
+        double[] getWorkIm();
+
+        double[] getWorkRe();
+
+    }
+
+    /**
+     * Bluestein's (chirp-z) algorithm. Expresses a DFT of any size as a convolution, that is then calculated
+     * using power of 2 size FFT:s (of at least twice the size).
+     */
+    static final class Bluestein extends DiscreteFourierTransform implements InPlace {
+
+        private final double[] myChirpIm;
+        private final double[] myChirpRe;
+        private final MixedRadix myConvolver;
+        private final double[] myKernelIm;
+        private final double[] myKernelRe;
+        private final double[] myWorkIm;
+        private final double[] myWorkRe;
+
+        Bluestein(final int size) {
+
+            super(size);
+
+            double[][] chirp = DiscreteFourierTransform.lookupChirp(size);
+
+            myChirpRe = chirp[0];
+            myChirpIm = chirp[1];
+            myKernelRe = chirp[2];
+            myKernelIm = chirp[3];
+
+            myConvolver = new MixedRadix(myKernelRe.length);
+
+            myWorkRe = new double[size];
+            myWorkIm = new double[size];
+        }
+
+        @Override
+        public void transform(final Access1D<?> input, final Directive directive, final Mutate2D.ModifiableReceiver<ComplexNumber> output) {
+
+            DiscreteFourierTransform.setup(input, directive.complex, directive.conjugate, myWorkRe, myWorkIm);
+
+            this.compute();
+
+            FFT.toOutput(myWorkRe, myWorkIm, directive.conjugate, directive.scale, output);
+        }
+
+        @Override
+        public MatrixStore<ComplexNumber> transform(final double... input) {
+
+            System.arraycopy(input, 0, myWorkRe, 0, input.length);
+            Arrays.fill(myWorkIm, PrimitiveMath.ZERO);
+
+            this.compute();
+
+            PhysicalStore<ComplexNumber> output = GenericStore.C128.make(input.length, 1);
+
+            FFT.toOutput(myWorkRe, myWorkIm, DEFAULT.conjugate, DEFAULT.scale, output);
+
+            return output;
+        }
+
+        @Override
+        public void compute() {
+
+            int size = myWorkRe.length;
+            int length = myKernelRe.length;
+
+            double[] convRe = myConvolver.getWorkRe();
+            double[] convIm = myConvolver.getWorkIm();
+
+            for (int k = 0; k < size; k++) {
+                double re = myWorkRe[k];
+                double im = myWorkIm[k];
+                convRe[k] = re * myChirpRe[k] - im * myChirpIm[k];
+                convIm[k] = re * myChirpIm[k] + im * myChirpRe[k];
+            }
+            Arrays.fill(convRe, size, length, PrimitiveMath.ZERO);
+            Arrays.fill(convIm, size, length, PrimitiveMath.ZERO);
+
+            myConvolver.compute();
+
+            // Multiply with the (transformed) kernel, and conjugate to do the inverse transform next
+            for (int k = 0; k < length; k++) {
+                double re = convRe[k];
+                double im = convIm[k];
+                convRe[k] = re * myKernelRe[k] - im * myKernelIm[k];
+                convIm[k] = -(re * myKernelIm[k] + im * myKernelRe[k]);
+            }
+
+            myConvolver.compute();
+
+            double divisor = length;
+            for (int k = 0; k < size; k++) {
+                double re = convRe[k] / divisor;
+                double im = -convIm[k] / divisor;
+                myWorkRe[k] = re * myChirpRe[k] - im * myChirpIm[k];
+                myWorkIm[k] = re * myChirpIm[k] + im * myChirpRe[k];
+            }
+        }
+
+        @Override
+        public double[] getWorkIm() {
+            return myWorkIm;
+        }
+
+        @Override
+        public double[] getWorkRe() {
+            return myWorkRe;
+        }
+
+    }
+
     public static final class Directive {
 
         /**
@@ -471,6 +603,548 @@ public abstract class DiscreteFourierTransform implements DataTransform<Access1D
 
     }
 
+    /**
+     * Mixed radix (2, 3, 4 and 5) FFT for sizes that factorise into those primes. It's a self-sorting
+     * (Stockham) variant of the Cooley–Tukey algorithm – no bit reversal permutation, but it needs an extra
+     * pair of work arrays.
+     */
+    static final class MixedRadix extends DiscreteFourierTransform implements InPlace {
+
+        private static final double COS_2PI_5 = PrimitiveMath.COS.invoke(PrimitiveMath.TWO_PI / 5.0);
+        private static final double COS_4PI_5 = PrimitiveMath.COS.invoke(2.0 * PrimitiveMath.TWO_PI / 5.0);
+        private static final double SIN_2PI_3 = PrimitiveMath.SIN.invoke(PrimitiveMath.TWO_PI / 3.0);
+        private static final double SIN_2PI_5 = PrimitiveMath.SIN.invoke(PrimitiveMath.TWO_PI / 5.0);
+        private static final double SIN_4PI_5 = PrimitiveMath.SIN.invoke(2.0 * PrimitiveMath.TWO_PI / 5.0);
+
+        /**
+         * @return The radices, largest (radix 4) first, or null if the size can't be factorised into 2, 3, 4
+         *         and 5.
+         */
+        static int[] factorise(final int size) {
+
+            int[] retVal = new int[32];
+            int nbFactors = 0;
+
+            int remaining = size;
+            while (remaining % 4 == 0) {
+                retVal[nbFactors++] = 4;
+                remaining /= 4;
+            }
+            while (remaining % 2 == 0) {
+                retVal[nbFactors++] = 2;
+                remaining /= 2;
+            }
+            while (remaining % 3 == 0) {
+                retVal[nbFactors++] = 3;
+                remaining /= 3;
+            }
+            while (remaining % 5 == 0) {
+                retVal[nbFactors++] = 5;
+                remaining /= 5;
+            }
+
+            return remaining == 1 ? Arrays.copyOf(retVal, nbFactors) : null;
+        }
+
+        /**
+         * A stage with radix 2. The input is n=2m elements (for each of the s interleaved sequences).
+         */
+        private static void stage2(final int m, final int s, final double[] twRe, final double[] twIm, final double[] xRe, final double[] xIm,
+                final double[] yRe, final double[] yIm) {
+
+            for (int q = 0; q < m; q++) {
+
+                double w1Re = twRe[q * s], w1Im = twIm[q * s];
+
+                for (int k = 0; k < s; k++) {
+
+                    int i0 = k + s * q, i1 = i0 + s * m;
+                    int o0 = k + 2 * s * q, o1 = o0 + s;
+
+                    double aRe = xRe[i0], aIm = xIm[i0];
+                    double bRe = xRe[i1], bIm = xIm[i1];
+
+                    yRe[o0] = aRe + bRe;
+                    yIm[o0] = aIm + bIm;
+
+                    double dRe = aRe - bRe, dIm = aIm - bIm;
+                    yRe[o1] = dRe * w1Re - dIm * w1Im;
+                    yIm[o1] = dRe * w1Im + dIm * w1Re;
+                }
+            }
+        }
+
+        private static void stage3(final int m, final int s, final double[] twRe, final double[] twIm, final double[] xRe, final double[] xIm,
+                final double[] yRe, final double[] yIm) {
+
+            for (int q = 0; q < m; q++) {
+
+                double w1Re = twRe[q * s], w1Im = twIm[q * s];
+                double w2Re = twRe[2 * q * s], w2Im = twIm[2 * q * s];
+
+                for (int k = 0; k < s; k++) {
+
+                    int i0 = k + s * q, i1 = i0 + s * m, i2 = i1 + s * m;
+                    int o0 = k + 3 * s * q, o1 = o0 + s, o2 = o1 + s;
+
+                    double a0Re = xRe[i0], a0Im = xIm[i0];
+                    double a1Re = xRe[i1], a1Im = xIm[i1];
+                    double a2Re = xRe[i2], a2Im = xIm[i2];
+
+                    double sRe = a1Re + a2Re, sIm = a1Im + a2Im;
+                    double dRe = SIN_2PI_3 * (a1Re - a2Re), dIm = SIN_2PI_3 * (a1Im - a2Im);
+                    double tRe = a0Re - PrimitiveMath.HALF * sRe, tIm = a0Im - PrimitiveMath.HALF * sIm;
+
+                    yRe[o0] = a0Re + sRe;
+                    yIm[o0] = a0Im + sIm;
+
+                    double b1Re = tRe + dIm, b1Im = tIm - dRe;
+                    yRe[o1] = b1Re * w1Re - b1Im * w1Im;
+                    yIm[o1] = b1Re * w1Im + b1Im * w1Re;
+
+                    double b2Re = tRe - dIm, b2Im = tIm + dRe;
+                    yRe[o2] = b2Re * w2Re - b2Im * w2Im;
+                    yIm[o2] = b2Re * w2Im + b2Im * w2Re;
+                }
+            }
+        }
+
+        private static void stage4(final int m, final int s, final double[] twRe, final double[] twIm, final double[] xRe, final double[] xIm,
+                final double[] yRe, final double[] yIm) {
+
+            for (int q = 0; q < m; q++) {
+
+                double w1Re = twRe[q * s], w1Im = twIm[q * s];
+                double w2Re = twRe[2 * q * s], w2Im = twIm[2 * q * s];
+                double w3Re = twRe[3 * q * s], w3Im = twIm[3 * q * s];
+
+                for (int k = 0; k < s; k++) {
+
+                    int i0 = k + s * q, i1 = i0 + s * m, i2 = i1 + s * m, i3 = i2 + s * m;
+                    int o0 = k + 4 * s * q, o1 = o0 + s, o2 = o1 + s, o3 = o2 + s;
+
+                    double a0Re = xRe[i0], a0Im = xIm[i0];
+                    double a1Re = xRe[i1], a1Im = xIm[i1];
+                    double a2Re = xRe[i2], a2Im = xIm[i2];
+                    double a3Re = xRe[i3], a3Im = xIm[i3];
+
+                    double t0Re = a0Re + a2Re, t0Im = a0Im + a2Im;
+                    double t1Re = a0Re - a2Re, t1Im = a0Im - a2Im;
+                    double t2Re = a1Re + a3Re, t2Im = a1Im + a3Im;
+                    double t3Re = a1Re - a3Re, t3Im = a1Im - a3Im;
+
+                    yRe[o0] = t0Re + t2Re;
+                    yIm[o0] = t0Im + t2Im;
+
+                    double b1Re = t1Re + t3Im, b1Im = t1Im - t3Re;
+                    yRe[o1] = b1Re * w1Re - b1Im * w1Im;
+                    yIm[o1] = b1Re * w1Im + b1Im * w1Re;
+
+                    double b2Re = t0Re - t2Re, b2Im = t0Im - t2Im;
+                    yRe[o2] = b2Re * w2Re - b2Im * w2Im;
+                    yIm[o2] = b2Re * w2Im + b2Im * w2Re;
+
+                    double b3Re = t1Re - t3Im, b3Im = t1Im + t3Re;
+                    yRe[o3] = b3Re * w3Re - b3Im * w3Im;
+                    yIm[o3] = b3Re * w3Im + b3Im * w3Re;
+                }
+            }
+        }
+
+        private static void stage5(final int m, final int s, final double[] twRe, final double[] twIm, final double[] xRe, final double[] xIm,
+                final double[] yRe, final double[] yIm) {
+
+            for (int q = 0; q < m; q++) {
+
+                double w1Re = twRe[q * s], w1Im = twIm[q * s];
+                double w2Re = twRe[2 * q * s], w2Im = twIm[2 * q * s];
+                double w3Re = twRe[3 * q * s], w3Im = twIm[3 * q * s];
+                double w4Re = twRe[4 * q * s], w4Im = twIm[4 * q * s];
+
+                for (int k = 0; k < s; k++) {
+
+                    int i0 = k + s * q, i1 = i0 + s * m, i2 = i1 + s * m, i3 = i2 + s * m, i4 = i3 + s * m;
+                    int o0 = k + 5 * s * q, o1 = o0 + s, o2 = o1 + s, o3 = o2 + s, o4 = o3 + s;
+
+                    double a0Re = xRe[i0], a0Im = xIm[i0];
+
+                    double p1Re = xRe[i1] + xRe[i4], p1Im = xIm[i1] + xIm[i4];
+                    double m1Re = xRe[i1] - xRe[i4], m1Im = xIm[i1] - xIm[i4];
+                    double p2Re = xRe[i2] + xRe[i3], p2Im = xIm[i2] + xIm[i3];
+                    double m2Re = xRe[i2] - xRe[i3], m2Im = xIm[i2] - xIm[i3];
+
+                    double r1Re = a0Re + COS_2PI_5 * p1Re + COS_4PI_5 * p2Re, r1Im = a0Im + COS_2PI_5 * p1Im + COS_4PI_5 * p2Im;
+                    double r2Re = a0Re + COS_4PI_5 * p1Re + COS_2PI_5 * p2Re, r2Im = a0Im + COS_4PI_5 * p1Im + COS_2PI_5 * p2Im;
+
+                    double aRe = SIN_2PI_5 * m1Re + SIN_4PI_5 * m2Re, aIm = SIN_2PI_5 * m1Im + SIN_4PI_5 * m2Im;
+                    double bRe = SIN_4PI_5 * m1Re - SIN_2PI_5 * m2Re, bIm = SIN_4PI_5 * m1Im - SIN_2PI_5 * m2Im;
+
+                    yRe[o0] = a0Re + p1Re + p2Re;
+                    yIm[o0] = a0Im + p1Im + p2Im;
+
+                    double b1Re = r1Re + aIm, b1Im = r1Im - aRe;
+                    yRe[o1] = b1Re * w1Re - b1Im * w1Im;
+                    yIm[o1] = b1Re * w1Im + b1Im * w1Re;
+
+                    double b2Re = r2Re + bIm, b2Im = r2Im - bRe;
+                    yRe[o2] = b2Re * w2Re - b2Im * w2Im;
+                    yIm[o2] = b2Re * w2Im + b2Im * w2Re;
+
+                    double b3Re = r2Re - bIm, b3Im = r2Im + bRe;
+                    yRe[o3] = b3Re * w3Re - b3Im * w3Im;
+                    yIm[o3] = b3Re * w3Im + b3Im * w3Re;
+
+                    double b4Re = r1Re - aIm, b4Im = r1Im + aRe;
+                    yRe[o4] = b4Re * w4Re - b4Im * w4Im;
+                    yIm[o4] = b4Re * w4Im + b4Im * w4Re;
+                }
+            }
+        }
+
+        private final double[] myBufferIm;
+        private final double[] myBufferRe;
+        private final int[] myFactors;
+        private final double[] myTwiddlesIm;
+        private final double[] myTwiddlesRe;
+        private final double[] myWorkIm;
+        private final double[] myWorkRe;
+
+        MixedRadix(final int size) {
+
+            super(size);
+
+            myFactors = MixedRadix.factorise(size);
+            if (myFactors == null) {
+                throw new IllegalArgumentException("Needs to factorise into 2, 3, 4 and 5!");
+            }
+
+            double[][] twiddles = DiscreteFourierTransform.lookupTwiddles(size);
+            myTwiddlesRe = twiddles[0];
+            myTwiddlesIm = twiddles[1];
+
+            myWorkRe = new double[size];
+            myWorkIm = new double[size];
+            myBufferRe = new double[size];
+            myBufferIm = new double[size];
+        }
+
+        @Override
+        public void transform(final Access1D<?> input, final Directive directive, final Mutate2D.ModifiableReceiver<ComplexNumber> output) {
+
+            DiscreteFourierTransform.setup(input, directive.complex, directive.conjugate, myWorkRe, myWorkIm);
+
+            this.compute();
+
+            FFT.toOutput(myWorkRe, myWorkIm, directive.conjugate, directive.scale, output);
+        }
+
+        @Override
+        public MatrixStore<ComplexNumber> transform(final double... input) {
+
+            System.arraycopy(input, 0, myWorkRe, 0, input.length);
+            Arrays.fill(myWorkIm, PrimitiveMath.ZERO);
+
+            this.compute();
+
+            PhysicalStore<ComplexNumber> output = GenericStore.C128.make(input.length, 1);
+
+            FFT.toOutput(myWorkRe, myWorkIm, DEFAULT.conjugate, DEFAULT.scale, output);
+
+            return output;
+        }
+
+        @Override
+        public void compute() {
+
+            double[] xRe = myWorkRe, xIm = myWorkIm;
+            double[] yRe = myBufferRe, yIm = myBufferIm;
+
+            int n = myWorkRe.length;
+            int s = 1;
+
+            for (int radix : myFactors) {
+
+                int m = n / radix;
+
+                switch (radix) {
+                case 2:
+                    MixedRadix.stage2(m, s, myTwiddlesRe, myTwiddlesIm, xRe, xIm, yRe, yIm);
+                    break;
+                case 3:
+                    MixedRadix.stage3(m, s, myTwiddlesRe, myTwiddlesIm, xRe, xIm, yRe, yIm);
+                    break;
+                case 4:
+                    MixedRadix.stage4(m, s, myTwiddlesRe, myTwiddlesIm, xRe, xIm, yRe, yIm);
+                    break;
+                default:
+                    MixedRadix.stage5(m, s, myTwiddlesRe, myTwiddlesIm, xRe, xIm, yRe, yIm);
+                    break;
+                }
+
+                double[] tmpRe = xRe, tmpIm = xIm;
+                xRe = yRe;
+                xIm = yIm;
+                yRe = tmpRe;
+                yIm = tmpIm;
+
+                n = m;
+                s *= radix;
+            }
+
+            if (xRe != myWorkRe) {
+                System.arraycopy(xRe, 0, myWorkRe, 0, xRe.length);
+                System.arraycopy(xIm, 0, myWorkIm, 0, xIm.length);
+            }
+        }
+
+        @Override
+        public double[] getWorkIm() {
+            return myWorkIm;
+        }
+
+        @Override
+        public double[] getWorkRe() {
+            return myWorkRe;
+        }
+
+    }
+
+    /**
+     * Real-to-complex transform. A real input sequence of size n has a conjugate symmetric transform –
+     * X[n-k] = conj(X[k]) – so only the n/2+1 first bins are calculated and returned, as primitive real and
+     * imaginary parts. For even sizes the input is packed into a complex sequence of half the length, that is
+     * transformed and then unpacked, making it roughly twice as fast as a complex transform.
+     * <p>
+     * Instances have internal work arrays, and should not be shared between threads. The twiddle factors are
+     * cached and shared between all instances of the same size.
+     */
+    public static final class Real {
+
+        private final InPlace myEngine;
+        private final int mySize;
+        private final double[] myTwiddlesIm;
+        private final double[] myTwiddlesRe;
+
+        Real(final int size) {
+
+            super();
+
+            if (size < 1) {
+                throw new IllegalArgumentException();
+            }
+
+            mySize = size;
+
+            if (size % 2 == 0) {
+                myEngine = DiscreteFourierTransform.newInPlace(size / 2);
+                double[][] twiddles = DiscreteFourierTransform.lookupTwiddles(size);
+                myTwiddlesRe = twiddles[0];
+                myTwiddlesIm = twiddles[1];
+            } else {
+                myEngine = DiscreteFourierTransform.newInPlace(size);
+                myTwiddlesRe = null;
+                myTwiddlesIm = null;
+            }
+        }
+
+        /**
+         * @return The number of (non-redundant) frequency bins – n/2+1
+         */
+        public int countBins() {
+            return mySize / 2 + 1;
+        }
+
+        /**
+         * The inverse transform – from the n/2+1 bins back to the n real values.
+         */
+        public void inverse(final double[] re, final double[] im, final double[] output) {
+
+            double[] workRe = myEngine.getWorkRe();
+            double[] workIm = myEngine.getWorkIm();
+
+            if (myTwiddlesRe != null) {
+
+                int half = mySize / 2;
+
+                for (int k = 0; k < half; k++) {
+
+                    double xRe = re[k], xIm = im[k];
+                    double cRe = re[half - k], cIm = -im[half - k];
+
+                    double eRe = PrimitiveMath.HALF * (xRe + cRe), eIm = PrimitiveMath.HALF * (xIm + cIm);
+                    double dRe = PrimitiveMath.HALF * (xRe - cRe), dIm = PrimitiveMath.HALF * (xIm - cIm);
+
+                    double wRe = myTwiddlesRe[k], wIm = myTwiddlesIm[k];
+                    double oRe = dRe * wRe + dIm * wIm, oIm = dIm * wRe - dRe * wIm;
+
+                    // Conjugated, to do the inverse with a forward transform
+                    workRe[k] = eRe - oIm;
+                    workIm[k] = -(eIm + oRe);
+                }
+
+                myEngine.compute();
+
+                double divisor = half;
+                for (int k = 0; k < half; k++) {
+                    output[2 * k] = workRe[k] / divisor;
+                    output[2 * k + 1] = -workIm[k] / divisor;
+                }
+
+            } else {
+
+                int nbBins = this.countBins();
+
+                for (int k = 0; k < nbBins; k++) {
+                    workRe[k] = re[k];
+                    workIm[k] = -im[k];
+                }
+                for (int k = nbBins; k < mySize; k++) {
+                    workRe[k] = re[mySize - k];
+                    workIm[k] = im[mySize - k];
+                }
+
+                myEngine.compute();
+
+                double divisor = mySize;
+                for (int k = 0; k < mySize; k++) {
+                    output[k] = workRe[k] / divisor;
+                }
+            }
+        }
+
+        /**
+         * @return The size of the (real) input
+         */
+        public int size() {
+            return mySize;
+        }
+
+        /**
+         * Batched transform – each row of the input is a separate signal (of length {@link #size()}). The
+         * output matrices should have one row per signal, and {@link #countBins()} columns. Large batches are
+         * processed in parallel.
+         */
+        public void transform(final Access2D<?> signals, final Mutate2D re, final Mutate2D im) {
+
+            int nbSignals = signals.getRowDim();
+
+            if ((long) nbSignals * mySize > THRESHOLD) {
+                ProcessingService.INSTANCE.divider().threshold(Math.max(1, THRESHOLD / mySize)).divide(0, nbSignals, (first, limit) -> {
+                    Real engine = first == 0 ? this : new Real(mySize);
+                    engine.transform(signals, re, im, first, limit);
+                });
+            } else {
+                this.transform(signals, re, im, 0, nbSignals);
+            }
+        }
+
+        public void transform(final Access1D<?> input, final double[] re, final double[] im) {
+
+            double[] workRe = myEngine.getWorkRe();
+            double[] workIm = myEngine.getWorkIm();
+
+            if (myTwiddlesRe != null) {
+                for (int k = 0, half = mySize / 2; k < half; k++) {
+                    workRe[k] = input.doubleValue(2 * k);
+                    workIm[k] = input.doubleValue(2 * k + 1);
+                }
+            } else {
+                for (int k = 0; k < mySize; k++) {
+                    workRe[k] = input.doubleValue(k);
+                }
+                Arrays.fill(workIm, PrimitiveMath.ZERO);
+            }
+
+            this.compute(re, im);
+        }
+
+        /**
+         * @param input The real input sequence, of length {@link #size()}
+         * @param re The real parts of the output, of length (at least) {@link #countBins()}
+         * @param im The imaginary parts of the output, of length (at least) {@link #countBins()}
+         */
+        public void transform(final double[] input, final double[] re, final double[] im) {
+
+            double[] workRe = myEngine.getWorkRe();
+            double[] workIm = myEngine.getWorkIm();
+
+            if (myTwiddlesRe != null) {
+                for (int k = 0, half = mySize / 2; k < half; k++) {
+                    workRe[k] = input[2 * k];
+                    workIm[k] = input[2 * k + 1];
+                }
+            } else {
+                System.arraycopy(input, 0, workRe, 0, mySize);
+                Arrays.fill(workIm, PrimitiveMath.ZERO);
+            }
+
+            this.compute(re, im);
+        }
+
+        private void compute(final double[] re, final double[] im) {
+
+            myEngine.compute();
+
+            double[] workRe = myEngine.getWorkRe();
+            double[] workIm = myEngine.getWorkIm();
+
+            if (myTwiddlesRe != null) {
+
+                int half = mySize / 2;
+
+                re[0] = workRe[0] + workIm[0];
+                im[0] = PrimitiveMath.ZERO;
+                re[half] = workRe[0] - workIm[0];
+                im[half] = PrimitiveMath.ZERO;
+
+                for (int k = 1; k < half; k++) {
+
+                    double aRe = workRe[k], aIm = workIm[k];
+                    double cRe = workRe[half - k], cIm = workIm[half - k];
+
+                    double eRe = PrimitiveMath.HALF * (aRe + cRe), eIm = PrimitiveMath.HALF * (aIm - cIm);
+                    double oRe = PrimitiveMath.HALF * (aIm + cIm), oIm = PrimitiveMath.HALF * (cRe - aRe);
+
+                    double wRe = myTwiddlesRe[k], wIm = myTwiddlesIm[k];
+
+                    re[k] = eRe + wRe * oRe - wIm * oIm;
+                    im[k] = eIm + wRe * oIm + wIm * oRe;
+                }
+
+            } else {
+
+                int nbBins = this.countBins();
+
+                System.arraycopy(workRe, 0, re, 0, nbBins);
+                System.arraycopy(workIm, 0, im, 0, nbBins);
+            }
+        }
+
+        private void transform(final Access2D<?> signals, final Mutate2D re, final Mutate2D im, final int first, final int limit) {
+
+            int nbBins = this.countBins();
+
+            double[] input = new double[mySize];
+            double[] binsRe = new double[nbBins];
+            double[] binsIm = new double[nbBins];
+
+            for (int s = first; s < limit; s++) {
+
+                for (int j = 0; j < mySize; j++) {
+                    input[j] = signals.doubleValue(s, j);
+                }
+
+                this.transform(input, binsRe, binsIm);
+
+                for (int k = 0; k < nbBins; k++) {
+                    re.set(s, k, binsRe[k]);
+                    im.set(s, k, binsIm[k]);
+                }
+            }
+        }
+
+    }
+
     static final class Single extends DiscreteFourierTransform {
 
         Single() {
@@ -485,11 +1159,18 @@ public abstract class DiscreteFourierTransform implements DataTransform<Access1D
     }
 
     private static final int[][] BIT_REVERSED_INDICES = new int[31][];
+    private static final Map<Integer, double[][]> CHIRPS = new ConcurrentHashMap<>();
+    private static final Map<Integer, double[][]> TWIDDLES = new ConcurrentHashMap<>();
     private static final ComplexNumber[][] UNIT_ROOTS = new ComplexNumber[31][];
 
     static final Directive DEFAULT = new Directive(false, false, false);
     static final Directive INVERSE = new Directive(true, true, true);
 
+    /**
+     * Batched and 2D transforms with more than this number of elements (in total) are done in parallel.
+     */
+    static int THRESHOLD = 65_536;
+
     public static int[] getBitReversedIndices(final int size) {
         return DiscreteFourierTransform.lookupIndices(size).clone();
     }
@@ -508,8 +1189,20 @@ public abstract class DiscreteFourierTransform implements DataTransform<Access1D
     }
 
     /**
-     * Will return a functioning instance for any size, but if you want fast transformation (FFT) it needs to
-     * be a power of 2.
+     * A complex (primitive, in place) transform of any size.
+     */
+    public static InPlace newInPlace(final int size) {
+        if (MixedRadix.factorise(size) != null) {
+            return new MixedRadix(size);
+        } else {
+            return new Bluestein(size);
+        }
+    }
+
+    /**
+     * Will return an FFT implementation for any size. Powers of 2 are the fastest, then sizes that factorise
+     * into 2, 3 and 5 (mixed radix). Any other size is handled using Bluestein's algorithm – a convolution
+     * calculated with power of 2 FFT:s of at least twice the size.
      */
     public static DiscreteFourierTransform newInstance(final int size) {
 
@@ -519,11 +1212,20 @@ public abstract class DiscreteFourierTransform implements DataTransform<Access1D
             return new Single();
         } else if (PowerOf2.isPowerOf2(size)) {
             return new FFT(size);
+        } else if (MixedRadix.factorise(size) != null) {
+            return new MixedRadix(size);
         } else {
-            return new FullMatrix(size);
+            return new Bluestein(size);
         }
     }
 
+    /**
+     * A real-to-complex transform, returning only the non-redundant half of the spectrum.
+     */
+    public static Real newReal(final int size) {
+        return new Real(size);
+    }
+
     public static <M extends Mutate2D> M newVandermonde(final Factory2D<M> factory, final int size) {
 
         M matrix = factory.make(size, size);
@@ -620,32 +1322,88 @@ public abstract class DiscreteFourierTransform implements DataTransform<Access1D
         return retVal;
     }
 
+    /**
+     * The column transforms, and then the row transforms, are done in parallel if the matrix is large enough
+     * (more than {@link #THRESHOLD} elements).
+     */
     public static void transform2D(final MatrixStore<?> input, final Directive directive, final TransformableRegion<ComplexNumber> output) {
 
         int nbRows = input.getRowDim();
         int nbCols = input.getColDim();
 
-        DiscreteFourierTransform transformer = DiscreteFourierTransform.newInstance(nbRows);
-        PhysicalStore<ComplexNumber> workOutput = GenericStore.C128.make(nbRows, 1);
+        boolean parallel = (long) nbRows * nbCols > THRESHOLD;
 
-        Directive directive1 = directive;
-        for (ColumnView<?> view : input.columns()) {
-            transformer.transform(view, directive1, workOutput);
-            output.fillColumn(view.column(), workOutput);
-        }
+        DiscreteFourierTransform.divide(parallel, nbCols, nbRows, (first, limit) -> {
 
-        if (nbRows != nbCols) {
-            transformer = DiscreteFourierTransform.newInstance(nbCols);
-            workOutput = GenericStore.C128.make(nbCols, 1);
-        }
+            DiscreteFourierTransform transformer = DiscreteFourierTransform.newInstance(nbRows);
+            PhysicalStore<ComplexNumber> workOutput = GenericStore.C128.make(nbRows, 1);
+
+            ColumnView<?> view = input.columns();
+            for (int j = first; j < limit; j++) {
+                view.goToColumn(j);
+                transformer.transform(view, directive, workOutput);
+                output.fillColumn(j, workOutput);
+            }
+        });
 
         Directive directive2 = directive.withComplex(true);
-        for (RowView<ComplexNumber> view : output.rows()) {
-            transformer.transform(view, directive2, workOutput);
-            output.fillRow(view.row(), workOutput);
+
+        DiscreteFourierTransform.divide(parallel, nbRows, nbCols, (first, limit) -> {
+
+            DiscreteFourierTransform transformer = DiscreteFourierTransform.newInstance(nbCols);
+            PhysicalStore<ComplexNumber> workOutput = GenericStore.C128.make(nbCols, 1);
+
+            RowView<ComplexNumber> view = output.rows();
+            for (int i = first; i < limit; i++) {
+                view.goToRow(i);
+                transformer.transform(view, directive2, workOutput);
+                output.fillRow(i, workOutput);
+            }
+        });
+    }
+
+    private static void divide(final boolean parallel, final int nbTransforms, final int size, final DivideAndConquer.Conquerer conquerer) {
+        if (parallel) {
+            ProcessingService.INSTANCE.divider().threshold(Math.max(1, THRESHOLD / size)).divide(0, nbTransforms, conquerer);
+        } else {
+            conquerer.conquer(0, nbTransforms);
         }
     }
 
+    /**
+     * The Bluestein chirp, w[k] = exp(-i&pi;k²/n), and the (transformed) convolution kernel. Cached per size.
+     */
+    private static double[][] lookupChirp(final int size) {
+        return CHIRPS.computeIfAbsent(Integer.valueOf(size), key -> {
+
+            int length = PowerOf2.smallestNotLessThan(2 * size - 1);
+
+            double[] chirpRe = new double[size];
+            double[] chirpIm = new double[size];
+
+            MixedRadix convolver = new MixedRadix(length);
+            double[] kernelRe = convolver.getWorkRe();
+            double[] kernelIm = convolver.getWorkIm();
+
+            for (int k = 0; k < size; k++) {
+                // k² mod 2n, to keep the angle argument small
+                double angle = -PrimitiveMath.PI * (((long) k * k) % (2L * size)) / size;
+                chirpRe[k] = PrimitiveMath.COS.invoke(angle);
+                chirpIm[k] = PrimitiveMath.SIN.invoke(angle);
+                kernelRe[k] = chirpRe[k];
+                kernelIm[k] = -chirpIm[k];
+                if (k > 0) {
+                    kernelRe[length - k] = chirpRe[k];
+                    kernelIm[length - k] = -chirpIm[k];
+                }
+            }
+
+            convolver.compute();
+
+            return new double[][] { chirpRe, chirpIm, kernelRe.clone(), kernelIm.clone() };
+        });
+    }
+
     private static ComplexNumber[] lookupRootsExponent(final int exponent) {
 
         if (exponent >= UNIT_ROOTS.length) {
@@ -691,6 +1449,25 @@ public abstract class DiscreteFourierTransform implements DataTransform<Access1D
         }
     }
 
+    /**
+     * The unit roots, exp(-2&pi;ik/n), as primitive real and imaginary parts. Cached per size.
+     */
+    private static double[][] lookupTwiddles(final int size) {
+        return TWIDDLES.computeIfAbsent(Integer.valueOf(size), key -> {
+
+            double[] twiddlesRe = new double[size];
+            double[] twiddlesIm = new double[size];
+
+            for (int k = 0; k < size; k++) {
+                double angle = -PrimitiveMath.TWO_PI * k / size;
+                twiddlesRe[k] = PrimitiveMath.COS.invoke(angle);
+                twiddlesIm[k] = PrimitiveMath.SIN.invoke(angle);
+            }
+
+            return new double[][] { twiddlesRe, twiddlesIm };
+        });
+    }
+
     /**
      * Function to perform bit-reversal on indices
      */
@@ -749,6 +1526,27 @@ public abstract class DiscreteFourierTransform implements DataTransform<Access1D
         return DiscreteFourierTransform.lookupRootsExponent(exponent);
     }
 
+    /**
+     * Copy the input to the work arrays, conjugating if required.
+     */
+    static void setup(final Access1D<?> input, final boolean complex, final boolean conjugate, final double[] workRe, final double[] workIm) {
+
+        int size = workRe.length;
+
+        if (complex) {
+            for (int i = 0; i < size; i++) {
+                ComplexNumber value = ComplexNumber.valueOf(input.get(i));
+                workRe[i] = value.doubleValue();
+                workIm[i] = conjugate ? -value.i : value.i;
+            }
+        } else {
+            for (int i = 0; i < size; i++) {
+                workRe[i] = input.doubleValue(i);
+            }
+            Arrays.fill(workIm, PrimitiveMath.ZERO);
+        }
+    }
+
     static int toPowerOf2Exponent(final int size) {
 
         int exponent = PowerOf2.find(size);
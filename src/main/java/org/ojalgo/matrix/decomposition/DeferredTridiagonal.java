@@ -153,6 +153,10 @@ abstract class DeferredTridiagonal<N extends Comparable<N>> extends TridiagonalD
 
     private transient BasicArray<N> myDiagD = null;
     private transient BasicArray<N> myDiagE = null;
+    /**
+     * The {@link Workspace} scope myDiagD and myDiagE were borrowed in, if any
+     */
+    private transient Object myDiagScope = null;
     private Array1D<N> myInitDiagQ = null;
 
     protected DeferredTridiagonal(final DecompositionStore.Factory<N, ? extends DecompositionStore<N>> factory) {
@@ -173,9 +177,10 @@ abstract class DeferredTridiagonal<N extends Comparable<N>> extends TridiagonalD
 
             int size = this.getMinDim();
 
-            if (myDiagD == null || myDiagD.count() != size) {
+            if (myDiagD == null || myDiagD.count() != size || !Workspace.isReusable(myDiagScope)) {
                 myDiagD = this.makeArray(size);
                 myDiagE = this.makeArray(size);
+                myDiagScope = Workspace.currentScope();
             }
 
             Householder<N> tmpHouseholder = this.makeHouseholder(size);
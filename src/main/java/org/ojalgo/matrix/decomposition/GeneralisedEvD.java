@@ -36,6 +36,10 @@ final class GeneralisedEvD<N extends Comparable<N>> extends EigenvalueDecomposit
     private final Eigenvalue<N> myEigenvalue;
     private final PhysicalStore.Factory<N, ? extends DecompositionStore<N>> myFactory;
     private transient PhysicalStore<N> myRecovered = null;
+    /**
+     * The {@link Workspace} scope myRecovered was borrowed in, if any
+     */
+    private transient Object myRecoveredScope = null;
     /**
      * C
      */
@@ -137,12 +141,17 @@ final class GeneralisedEvD<N extends Comparable<N>> extends EigenvalueDecomposit
 
         MatrixStore<N> mtrxL = myCholesky.getL();
 
+        if (!Workspace.isReusable(myRecoveredScope)) {
+            myRecovered = null;
+        }
+
         switch (myType) {
 
             case BA:
 
                 if (myRecovered == null) {
                     myRecovered = this.makeZero(reduced);
+                    myRecoveredScope = Workspace.currentScope();
                 }
 
                 myRecovered.fillByMultiplying(mtrxL, reduced);
@@ -153,10 +162,12 @@ final class GeneralisedEvD<N extends Comparable<N>> extends EigenvalueDecomposit
 
                 if (reduced instanceof PhysicalStore<?>) {
                     myRecovered = (PhysicalStore<N>) reduced;
+                    myRecoveredScope = Workspace.currentScope();
                 } else if (myRecovered != null) {
                     reduced.supplyTo(myRecovered);
                 } else {
                     myRecovered = reduced.collect(myFactory);
+                    myRecoveredScope = null;
                 }
 
                 myRecovered.substituteBackwards(mtrxL, false, true, false);
@@ -169,6 +180,10 @@ final class GeneralisedEvD<N extends Comparable<N>> extends EigenvalueDecomposit
 
         MatrixStore<N> mtrxL = myCholesky.getL();
 
+        if (!Workspace.isReusable(myRecoveredScope)) {
+            myRecovered = null;
+        }
+
         switch (myType) {
 
             case A_B:
@@ -177,6 +192,7 @@ final class GeneralisedEvD<N extends Comparable<N>> extends EigenvalueDecomposit
                     original.supplyTo(myRecovered);
                 } else {
                     myRecovered = original.collect(myFactory);
+                    myRecoveredScope = null;
                 }
 
                 myRecovered.substituteForwards(mtrxL, false, false, false);
@@ -195,6 +211,7 @@ final class GeneralisedEvD<N extends Comparable<N>> extends EigenvalueDecomposit
 
                 if (myRecovered == null) {
                     myRecovered = this.makeZero(original);
+                    myRecoveredScope = Workspace.currentScope();
                 }
 
                 myRecovered.fillByMultiplying(myReduced, mtrxL);
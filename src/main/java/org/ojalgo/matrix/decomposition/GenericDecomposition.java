@@ -56,6 +56,10 @@ abstract class GenericDecomposition<N extends Comparable<N>> extends AbstractDec
 
     @Override
     protected final DecompositionStore<N> allocate(final long numberOfRows, final long numberOfColumns) {
+        Workspace workspace = Workspace.active();
+        if (workspace != null) {
+            return workspace.borrow(myFactory, numberOfRows, numberOfColumns);
+        }
         return myFactory.make(numberOfRows, numberOfColumns);
     }
 
@@ -79,6 +83,10 @@ abstract class GenericDecomposition<N extends Comparable<N>> extends AbstractDec
     }
 
     protected final BasicArray<N> makeArray(final int length) {
+        Workspace workspace = Workspace.active();
+        if (workspace != null) {
+            return workspace.borrow(myFactory.array(), length);
+        }
         return myFactory.array().make(length);
     }
 
@@ -87,6 +95,12 @@ abstract class GenericDecomposition<N extends Comparable<N>> extends AbstractDec
     }
 
     protected final DecompositionStore<N> makeEye(final int numberOfRows, final int numberOfColumns) {
+        Workspace workspace = Workspace.active();
+        if (workspace != null) {
+            DecompositionStore<N> retVal = workspace.borrow(myFactory, numberOfRows, numberOfColumns);
+            retVal.fillDiagonal(this.scalar().one().get());
+            return retVal;
+        }
         return myFactory.makeEye(numberOfRows, numberOfColumns);
     }
 
@@ -107,11 +121,11 @@ abstract class GenericDecomposition<N extends Comparable<N>> extends AbstractDec
     }
 
     protected final DecompositionStore<N> makeZero(final int numberOfRows, final int numberOfColumns) {
-        return myFactory.make(numberOfRows, numberOfColumns);
+        return this.allocate(numberOfRows, numberOfColumns);
     }
 
     protected final DecompositionStore<N> makeZero(final Structure2D shape) {
-        return myFactory.make(shape);
+        return this.allocate(shape.countRows(), shape.countColumns());
     }
 
     @Override
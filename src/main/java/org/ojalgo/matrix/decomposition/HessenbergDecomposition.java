@@ -76,6 +76,10 @@ abstract class HessenbergDecomposition<N extends Comparable<N>> extends InPlaceD
     }
 
     private transient DecompositionStore<N> myQ = null;
+    /**
+     * The {@link Workspace} scope myQ was borrowed in, if any
+     */
+    private transient Object myQScope = null;
 
     private boolean myUpper = true;
 
@@ -133,8 +137,9 @@ abstract class HessenbergDecomposition<N extends Comparable<N>> extends InPlaceD
     }
 
     public final MatrixStore<N> getQ() {
-        if (myQ == null) {
+        if (myQ == null || !Workspace.isReusable(myQScope)) {
             myQ = this.makeQ(this.makeEye(this.getRowDim(), this.getColDim()), myUpper, true);
+            myQScope = Workspace.currentScope();
         }
         return myQ;
     }
@@ -30,6 +30,10 @@ abstract class InPlaceDecomposition<N extends Comparable<N>> extends GenericDeco
 
     private int myColDim;
     private DecompositionStore<N> myInPlace;
+    /**
+     * Non-null if myInPlace was borrowed from a {@link Workspace} – it's only valid within that scope.
+     */
+    private Object myInPlaceScope = null;
     private int myRowDim;
 
     protected InPlaceDecomposition(final DecompositionStore.Factory<N, ? extends DecompositionStore<N>> factory) {
@@ -64,11 +68,15 @@ abstract class InPlaceDecomposition<N extends Comparable<N>> extends GenericDeco
         int tmpRowDim = (int) matrix.countRows();
         int tmpColDim = (int) matrix.countColumns();
 
-        if (myInPlace != null && myRowDim == tmpRowDim && myColDim == tmpColDim) {
+        Workspace workspace = Workspace.active();
+        Object scope = workspace != null ? workspace.scope() : null;
+
+        if (myInPlace != null && myRowDim == tmpRowDim && myColDim == tmpColDim && (myInPlaceScope == null || myInPlaceScope == scope)) {
 
         } else {
 
             myInPlace = this.makeZero(tmpRowDim, tmpColDim);
+            myInPlaceScope = scope;
 
             myRowDim = tmpRowDim;
             myColDim = tmpColDim;
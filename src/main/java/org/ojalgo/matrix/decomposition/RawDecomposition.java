@@ -54,6 +54,7 @@ abstract class RawDecomposition extends AbstractDecomposition<Double> {
 
     private int myColDim;
     private double[][] myInternalData;
+    private Object myInternalScope = null;
     private RawStore myInternalStore;
     private int myRowDim;
 
@@ -74,6 +75,10 @@ abstract class RawDecomposition extends AbstractDecomposition<Double> {
     @Override
     protected R064Store allocate(final long numberOfRows, final long numberOfColumns) {
         // TODO Should use RawStore.FACTORY rather than PrimitiveDenseStore.FACTORY
+        Workspace workspace = Workspace.active();
+        if (workspace != null) {
+            return workspace.borrow(R064Store.FACTORY, numberOfRows, numberOfColumns);
+        }
         return R064Store.FACTORY.make(numberOfRows, numberOfColumns);
     }
 
@@ -135,9 +140,14 @@ abstract class RawDecomposition extends AbstractDecomposition<Double> {
         final int internalRows = transpose ? templateCols : templateRows;
         final int internalCols = transpose ? templateRows : templateCols;
 
-        if (myInternalData == null || myRowDim != templateRows || myColDim != templateCols) {
+        Workspace workspace = Workspace.active();
+        Object scope = workspace != null ? workspace.scope() : null;
+
+        if (myInternalData == null || myRowDim != templateRows || myColDim != templateCols || myInternalScope != null && myInternalScope != scope) {
 
-            myInternalStore = RawStore.FACTORY.make(internalRows, internalCols);
+            myInternalStore = workspace != null ? workspace.borrow(RawStore.FACTORY, internalRows, internalCols)
+                    : RawStore.FACTORY.make(internalRows, internalCols);
+            myInternalScope = scope;
             myInternalData = myInternalStore.data;
 
             myRowDim = templateRows;
@@ -0,0 +1,282 @@
+/*
+ * Copyright 1997-2025 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.decomposition;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+import org.ojalgo.array.DenseArray;
+import org.ojalgo.matrix.store.PhysicalStore;
+import org.ojalgo.structure.Mutate1D;
+import org.ojalgo.type.ObjectPool;
+
+/**
+ * An opt-in, thread-confined, pool of scratch memory for matrix decompositions (and thereby also for the
+ * {@link MatrixDecomposition.Solver} implementations used by {@link org.ojalgo.matrix.task.SolverTask}s).
+ * <p>
+ * While a workspace is open on the current thread, the decompositions borrow their internal (in-place)
+ * storage, work arrays and result stores from the workspace rather than allocating new ones. Everything
+ * borrowed is given back when the (outermost) workspace is closed. The pools are keyed by type (factory) and
+ * shape, and are kept between scopes – repeatedly solving problems of the same size(s) stops allocating
+ * after the first round.
+ *
+ * <pre>
+ * try (Workspace workspace = Workspace.open()) {
+ *     LU&lt;Double&gt; lu = LU.R064.make(body);
+ *     lu.decompose(body);
+ *     MatrixStore&lt;Double&gt; solution = lu.getSolution(rhs);
+ *     // Use (or copy) solution here!
+ * }
+ * </pre>
+ * <p>
+ * Any store returned from a decomposition while the workspace was open (solutions, inverses, factors...)
+ * belongs to the workspace and must not be used after it is closed – it will be zeroed and lent out again.
+ * <p>
+ * With {@link #strict(boolean)} switched on, any request that can't be served from a pool throws an
+ * {@link IllegalStateException}. That's a way to verify (in tests) that a warmed-up workspace serves
+ * everything without allocating new stores or arrays.
+ *
+ * @author apete
+ */
+public final class Workspace implements AutoCloseable {
+
+    static final class Key {
+
+        private final long myColumns;
+        private final Object myFactory;
+        private final long myRows;
+
+        Key(final Object factory, final long rows, final long columns) {
+            super();
+            myFactory = factory;
+            myRows = rows;
+            myColumns = columns;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return myRows == other.myRows && myColumns == other.myColumns && myFactory == other.myFactory;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(System.identityHashCode(myFactory), myRows, myColumns);
+        }
+
+    }
+
+    final class Pool extends ObjectPool<Mutate1D> {
+
+        private final Supplier<? extends Mutate1D> myConstructor;
+
+        Pool(final Supplier<? extends Mutate1D> constructor) {
+            super();
+            myConstructor = constructor;
+        }
+
+        @Override
+        protected Mutate1D newObject() {
+            if (myStrict) {
+                throw new IllegalStateException("Workspace is strict – no new allocations allowed!");
+            }
+            myCreated++;
+            return myConstructor.get();
+        }
+
+        @Override
+        protected void reset(final Mutate1D object) {
+            object.reset();
+        }
+
+    }
+
+    private static final ThreadLocal<Workspace> THREAD = ThreadLocal.withInitial(Workspace::new);
+
+    /**
+     * The workspace of the current thread, if one is open.
+     */
+    static Workspace active() {
+        Workspace retVal = THREAD.get();
+        return retVal.myDepth > 0 ? retVal : null;
+    }
+
+    /**
+     * The currently open (outermost) scope of the current thread's workspace, or null if none is open.
+     */
+    static Object currentScope() {
+        Workspace active = Workspace.active();
+        return active != null ? active.scope() : null;
+    }
+
+    /**
+     * Something cached (in a field) by a decomposition may be reused if it was not borrowed (null scope), or
+     * if it was borrowed in the scope that is currently open. Otherwise it has been given back, and may
+     * already have been lent out again.
+     *
+     * @param scope The {@link #currentScope()} when the cached object was allocated
+     */
+    static boolean isReusable(final Object scope) {
+        return scope == null || scope == Workspace.currentScope();
+    }
+
+    /**
+     * Opens (or re-opens if already open) the current thread's workspace. Workspaces may be nested. It is
+     * when the outermost is closed that the borrowed memory is given back.
+     */
+    public static Workspace open() {
+        Workspace retVal = THREAD.get();
+        if (retVal.myDepth++ == 0) {
+            retVal.myScope = new Object();
+        }
+        return retVal;
+    }
+
+    private final List<Mutate1D> myBorrowed = new ArrayList<>();
+    private long myBorrowedCount = 0L;
+    private long myCreated = 0L;
+    private int myDepth = 0;
+    private final List<Pool> myLenders = new ArrayList<>();
+    private final Map<Key, Pool> myPools = new HashMap<>();
+    private Object myScope = null;
+    private boolean myStrict = false;
+
+    private Workspace() {
+        super();
+    }
+
+    /**
+     * Drops all pooled memory. Only possible when the workspace is not open.
+     */
+    public void clear() {
+        if (myDepth > 0) {
+            throw new IllegalStateException("Can't clear an open workspace!");
+        }
+        myPools.clear();
+    }
+
+    @Override
+    public void close() {
+        if (myDepth <= 0) {
+            throw new IllegalStateException("Workspace not open!");
+        }
+        if (--myDepth == 0) {
+            for (int i = 0, limit = myBorrowed.size(); i < limit; i++) {
+                myLenders.get(i).giveBack(myBorrowed.get(i));
+            }
+            myBorrowed.clear();
+            myLenders.clear();
+            myScope = null;
+        }
+    }
+
+    /**
+     * @return The total number of objects (stores or arrays) borrowed
+     */
+    public long countBorrowed() {
+        return myBorrowedCount;
+    }
+
+    /**
+     * @return The total number of objects (stores or arrays) that had to be created because there was
+     *         nothing suitable in the pools
+     */
+    public long countCreated() {
+        return myCreated;
+    }
+
+    /**
+     * @return The number of pools – distinct combinations of type and shape
+     */
+    public int countPools() {
+        return myPools.size();
+    }
+
+    public boolean isOpen() {
+        return myDepth > 0;
+    }
+
+    public boolean isStrict() {
+        return myStrict;
+    }
+
+    public void resetStatistics() {
+        myBorrowedCount = 0L;
+        myCreated = 0L;
+    }
+
+    /**
+     * When strict, failing to serve a request from the pools throws an {@link IllegalStateException} rather
+     * than allocating a new instance. Switch this on after warm-up to verify that no allocations are made.
+     */
+    public Workspace strict(final boolean strict) {
+        myStrict = strict;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "Workspace [borrowed=" + myBorrowedCount + ", created=" + myCreated + ", pools=" + myPools.size() + ", strict=" + myStrict + "]";
+    }
+
+    private Mutate1D borrow(final Key key, final Supplier<? extends Mutate1D> constructor) {
+
+        Pool pool = myPools.computeIfAbsent(key, k -> new Pool(constructor));
+
+        Mutate1D retVal = pool.borrow();
+
+        myBorrowed.add(retVal);
+        myLenders.add(pool);
+        myBorrowedCount++;
+
+        return retVal;
+    }
+
+    @SuppressWarnings("unchecked")
+    <N extends Comparable<N>> DenseArray<N> borrow(final DenseArray.Factory<N> factory, final long count) {
+        return (DenseArray<N>) this.borrow(new Key(factory, count, -1L), () -> factory.make(count));
+    }
+
+    @SuppressWarnings("unchecked")
+    <S extends Mutate1D> S borrow(final PhysicalStore.Factory<?, ? extends S> factory, final long rows, final long columns) {
+        return (S) this.borrow(new Key(factory, rows, columns), () -> factory.make(rows, columns));
+    }
+
+    /**
+     * Identifies the currently open (outermost) scope. Anything borrowed within a scope must not be used
+     * after it closed.
+     */
+    Object scope() {
+        return myScope;
+    }
+
+}
@@ -38,6 +38,7 @@ import org.ojalgo.function.BinaryFunction;
 import org.ojalgo.function.NullaryFunction;
 import org.ojalgo.function.UnaryFunction;
 import org.ojalgo.function.VoidFunction;
+import org.ojalgo.function.aggregator.Aggregator;
 import org.ojalgo.function.constant.PrimitiveMath;
 import org.ojalgo.function.special.MissingMath;
 import org.ojalgo.machine.JavaType;
@@ -312,6 +313,24 @@ public final class R064Store extends ArrayR064 implements PhysicalStore<Double>,
         myUtility.add(row, col, addend);
     }
 
+    @Override
+    public Double aggregateAll(final Aggregator aggregator) {
+        return Double.valueOf(AggregateAll.invoke(data, 0, data.length, 1, aggregator));
+    }
+
+    @Override
+    public Double aggregateColumn(final long row, final long col, final Aggregator aggregator) {
+        int first = Math.toIntExact(row + col * myRowDim);
+        int limit = Math.toIntExact((col + 1L) * myRowDim);
+        return Double.valueOf(AggregateAll.invoke(data, first, limit, 1, aggregator));
+    }
+
+    @Override
+    public Double aggregateRow(final long row, final long col, final Aggregator aggregator) {
+        int first = Math.toIntExact(row + col * myRowDim);
+        return Double.valueOf(AggregateAll.invoke(data, first, data.length, myRowDim, aggregator));
+    }
+
     @Override
     public void applyCholesky(final int iterationPoint, final BasicArray<Double> multipliers) {
 
@@ -97,7 +97,23 @@ public final class SparseStore<N extends Comparable<N>> extends FactoryStore<N>
             SparseStore<N> retVal = new SparseStore<>(myPhysicalFactory, myRowDim, myColDim, (r, c) -> myElements.size());
             SparseArray<N> destination = retVal.getElements();
 
-            myElements.stream().sorted().forEach(element -> destination.set(element.longValue(), element.getKey()));
+            if (myPhysicalFactory.getMathType().isPrimitive()) {
+
+                KeyedPrimitive<?>[] elements = myElements.toArray(new KeyedPrimitive<?>[0]);
+
+                long[] indices = new long[elements.length];
+                double[] values = new double[elements.length];
+                for (int i = 0; i < elements.length; i++) {
+                    indices[i] = elements[i].longValue();
+                    values[i] = NumberDefinition.doubleValue((Comparable<?>) elements[i].getKey());
+                }
+
+                destination.putAll(indices, values);
+
+            } else {
+
+                myElements.stream().sorted().forEach(element -> destination.set(element.longValue(), element.getKey()));
+            }
 
             myElements.clear();
 
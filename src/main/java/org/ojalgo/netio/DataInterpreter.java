@@ -116,41 +116,19 @@ public interface DataInterpreter<T> extends DataReader.Deserializer<T>, DataWrit
 
             public ArrayAnyD<N> deserialize(final DataInput input) throws IOException {
 
-                input.readByte();
-                input.readByte();
-                int type = input.readByte();
-                int rank = input.readByte();
+                int type = IDX.readType(input);
+                long[] dimensions = IDX.readStructure(input);
 
+                int rank = dimensions.length;
                 long[] structure = new long[rank];
                 for (int i = 0; i < rank; i++) {
-                    structure[rank - 1 - i] = input.readInt();
+                    structure[rank - 1 - i] = dimensions[i];
                 }
 
                 ArrayAnyD<N> data = factory.make(structure);
 
                 for (long i = 0, limit = data.count(); i < limit; i++) {
-                    switch (type) {
-                        case 0x08:
-                            data.set(i, input.readUnsignedByte());
-                            break;
-                        case 0x09:
-                            data.set(i, input.readByte());
-                            break;
-                        case 0x0B:
-                            data.set(i, input.readShort());
-                            break;
-                        case 0x0C:
-                            data.set(i, input.readInt());
-                            break;
-                        case 0x0D:
-                            data.set(i, input.readFloat());
-                            break;
-                        case 0x0E:
-                            data.set(i, input.readDouble());
-                            break;
-                        default:
-                            throw new IllegalArgumentException("Unknown element type!");
-                    }
+                    data.set(i, IDX.readElement(input, type));
                 }
 
                 return data;
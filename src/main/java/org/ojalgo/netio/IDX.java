@@ -21,11 +21,16 @@
  */
 package org.ojalgo.netio;
 
+import java.io.BufferedInputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.EOFException;
 import java.io.File;
 import java.io.IOException;
 
 import org.ojalgo.array.ArrayAnyD;
 import org.ojalgo.array.ArrayR032;
+import org.ojalgo.array.ArrayR064;
 import org.ojalgo.array.DenseArray;
 import org.ojalgo.structure.Access2D;
 
@@ -36,6 +41,113 @@ import org.ojalgo.structure.Access2D;
  */
 public abstract class IDX {
 
+    /**
+     * Streams the records (the elements of the first/outermost dimension) of an IDX file, one at the time,
+     * without reading the entire file into memory.
+     */
+    static final class RecordReader implements FromFileReader<ArrayR064> {
+
+        private final DataInputStream myInput;
+        private final int myLength;
+        private long myRemaining;
+        private final int myType;
+
+        RecordReader(final File file, final long first, final long limit) {
+
+            super();
+
+            myInput = new DataInputStream(new BufferedInputStream(FromFileReader.input(file)));
+
+            try {
+
+                myType = IDX.readType(myInput);
+                long[] structure = IDX.readStructure(myInput);
+
+                long length = 1L;
+                for (int i = 1; i < structure.length; i++) {
+                    length *= structure[i];
+                }
+                myLength = Math.toIntExact(length);
+
+                long nbRecords = structure[0];
+                if (first < 0L || first > limit || limit > nbRecords) {
+                    throw new IllegalArgumentException();
+                }
+                myRemaining = limit - first;
+
+                long toSkip = first * myLength * IDX.sizeOf(myType);
+                while (toSkip > 0L) {
+                    long skipped = myInput.skip(toSkip);
+                    if (skipped <= 0L) {
+                        throw new EOFException();
+                    }
+                    toSkip -= skipped;
+                }
+
+            } catch (IOException | RuntimeException cause) {
+                try {
+                    myInput.close();
+                } catch (IOException suppressed) {
+                    cause.addSuppressed(suppressed);
+                }
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                throw new RuntimeException(cause);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            myInput.close();
+        }
+
+        @Override
+        public ArrayR064 read() {
+
+            if (myRemaining <= 0L) {
+                return null;
+            }
+
+            ArrayR064 retVal = ArrayR064.make(myLength);
+
+            try {
+                for (int i = 0; i < myLength; i++) {
+                    retVal.data[i] = IDX.readElement(myInput, myType);
+                }
+            } catch (IOException cause) {
+                throw new RuntimeException(cause);
+            }
+
+            myRemaining--;
+
+            return retVal;
+        }
+
+    }
+
+    /**
+     * The number of records in the file – the size of the first/outermost dimension as stored in the file.
+     */
+    public static long countRecords(final File file) {
+
+        try (DataInputStream input = new DataInputStream(FromFileReader.input(file))) {
+            IDX.readType(input);
+            return IDX.readStructure(input)[0];
+        } catch (IOException cause) {
+            throw new RuntimeException(cause);
+        }
+    }
+
+    /**
+     * Read the records [first, limit) one at the time. Each record is returned as a separate 1D array with
+     * the elements in the order they are stored in the file. Several readers, covering different ranges, can
+     * read from the same file concurrently.
+     */
+    public static FromFileReader<ArrayR064> newReader(final File file, final long first, final long limit) {
+        return new RecordReader(file, first, limit);
+    }
+
     public static ArrayAnyD<Double> parse(final File filePath) {
         return IDX.parse(filePath, ArrayR032.FACTORY);
     }
@@ -96,6 +208,23 @@ public abstract class IDX {
         }
     }
 
+    private static int sizeOf(final int type) {
+        switch (type) {
+            case 0x08:
+            case 0x09:
+                return 1;
+            case 0x0B:
+                return 2;
+            case 0x0C:
+            case 0x0D:
+                return 4;
+            case 0x0E:
+                return 8;
+            default:
+                throw new IllegalArgumentException("Unknown element type!");
+        }
+    }
+
     private static void printPixel(final double gray, final BasicLogger printer, final double oneThird, final double twoThirds) {
         if (gray < oneThird) {
             printer.print(" ");
@@ -106,4 +235,47 @@ public abstract class IDX {
         }
     }
 
+    static double readElement(final DataInput input, final int type) throws IOException {
+        switch (type) {
+            case 0x08:
+                return input.readUnsignedByte();
+            case 0x09:
+                return input.readByte();
+            case 0x0B:
+                return input.readShort();
+            case 0x0C:
+                return input.readInt();
+            case 0x0D:
+                return input.readFloat();
+            case 0x0E:
+                return input.readDouble();
+            default:
+                throw new IllegalArgumentException("Unknown element type!");
+        }
+    }
+
+    /**
+     * The dimensions in file order – the first is the number of records.
+     */
+    static long[] readStructure(final DataInput input) throws IOException {
+
+        int rank = input.readByte();
+
+        long[] structure = new long[rank];
+        for (int i = 0; i < rank; i++) {
+            structure[i] = input.readInt();
+        }
+
+        return structure;
+    }
+
+    /**
+     * Reads the magic number, and returns the element type code.
+     */
+    static int readType(final DataInput input) throws IOException {
+        input.readByte();
+        input.readByte();
+        return input.readByte();
+    }
+
 }
@@ -21,6 +21,8 @@
  */
 package org.ojalgo.random;
 
+import java.util.Random;
+
 import org.ojalgo.array.Array1D;
 import org.ojalgo.function.constant.PrimitiveMath;
 import org.ojalgo.structure.Access2D;
@@ -80,6 +82,13 @@ abstract class AbstractDistribution1D implements Distribution1D {
         return retVal;
     }
 
+    /**
+     * @see Random1D#setRandom(Random)
+     */
+    public void setRandom(final Random random) {
+        myRandom.setRandom(random);
+    }
+
     protected final Random1D random() {
         return myRandom;
     }
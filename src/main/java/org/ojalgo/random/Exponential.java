@@ -24,6 +24,8 @@ package org.ojalgo.random;
 import static org.ojalgo.function.constant.PrimitiveMath.ONE;
 import static org.ojalgo.function.constant.PrimitiveMath.ZERO;
 
+import java.util.Random;
+
 import org.ojalgo.function.constant.PrimitiveMath;
 
 /**
@@ -86,7 +88,11 @@ public class Exponential extends AbstractContinuous {
 
     @Override
     protected double generate() {
-        return -PrimitiveMath.LOG.invoke(this.random().nextDouble()) / myRate;
+        Random random = this.random();
+        if (random instanceof PseudoRandom) {
+            return ((PseudoRandom) random).nextExponential() / myRate;
+        }
+        return -PrimitiveMath.LOG.invoke(random.nextDouble()) / myRate;
     }
 
 }
@@ -0,0 +1,539 @@
+/*
+ * Copyright 1997-2025 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.random;
+
+import java.util.Random;
+
+/**
+ * A pluggable alternative to {@link java.util.concurrent.ThreadLocalRandom} and {@link Random}. Instances can
+ * be given to anything that accepts a {@link Random} – {@link RandomNumber#setRandom(Random)},
+ * {@link Random1D#setRandom(Random)}, {@link Distribution1D} implementations...
+ * <p>
+ * Compared to {@link Random} these generators:
+ * <ul>
+ * <li>Have much better statistical quality and a much longer period.
+ * <li>Generate normal and exponential variates using the Ziggurat method, rather than the polar method or
+ * the inverse CDF.
+ * <li>Can {@link #jump()} ahead in the sequence, making it possible to {@link #split(int)} a generator into
+ * any number of independent substreams. That's what you need for reproducible parallel simulations.
+ * <li>Have bulk fill methods.
+ * </ul>
+ * The instances are not thread safe. Use one (substream) per thread.
+ */
+public abstract class PseudoRandom extends Random {
+
+    /**
+     * Counter-based generator – the Philox4x32-10 algorithm by Salmon, Moraes, Dror & Shaw (Random123). Each
+     * output block is a (cryptographically inspired) bijection of a 128-bit counter under a 64-bit key. This
+     * means any position in the sequence can be reached in constant time, and the key (seed) together with
+     * the high half of the counter (stream) give 2<sup>64</sup> independent streams of length
+     * 2<sup>65</sup>.
+     */
+    public static final class Philox extends PseudoRandom {
+
+        private static final long M0 = 0xD2511F53L;
+        private static final long M1 = 0xCD9E8D57L;
+        private static final long MASK = 0xFFFFFFFFL;
+        private static final int ROUNDS = 10;
+        private static final long serialVersionUID = 1L;
+        private static final long W0 = 0x9E3779B9L;
+        private static final long W1 = 0xBB67AE85L;
+
+        /**
+         * The 4x32-bit output block, for the 128-bit counter (2 x 64 bits) and the 64-bit key, as 2 x 64 bits.
+         */
+        static void block(final long counterLo, final long counterHi, final long key, final long[] output) {
+
+            long c0 = counterLo & MASK;
+            long c1 = counterLo >>> 32;
+            long c2 = counterHi & MASK;
+            long c3 = counterHi >>> 32;
+
+            long k0 = key & MASK;
+            long k1 = key >>> 32;
+
+            for (int r = 0; r < ROUNDS; r++) {
+
+                long p0 = M0 * c0;
+                long p1 = M1 * c2;
+
+                long n0 = (p1 >>> 32) ^ c1 ^ k0;
+                long n2 = (p0 >>> 32) ^ c3 ^ k1;
+
+                c0 = n0;
+                c1 = p1 & MASK;
+                c2 = n2;
+                c3 = p0 & MASK;
+
+                k0 = (k0 + W0) & MASK;
+                k1 = (k1 + W1) & MASK;
+            }
+
+            output[0] = c1 << 32 | c0;
+            output[1] = c3 << 32 | c2;
+        }
+
+        private final long[] myBlock = new long[2];
+        private long myCounterHi;
+        private long myCounterLo;
+        private int myIndex;
+        private long myKey;
+
+        public Philox() {
+            this(System.nanoTime(), 0L);
+        }
+
+        public Philox(final long seed) {
+            this(seed, 0L);
+        }
+
+        /**
+         * @param seed The key
+         * @param stream The stream index – each stream is independent, and equivalent to a {@link #jump()}
+         *        from stream 0.
+         */
+        public Philox(final long seed, final long stream) {
+
+            super();
+
+            myKey = seed;
+            myCounterHi = stream;
+            myCounterLo = 0L;
+            myIndex = 0;
+
+            Philox.block(myCounterLo, myCounterHi, myKey, myBlock);
+        }
+
+        @Override
+        public Philox copy() {
+
+            Philox retVal = new Philox(myKey, myCounterHi);
+
+            retVal.myCounterLo = myCounterLo;
+            retVal.myIndex = myIndex;
+            Philox.block(retVal.myCounterLo, retVal.myCounterHi, retVal.myKey, retVal.myBlock);
+
+            return retVal;
+        }
+
+        /**
+         * Moves to the next stream – skips ahead 2<sup>65</sup> numbers.
+         */
+        @Override
+        public void jump() {
+            myCounterHi++;
+            Philox.block(myCounterLo, myCounterHi, myKey, myBlock);
+        }
+
+        @Override
+        public long nextLong() {
+            if (myIndex == 2) {
+                if (++myCounterLo == 0L) {
+                    myCounterHi++;
+                }
+                Philox.block(myCounterLo, myCounterHi, myKey, myBlock);
+                myIndex = 0;
+            }
+            return myBlock[myIndex++];
+        }
+
+        /**
+         * Resets the key, and sets the counter (and stream) to 0. Note that this is called from the
+         * {@link Random} constructor, before the fields of this class are initialised.
+         */
+        @Override
+        public void setSeed(final long seed) {
+
+            myKey = seed;
+            myCounterHi = 0L;
+            myCounterLo = 0L;
+            myIndex = 0;
+
+            if (myBlock != null) {
+                Philox.block(myCounterLo, myCounterHi, myKey, myBlock);
+            }
+        }
+
+        /**
+         * Skip ahead in the sequence, as if {@link #nextLong()} had been called that number of times. This
+         * is a constant time operation.
+         */
+        public void skip(final long numberOfLongs) {
+
+            if (numberOfLongs < 0L) {
+                throw new IllegalArgumentException();
+            }
+
+            long offset = myIndex + numberOfLongs;
+            long blocks = offset >>> 1;
+
+            long lo = myCounterLo + blocks;
+            if (Long.compareUnsigned(lo, myCounterLo) < 0) {
+                myCounterHi++;
+            }
+            myCounterLo = lo;
+            myIndex = (int) (offset & 1L);
+
+            Philox.block(myCounterLo, myCounterHi, myKey, myBlock);
+        }
+
+    }
+
+    /**
+     * The xoshiro256++ generator by Blackman & Vigna. Very fast, 256 bits of state and a period of
+     * 2<sup>256</sup>-1. The {@link #jump()} is equivalent to 2<sup>128</sup> calls to {@link #nextLong()},
+     * and {@link #longJump()} to 2<sup>192</sup>.
+     */
+    public static final class Xoshiro256 extends PseudoRandom {
+
+        private static final long[] JUMP = { 0x180ec6d33cfd0abaL, 0xd5a61266f0c9392cL, 0xa9582618e03fc9aaL, 0x39abdc4529b1661cL };
+        private static final long[] LONG_JUMP = { 0x76e15d3efefdcbbfL, 0xc5004e441c522fb3L, 0x77710069854ee241L, 0x39109bb02acbe635L };
+        private static final long serialVersionUID = 1L;
+
+        private long myS0;
+        private long myS1;
+        private long myS2;
+        private long myS3;
+
+        public Xoshiro256() {
+            this(System.nanoTime());
+        }
+
+        public Xoshiro256(final long seed) {
+            super();
+            this.setSeed(seed);
+        }
+
+        /**
+         * Set the state directly – it must not be all zeros.
+         */
+        Xoshiro256(final long s0, final long s1, final long s2, final long s3) {
+
+            super();
+
+            if ((s0 | s1 | s2 | s3) == 0L) {
+                throw new IllegalArgumentException();
+            }
+
+            myS0 = s0;
+            myS1 = s1;
+            myS2 = s2;
+            myS3 = s3;
+        }
+
+        @Override
+        public Xoshiro256 copy() {
+            return new Xoshiro256(myS0, myS1, myS2, myS3);
+        }
+
+        @Override
+        public void jump() {
+            this.jump(JUMP);
+        }
+
+        public void longJump() {
+            this.jump(LONG_JUMP);
+        }
+
+        @Override
+        public long nextLong() {
+
+            long retVal = Long.rotateLeft(myS0 + myS3, 23) + myS0;
+
+            long t = myS1 << 17;
+
+            myS2 ^= myS0;
+            myS3 ^= myS1;
+            myS1 ^= myS2;
+            myS0 ^= myS3;
+
+            myS2 ^= t;
+
+            myS3 = Long.rotateLeft(myS3, 45);
+
+            return retVal;
+        }
+
+        /**
+         * The 256-bit state is initialised from the seed using SplitMix64, as recommended by the authors.
+         */
+        @Override
+        public void setSeed(final long seed) {
+
+            long x = seed;
+
+            myS0 = PseudoRandom.mix(x += GOLDEN_GAMMA);
+            myS1 = PseudoRandom.mix(x += GOLDEN_GAMMA);
+            myS2 = PseudoRandom.mix(x += GOLDEN_GAMMA);
+            myS3 = PseudoRandom.mix(x += GOLDEN_GAMMA);
+        }
+
+        long[] getState() {
+            return new long[] { myS0, myS1, myS2, myS3 };
+        }
+
+        private void jump(final long[] polynomial) {
+
+            long s0 = 0L;
+            long s1 = 0L;
+            long s2 = 0L;
+            long s3 = 0L;
+
+            for (int i = 0; i < polynomial.length; i++) {
+                for (int b = 0; b < 64; b++) {
+                    if ((polynomial[i] & 1L << b) != 0L) {
+                        s0 ^= myS0;
+                        s1 ^= myS1;
+                        s2 ^= myS2;
+                        s3 ^= myS3;
+                    }
+                    this.nextLong();
+                }
+            }
+
+            myS0 = s0;
+            myS1 = s1;
+            myS2 = s2;
+            myS3 = s3;
+        }
+
+    }
+
+    private static final double EXPONENTIAL_R = 7.69711747013104972;
+    private static final double[] EXPONENTIAL_RATIO;
+    private static final double EXPONENTIAL_V = 3.949659822581572e-3;
+    private static final double[] EXPONENTIAL_X;
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+    private static final double NORMAL_R = 3.442619855899;
+    private static final double[] NORMAL_RATIO;
+    private static final double NORMAL_V = 9.91256303526217e-3;
+    private static final double[] NORMAL_X;
+    private static final long serialVersionUID = 1L;
+    private static final double UNIT = 0x1.0p-53;
+
+    static {
+
+        // Ziggurat tables (Marsaglia & Tsang, as formulated by Doornik) – 128 layers for the normal
+        // distribution and 256 for the exponential.
+
+        NORMAL_X = new double[129];
+        NORMAL_RATIO = new double[128];
+
+        double f = Math.exp(-0.5 * NORMAL_R * NORMAL_R);
+        NORMAL_X[0] = NORMAL_V / f;
+        NORMAL_X[1] = NORMAL_R;
+        NORMAL_X[128] = 0.0;
+        for (int i = 2; i < 128; i++) {
+            NORMAL_X[i] = Math.sqrt(-2.0 * Math.log(NORMAL_V / NORMAL_X[i - 1] + f));
+            f = Math.exp(-0.5 * NORMAL_X[i] * NORMAL_X[i]);
+        }
+        for (int i = 0; i < 128; i++) {
+            NORMAL_RATIO[i] = NORMAL_X[i + 1] / NORMAL_X[i];
+        }
+
+        EXPONENTIAL_X = new double[257];
+        EXPONENTIAL_RATIO = new double[256];
+
+        f = Math.exp(-EXPONENTIAL_R);
+        EXPONENTIAL_X[0] = EXPONENTIAL_V / f;
+        EXPONENTIAL_X[1] = EXPONENTIAL_R;
+        EXPONENTIAL_X[256] = 0.0;
+        for (int i = 2; i < 256; i++) {
+            EXPONENTIAL_X[i] = -Math.log(EXPONENTIAL_V / EXPONENTIAL_X[i - 1] + f);
+            f = Math.exp(-EXPONENTIAL_X[i]);
+        }
+        for (int i = 0; i < 256; i++) {
+            EXPONENTIAL_RATIO[i] = EXPONENTIAL_X[i + 1] / EXPONENTIAL_X[i];
+        }
+    }
+
+    public static PseudoRandom newPhilox(final long seed) {
+        return new Philox(seed);
+    }
+
+    public static PseudoRandom newXoshiro(final long seed) {
+        return new Xoshiro256(seed);
+    }
+
+    /**
+     * The SplitMix64 output function
+     */
+    static long mix(final long value) {
+        long z = value;
+        z = (z ^ z >>> 30) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ z >>> 27) * 0x94d049bb133111ebL;
+        return z ^ z >>> 31;
+    }
+
+    protected PseudoRandom() {
+        super(0L);
+    }
+
+    /**
+     * @return An independent instance with identical state – it will generate the same sequence as this
+     *         one.
+     */
+    public abstract PseudoRandom copy();
+
+    /**
+     * Fills the array with exponential (rate 1) variates
+     */
+    public void fillExponential(final double[] output) {
+        for (int i = 0; i < output.length; i++) {
+            output[i] = this.nextExponential();
+        }
+    }
+
+    /**
+     * Fills the array with standard normal variates
+     */
+    public void fillGaussian(final double[] output) {
+        for (int i = 0; i < output.length; i++) {
+            output[i] = this.nextGaussian();
+        }
+    }
+
+    /**
+     * Fills the array with uniform [0,1) variates
+     */
+    public void fillUniform(final double[] output) {
+        for (int i = 0; i < output.length; i++) {
+            output[i] = (this.nextLong() >>> 11) * UNIT;
+        }
+    }
+
+    /**
+     * Advance the state a very large number of steps (the exact number depends on the implementation) – far
+     * enough that the skipped part of the sequence can be used as an independent substream.
+     */
+    public abstract void jump();
+
+    @Override
+    public boolean nextBoolean() {
+        return this.nextLong() < 0L;
+    }
+
+    @Override
+    public double nextDouble() {
+        return (this.nextLong() >>> 11) * UNIT;
+    }
+
+    /**
+     * An exponential (rate 1) variate, using the Ziggurat method.
+     */
+    public double nextExponential() {
+        for (;;) {
+
+            long bits = this.nextLong();
+            int layer = (int) (bits & 0xFF);
+            double u = (bits >>> 11) * UNIT;
+
+            if (u < EXPONENTIAL_RATIO[layer]) {
+                return u * EXPONENTIAL_X[layer];
+            }
+
+            if (layer == 0) {
+                // The tail is memoryless
+                return EXPONENTIAL_R - Math.log(1.0 - this.nextDouble());
+            }
+
+            double x = u * EXPONENTIAL_X[layer];
+            double f0 = Math.exp(x - EXPONENTIAL_X[layer]);
+            double f1 = Math.exp(x - EXPONENTIAL_X[layer + 1]);
+            if (f1 + this.nextDouble() * (f0 - f1) < 1.0) {
+                return x;
+            }
+        }
+    }
+
+    @Override
+    public float nextFloat() {
+        return (this.nextLong() >>> 40) * 0x1.0p-24F;
+    }
+
+    /**
+     * A standard normal variate, using the Ziggurat method.
+     */
+    @Override
+    public double nextGaussian() {
+        for (;;) {
+
+            long bits = this.nextLong();
+            int layer = (int) (bits & 0x7F);
+            double u = 2.0 * ((bits >>> 11) * UNIT) - 1.0;
+
+            if (Math.abs(u) < NORMAL_RATIO[layer]) {
+                return u * NORMAL_X[layer];
+            }
+
+            if (layer == 0) {
+                double x;
+                double y;
+                do {
+                    x = Math.log(1.0 - this.nextDouble()) / NORMAL_R;
+                    y = Math.log(1.0 - this.nextDouble());
+                } while (-2.0 * y < x * x);
+                return u < 0.0 ? x - NORMAL_R : NORMAL_R - x;
+            }
+
+            double x = u * NORMAL_X[layer];
+            double f0 = Math.exp(-0.5 * (NORMAL_X[layer] * NORMAL_X[layer] - x * x));
+            double f1 = Math.exp(-0.5 * (NORMAL_X[layer + 1] * NORMAL_X[layer + 1] - x * x));
+            if (f1 + this.nextDouble() * (f0 - f1) < 1.0) {
+                return x;
+            }
+        }
+    }
+
+    @Override
+    public int nextInt() {
+        return (int) (this.nextLong() >>> 32);
+    }
+
+    @Override
+    public abstract long nextLong();
+
+    /**
+     * @return The specified number of independent substreams. The first is a {@link #copy()} of this
+     *         instance, and each of the others is {@link #jump()}-ed once more than the previous. This instance
+     *         is not modified.
+     */
+    public PseudoRandom[] split(final int count) {
+
+        PseudoRandom[] retVal = new PseudoRandom[count];
+
+        PseudoRandom current = this.copy();
+        for (int i = 0; i < count; i++) {
+            retVal[i] = current;
+            current = current.copy();
+            current.jump();
+        }
+
+        return retVal;
+    }
+
+    @Override
+    protected int next(final int bits) {
+        return (int) (this.nextLong() >>> (64 - bits));
+    }
+
+}
@@ -0,0 +1,404 @@
+/*
+ * Copyright 1997-2025 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.random;
+
+import static org.ojalgo.function.constant.PrimitiveMath.*;
+
+import java.util.Arrays;
+import java.util.stream.Collector;
+
+import org.ojalgo.type.function.TwoStepMapper;
+
+/**
+ * A bounded memory alternative to {@link SampleSet} for very large (or unbounded) streams of observations. It
+ * is a (merging) t-digest: The observations are summarised by a limited number of weighted centroids, small
+ * ones near the tails and larger ones in the middle of the distribution. Count, min, max, mean and variance
+ * are exact; quantiles are approximate.
+ * <p>
+ * The compression parameter controls the size/accuracy trade-off. The number of centroids is at most about
+ * the compression, and the quantile (rank) error is typically well below 1/compression – much smaller
+ * still near the tails. The default compression is 200.
+ * <p>
+ * Instances are mergeable, via {@link #combine(QuantileSketch)}, and can be used with parallel streams –
+ * see {@link #newCollector()}.
+ */
+public final class QuantileSketch implements TwoStepMapper.Combineable<Double, QuantileSketch, QuantileSketch> {
+
+    public static final double DEFAULT_COMPRESSION = 200.0;
+
+    public static QuantileSketch make() {
+        return new QuantileSketch(DEFAULT_COMPRESSION);
+    }
+
+    public static QuantileSketch make(final double compression) {
+        return new QuantileSketch(compression);
+    }
+
+    public static Collector<Double, QuantileSketch, QuantileSketch> newCollector() {
+        return QuantileSketch.newCollector(DEFAULT_COMPRESSION);
+    }
+
+    public static Collector<Double, QuantileSketch, QuantileSketch> newCollector(final double compression) {
+        return TwoStepMapper.Combineable.newCollector(() -> new QuantileSketch(compression));
+    }
+
+    private int myCentroids = 0;
+    private final double myCompression;
+    private long myCount = 0L;
+    private int myIncoming = 0;
+    private double[] myIncomingMeans;
+    private double[] myIncomingWeights;
+    private double myMax = NaN;
+    private double[] myMeans;
+    private double myMin = NaN;
+    private double myRunningMean = ZERO;
+    private double mySumOfSquaredDeviations = ZERO;
+    private double[] myWeights;
+
+    QuantileSketch(final double compression) {
+
+        super();
+
+        if (compression < 10.0) {
+            throw new IllegalArgumentException("The compression must be at least 10!");
+        }
+
+        myCompression = compression;
+
+        int capacity = (int) Math.ceil(compression) + 10;
+        myMeans = new double[capacity];
+        myWeights = new double[capacity];
+
+        int buffer = 5 * capacity;
+        myIncomingMeans = new double[buffer];
+        myIncomingWeights = new double[buffer];
+    }
+
+    @Override
+    public void combine(final QuantileSketch other) {
+
+        if (other.count() == 0L) {
+            return;
+        }
+
+        other.compress();
+
+        if (myCount == 0L) {
+            myMin = other.getMinimum();
+            myMax = other.getMaximum();
+        } else {
+            myMin = Math.min(myMin, other.getMinimum());
+            myMax = Math.max(myMax, other.getMaximum());
+        }
+
+        // Chan et al. parallel update of mean and sum of squared deviations
+        long count = myCount + other.count();
+        double delta = other.getMean() - myRunningMean;
+        mySumOfSquaredDeviations += other.mySumOfSquaredDeviations + delta * delta * myCount * other.count() / count;
+        myRunningMean += delta * other.count() / count;
+        myCount = count;
+
+        this.compress();
+
+        // The other centroids are already sorted – merge them in, a buffer full at the time
+
+        for (int first = 0; first < other.myCentroids; first += myIncomingMeans.length) {
+            myIncoming = Math.min(other.myCentroids - first, myIncomingMeans.length);
+            System.arraycopy(other.myMeans, first, myIncomingMeans, 0, myIncoming);
+            System.arraycopy(other.myWeights, first, myIncomingWeights, 0, myIncoming);
+            this.merge();
+        }
+    }
+
+    public void consume(final double item) {
+
+        if (Double.isNaN(item)) {
+            throw new IllegalArgumentException("NaN not supported!");
+        }
+
+        if (myCount == 0L) {
+            myMin = item;
+            myMax = item;
+        } else if (item < myMin) {
+            myMin = item;
+        } else if (item > myMax) {
+            myMax = item;
+        }
+
+        myCount++;
+        double delta = item - myRunningMean;
+        myRunningMean += delta / myCount;
+        mySumOfSquaredDeviations += delta * (item - myRunningMean);
+
+        if (myIncoming == myIncomingMeans.length) {
+            this.compress();
+        }
+
+        myIncomingMeans[myIncoming] = item;
+        myIncomingWeights[myIncoming] = ONE;
+        myIncoming++;
+    }
+
+    @Override
+    public void consume(final Double item) {
+        this.consume(item.doubleValue());
+    }
+
+    public long count() {
+        return myCount;
+    }
+
+    /**
+     * The number of centroids currently used to summarise the observations.
+     */
+    public int countCentroids() {
+        this.compress();
+        return myCentroids;
+    }
+
+    public double getCompression() {
+        return myCompression;
+    }
+
+    public double getInterquartileRange() {
+        return this.getQuartile3() - this.getQuartile1();
+    }
+
+    public double getMaximum() {
+        return myMax;
+    }
+
+    public double getMean() {
+        return myCount > 0L ? myRunningMean : NaN;
+    }
+
+    public double getMedian() {
+        return this.getQuantile(HALF);
+    }
+
+    public double getMinimum() {
+        return myMin;
+    }
+
+    /**
+     * The estimated value at the specified quantile (probability). 0.0 gives the minimum and 1.0 the maximum
+     * (those are exact).
+     */
+    public double getQuantile(final double probability) {
+
+        if (probability < ZERO || probability > ONE) {
+            throw new IllegalArgumentException();
+        }
+
+        this.compress();
+
+        if (myCentroids == 0) {
+            return NaN;
+        }
+        if (myCentroids == 1) {
+            return myMeans[0];
+        }
+
+        double total = myCount;
+        double index = probability * total;
+
+        if (index < ONE) {
+            return myMin;
+        }
+        if (index > total - ONE) {
+            return myMax;
+        }
+
+        int last = myCentroids - 1;
+
+        // Between the min and the first centroid, and the last centroid and the max
+
+        double firstHalf = myWeights[0] / TWO;
+        if (index < firstHalf) {
+            return myMin + (index - ONE) / (firstHalf - ONE) * (myMeans[0] - myMin);
+        }
+        double lastHalf = myWeights[last] / TWO;
+        if (index > total - lastHalf) {
+            return myMax - (total - index - ONE) / (lastHalf - ONE) * (myMax - myMeans[last]);
+        }
+
+        // Interpolate between the centroid centers
+
+        double weightSoFar = firstHalf;
+        for (int i = 0; i < last; i++) {
+            double step = (myWeights[i] + myWeights[i + 1]) / TWO;
+            if (weightSoFar + step > index) {
+                double left = index - weightSoFar;
+                double right = weightSoFar + step - index;
+                return (myMeans[i] * right + myMeans[i + 1] * left) / step;
+            }
+            weightSoFar += step;
+        }
+
+        return myMeans[last];
+    }
+
+    public double getQuartile1() {
+        return this.getQuantile(QUARTER);
+    }
+
+    public double getQuartile2() {
+        return this.getQuantile(HALF);
+    }
+
+    public double getQuartile3() {
+        return this.getQuantile(THREE * QUARTER);
+    }
+
+    @Override
+    public QuantileSketch getResults() {
+        this.compress();
+        return this;
+    }
+
+    public double getStandardDeviation() {
+        return Math.sqrt(this.getVariance());
+    }
+
+    /**
+     * The (sample) variance, same definition as {@link SampleSet#getVariance()}.
+     */
+    public double getVariance() {
+        return myCount > 1L ? mySumOfSquaredDeviations / (myCount - 1L) : NaN;
+    }
+
+    @Override
+    public void reset() {
+        myCentroids = 0;
+        myIncoming = 0;
+        myCount = 0L;
+        myMin = NaN;
+        myMax = NaN;
+        myRunningMean = ZERO;
+        mySumOfSquaredDeviations = ZERO;
+    }
+
+    @Override
+    public String toString() {
+        return "Quantile sketch Size=" + myCount + ", Mean=" + this.getMean() + ", Var=" + this.getVariance() + ", StdDev=" + this.getStandardDeviation()
+                + ", Min=" + this.getMinimum() + ", Max=" + this.getMaximum() + ", Median=" + this.getMedian();
+    }
+
+    /**
+     * Sorts the incoming buffer, and merges it with the existing centroids.
+     */
+    private void compress() {
+        if (myIncoming > 0) {
+            Arrays.sort(myIncomingMeans, 0, myIncoming);
+            this.merge();
+        }
+    }
+
+    private void emit(final double mean, final double weight) {
+        if (myCentroids == myMeans.length) {
+            myMeans = Arrays.copyOf(myMeans, 2 * myCentroids);
+            myWeights = Arrays.copyOf(myWeights, 2 * myCentroids);
+        }
+        myMeans[myCentroids] = mean;
+        myWeights[myCentroids] = weight;
+        myCentroids++;
+    }
+
+    /**
+     * Merges the (sorted) incoming buffer with the existing centroids. Adjacent entries are combined as long
+     * as the resulting centroid spans no more than 1 unit of the scale function.
+     */
+    private void merge() {
+
+        int nbOld = myCentroids;
+        double[] oldMeans = myMeans.clone();
+        double[] oldWeights = myWeights.clone();
+
+        double total = ZERO;
+        for (int i = 0; i < nbOld; i++) {
+            total += oldWeights[i];
+        }
+        for (int i = 0; i < myIncoming; i++) {
+            total += myIncomingWeights[i];
+        }
+
+        myCentroids = 0;
+
+        double currentMean = NaN;
+        double currentWeight = ZERO;
+        double weightSoFar = ZERO;
+        double weightLimit = total * this.quantile(this.scale(ZERO) + ONE);
+
+        int o = 0, n = 0;
+        while (o < nbOld || n < myIncoming) {
+
+            double mean, weight;
+            if (n >= myIncoming || o < nbOld && oldMeans[o] <= myIncomingMeans[n]) {
+                mean = oldMeans[o];
+                weight = oldWeights[o];
+                o++;
+            } else {
+                mean = myIncomingMeans[n];
+                weight = myIncomingWeights[n];
+                n++;
+            }
+
+            if (currentWeight == ZERO) {
+                currentMean = mean;
+                currentWeight = weight;
+            } else if (weightSoFar + currentWeight + weight <= weightLimit) {
+                currentWeight += weight;
+                currentMean += (mean - currentMean) * weight / currentWeight;
+            } else {
+                this.emit(currentMean, currentWeight);
+                weightSoFar += currentWeight;
+                weightLimit = total * this.quantile(this.scale(weightSoFar / total) + ONE);
+                currentMean = mean;
+                currentWeight = weight;
+            }
+        }
+
+        if (currentWeight > ZERO) {
+            this.emit(currentMean, currentWeight);
+        }
+
+        myIncoming = 0;
+    }
+
+    /**
+     * Inverse of {@link #scale(double)}
+     */
+    private double quantile(final double scale) {
+        if (scale >= myCompression / FOUR) {
+            return ONE;
+        }
+        return (Math.sin(scale * TWO_PI / myCompression) + ONE) / TWO;
+    }
+
+    /**
+     * The t-digest k1 scale function, k(q) = δ/(2π) asin(2q-1). Each centroid may span at most 1 unit of k.
+     */
+    private double scale(final double quantile) {
+        return myCompression / TWO_PI * Math.asin(TWO * quantile - ONE);
+    }
+
+}
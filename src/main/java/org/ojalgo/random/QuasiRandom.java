@@ -0,0 +1,501 @@
+/*
+ * Copyright 1997-2025 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.random;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Low-discrepancy (quasi-random) point sets for Quasi-Monte Carlo integration. For smooth integrands the
+ * error decreases close to 1/N rather than the 1/√N of plain Monte Carlo.
+ * <p>
+ * The points are indexed. The generators can be positioned at any index – {@link #setIndex(long)} or
+ * {@link #skip(long)} – so that parallel workers can each generate a disjoint range of the same sequence.
+ * All points are strictly inside the unit hypercube, never exactly 0 or 1, so they can be transformed
+ * using inverse CDF:s – {@link #fillGaussian(double[])}.
+ * <p>
+ * Given a seed the points are randomised using (Owen) nested scrambling. That preserves the
+ * low-discrepancy structure, but makes each point uniformly distributed, so that independent replications
+ * can be used to estimate the error.
+ */
+public abstract class QuasiRandom {
+
+    /**
+     * The Halton sequence – the radical inverses of the point index in the first prime number bases. The
+     * all zero point (index 0 in the traditional definition) is skipped. Halton points are simple and work
+     * for any number of dimensions, but the quality degrades noticeably in high dimensions unless
+     * scrambled.
+     */
+    public static final class Halton extends QuasiRandom {
+
+        private final int[] myBases;
+        private final int[] myDigits;
+
+        Halton(final int dimensions, final Long seed) {
+
+            super(dimensions, seed);
+
+            myBases = QuasiRandom.primes(dimensions);
+            myDigits = new int[dimensions];
+            for (int d = 0; d < dimensions; d++) {
+                // Enough digits for double precision
+                myDigits[d] = (int) Math.ceil(53.0 * Math.log(2.0) / Math.log(myBases[d]));
+            }
+        }
+
+        @Override
+        void point(final long index, final double[] output, final int offset) {
+
+            long number = index + 1L;
+
+            for (int d = 0; d < myDimensions; d++) {
+
+                int base = myBases[d];
+                double scale = 1.0 / base;
+
+                double value = 0.0;
+                double factor = scale;
+
+                if (myScrambled) {
+
+                    long hash = this.hash(d);
+                    long remaining = number;
+                    long prefix = 0L;
+                    long weight = 1L;
+
+                    for (int k = 0; k < myDigits[d]; k++) {
+
+                        int digit = (int) (remaining % base);
+                        remaining /= base;
+
+                        // A random permutation of the digits, depending on all the preceding digits
+                        long mixed = PseudoRandom.mix(hash ^ PseudoRandom.mix(prefix + 0x9e3779b97f4a7c15L * (k + 1)));
+                        long multiplier = 1L + Long.remainderUnsigned(mixed, base - 1L);
+                        long shift = Long.remainderUnsigned(mixed >>> 17, base);
+
+                        value += ((multiplier * digit + shift) % base) * factor;
+                        factor *= scale;
+
+                        if (weight <= Long.MAX_VALUE / base) {
+                            prefix += digit * weight;
+                            weight *= base;
+                        } else {
+                            prefix = PseudoRandom.mix(prefix) + digit;
+                        }
+                    }
+
+                } else {
+
+                    long remaining = number;
+                    while (remaining > 0L) {
+                        value += (remaining % base) * factor;
+                        remaining /= base;
+                        factor *= scale;
+                    }
+                }
+
+                output[offset + d] = Math.min(value, ONE_MINUS_ULP);
+            }
+        }
+
+    }
+
+    /**
+     * The Sobol sequence – a (t,s)-sequence in base 2. The first dimension is the van der Corput sequence,
+     * the others are generated from primitive polynomials over GF(2), in order of increasing degree. Up to
+     * 21 dimensions use the initial direction numbers of Joe & Kuo, higher dimensions (fixed) pseudo-random
+     * ones.
+     * <p>
+     * The points are defined by 32-bit integers, allowing 2<sup>32</sup> points. They are centred in their
+     * 2<sup>-32</sup> wide cells.
+     */
+    public static final class Sobol extends QuasiRandom {
+
+        private static final int BITS = 32;
+        private static final int[][] JOE_KUO = { { 1 }, { 1, 3 }, { 1, 3, 1 }, { 1, 1, 1 }, { 1, 1, 3, 3 }, { 1, 3, 5, 13 }, { 1, 1, 5, 5, 17 },
+                { 1, 1, 5, 5, 5 }, { 1, 1, 7, 11, 19 }, { 1, 1, 5, 1, 1 }, { 1, 1, 1, 3, 11 }, { 1, 3, 5, 5, 31 }, { 1, 3, 3, 9, 7, 49 },
+                { 1, 1, 1, 15, 21, 21 }, { 1, 3, 1, 13, 27, 49 }, { 1, 1, 1, 15, 7, 5 }, { 1, 3, 1, 15, 13, 25 }, { 1, 1, 5, 5, 19, 61 },
+                { 1, 3, 7, 11, 23, 15, 103 }, { 1, 3, 7, 13, 13, 15, 69 } };
+        private static final double UNIT = 0x1.0p-32;
+
+        private static boolean isPrimitive(final long polynomial, final int degree, final long order, final List<Long> factors) {
+            if (Sobol.power(polynomial, degree, order) != 1L) {
+                return false;
+            }
+            for (Long factor : factors) {
+                if (Sobol.power(polynomial, degree, order / factor.longValue()) == 1L) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * x<sup>exponent</sup> modulo the polynomial, over GF(2)
+         */
+        private static long power(final long polynomial, final int degree, final long exponent) {
+
+            long retVal = 1L;
+            // x, reduced modulo the polynomial
+            long base = degree == 1 ? 1L : 2L;
+
+            for (long e = exponent; e > 0L; e >>>= 1) {
+                if ((e & 1L) != 0L) {
+                    retVal = Sobol.product(retVal, base, polynomial, degree);
+                }
+                base = Sobol.product(base, base, polynomial, degree);
+            }
+
+            return retVal;
+        }
+
+        private static long product(final long left, final long right, final long polynomial, final int degree) {
+
+            long retVal = 0L;
+            long shifted = left;
+
+            for (long r = right; r != 0L; r >>>= 1) {
+                if ((r & 1L) != 0L) {
+                    retVal ^= shifted;
+                }
+                shifted <<= 1;
+                if ((shifted & 1L << degree) != 0L) {
+                    shifted ^= polynomial;
+                }
+            }
+
+            return retVal;
+        }
+
+        /**
+         * The primitive polynomials of degree 1 to 31, in order of increasing degree and then value, as bit
+         * patterns including the leading and constant terms.
+         */
+        static long[] primitivePolynomials(final int count) {
+
+            long[] retVal = new long[count];
+            int found = 0;
+
+            for (int degree = 1; found < count && degree < BITS; degree++) {
+
+                long order = (1L << degree) - 1L;
+                List<Long> factors = QuasiRandom.primeFactors(order);
+
+                for (long middle = 0L; found < count && middle < 1L << (degree - 1); middle++) {
+                    long polynomial = 1L << degree | middle << 1 | 1L;
+                    if (Sobol.isPrimitive(polynomial, degree, order, factors)) {
+                        retVal[found++] = polynomial;
+                    }
+                }
+            }
+
+            return retVal;
+        }
+
+        /**
+         * Hash based nested uniform (Owen) scrambling, as described by Burley in "Practical Hash-based Owen
+         * Scrambling" (2020).
+         */
+        static int scramble(final int value, final int seed) {
+
+            int x = Integer.reverse(value);
+
+            x += seed;
+            x ^= x * 0x6c50b47c;
+            x ^= x * 0xb82f1e52;
+            x ^= x * 0xc7afe638;
+            x ^= x * 0x8d22f6e6;
+
+            return Integer.reverse(x);
+        }
+
+        private final int[][] myDirections;
+        private long myNextIndex = -1L;
+        private final int[] myState;
+
+        Sobol(final int dimensions, final Long seed) {
+
+            super(dimensions, seed);
+
+            myDirections = new int[dimensions][BITS];
+            myState = new int[dimensions];
+
+            for (int k = 0; k < BITS; k++) {
+                myDirections[0][k] = 1 << (BITS - 1 - k);
+            }
+
+            long[] polynomials = Sobol.primitivePolynomials(dimensions - 1);
+            PseudoRandom random = new PseudoRandom.Xoshiro256(dimensions);
+
+            for (int d = 1; d < dimensions; d++) {
+
+                long polynomial = polynomials[d - 1];
+                int degree = 63 - Long.numberOfLeadingZeros(polynomial);
+
+                long[] m = new long[BITS];
+                for (int k = 0; k < degree; k++) {
+                    if (d <= JOE_KUO.length) {
+                        m[k] = JOE_KUO[d - 1][k];
+                    } else {
+                        m[k] = (random.nextLong() >>> 1 & (1L << (k + 1)) - 1L) | 1L;
+                    }
+                }
+
+                for (int k = degree; k < BITS; k++) {
+                    long value = m[k - degree] ^ m[k - degree] << degree;
+                    for (int j = 1; j < degree; j++) {
+                        if ((polynomial >>> (degree - j) & 1L) != 0L) {
+                            value ^= m[k - j] << j;
+                        }
+                    }
+                    m[k] = value;
+                }
+
+                for (int k = 0; k < BITS; k++) {
+                    myDirections[d][k] = (int) (m[k] << (BITS - 1 - k));
+                }
+            }
+        }
+
+        @Override
+        void point(final long index, final double[] output, final int offset) {
+
+            if (index < 0L || index >= 1L << BITS) {
+                throw new IllegalArgumentException();
+            }
+
+            if (index == myNextIndex) {
+                // Gray code update – a single xor per dimension
+                int bit = Long.numberOfTrailingZeros(~(index - 1L));
+                for (int d = 0; d < myDimensions; d++) {
+                    myState[d] ^= myDirections[d][bit];
+                }
+            } else {
+                long gray = index ^ index >>> 1;
+                for (int d = 0; d < myDimensions; d++) {
+                    int value = 0;
+                    for (int k = 0; gray >>> k != 0L; k++) {
+                        if ((gray >>> k & 1L) != 0L) {
+                            value ^= myDirections[d][k];
+                        }
+                    }
+                    myState[d] = value;
+                }
+            }
+            myNextIndex = index + 1L;
+
+            for (int d = 0; d < myDimensions; d++) {
+                int value = myState[d];
+                if (myScrambled) {
+                    value = Sobol.scramble(value, (int) this.hash(d));
+                }
+                output[offset + d] = ((value & 0xFFFFFFFFL) + 0.5) * UNIT;
+            }
+        }
+
+    }
+
+    private static final double[] A = { -3.969683028665376e+01, 2.209460984245205e+02, -2.759285104469687e+02, 1.383577518672690e+02,
+            -3.066479806614716e+01, 2.506628277459239e+00 };
+    private static final double[] B = { -5.447609879822406e+01, 1.615858368580409e+02, -1.556989798598866e+02, 6.680131188771972e+01,
+            -1.328068155288572e+01 };
+    private static final double[] C = { -7.784894002430293e-03, -3.223964580411365e-01, -2.400758277161838e+00, -2.549732539343734e+00,
+            4.374664141464968e+00, 2.938163982698783e+00 };
+    private static final double[] D = { 7.784695709041462e-03, 3.224671290700398e-01, 2.445134137142996e+00, 3.754408661907416e+00 };
+    private static final double P_LOW = 0.02425;
+
+    static final double ONE_MINUS_ULP = Math.nextDown(1.0);
+
+    /**
+     * Unscrambled Halton points
+     */
+    public static QuasiRandom newHalton(final int dimensions) {
+        return new Halton(dimensions, null);
+    }
+
+    /**
+     * Scrambled Halton points
+     */
+    public static QuasiRandom newHalton(final int dimensions, final long seed) {
+        return new Halton(dimensions, Long.valueOf(seed));
+    }
+
+    /**
+     * Unscrambled Sobol points
+     */
+    public static QuasiRandom newSobol(final int dimensions) {
+        return new Sobol(dimensions, null);
+    }
+
+    /**
+     * Scrambled Sobol points
+     */
+    public static QuasiRandom newSobol(final int dimensions, final long seed) {
+        return new Sobol(dimensions, Long.valueOf(seed));
+    }
+
+    private static List<Long> primeFactors(final long number) {
+
+        List<Long> retVal = new ArrayList<>();
+
+        long remaining = number;
+        for (long factor = 2L; factor * factor <= remaining; factor++) {
+            if (remaining % factor == 0L) {
+                retVal.add(Long.valueOf(factor));
+                while (remaining % factor == 0L) {
+                    remaining /= factor;
+                }
+            }
+        }
+        if (remaining > 1L) {
+            retVal.add(Long.valueOf(remaining));
+        }
+
+        return retVal;
+    }
+
+    /**
+     * The first prime numbers
+     */
+    static int[] primes(final int count) {
+
+        int[] retVal = new int[count];
+
+        int found = 0;
+        for (int candidate = 2; found < count; candidate++) {
+            boolean prime = true;
+            for (int i = 0; i < found && retVal[i] * retVal[i] <= candidate; i++) {
+                if (candidate % retVal[i] == 0) {
+                    prime = false;
+                    break;
+                }
+            }
+            if (prime) {
+                retVal[found++] = candidate;
+            }
+        }
+
+        return retVal;
+    }
+
+    /**
+     * The standard normal quantile function (inverse CDF), using the rational approximation by Acklam. The
+     * relative error is less than 1.15e-9.
+     */
+    static double quantile(final double probability) {
+
+        if (probability < P_LOW) {
+            double q = Math.sqrt(-2.0 * Math.log(probability));
+            return (((((C[0] * q + C[1]) * q + C[2]) * q + C[3]) * q + C[4]) * q + C[5]) / ((((D[0] * q + D[1]) * q + D[2]) * q + D[3]) * q + 1.0);
+        } else if (probability > 1.0 - P_LOW) {
+            double q = Math.sqrt(-2.0 * Math.log(1.0 - probability));
+            return -(((((C[0] * q + C[1]) * q + C[2]) * q + C[3]) * q + C[4]) * q + C[5]) / ((((D[0] * q + D[1]) * q + D[2]) * q + D[3]) * q + 1.0);
+        } else {
+            double q = probability - 0.5;
+            double r = q * q;
+            return (((((A[0] * r + A[1]) * r + A[2]) * r + A[3]) * r + A[4]) * r + A[5]) * q
+                    / (((((B[0] * r + B[1]) * r + B[2]) * r + B[3]) * r + B[4]) * r + 1.0);
+        }
+    }
+
+    final int myDimensions;
+    final boolean myScrambled;
+
+    private long myIndex = 0L;
+    private final long mySeed;
+
+    QuasiRandom(final int dimensions, final Long seed) {
+
+        super();
+
+        if (dimensions < 1) {
+            throw new IllegalArgumentException();
+        }
+
+        myDimensions = dimensions;
+        myScrambled = seed != null;
+        mySeed = seed != null ? seed.longValue() : 0L;
+    }
+
+    public int dimensions() {
+        return myDimensions;
+    }
+
+    /**
+     * Fills the array with consecutive points, one point (of {@link #dimensions()} coordinates) after the
+     * other – output.length / dimensions points.
+     */
+    public void fill(final double[] output) {
+        int nbPoints = output.length / myDimensions;
+        for (int p = 0; p < nbPoints; p++) {
+            this.point(myIndex++, output, p * myDimensions);
+        }
+    }
+
+    /**
+     * Same as {@link #fill(double[])}, but the coordinates are transformed to standard normal variates.
+     */
+    public void fillGaussian(final double[] output) {
+        this.fill(output);
+        for (int i = 0, limit = output.length / myDimensions * myDimensions; i < limit; i++) {
+            output[i] = QuasiRandom.quantile(output[i]);
+        }
+    }
+
+    /**
+     * @return The index of the next point
+     */
+    public long getIndex() {
+        return myIndex;
+    }
+
+    /**
+     * Writes the next point to the output array.
+     */
+    public void nextPoint(final double[] output) {
+        this.point(myIndex++, output, 0);
+    }
+
+    /**
+     * Position the generator at a specific point index.
+     */
+    public void setIndex(final long index) {
+        if (index < 0L) {
+            throw new IllegalArgumentException();
+        }
+        myIndex = index;
+    }
+
+    public void skip(final long count) {
+        this.setIndex(myIndex + count);
+    }
+
+    long hash(final int dimension) {
+        return PseudoRandom.mix(mySeed + 0x9e3779b97f4a7c15L * (dimension + 1));
+    }
+
+    /**
+     * Writes the point with that index to output, starting at offset.
+     */
+    abstract void point(long index, double[] output, int offset);
+
+}
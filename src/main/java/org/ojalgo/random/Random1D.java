@@ -32,6 +32,12 @@ import org.ojalgo.structure.Access2D;
 
 public final class Random1D {
 
+    /**
+     * @deprecated v56 Seeding {@link ThreadLocalRandom} is not supported – this always throws
+     *             {@link UnsupportedOperationException}. Use {@link #setRandom(Random)} with a seeded
+     *             {@link Random} instead.
+     */
+    @Deprecated
     public static void setSeed(final long seed) {
         Random1D.random().setSeed(seed);
     }
@@ -43,6 +49,7 @@ public final class Random1D {
     public final int length;
 
     private final MatrixStore<Double> myCholeskiedCorrelations;
+    private Random myRandom = null;
 
     public Random1D(final Access2D<?> correlations) {
 
@@ -82,7 +89,7 @@ public final class Random1D {
         R064Store uncorrelated = R064Store.FACTORY.make(length, 1);
 
         for (int i = 0; i < length; i++) {
-            uncorrelated.set(i, 0, Random1D.random().nextDouble());
+            uncorrelated.set(i, 0, this.getRandom().nextDouble());
         }
 
         if (myCholeskiedCorrelations != null) {
@@ -100,7 +107,7 @@ public final class Random1D {
         R064Store uncorrelated = R064Store.FACTORY.make(length, 1);
 
         for (int i = 0; i < length; i++) {
-            uncorrelated.set(i, 0, Random1D.random().nextGaussian());
+            uncorrelated.set(i, 0, this.getRandom().nextGaussian());
         }
 
         if (myCholeskiedCorrelations != null) {
@@ -110,8 +117,44 @@ public final class Random1D {
         }
     }
 
+    /**
+     * Same as {@link #nextGaussian()} but without allocating anything – the correlated random numbers are
+     * written to the output array (that must have at least {@link #length} elements).
+     */
+    public void nextGaussian(final double[] output) {
+
+        Random random = this.getRandom();
+
+        for (int i = 0; i < length; i++) {
+            output[i] = random.nextGaussian();
+        }
+
+        if (myCholeskiedCorrelations != null) {
+            // L is lower triangular – working from the bottom up the inputs needed are not yet overwritten
+            for (int i = length - 1; i >= 0; i--) {
+                double sum = 0.0;
+                for (int j = 0; j <= i; j++) {
+                    sum += myCholeskiedCorrelations.doubleValue(i, j) * output[j];
+                }
+                output[i] = sum;
+            }
+        }
+    }
+
+    /**
+     * Set the {@link Random} instance used to generate the (uncorrelated) random numbers. By default
+     * {@link ThreadLocalRandom} is used. Setting a seeded instance makes the sequence reproducible.
+     */
+    public void setRandom(final Random random) {
+        myRandom = random;
+    }
+
     public int size() {
         return length;
     }
 
+    private Random getRandom() {
+        return myRandom != null ? myRandom : ThreadLocalRandom.current();
+    }
+
 }
@@ -103,6 +103,7 @@ public abstract class RandomNumber implements Distribution, PrimitiveFunction.Nu
      * <li>{@link java.util.Random}
      * <li>{@link java.util.concurrent.ThreadLocalRandom}
      * <li>{@link java.security.SecureRandom}
+     * <li>{@link PseudoRandom} (seedable, splittable, with Ziggurat normal and exponential variates)
      * <li>...
      * </ul>
      */
@@ -32,6 +32,7 @@ import org.ojalgo.array.DenseArray;
 import org.ojalgo.array.NumberList;
 import org.ojalgo.array.NumberList.ListFactory;
 import org.ojalgo.array.operation.FillMatchingSingle;
+import org.ojalgo.array.operation.SortAll;
 import org.ojalgo.structure.Access1D;
 import org.ojalgo.type.context.NumberContext;
 import org.ojalgo.type.function.TwoStepMapper;
@@ -123,6 +124,10 @@ public final class SampleSet implements Access1D<Double> {
         return new SampleSet(retVal);
     }
 
+    /**
+     * Collects all values. For very large streams, where only summary statistics and (approximate)
+     * quantiles are needed, {@link QuantileSketch#newCollector()} uses bounded memory.
+     */
     public static Collector<Double, CombineableSet<Double>, SampleSet> newCollector() {
         return SampleSet.newCollector(ArrayR064.FACTORY);
     }
@@ -154,9 +159,9 @@ public final class SampleSet implements Access1D<Double> {
     private transient double myQuartile2 = NaN;
     private transient double myQuartile3 = NaN;
     private Access1D<?> mySamples;
-    private transient double[] mySortedCopy = null;
     private transient double myStandardDeviation = NaN;
     private transient double myVariance = NaN;
+    private transient double[] myWorkCopy = null;
 
     SampleSet(final Access1D<?> samples) {
 
@@ -288,7 +293,7 @@ public final class SampleSet implements Access1D<Double> {
     }
 
     /**
-     * Potentially expensive as it requires copying and sorting of the samples.
+     * Potentially expensive as it requires copying (and partially reordering) the samples.
      */
     public double getMedian() {
         return this.getQuartile2();
@@ -321,7 +326,7 @@ public final class SampleSet implements Access1D<Double> {
     /**
      * https://en.wikipedia.org/wiki/Quartile
      * <p>
-     * Potentially expensive as it requires copying and sorting of the samples.
+     * Potentially expensive as it requires copying (and partially reordering) the samples.
      */
     public double getQuartile1() {
 
@@ -335,7 +340,7 @@ public final class SampleSet implements Access1D<Double> {
     /**
      * https://en.wikipedia.org/wiki/Quartile
      * <p>
-     * Potentially expensive as it requires copying and sorting of the samples.
+     * Potentially expensive as it requires copying (and partially reordering) the samples.
      */
     public double getQuartile2() {
 
@@ -349,7 +354,7 @@ public final class SampleSet implements Access1D<Double> {
     /**
      * https://en.wikipedia.org/wiki/Quartile
      * <p>
-     * Potentially expensive as it requires copying and sorting of the samples.
+     * Potentially expensive as it requires copying (and partially reordering) the samples.
      */
     public double getQuartile3() {
 
@@ -457,8 +462,8 @@ public final class SampleSet implements Access1D<Double> {
         myQuartile2 = NaN;
         myQuartile3 = NaN;
 
-        if (mySortedCopy != null) {
-            Arrays.fill(mySortedCopy, Double.POSITIVE_INFINITY);
+        if (myWorkCopy != null) {
+            Arrays.fill(myWorkCopy, Double.POSITIVE_INFINITY);
         }
     }
 
@@ -490,7 +495,29 @@ public final class SampleSet implements Access1D<Double> {
     private void calculateQuartiles() {
 
         int nbSamples = this.getSamples().size();
-        double[] sortedCopy = this.getSortedCopy();
+
+        int n = nbSamples / 4;
+        int r = nbSamples % 4;
+
+        int[] ranks;
+        switch (r) {
+        case 1:
+            ranks = new int[] { 0, n - 1, n, 2 * n, 3 * n, 3 * n + 1, nbSamples - 1 };
+            break;
+        case 2:
+            ranks = new int[] { 0, n, 2 * n, 2 * n + 1, 3 * n + 1, nbSamples - 1 };
+            break;
+        case 3:
+            ranks = new int[] { 0, n, n + 1, 2 * n + 1, 3 * n + 1, 3 * n + 2, nbSamples - 1 };
+            break;
+        default:
+            ranks = new int[] { 0, n - 1, n, 2 * n - 1, 2 * n, 3 * n - 1, 3 * n, nbSamples - 1 };
+            break;
+        }
+        Arrays.sort(ranks);
+
+        // Only the order statistics actually needed are selected (in O(n)) - no full sort
+        double[] selectedCopy = this.getSelectedCopy(ranks);
 
         switch (nbSamples) {
 
@@ -507,54 +534,51 @@ public final class SampleSet implements Access1D<Double> {
 
             case 1:
 
-                myMin = sortedCopy[0];
-                myMax = sortedCopy[0];
+                myMin = selectedCopy[0];
+                myMax = selectedCopy[0];
 
-                myQuartile1 = sortedCopy[0];
-                myQuartile2 = sortedCopy[0];
-                myQuartile3 = sortedCopy[0];
+                myQuartile1 = selectedCopy[0];
+                myQuartile2 = selectedCopy[0];
+                myQuartile3 = selectedCopy[0];
 
                 break;
 
             default:
 
-                myMin = sortedCopy[0];
-                myMax = sortedCopy[nbSamples - 1];
-
-                int n = nbSamples / 4;
-                int r = nbSamples % 4;
+                myMin = selectedCopy[0];
+                myMax = selectedCopy[nbSamples - 1];
 
                 switch (r) {
 
                     case 1:
 
-                        myQuartile1 = 0.25 * sortedCopy[n - 1] + 0.75 * sortedCopy[n];
-                        myQuartile2 = sortedCopy[2 * n];
-                        myQuartile3 = 0.75 * sortedCopy[3 * n] + 0.25 * sortedCopy[3 * n + 1];
+                        myQuartile1 = 0.25 * selectedCopy[n - 1] + 0.75 * selectedCopy[n];
+                        myQuartile2 = selectedCopy[2 * n];
+                        myQuartile3 = 0.75 * selectedCopy[3 * n] + 0.25 * selectedCopy[3 * n + 1];
 
                         break;
 
                     case 2:
 
-                        myQuartile1 = sortedCopy[n];
-                        myQuartile2 = 0.5 * sortedCopy[2 * n] + 0.5 * sortedCopy[2 * n + 1];
-                        myQuartile3 = sortedCopy[3 * n + 1];
+                        myQuartile1 = selectedCopy[n];
+                        myQuartile2 = 0.5 * selectedCopy[2 * n] + 0.5 * selectedCopy[2 * n + 1];
+                        myQuartile3 = selectedCopy[3 * n + 1];
 
                         break;
 
                     case 3:
 
-                        myQuartile1 = 0.75 * sortedCopy[n] + 0.25 * sortedCopy[n + 1];
-                        myQuartile2 = sortedCopy[2 * n + 1];
-                        myQuartile3 = 0.25 * sortedCopy[3 * n + 1] + 0.75 * sortedCopy[3 * n + 2];
+                        myQuartile1 = 0.75 * selectedCopy[n] + 0.25 * selectedCopy[n + 1];
+                        myQuartile2 = selectedCopy[2 * n + 1];
+                        myQuartile3 = 0.25 * selectedCopy[3 * n + 1] + 0.75 * selectedCopy[3 * n + 2];
 
                         break;
 
                     default:
 
-                        myQuartile1 = 0.5 * sortedCopy[n - 1] + 0.5 * sortedCopy[n];
-                        myQuartile2 = 0.5 * sortedCopy[2 * n - 1] + 0.5 * sortedCopy[2 * n];
-                        myQuartile3 = 0.5 * sortedCopy[3 * n - 1] + 0.5 * sortedCopy[3 * n];
+                        myQuartile1 = 0.5 * selectedCopy[n - 1] + 0.5 * selectedCopy[n];
+                        myQuartile2 = 0.5 * selectedCopy[2 * n - 1] + 0.5 * selectedCopy[2 * n];
+                        myQuartile3 = 0.5 * selectedCopy[3 * n - 1] + 0.5 * selectedCopy[3 * n];
 
                         break;
                 }
@@ -567,20 +591,25 @@ public final class SampleSet implements Access1D<Double> {
         return mySamples;
     }
 
-    double[] getSortedCopy() {
+    double[] getSelectedCopy(final int[] ranks) {
 
         Access1D<?> samples = this.getSamples();
         int nbSamples = samples.size();
 
-        if (mySortedCopy == null || mySortedCopy.length < nbSamples || mySortedCopy.length == 0) {
-            mySortedCopy = samples.toRawCopy1D();
-            Arrays.sort(mySortedCopy);
-        } else if (mySortedCopy[0] == Double.POSITIVE_INFINITY) {
-            FillMatchingSingle.fill(mySortedCopy, samples);
-            Arrays.sort(mySortedCopy, 0, nbSamples);
+        if (myWorkCopy == null || myWorkCopy.length != nbSamples) {
+            myWorkCopy = samples.toRawCopy1D();
+        } else if (myWorkCopy.length == 0 || myWorkCopy[0] == Double.POSITIVE_INFINITY) {
+            FillMatchingSingle.fill(myWorkCopy, samples);
+        } else {
+            return myWorkCopy;
+        }
+
+        if (nbSamples > 1) {
+            int[] valid = Arrays.stream(ranks).filter(k -> k >= 0 && k < nbSamples).toArray();
+            SortAll.select(myWorkCopy, valid);
         }
 
-        return mySortedCopy;
+        return myWorkCopy;
     }
 
 }
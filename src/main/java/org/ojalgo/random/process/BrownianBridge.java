@@ -0,0 +1,217 @@
+/*
+ * Copyright 1997-2025 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.random.process;
+
+import org.ojalgo.array.Array2D;
+import org.ojalgo.random.QuasiRandom;
+
+/**
+ * Constructs Wiener (Brownian motion) paths from standard normal variates, the first variate determining
+ * the end point, the second the midpoint, then the quarter points... This concentrates the variance of the
+ * path in the first few variates, which is what makes Quasi-Monte Carlo ({@link QuasiRandom}) effective for
+ * path dependent simulations – the low-discrepancy structure is best in the first dimensions.
+ * <p>
+ * The construction is linear and the resulting paths have exactly the same distribution as when summing
+ * independent increments, regardless of where the variates come from.
+ */
+public final class BrownianBridge {
+
+    private static double[] times(final int nbSteps, final double stepSize) {
+        double[] retVal = new double[nbSteps];
+        for (int i = 0; i < nbSteps; i++) {
+            retVal[i] = (i + 1) * stepSize;
+        }
+        return retVal;
+    }
+
+    private final int[] myBridge;
+    private final int[] myLeft;
+    private final double[] myLeftWeight;
+    private final int[] myRight;
+    private final double[] myRightWeight;
+    private final double[] myStandardDeviation;
+    private final double[] myTimes;
+
+    /**
+     * Equidistant times: stepSize, 2 * stepSize ... nbSteps * stepSize
+     */
+    public BrownianBridge(final int nbSteps, final double stepSize) {
+        this(BrownianBridge.times(nbSteps, stepSize));
+    }
+
+    /**
+     * @param times Strictly increasing, positive, times (the path starts at 0 at time 0)
+     */
+    public BrownianBridge(final double... times) {
+
+        super();
+
+        int nbSteps = times.length;
+        if (nbSteps < 1 || times[0] <= 0.0) {
+            throw new IllegalArgumentException();
+        }
+        for (int i = 1; i < nbSteps; i++) {
+            if (times[i] <= times[i - 1]) {
+                throw new IllegalArgumentException();
+            }
+        }
+
+        myTimes = times.clone();
+
+        myBridge = new int[nbSteps];
+        myLeft = new int[nbSteps];
+        myRight = new int[nbSteps];
+        myLeftWeight = new double[nbSteps];
+        myRightWeight = new double[nbSteps];
+        myStandardDeviation = new double[nbSteps];
+
+        myBridge[0] = nbSteps - 1;
+        myLeft[0] = -1;
+        myRight[0] = -1;
+        myStandardDeviation[0] = Math.sqrt(times[nbSteps - 1]);
+
+        // Breadth first, coarse to fine, bisection of the intervals (left, right]
+        int[] queueLeft = new int[2 * nbSteps];
+        int[] queueRight = new int[2 * nbSteps];
+        int head = 0;
+        int tail = 0;
+        queueLeft[tail] = -1;
+        queueRight[tail++] = nbSteps - 1;
+
+        int k = 1;
+        while (head < tail) {
+
+            int left = queueLeft[head];
+            int right = queueRight[head++];
+
+            if (right - left > 1) {
+
+                int middle = left + (right - left) / 2;
+
+                double timeLeft = left < 0 ? 0.0 : times[left];
+                double timeMiddle = times[middle];
+                double timeRight = times[right];
+                double interval = timeRight - timeLeft;
+
+                myBridge[k] = middle;
+                myLeft[k] = left;
+                myRight[k] = right;
+                myLeftWeight[k] = (timeRight - timeMiddle) / interval;
+                myRightWeight[k] = (timeMiddle - timeLeft) / interval;
+                myStandardDeviation[k] = Math.sqrt((timeMiddle - timeLeft) * (timeRight - timeMiddle) / interval);
+                k++;
+
+                queueLeft[tail] = left;
+                queueRight[tail++] = middle;
+                queueLeft[tail] = middle;
+                queueRight[tail++] = right;
+            }
+        }
+    }
+
+    /**
+     * The standardised increments of the path – (W(t<sub>i</sub>) - W(t<sub>i-1</sub>)) /
+     * √(t<sub>i</sub> - t<sub>i-1</sub>). These are independent standard normal variates that can be used to
+     * step any process (instead of pseudo-random innovations).
+     *
+     * @param gaussians {@link #size()} standard normal variates, the most important first
+     * @param increments Output
+     */
+    public void buildIncrements(final double[] gaussians, final double[] increments) {
+
+        this.buildPath(gaussians, increments);
+
+        double previousValue = 0.0;
+        double previousTime = 0.0;
+        for (int i = 0; i < myTimes.length; i++) {
+            double value = increments[i];
+            increments[i] = (value - previousValue) / Math.sqrt(myTimes[i] - previousTime);
+            previousValue = value;
+            previousTime = myTimes[i];
+        }
+    }
+
+    /**
+     * @param gaussians {@link #size()} standard normal variates, the most important first
+     * @param path Output – the values W(t<sub>i</sub>) of a standard Wiener process started at 0
+     */
+    public void buildPath(final double[] gaussians, final double[] path) {
+
+        path[myBridge[0]] = myStandardDeviation[0] * gaussians[0];
+
+        for (int k = 1; k < myBridge.length; k++) {
+            int left = myLeft[k];
+            double leftValue = left < 0 ? 0.0 : path[left];
+            path[myBridge[k]] = myLeftWeight[k] * leftValue + myRightWeight[k] * path[myRight[k]] + myStandardDeviation[k] * gaussians[k];
+        }
+    }
+
+    /**
+     * Simulate the process using Brownian bridge paths driven by (quasi) random points. The generator must
+     * have the same number of dimensions as this bridge has steps. The process is advanced using the
+     * standardised increments – see {@link #buildIncrements(double[], double[])} – and restored to its
+     * initial value between the realisations.
+     *
+     * @param process A process driven by a single Wiener process, like {@link GeometricBrownianMotion} or
+     *        {@link WienerProcess}
+     */
+    public RandomProcess.SimulationResults simulate(final RandomProcess<?> process, final QuasiRandom generator, final int nbRealisations) {
+
+        if (!(process instanceof Process1D.ComponentProcess) || generator.dimensions() != myTimes.length) {
+            throw new IllegalArgumentException();
+        }
+
+        Process1D.ComponentProcess<?> component = (Process1D.ComponentProcess<?>) process;
+
+        int nbSteps = myTimes.length;
+        double initialValue = component.getValue();
+
+        double[] gaussians = new double[nbSteps];
+        double[] increments = new double[nbSteps];
+
+        Array2D<Double> results = Array2D.R064.make(nbRealisations, nbSteps);
+
+        for (int r = 0; r < nbRealisations; r++) {
+
+            generator.fillGaussian(gaussians);
+            this.buildIncrements(gaussians, increments);
+
+            double previousTime = 0.0;
+            for (int s = 0; s < nbSteps; s++) {
+                results.set(r, s, component.step(myTimes[s] - previousTime, increments[s]));
+                previousTime = myTimes[s];
+            }
+
+            component.setValue(initialValue);
+        }
+
+        return new RandomProcess.SimulationResults(initialValue, results);
+    }
+
+    /**
+     * @return The number of steps/times
+     */
+    public int size() {
+        return myTimes.length;
+    }
+
+}
@@ -26,6 +26,8 @@ import static org.ojalgo.function.constant.PrimitiveMath.ZERO;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.TreeSet;
 
 import org.ojalgo.function.constant.PrimitiveMath;
@@ -44,6 +46,11 @@ import org.ojalgo.type.keyvalue.EntryPair.KeyedPrimitive;
  * This GaussianField class is a generalization, as well as the underlying implementation, of
  * {@linkplain GaussianProcess}. Prior to calling {@linkplain #getDistribution(Comparable...)} you must call
  * {@linkplain #addObservation(Comparable, double)} one or more times.
+ * <p>
+ * The Cholesky factor of the observation covariance matrix, and the weights solved with it, are maintained
+ * incrementally. Adding an observation costs O(n²), and so does removing one – explicitly or by limiting
+ * the number of observations to a sliding {@linkplain #setWindow(int) window}. Only
+ * {@linkplain #calibrate()} triggers a complete refactorisation.
  *
  * @author apete
  */
@@ -81,9 +88,22 @@ public final class GaussianField<K extends Comparable<? super K>> extends Random
     }
 
     private Covariance<K> myCovarianceFunction;
+    /**
+     * The observations, in the order they were factorised
+     */
+    private final List<KeyedPrimitive<K>> myFactorised = new ArrayList<>();
+    /**
+     * Rows of the lower triangular Cholesky factor – row i has i+1 elements.
+     */
+    private final List<double[]> myFactorRows = new ArrayList<>();
     private Mean<K> myMeanFunction;
-
     private TreeSet<KeyedPrimitive<K>> myObservations;
+    /**
+     * The solution to [observation covariances] * weights = [observed values - means]. Cached, null when
+     * not yet calculated.
+     */
+    private double[] myWeights = null;
+    private int myWindow = 0;
 
     public GaussianField(final Covariance<K> covarFunc) {
         this((Mean<K>) GaussianField.mean(), covarFunc, new TreeSet<KeyedPrimitive<K>>());
@@ -108,28 +128,48 @@ public final class GaussianField<K extends Comparable<? super K>> extends Random
 
     public void addObservation(final K key, final double value) {
         myObservations.add(EntryPair.of(key, value));
+        if (myWindow > 0) {
+            this.update();
+        }
     }
 
+    /**
+     * Calibrates the mean and covariance functions, and (since the covariance function may change) resets
+     * the Cholesky factor.
+     */
     public void calibrate() {
+
         myMeanFunction.calibrate(myObservations);
         myCovarianceFunction.calibrate(myObservations, myMeanFunction);
+
+        myFactorised.clear();
+        myFactorRows.clear();
+        myWeights = null;
     }
 
     public Normal1D getDistribution(final boolean cleanCovariances, final K... evaluationPoint) {
 
-        MatrixStore<Double> tmpRegCoef = this.getRegressionCoefficients(evaluationPoint);
+        this.update();
 
-        MatrixStore<Double> tmpM1 = this.getM1(evaluationPoint);
-        MatrixStore<Double> tmpM2differenses = this.getM2differenses();
+        int nbObservations = myFactorised.size();
+        int nbPoints = evaluationPoint.length;
 
-        R064Store tmpLocations = FACTORY.make(tmpM1.countRows(), tmpM1.countColumns());
-        tmpLocations.fillMatching(tmpM1, PrimitiveMath.ADD, tmpRegCoef.multiply(tmpM2differenses));
+        // Covariances between the (factorised) observations and the evaluation points
+        R064Store tmpC21 = FACTORY.make(nbObservations, nbPoints);
+        for (int j = 0; j < nbPoints; j++) {
+            for (int i = 0; i < nbObservations; i++) {
+                tmpC21.set(i, j, myCovarianceFunction.invoke(myFactorised.get(i).getKey(), evaluationPoint[j]));
+            }
+        }
 
-        MatrixStore<Double> tmpC11 = this.getC11(evaluationPoint);
-        MatrixStore<Double> tmpC21 = this.getC21(evaluationPoint);
+        R064Store tmpLocations = FACTORY.make(nbPoints, 1);
+        tmpLocations.fillMatching(this.getM1(evaluationPoint), PrimitiveMath.ADD, tmpC21.transpose().multiply(FACTORY.column(this.getWeights())));
 
-        R064Store tmpCovariances = FACTORY.make(tmpC11.countRows(), tmpC11.countColumns());
-        tmpCovariances.fillMatching(tmpC11, PrimitiveMath.SUBTRACT, tmpRegCoef.multiply(tmpC21));
+        // V = L⁻¹C21 and the covariances are C11 - VᵀV
+        this.solveLower(tmpC21);
+
+        R064Store tmpCovariances = FACTORY.make(nbPoints, nbPoints);
+        tmpCovariances.fillMatching(this.getC11(evaluationPoint), PrimitiveMath.SUBTRACT, tmpC21.transpose().multiply(tmpC21));
 
         if (cleanCovariances) {
 
@@ -159,6 +199,187 @@ public final class GaussianField<K extends Comparable<? super K>> extends Random
         return this.getDistribution(false, evaluationPoint);
     }
 
+    public void removeObservation(final K key) {
+        myObservations.removeIf(observation -> key.compareTo(observation.getKey()) == 0);
+    }
+
+    /**
+     * Sliding window mode – when there are more observations than this the oldest ones are removed. 0 (the
+     * default) means no limit.
+     */
+    public void setWindow(final int maxNumberOfObservations) {
+        if (maxNumberOfObservations < 0) {
+            throw new IllegalArgumentException();
+        }
+        myWindow = maxNumberOfObservations;
+    }
+
+    private void append(final KeyedPrimitive<K> observation) {
+
+        K key = observation.getKey();
+        int size = myFactorRows.size();
+
+        double[] row = new double[size + 1];
+
+        for (int j = 0; j < size; j++) {
+            double[] rowJ = myFactorRows.get(j);
+            double sum = myCovarianceFunction.invoke(myFactorised.get(j).getKey(), key);
+            for (int k = 0; k < j; k++) {
+                sum -= rowJ[k] * row[k];
+            }
+            row[j] = sum / rowJ[j];
+        }
+
+        double variance = myCovarianceFunction.invoke(key, key);
+        double diagonal = variance;
+        for (int k = 0; k < size; k++) {
+            diagonal -= row[k] * row[k];
+        }
+        // Guard against (numerically) singular covariance matrices
+        row[size] = PrimitiveMath.SQRT.invoke(PrimitiveMath.MAX.invoke(diagonal, PrimitiveMath.MACHINE_EPSILON * PrimitiveMath.MAX.invoke(variance, PrimitiveMath.ONE)));
+
+        myFactorRows.add(row);
+        myFactorised.add(observation);
+        myWeights = null;
+    }
+
+    private double[] getWeights() {
+
+        if (myWeights == null) {
+
+            int size = myFactorRows.size();
+            double[] weights = new double[size];
+
+            for (int i = 0; i < size; i++) {
+                KeyedPrimitive<K> observation = myFactorised.get(i);
+                weights[i] = observation.doubleValue() - myMeanFunction.invoke(observation.getKey());
+            }
+
+            // L y = b
+            for (int i = 0; i < size; i++) {
+                double[] rowI = myFactorRows.get(i);
+                double sum = weights[i];
+                for (int k = 0; k < i; k++) {
+                    sum -= rowI[k] * weights[k];
+                }
+                weights[i] = sum / rowI[i];
+            }
+
+            // Lᵀ x = y
+            for (int i = size - 1; i >= 0; i--) {
+                double sum = weights[i];
+                for (int k = i + 1; k < size; k++) {
+                    sum -= myFactorRows.get(k)[i] * weights[k];
+                }
+                weights[i] = sum / myFactorRows.get(i)[i];
+            }
+
+            myWeights = weights;
+        }
+
+        return myWeights;
+    }
+
+    /**
+     * Removes row and column index from the factor. The trailing part of the factor gets a rank-1 update
+     * with the removed column.
+     */
+    private void remove(final int index) {
+
+        int size = myFactorRows.size();
+        int trailing = size - 1 - index;
+
+        double[] column = new double[trailing];
+        for (int i = 0; i < trailing; i++) {
+            double[] oldRow = myFactorRows.get(index + 1 + i);
+            column[i] = oldRow[index];
+            double[] newRow = new double[index + i + 1];
+            System.arraycopy(oldRow, 0, newRow, 0, index);
+            System.arraycopy(oldRow, index + 1, newRow, index, i + 1);
+            myFactorRows.set(index + 1 + i, newRow);
+        }
+
+        myFactorRows.remove(index);
+        myFactorised.remove(index);
+        myWeights = null;
+
+        for (int k = 0; k < trailing; k++) {
+
+            double[] rowK = myFactorRows.get(index + k);
+            int kk = index + k;
+
+            double diagonal = rowK[kk];
+            double radius = Math.hypot(diagonal, column[k]);
+            double cos = radius / diagonal;
+            double sin = column[k] / diagonal;
+            rowK[kk] = radius;
+
+            for (int i = k + 1; i < trailing; i++) {
+                double[] rowI = myFactorRows.get(index + i);
+                rowI[kk] = (rowI[kk] + sin * column[i]) / cos;
+                column[i] = cos * column[i] - sin * rowI[kk];
+            }
+        }
+    }
+
+    /**
+     * Solves L X = B in place, for all columns of B
+     */
+    private void solveLower(final R064Store rhs) {
+
+        int size = myFactorRows.size();
+        int nbColumns = rhs.getColDim();
+        double[] data = rhs.data;
+
+        for (int j = 0; j < nbColumns; j++) {
+            int offset = j * size;
+            for (int i = 0; i < size; i++) {
+                double[] rowI = myFactorRows.get(i);
+                double sum = data[offset + i];
+                for (int k = 0; k < i; k++) {
+                    sum -= rowI[k] * data[offset + k];
+                }
+                data[offset + i] = sum / rowI[i];
+            }
+        }
+    }
+
+    /**
+     * Brings the factor in sync with the observations – they may have been modified directly (by
+     * {@link GaussianProcess}).
+     */
+    private void update() {
+
+        Map<K, KeyedPrimitive<K>> current = new TreeMap<>();
+        for (KeyedPrimitive<K> observation : myObservations) {
+            current.put(observation.getKey(), observation);
+        }
+
+        for (int i = myFactorised.size() - 1; i >= 0; i--) {
+            KeyedPrimitive<K> factorised = myFactorised.get(i);
+            KeyedPrimitive<K> observation = current.remove(factorised.getKey());
+            if (observation == null) {
+                this.remove(i);
+            } else if (observation.doubleValue() != factorised.doubleValue()) {
+                // Same key, new value – only the weights change
+                myFactorised.set(i, observation);
+                myWeights = null;
+            }
+        }
+
+        for (KeyedPrimitive<K> observation : current.values()) {
+            this.append(observation);
+        }
+
+        if (myWindow > 0) {
+            while (myFactorised.size() > myWindow) {
+                KeyedPrimitive<K> oldest = myFactorised.get(0);
+                myObservations.removeIf(observation -> observation == oldest);
+                this.remove(0);
+            }
+        }
+    }
+
     MatrixStore<Double> getC11(final K[] args) {
 
         int tmpLength = args.length;
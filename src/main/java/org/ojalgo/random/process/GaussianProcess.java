@@ -85,6 +85,13 @@ public final class GaussianProcess extends MultipleValuesBasedProcess<Normal> im
         this.setCurrentValue(newValue);
     }
 
+    /**
+     * @see GaussianField#setWindow(int)
+     */
+    public void setWindow(final int maxNumberOfObservations) {
+        myDelegate.setWindow(maxNumberOfObservations);
+    }
+
     @Override
     public double step(final double stepSize, final double standardGaussianInnovation) {
         return this.doStep(stepSize, standardGaussianInnovation);
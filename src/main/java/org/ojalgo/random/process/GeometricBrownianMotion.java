@@ -131,6 +131,18 @@ public final class GeometricBrownianMotion extends SingleValueBasedProcess<LogNo
         return new GeometricBrownianMotion(tmpDrift, tmpDiff);
     }
 
+    /**
+     * @return A new, independent, instance with the same parameters and current value.
+     */
+    public GeometricBrownianMotion copy() {
+
+        GeometricBrownianMotion retVal = new GeometricBrownianMotion(myLocalDrift, myDiffusionFunction);
+
+        retVal.setValue(this.getValue());
+
+        return retVal;
+    }
+
     public LogNormal getDistribution(final double evaluationPoint) {
 
         double tmpVar = this.getDistributionVariance(evaluationPoint);
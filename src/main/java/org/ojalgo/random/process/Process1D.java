@@ -23,6 +23,7 @@ package org.ojalgo.random.process;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Random;
 
 import org.ojalgo.array.Array1D;
 import org.ojalgo.array.ArrayR064;
@@ -118,6 +119,13 @@ public final class Process1D<P extends ComponentProcess<?>> {
         }
     }
 
+    /**
+     * @see Random1D#setRandom(Random)
+     */
+    public void setRandom(final Random random) {
+        myGenerator.setRandom(random);
+    }
+
     public int size() {
         return myProcesses.length;
     }
@@ -135,4 +143,17 @@ public final class Process1D<P extends ComponentProcess<?>> {
         return retVal;
     }
 
+    /**
+     * Same as {@link #step(double)} but without allocating anything – the new values are written to the
+     * output array (that must have at least {@link #size()} elements).
+     */
+    public void step(final double stepSize, final double[] output) {
+
+        myGenerator.nextGaussian(output);
+
+        for (int p = 0; p < myProcesses.length; p++) {
+            output[p] = myProcesses[p].step(stepSize, output[p]);
+        }
+    }
+
 }
@@ -0,0 +1,792 @@
+/*
+ * Copyright 1997-2025 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.series;
+
+import java.io.File;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+
+import org.ojalgo.array.ArrayR064;
+import org.ojalgo.array.BufferArray;
+import org.ojalgo.array.DenseArray;
+import org.ojalgo.array.OffHeapArray;
+import org.ojalgo.netio.ASCII;
+import org.ojalgo.series.primitive.ExplicitTimeSeries;
+import org.ojalgo.series.primitive.PrimitiveSeries;
+import org.ojalgo.type.CalendarDate;
+import org.ojalgo.type.CalendarDateUnit;
+import org.ojalgo.type.ColourData;
+import org.ojalgo.type.TypeUtils;
+
+/**
+ * An append-optimised, column oriented, store of time series data: One primitive timestamp column (epoch
+ * milliseconds) shared by any number of primitive value columns – one per field. Compared to having a
+ * {@link CalendarDateSeries} per field, with boxed keys and boxed values in a tree, the footprint is 8 bytes
+ * per timestamp and 8 bytes per value.
+ * <p>
+ * Timestamps are expected to arrive in increasing order. Appending is then amortised constant time.
+ * Out-of-order data is accepted, but is inserted by shifting all later rows. Lookups use interpolation
+ * search (alternating with bisection steps) – very fast for regularly spaced timestamps, and never worse
+ * than O(log n).
+ * <p>
+ * The value columns are allocated using a {@link DenseArray.Factory}: {@link ArrayR064#FACTORY} for on-heap
+ * storage, {@link OffHeapArray#R064} or {@link BufferArray#R064} to keep the values off the Java heap, or
+ * use {@link #mapped(File, CalendarDateUnit, String...)} to have each column in a memory-mapped file.
+ * <p>
+ * {@link #asPrimitive(int)}, {@link #getPrimitiveTimeSeries(int)} and {@link #field(int)} all return views
+ * of the data, not copies. Missing values are NaN.
+ */
+public final class ColumnarSeries implements AutoCloseable {
+
+    /**
+     * A {@link BasicSeries} view of one field (value column) of a {@link ColumnarSeries}, possibly restricted
+     * to a key range.
+     */
+    private static final class FieldSeries extends AbstractMap<CalendarDate, Double> implements BasicSeries.NaturallySequenced<CalendarDate, Double> {
+
+        private ColourData myColour = null;
+        private final int myField;
+        /**
+         * Inclusive
+         */
+        private final long myFrom;
+        private String myName;
+        private final ColumnarSeries myStore;
+        /**
+         * Exclusive
+         */
+        private final long myTo;
+
+        FieldSeries(final ColumnarSeries store, final int field, final long from, final long to) {
+            super();
+            myStore = store;
+            myField = field;
+            myFrom = from;
+            myTo = to;
+            myName = store.getFieldName(field);
+        }
+
+        @Override
+        public PrimitiveSeries asPrimitive() {
+            int first = this.first();
+            return myStore.asPrimitive(myField, first, this.limit() - first);
+        }
+
+        public Comparator<? super CalendarDate> comparator() {
+            return null;
+        }
+
+        /**
+         * Completes the entire underlying {@link ColumnarSeries} (all fields), not just this field.
+         *
+         * @see ColumnarSeries#complete()
+         */
+        public void complete() {
+            myStore.complete();
+        }
+
+        @Override
+        public double doubleValue(final CalendarDate key) {
+            if (key == null) {
+                return Double.NaN;
+            }
+            long time = myStore.filter(key.millis);
+            int row = myStore.index(time);
+            if (row >= 0 && this.isInRange(time)) {
+                return myStore.doubleValue(row, myField);
+            } else {
+                return Double.NaN;
+            }
+        }
+
+        @Override
+        public Set<Map.Entry<CalendarDate, Double>> entrySet() {
+            return new AbstractSet<Map.Entry<CalendarDate, Double>>() {
+
+                @Override
+                public Iterator<Map.Entry<CalendarDate, Double>> iterator() {
+
+                    int limit = FieldSeries.this.limit();
+
+                    return new Iterator<Map.Entry<CalendarDate, Double>>() {
+
+                        private int myNext = FieldSeries.this.first();
+
+                        public boolean hasNext() {
+                            return myNext < limit;
+                        }
+
+                        public Map.Entry<CalendarDate, Double> next() {
+
+                            if (myNext >= limit) {
+                                throw new NoSuchElementException();
+                            }
+
+                            int row = myNext++;
+
+                            return new Map.Entry<CalendarDate, Double>() {
+
+                                public CalendarDate getKey() {
+                                    return new CalendarDate(myStore.key(row));
+                                }
+
+                                public Double getValue() {
+                                    return Double.valueOf(myStore.doubleValue(row, myField));
+                                }
+
+                                public Double setValue(final Double value) {
+                                    return Double.valueOf(myStore.put(myStore.key(row), myField, value.doubleValue()));
+                                }
+
+                            };
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return FieldSeries.this.size();
+                }
+            };
+        }
+
+        public CalendarDate firstKey() {
+            int first = this.first();
+            if (first >= this.limit()) {
+                throw new NoSuchElementException();
+            }
+            return new CalendarDate(myStore.key(first));
+        }
+
+        public Double get(final CalendarDate key) {
+            long time = myStore.filter(key.millis);
+            int row = myStore.index(time);
+            if (row >= 0 && this.isInRange(time)) {
+                return Double.valueOf(myStore.doubleValue(row, myField));
+            } else {
+                return null;
+            }
+        }
+
+        @Override
+        public Double get(final Object key) {
+            if (key instanceof CalendarDate) {
+                return this.get((CalendarDate) key);
+            } else {
+                return null;
+            }
+        }
+
+        public ColourData getColour() {
+            if (myColour == null) {
+                myColour = ColourData.random();
+            }
+            return myColour;
+        }
+
+        public String getName() {
+            return myName;
+        }
+
+        @Override
+        public FieldSeries headMap(final CalendarDate toKey) {
+            return this.range(myFrom, Math.min(myTo, toKey.millis));
+        }
+
+        public CalendarDate lastKey() {
+            int limit = this.limit();
+            if (limit <= this.first()) {
+                throw new NoSuchElementException();
+            }
+            return new CalendarDate(myStore.key(limit - 1));
+        }
+
+        @Override
+        public double put(final CalendarDate key, final double value) {
+            long time = myStore.filter(key.millis);
+            if (!this.isInRange(time)) {
+                throw new IllegalArgumentException("Key out of range!");
+            }
+            return myStore.put(time, myField, value);
+        }
+
+        @Override
+        public Double put(final CalendarDate key, final Double value) {
+            double previous = this.put(key, value.doubleValue());
+            return Double.isNaN(previous) ? null : Double.valueOf(previous);
+        }
+
+        public BasicSeries<CalendarDate, Double> resample(final UnaryOperator<CalendarDate> keyTranslator) {
+
+            BasicSeries<CalendarDate, Double> retVal = ColumnarSeries.of(myStore.getResolution(), this.getName()).field(0);
+
+            retVal.setColour(this.getColour());
+            retVal.setName(this.getName());
+
+            for (Map.Entry<CalendarDate, Double> entry : this.entrySet()) {
+                retVal.put(keyTranslator.apply(entry.getKey()), entry.getValue());
+            }
+
+            return retVal;
+        }
+
+        public void setColour(final ColourData colour) {
+            myColour = colour;
+        }
+
+        public void setName(final String name) {
+            myName = name;
+        }
+
+        @Override
+        public int size() {
+            return Math.max(0, this.limit() - this.first());
+        }
+
+        public CalendarDate step(final CalendarDate key) {
+            return key.step(1, myStore.getResolution());
+        }
+
+        @Override
+        public FieldSeries subMap(final CalendarDate fromKey, final CalendarDate toKey) {
+            return this.range(Math.max(myFrom, fromKey.millis), Math.min(myTo, toKey.millis));
+        }
+
+        @Override
+        public FieldSeries tailMap(final CalendarDate fromKey) {
+            return this.range(Math.max(myFrom, fromKey.millis), myTo);
+        }
+
+        @Override
+        public String toString() {
+
+            StringBuilder retVal = new StringBuilder();
+
+            retVal.append(myName);
+            retVal.append(ASCII.NBSP);
+
+            if (myColour != null) {
+                retVal.append(TypeUtils.toHexString(myColour.getRGB()));
+                retVal.append(ASCII.NBSP);
+            }
+
+            int size = this.size();
+
+            if (size <= 30) {
+                retVal.append(super.toString());
+            } else {
+                retVal.append("First:");
+                retVal.append(this.firstKey());
+                retVal.append(ASCII.EQUALS);
+                retVal.append(this.firstValue());
+                retVal.append(ASCII.NBSP);
+                retVal.append("Last:");
+                retVal.append(this.lastKey());
+                retVal.append(ASCII.EQUALS);
+                retVal.append(this.lastValue());
+                retVal.append(ASCII.NBSP);
+                retVal.append("Size:");
+                retVal.append(size);
+            }
+
+            return retVal.toString();
+        }
+
+        private int first() {
+            return myFrom == Long.MIN_VALUE ? 0 : myStore.ceilingIndex(myFrom);
+        }
+
+        private boolean isInRange(final long time) {
+            return myFrom <= time && (time < myTo || myTo == Long.MAX_VALUE);
+        }
+
+        private int limit() {
+            return myTo == Long.MAX_VALUE ? myStore.size() : myStore.ceilingIndex(myTo);
+        }
+
+        private FieldSeries range(final long from, final long to) {
+
+            FieldSeries retVal = new FieldSeries(myStore, myField, from, to);
+
+            retVal.setColour(this.getColour());
+            retVal.setName(this.getName());
+
+            return retVal;
+        }
+
+    }
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Each value column is stored in its own memory-mapped file, named as the field with a ".bin" suffix, in
+     * the specified directory. The files are (re)mapped in larger chunks as the series grows. Note that the
+     * timestamp column is not part of this – it is always a {@code long[]} on the heap – so this is a way to
+     * keep (large amounts of) values out of the heap, not a persistence format.
+     */
+    public static ColumnarSeries mapped(final File directory, final CalendarDateUnit resolution, final String... fields) {
+
+        List<DenseArray.Factory<Double>> factories = new ArrayList<>(fields.length);
+        for (String field : fields) {
+            factories.add(BufferArray.R064.newMapped(new File(directory, field + ".bin")));
+        }
+
+        return new ColumnarSeries(factories, resolution, fields);
+    }
+
+    /**
+     * On-heap storage
+     */
+    public static ColumnarSeries of(final CalendarDateUnit resolution, final String... fields) {
+        return ColumnarSeries.of(ArrayR064.FACTORY, resolution, fields);
+    }
+
+    /**
+     * @param columnFactory Used to allocate the value columns
+     * @param resolution Any timestamp/key is filtered with this before it is used
+     * @param fields The field names – one value column per field
+     */
+    public static ColumnarSeries of(final DenseArray.Factory<Double> columnFactory, final CalendarDateUnit resolution, final String... fields) {
+
+        List<DenseArray.Factory<Double>> factories = new ArrayList<>(fields.length);
+        for (int f = 0; f < fields.length; f++) {
+            factories.add(columnFactory);
+        }
+
+        return new ColumnarSeries(factories, resolution, fields);
+    }
+
+    private int myCapacity = 0;
+    private final List<DenseArray<Double>> myColumns;
+    private int myCount = 0;
+    private final List<DenseArray.Factory<Double>> myFactories;
+    private final String[] myFields;
+    private final CalendarDateUnit myResolution;
+    private long[] myTimes = new long[INITIAL_CAPACITY];
+
+    ColumnarSeries(final List<DenseArray.Factory<Double>> factories, final CalendarDateUnit resolution, final String... fields) {
+
+        super();
+
+        if (fields.length == 0) {
+            throw new IllegalArgumentException("Need at least one field!");
+        }
+
+        myFactories = factories;
+        myResolution = resolution;
+        myFields = fields.clone();
+
+        myColumns = new ArrayList<>(fields.length);
+        for (int f = 0; f < fields.length; f++) {
+            myColumns.add(null);
+        }
+        this.ensureCapacity(INITIAL_CAPACITY);
+    }
+
+    public void append(final CalendarDate key, final double... values) {
+        this.append(key.millis, values);
+    }
+
+    /**
+     * Append a row – a timestamp and one value per field. If the timestamp is not after the last one it is
+     * inserted in order, or overwrites the row with the same timestamp.
+     */
+    public void append(final long time, final double... values) {
+
+        if (values.length != myFields.length) {
+            throw new IllegalArgumentException("Need exactly one value per field!");
+        }
+
+        long filtered = this.filter(time);
+
+        int row;
+        if (myCount == 0 || filtered > myTimes[myCount - 1]) {
+            row = myCount;
+            this.insert(row, filtered);
+        } else {
+            row = this.index(filtered);
+            if (row < 0) {
+                row = -(row + 1);
+                this.insert(row, filtered);
+            }
+        }
+
+        for (int f = 0; f < values.length; f++) {
+            myColumns.get(f).set(row, values[f]);
+        }
+    }
+
+    /**
+     * A view of the entire value column – not a copy. The size of the view is fixed to the number of rows at
+     * the time it was created.
+     */
+    public PrimitiveSeries asPrimitive(final int field) {
+        return this.asPrimitive(field, 0, myCount);
+    }
+
+    /**
+     * Closes (unmaps/releases) the value columns, if the underlying storage supports that. Don't use the
+     * series, or any views of it, afterwards.
+     */
+    public void close() {
+        for (DenseArray<Double> column : myColumns) {
+            ColumnarSeries.close(column);
+        }
+    }
+
+    /**
+     * Inserts rows for any missing timestamps, stepping by the resolution from the first to the last
+     * timestamp. The values of inserted rows are copied from the previous row (forward fill). Done in place
+     * in a single pass over the data.
+     */
+    public void complete() {
+
+        if (myCount <= 1) {
+            return;
+        }
+
+        long last = myTimes[myCount - 1];
+
+        long[] merged = new long[myCount + INITIAL_CAPACITY];
+        int count = 0;
+
+        CalendarDate grid = new CalendarDate(myTimes[0]);
+        int row = 0;
+        while (row < myCount) {
+            long time = myTimes[row];
+            if (count == merged.length) {
+                merged = Arrays.copyOf(merged, 2 * count);
+            }
+            if (grid.millis < time) {
+                merged[count++] = grid.millis;
+                grid = grid.step(1, myResolution);
+            } else {
+                merged[count++] = time;
+                row++;
+                if (grid.millis == time) {
+                    grid = grid.step(1, myResolution);
+                }
+            }
+            if (grid.millis > last) {
+                grid = new CalendarDate(Long.MAX_VALUE);
+            }
+        }
+
+        if (count == myCount) {
+            return;
+        }
+
+        this.ensureCapacity(count);
+
+        // Backwards, so that existing rows are moved (up) before they could be overwritten
+        int from = myCount - 1;
+        for (int to = count - 1; to >= 0; to--) {
+            for (DenseArray<Double> column : myColumns) {
+                column.set(to, column.doubleValue(from));
+            }
+            if (merged[to] == myTimes[from]) {
+                from--;
+            }
+        }
+
+        myTimes = merged;
+        myCount = count;
+    }
+
+    public int countFields() {
+        return myFields.length;
+    }
+
+    public double doubleValue(final int row, final int field) {
+        return myColumns.get(field).doubleValue(row);
+    }
+
+    /**
+     * A {@link BasicSeries} view of one of the fields. Modifying the view modifies this series (putting a
+     * new key inserts a row, with NaN in the other fields).
+     */
+    public BasicSeries.NaturallySequenced<CalendarDate, Double> field(final int field) {
+        if (field < 0 || field >= myFields.length) {
+            throw new IllegalArgumentException("No such field: " + field);
+        }
+        return new FieldSeries(this, field, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    public BasicSeries.NaturallySequenced<CalendarDate, Double> field(final String name) {
+        return this.field(this.getFieldIndex(name));
+    }
+
+    /**
+     * @return The row with the largest timestamp less than or equal to the specified time, or -1 if there is
+     *         no such row (the "as-of" row).
+     */
+    public int floorIndex(final long time) {
+        int retVal = this.index(time);
+        return retVal >= 0 ? retVal : -(retVal + 2);
+    }
+
+    public int getFieldIndex(final String name) {
+        for (int f = 0; f < myFields.length; f++) {
+            if (myFields[f].equals(name)) {
+                return f;
+            }
+        }
+        throw new IllegalArgumentException("No such field: " + name);
+    }
+
+    public String getFieldName(final int field) {
+        return myFields[field];
+    }
+
+    /**
+     * The timestamp column itself, not a copy. If the column has spare capacity it is first trimmed to size
+     * (that requires a copy once). Any later append will reallocate the column, and therefore never modifies
+     * an array returned by this method.
+     */
+    public long[] getPrimitiveKeys() {
+        if (myTimes.length != myCount) {
+            myTimes = Arrays.copyOf(myTimes, myCount);
+        }
+        return myTimes;
+    }
+
+    /**
+     * Combines {@link #getPrimitiveKeys()} and {@link #asPrimitive(int)} – neither keys nor values are
+     * copied.
+     */
+    public ExplicitTimeSeries getPrimitiveTimeSeries(final int field) {
+        return new ExplicitTimeSeries(this.getPrimitiveKeys(), this.asPrimitive(field));
+    }
+
+    public CalendarDateUnit getResolution() {
+        return myResolution;
+    }
+
+    /**
+     * Same contract as {@link Arrays#binarySearch(long[], long)}: The row of the timestamp if found,
+     * otherwise -(insertion point) - 1.
+     */
+    public int index(final long time) {
+
+        long[] times = myTimes;
+
+        int low = 0;
+        int high = myCount - 1;
+        boolean interpolate = true;
+
+        while (low <= high) {
+
+            long lowTime = times[low];
+            long highTime = times[high];
+
+            if (time < lowTime) {
+                return -(low + 1);
+            } else if (time > highTime) {
+                return -(high + 2);
+            }
+
+            int mid;
+            if (interpolate && highTime > lowTime) {
+                mid = low + (int) ((double) (time - lowTime) / (double) (highTime - lowTime) * (high - low));
+            } else {
+                mid = (low + high) >>> 1;
+            }
+            interpolate = !interpolate;
+
+            long midTime = times[mid];
+
+            if (midTime < time) {
+                low = mid + 1;
+            } else if (midTime > time) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+
+        return -(low + 1);
+    }
+
+    public long key(final int row) {
+        return myTimes[row];
+    }
+
+    /**
+     * Set a single value. If there is no row with that timestamp one is inserted, with NaN in all other
+     * fields.
+     *
+     * @return The previous value, or NaN
+     */
+    public double put(final long time, final int field, final double value) {
+
+        long filtered = this.filter(time);
+
+        int row = this.index(filtered);
+        if (row >= 0) {
+            DenseArray<Double> column = myColumns.get(field);
+            double retVal = column.doubleValue(row);
+            column.set(row, value);
+            return retVal;
+        }
+
+        row = -(row + 1);
+        this.insert(row, filtered);
+        myColumns.get(field).set(row, value);
+        return Double.NaN;
+    }
+
+    /**
+     * @return The number of rows (timestamps)
+     */
+    public int size() {
+        return myCount;
+    }
+
+    @Override
+    public String toString() {
+
+        StringBuilder retVal = new StringBuilder();
+
+        retVal.append(Arrays.toString(myFields));
+        retVal.append(ASCII.NBSP);
+        retVal.append(myResolution);
+        retVal.append(ASCII.NBSP);
+        retVal.append("Size:");
+        retVal.append(myCount);
+
+        if (myCount > 0) {
+            retVal.append(ASCII.NBSP);
+            retVal.append("First:");
+            retVal.append(new CalendarDate(myTimes[0]));
+            retVal.append(ASCII.NBSP);
+            retVal.append("Last:");
+            retVal.append(new CalendarDate(myTimes[myCount - 1]));
+        }
+
+        return retVal.toString();
+    }
+
+    private static void close(final Object column) {
+        if (column instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) column).close();
+            } catch (Exception cause) {
+                throw new RuntimeException(cause);
+            }
+        }
+    }
+
+    private PrimitiveSeries asPrimitive(final int field, final int first, final int size) {
+
+        return new PrimitiveSeries() {
+
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            public double value(final int index) {
+                return myColumns.get(field).doubleValue(first + index);
+            }
+
+        };
+    }
+
+    /**
+     * Make sure the value columns can hold (at least) the specified number of rows.
+     */
+    private void ensureCapacity(final int capacity) {
+
+        if (capacity <= myCapacity) {
+            return;
+        }
+
+        int newCapacity = Math.max(capacity, 2 * myCapacity);
+
+        for (int f = 0; f < myFields.length; f++) {
+
+            DenseArray<Double> old = myColumns.get(f);
+            DenseArray<Double> grown = myFactories.get(f).make(newCapacity);
+
+            for (int i = myCapacity; i < newCapacity; i++) {
+                grown.set(i, Double.NaN);
+            }
+            if (old != null) {
+                for (int i = 0; i < myCount; i++) {
+                    grown.set(i, old.doubleValue(i));
+                }
+                ColumnarSeries.close(old);
+            }
+
+            myColumns.set(f, grown);
+        }
+
+        myCapacity = newCapacity;
+    }
+
+    private long filter(final long time) {
+        return myResolution.adjustInto(time);
+    }
+
+    /**
+     * Insert a new row, with NaN in all fields, at the specified position.
+     */
+    private void insert(final int row, final long time) {
+
+        if (myCount == myTimes.length) {
+            myTimes = Arrays.copyOf(myTimes, Math.max(INITIAL_CAPACITY, 2 * myCount));
+        }
+        this.ensureCapacity(myCount + 1);
+
+        if (row < myCount) {
+            System.arraycopy(myTimes, row, myTimes, row + 1, myCount - row);
+            for (DenseArray<Double> column : myColumns) {
+                for (int i = myCount; i > row; i--) {
+                    column.set(i, column.doubleValue(i - 1));
+                }
+            }
+        }
+
+        myTimes[row] = time;
+        for (DenseArray<Double> column : myColumns) {
+            column.set(row, Double.NaN);
+        }
+
+        myCount++;
+    }
+
+    int ceilingIndex(final long time) {
+        int retVal = this.index(time);
+        return retVal >= 0 ? retVal : -(retVal + 1);
+    }
+
+}
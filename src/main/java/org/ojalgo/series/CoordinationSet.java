@@ -22,13 +22,18 @@
 package org.ojalgo.series;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeSet;
 
+import org.ojalgo.concurrent.Parallelism;
+import org.ojalgo.concurrent.ProcessingService;
+import org.ojalgo.matrix.store.R064Store;
 import org.ojalgo.netio.ASCII;
+import org.ojalgo.series.primitive.ExplicitTimeSeries;
 import org.ojalgo.type.CalendarDate;
 import org.ojalgo.type.CalendarDateUnit;
 
@@ -86,6 +91,22 @@ public class CoordinationSet<N extends Comparable<N>> extends HashMap<String, Ca
         super(members);
     }
 
+    /**
+     * Resamples all series to the resolution and aligns them on a common grid, from the latest first key to
+     * the earliest last key (same range as {@link #prune(CalendarDateUnit)}), so there are no missing values.
+     * Unlike {@link #resample(CalendarDateUnit)} and {@link #complete()} this is done using primitive arrays,
+     * and in parallel.
+     *
+     * @return The rows are the {@link SeriesAligner#grid(CalendarDateUnit, long, long)} timestamps, and the
+     *         columns are the series in {@link #getAllSeriesNames()} order.
+     */
+    public R064Store align(final CalendarDateUnit resolution, final SeriesAligner.Policy policy) {
+
+        long[] grid = SeriesAligner.grid(resolution, this.getLatestFirstKey().millis, this.getEarliestLastKey().millis);
+
+        return SeriesAligner.align(grid, this.getPrimitiveTimeSeries(), policy, resolution);
+    }
+
     /**
      * Will call {@link CalendarDateSeries#complete()} on each of the instances in this set.
      */
@@ -123,6 +144,19 @@ public class CoordinationSet<N extends Comparable<N>> extends HashMap<String, Ca
         return new ArrayList<>(retVal);
     }
 
+    /**
+     * Same as {@link #getAllCalendarDates()}, but as primitive timestamps merged from the series' keys.
+     */
+    public long[] getAllPrimitiveKeys() {
+
+        List<long[]> keys = new ArrayList<>(this.size());
+        for (CalendarDateSeries<N> series : this.values()) {
+            keys.add(series.getPrimitiveKeys());
+        }
+
+        return SeriesAligner.merge(keys);
+    }
+
     public List<String> getAllSeriesNames() {
         return new ArrayList<>(this.keySet());
     }
@@ -162,6 +196,25 @@ public class CoordinationSet<N extends Comparable<N>> extends HashMap<String, Ca
         return myResolution;
     }
 
+    /**
+     * @return The series, in {@link #getAllSeriesNames()} order, converted (in parallel) to primitive time
+     *         series.
+     */
+    public List<ExplicitTimeSeries> getPrimitiveTimeSeries() {
+
+        List<String> names = this.getAllSeriesNames();
+
+        ExplicitTimeSeries[] retVal = new ExplicitTimeSeries[names.size()];
+
+        ProcessingService.INSTANCE.divider().threshold(SeriesAligner.THRESHOLD).parallelism(Parallelism.CORES).divide(0, retVal.length, (first, limit) -> {
+            for (int i = first; i < limit; i++) {
+                retVal[i] = this.get(names.get(i)).getPrimitiveTimeSeries();
+            }
+        });
+
+        return Arrays.asList(retVal);
+    }
+
     public N getValue(final String series, final CalendarDate date) {
         return this.get(series).get(date);
     }
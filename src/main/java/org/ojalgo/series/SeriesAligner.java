@@ -0,0 +1,209 @@
+/*
+ * Copyright 1997-2025 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.series;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.LongUnaryOperator;
+
+import org.ojalgo.concurrent.Parallelism;
+import org.ojalgo.concurrent.ProcessingService;
+import org.ojalgo.data.DataProcessors;
+import org.ojalgo.matrix.store.R064Store;
+import org.ojalgo.series.primitive.PrimitiveTimeSeries;
+import org.ojalgo.type.CalendarDateUnit;
+
+/**
+ * Aligns many time series onto one common set of timestamps, producing a dense {@link R064Store} with one
+ * row per timestamp and one column per series – variables in columns and samples in rows, as
+ * {@link DataProcessors#covariances(org.ojalgo.structure.Factory2D, org.ojalgo.structure.Access2D)} expects.
+ * <p>
+ * Everything is done on primitive timestamp arrays ({@link PrimitiveTimeSeries#keys()}). Each series is
+ * aligned with a single merge-like pass over its keys and the target timestamps – O(n + m) rather than a
+ * lookup per target timestamp – and the series (columns) are aligned in parallel.
+ * <p>
+ * The value at a target timestamp is "as-of" that timestamp: determined by the observations at or before it.
+ * Before the first observation of a series the value is NaN. After the last observation it is the last
+ * observed value.
+ */
+public final class SeriesAligner {
+
+    public enum Policy {
+
+        /**
+         * The most recent observation at or before the target timestamp.
+         */
+        FORWARD_FILL,
+        /**
+         * Linear interpolation (in time) between the observations before and after the target timestamp.
+         * If there is an observation at the target timestamp that value is used as is.
+         */
+        INTERPOLATE;
+
+    }
+
+    /**
+     * Min number of series (columns) per parallel task
+     */
+    static int THRESHOLD = 16;
+
+    /**
+     * An as-of join: Aligns the series onto the given, sorted, timestamps. The observations are used at
+     * their exact timestamps.
+     *
+     * @param times The target timestamps – the rows of the returned matrix
+     * @param series The series to align – the columns of the returned matrix
+     */
+    public static R064Store align(final long[] times, final List<? extends PrimitiveTimeSeries> series, final Policy policy) {
+        return SeriesAligner.align(times, series, policy, LongUnaryOperator.identity());
+    }
+
+    /**
+     * Resampling: Each observation is first mapped to its {@link CalendarDateUnit#adjustInto(long)} bucket,
+     * and the target timestamps should be bucket timestamps as well – typically as generated by
+     * {@link #grid(CalendarDateUnit, long, long)}. If there are several observations in a bucket the last one
+     * is used, same as with {@link CalendarDateSeries#resample(CalendarDateUnit)}.
+     */
+    public static R064Store align(final long[] grid, final List<? extends PrimitiveTimeSeries> series, final Policy policy, final CalendarDateUnit resolution) {
+        return SeriesAligner.align(grid, series, policy, resolution::adjustInto);
+    }
+
+    /**
+     * @return All the bucket timestamps, at the given resolution, from (the bucket of) first to (the bucket
+     *         of) last, inclusive.
+     */
+    public static long[] grid(final CalendarDateUnit resolution, final long first, final long last) {
+
+        long start = resolution.adjustInto(first);
+        long end = resolution.adjustInto(last);
+        long step = resolution.toDurationInMillis();
+
+        if (end < start) {
+            return new long[0];
+        }
+
+        long[] retVal = new long[Math.toIntExact((end - start) / step + 1L)];
+        for (int i = 0; i < retVal.length; i++) {
+            retVal[i] = start + i * step;
+        }
+        return retVal;
+    }
+
+    /**
+     * A k-way merge of the series' (sorted) keys.
+     *
+     * @return All distinct timestamps, sorted
+     */
+    public static long[] merge(final List<long[]> keys) {
+
+        int[] positions = new int[keys.size()];
+        PriorityQueue<Integer> heap = new PriorityQueue<>(Math.max(1, keys.size()),
+                (s1, s2) -> Long.compare(keys.get(s1)[positions[s1]], keys.get(s2)[positions[s2]]));
+
+        int total = 0;
+        for (int s = 0; s < keys.size(); s++) {
+            if (keys.get(s).length > 0) {
+                heap.add(s);
+                total += keys.get(s).length;
+            }
+        }
+
+        long[] retVal = new long[total];
+        int count = 0;
+
+        while (!heap.isEmpty()) {
+
+            int s = heap.poll();
+            long[] sKeys = keys.get(s);
+
+            long key = sKeys[positions[s]];
+            if (count == 0 || key != retVal[count - 1]) {
+                retVal[count++] = key;
+            }
+
+            if (++positions[s] < sKeys.length) {
+                heap.add(s);
+            }
+        }
+
+        return count == retVal.length ? retVal : Arrays.copyOf(retVal, count);
+    }
+
+    private static R064Store align(final long[] times, final List<? extends PrimitiveTimeSeries> series, final Policy policy, final LongUnaryOperator bucket) {
+
+        int nbRows = times.length;
+        int nbCols = series.size();
+
+        R064Store retVal = R064Store.FACTORY.make(nbRows, nbCols);
+        double[] data = retVal.data;
+
+        ProcessingService.INSTANCE.divider().threshold(THRESHOLD).parallelism(Parallelism.CORES).divide(0, nbCols, (first, limit) -> {
+            for (int j = first; j < limit; j++) {
+                SeriesAligner.column(times, series.get(j), policy, bucket, data, j * nbRows);
+            }
+        });
+
+        return retVal;
+    }
+
+    /**
+     * Merge the target timestamps with the series' keys (both sorted) in a single pass.
+     */
+    private static void column(final long[] times, final PrimitiveTimeSeries series, final Policy policy, final LongUnaryOperator bucket,
+            final double[] output, final int offset) {
+
+        long[] keys = series.keys();
+        int nbKeys = keys.length;
+
+        // The last observation with bucket <= target timestamp
+        int latest = -1;
+
+        for (int i = 0; i < times.length; i++) {
+
+            long time = times[i];
+
+            while (latest + 1 < nbKeys && bucket.applyAsLong(keys[latest + 1]) <= time) {
+                latest++;
+            }
+
+            double value;
+            if (latest < 0) {
+                value = Double.NaN;
+            } else if (policy == Policy.FORWARD_FILL || latest + 1 == nbKeys || bucket.applyAsLong(keys[latest]) == time) {
+                value = series.value(latest);
+            } else {
+                long before = keys[latest];
+                long after = keys[latest + 1];
+                double factor = (double) (time - before) / (double) (after - before);
+                value = series.value(latest) + factor * (series.value(latest + 1) - series.value(latest));
+            }
+
+            output[offset + i] = value;
+        }
+    }
+
+    private SeriesAligner() {
+        super();
+    }
+
+}
@@ -81,6 +81,16 @@ public abstract class PrimitiveSeries implements Access1D<Double> {
         return this.value(index);
     }
 
+    /**
+     * Exponentially weighted moving average: The first value is the first value of this series, and then
+     * average(i) = average(i-1) + smoothing * (value(i) - average(i-1)).
+     *
+     * @param smoothing The weight of the most recent value, in (0, 1]
+     */
+    public PrimitiveSeries ewma(final double smoothing) {
+        return new RollingSeries.Exponential(this, smoothing);
+    }
+
     public PrimitiveSeries exp() {
         return new UnaryFunctionSeries(this, PrimitiveMath.EXP);
     }
@@ -125,6 +135,34 @@ public abstract class PrimitiveSeries implements Access1D<Double> {
         return new QuotientsSeries(this, period);
     }
 
+    /**
+     * Rolling (sample) covariance between this and the other series, over a window of the specified
+     * length. Like the other rolling window series the result has size() - window + 1 values, calculated in
+     * a single O(n) pass the first time any value is requested.
+     */
+    public PrimitiveSeries rollingCovariance(final PrimitiveSeries other, final int window) {
+        return new RollingSeries.Moments(this, window, true, other);
+    }
+
+    public PrimitiveSeries rollingMaximum(final int window) {
+        return new RollingSeries.Extremum(this, window, true);
+    }
+
+    public PrimitiveSeries rollingMean(final int window) {
+        return new RollingSeries.Moments(this, window, false, null);
+    }
+
+    public PrimitiveSeries rollingMinimum(final int window) {
+        return new RollingSeries.Extremum(this, window, false);
+    }
+
+    /**
+     * Rolling (sample) variance
+     */
+    public PrimitiveSeries rollingVariance(final int window) {
+        return new RollingSeries.Moments(this, window, true, null);
+    }
+
     public PrimitiveSeries runningProduct(final double initialValue) {
 
         int tmpNewSize = this.size() + 1;
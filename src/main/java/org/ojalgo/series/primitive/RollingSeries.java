@@ -0,0 +1,337 @@
+/*
+ * Copyright 1997-2025 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.series.primitive;
+
+import org.ojalgo.function.constant.PrimitiveMath;
+
+/**
+ * Rolling (moving) window statistics, with each value calculated from the previous one in amortised O(1)
+ * time. Minimum and maximum use a monotonic deque of indices. Mean, variance and covariance use compensated
+ * running sums: the value entering the window is added and the value leaving it is subtracted, and once
+ * every window length the sums are recalculated from the current window, so no rounding error can build up.
+ * Values that are not finite (NaN or infinite) are kept out of the deque and the sums, and counted instead – all
+ * the statistics are NaN for exactly those windows that contain such a value.
+ * <p>
+ * Evaluation is lazy: nothing is calculated until a value is requested. Then all values are calculated in
+ * one pass and kept.
+ * <p>
+ * A rolling series with window w has size() - w + 1 values. The value at index i is calculated from the
+ * source values at [i, i + w).
+ */
+abstract class RollingSeries extends PrimitiveSeries {
+
+    static final class Extremum extends RollingSeries {
+
+        private final boolean myMaximum;
+
+        Extremum(final PrimitiveSeries series, final int window, final boolean maximum) {
+            super(series, window);
+            myMaximum = maximum;
+        }
+
+        @Override
+        void calculate(final double[] output) {
+
+            double[] values = this.getSeries().values();
+            int window = this.getWindow();
+
+            // Ring buffer of indices, with values monotonically decreasing (max) or increasing (min)
+            int[] deque = new int[window];
+            int head = 0;
+            int count = 0;
+            // Non-finite values in the window, kept out of the deque
+            int nbMissing = 0;
+
+            for (int i = 0; i < values.length; i++) {
+
+                double value = values[i];
+
+                if (count > 0 && deque[head] <= i - window) {
+                    head = (head + 1) % window;
+                    count--;
+                }
+                if (i >= window && !Double.isFinite(values[i - window])) {
+                    nbMissing--;
+                }
+
+                if (Double.isFinite(value)) {
+
+                    while (count > 0) {
+                        double last = values[deque[(head + count - 1) % window]];
+                        if (myMaximum ? last <= value : last >= value) {
+                            count--;
+                        } else {
+                            break;
+                        }
+                    }
+
+                    deque[(head + count) % window] = i;
+                    count++;
+
+                } else {
+                    nbMissing++;
+                }
+
+                int first = i - window + 1;
+                if (first >= 0) {
+                    output[first] = nbMissing > 0 ? PrimitiveMath.NaN : values[deque[head]];
+                }
+            }
+        }
+
+    }
+
+    /**
+     * Exponentially weighted moving average
+     */
+    static final class Exponential extends RollingSeries {
+
+        private final double mySmoothing;
+
+        Exponential(final PrimitiveSeries series, final double smoothing) {
+
+            super(series, 1);
+
+            if (smoothing <= PrimitiveMath.ZERO || smoothing > PrimitiveMath.ONE) {
+                throw new IllegalArgumentException("The smoothing factor must be in (0, 1]!");
+            }
+
+            mySmoothing = smoothing;
+        }
+
+        @Override
+        void calculate(final double[] output) {
+
+            PrimitiveSeries series = this.getSeries();
+
+            if (output.length > 0) {
+                double average = output[0] = series.value(0);
+                for (int i = 1; i < output.length; i++) {
+                    output[i] = average += mySmoothing * (series.value(i) - average);
+                }
+            }
+        }
+
+    }
+
+    /**
+     * Mean, variance or covariance. Variance is the covariance of a series with itself. The (co)variances
+     * are sample (co)variances, divided by w - 1.
+     */
+    static final class Moments extends RollingSeries {
+
+        private static double firstFinite(final double[] values) {
+            for (int i = 0; i < values.length; i++) {
+                if (Double.isFinite(values[i])) {
+                    return values[i];
+                }
+            }
+            return PrimitiveMath.ZERO;
+        }
+
+        private final boolean myCentral;
+        private final PrimitiveSeries mySecond;
+
+        Moments(final PrimitiveSeries series, final int window, final boolean central, final PrimitiveSeries second) {
+
+            super(series, window);
+
+            if (central && window < 2) {
+                throw new IllegalArgumentException("The window must be at least 2!");
+            }
+            if (second != null && second.size() != series.size()) {
+                throw new IllegalArgumentException("The series must have the same size!");
+            }
+
+            myCentral = central;
+            mySecond = second;
+        }
+
+        @Override
+        void calculate(final double[] output) {
+
+            double[] x = this.getSeries().values();
+            double[] y = mySecond != null ? mySecond.values() : x;
+            int window = this.getWindow();
+
+            if (x.length < window) {
+                return;
+            }
+
+            // Shifting by a value close to the mean reduces cancellation in the (co)variance
+            double shiftX = Moments.firstFinite(x);
+            double shiftY = Moments.firstFinite(y);
+
+            Sum sumX = new Sum();
+            Sum sumY = new Sum();
+            Sum sumXY = new Sum();
+            // Number of (pairs of) values, in the window, that are not finite – left out of the sums
+            int nbMissing = 0;
+
+            for (int i = 0; i < x.length; i++) {
+
+                int first = i - window + 1;
+
+                if (first > 0 && first % window == 0) {
+                    sumX.reset();
+                    sumY.reset();
+                    sumXY.reset();
+                    nbMissing = 0;
+                    for (int j = first; j <= i; j++) {
+                        if (Double.isFinite(x[j]) && Double.isFinite(y[j])) {
+                            double dx = x[j] - shiftX;
+                            double dy = y[j] - shiftY;
+                            sumX.add(dx);
+                            sumY.add(dy);
+                            sumXY.add(dx * dy);
+                        } else {
+                            nbMissing++;
+                        }
+                    }
+                } else {
+                    if (Double.isFinite(x[i]) && Double.isFinite(y[i])) {
+                        double dx = x[i] - shiftX;
+                        double dy = y[i] - shiftY;
+                        sumX.add(dx);
+                        sumY.add(dy);
+                        sumXY.add(dx * dy);
+                    } else {
+                        nbMissing++;
+                    }
+                    if (first > 0) {
+                        int j = first - 1;
+                        if (Double.isFinite(x[j]) && Double.isFinite(y[j])) {
+                            double dx = x[j] - shiftX;
+                            double dy = y[j] - shiftY;
+                            sumX.add(-dx);
+                            sumY.add(-dy);
+                            sumXY.add(-dx * dy);
+                        } else {
+                            nbMissing--;
+                        }
+                    }
+                }
+
+                if (first >= 0) {
+                    if (nbMissing > 0) {
+                        output[first] = Double.NaN;
+                    } else if (myCentral) {
+                        double covariance = (sumXY.value() - sumX.value() * sumY.value() / window) / (window - 1);
+                        output[first] = mySecond != null ? covariance : Math.max(PrimitiveMath.ZERO, covariance);
+                    } else {
+                        output[first] = shiftX + sumX.value() / window;
+                    }
+                }
+            }
+        }
+
+    }
+
+    /**
+     * Neumaier's improved Kahan–Babuška summation
+     */
+    private static final class Sum {
+
+        private double myCompensation = PrimitiveMath.ZERO;
+        private double myValue = PrimitiveMath.ZERO;
+
+        void add(final double addend) {
+            double sum = myValue + addend;
+            if (Math.abs(myValue) >= Math.abs(addend)) {
+                myCompensation += myValue - sum + addend;
+            } else {
+                myCompensation += addend - sum + myValue;
+            }
+            myValue = sum;
+        }
+
+        void reset() {
+            myCompensation = PrimitiveMath.ZERO;
+            myValue = PrimitiveMath.ZERO;
+        }
+
+        double value() {
+            return myValue + myCompensation;
+        }
+
+    }
+
+    private final PrimitiveSeries mySeries;
+    private volatile double[] myValues = null;
+    private final int myWindow;
+
+    RollingSeries(final PrimitiveSeries series, final int window) {
+
+        super();
+
+        if (window < 1) {
+            throw new IllegalArgumentException("The window must be at least 1!");
+        }
+
+        mySeries = series;
+        myWindow = window;
+    }
+
+    @Override
+    public int size() {
+        return Math.max(0, mySeries.size() - myWindow + 1);
+    }
+
+    @Override
+    public double value(final int index) {
+        return this.getValues()[index];
+    }
+
+    @Override
+    public double[] values() {
+        return this.getValues().clone();
+    }
+
+    private double[] getValues() {
+        double[] retVal = myValues;
+        if (retVal == null) {
+            retVal = new double[this.size()];
+            this.calculate(retVal);
+            myValues = retVal;
+        }
+        return retVal;
+    }
+
+    abstract void calculate(double[] output);
+
+    PrimitiveSeries getSeries() {
+        return mySeries;
+    }
+
+    int getWindow() {
+        return myWindow;
+    }
+
+    /**
+     * Calculate all values now (if not already done)
+     */
+    RollingSeries materialise() {
+        this.getValues();
+        return this;
+    }
+
+}
@@ -21,6 +21,10 @@
  */
 package org.ojalgo.series.primitive;
 
+import java.util.function.Function;
+
+import org.ojalgo.concurrent.Parallelism;
+import org.ojalgo.concurrent.ProcessingService;
 import org.ojalgo.data.DataProcessors;
 import org.ojalgo.structure.Access2D;
 import org.ojalgo.structure.Factory2D;
@@ -47,6 +51,13 @@ public class SeriesSet {
         return new SeriesSet(retSet);
     }
 
+    /**
+     * @see PrimitiveSeries#ewma(double)
+     */
+    public SeriesSet ewma(final double smoothing) {
+        return this.rolling(series -> new RollingSeries.Exponential(series, smoothing));
+    }
+
     public <M extends Mutate2D> M getCorrelations(final Factory2D<M> factory) {
         return DataProcessors.correlations(factory, mySet);
     }
@@ -94,4 +105,37 @@ public class SeriesSet {
         return new SeriesSet(retSet);
     }
 
+    public SeriesSet rollingMaximum(final int window) {
+        return this.rolling(series -> new RollingSeries.Extremum(series, window, true));
+    }
+
+    public SeriesSet rollingMean(final int window) {
+        return this.rolling(series -> new RollingSeries.Moments(series, window, false, null));
+    }
+
+    public SeriesSet rollingMinimum(final int window) {
+        return this.rolling(series -> new RollingSeries.Extremum(series, window, false));
+    }
+
+    public SeriesSet rollingVariance(final int window) {
+        return this.rolling(series -> new RollingSeries.Moments(series, window, true, null));
+    }
+
+    /**
+     * Unlike the other methods, that create lazily evaluated series, the rolling window series are
+     * calculated immediately – one series (column) per task, in parallel.
+     */
+    private SeriesSet rolling(final Function<PrimitiveSeries, RollingSeries> operator) {
+
+        PrimitiveSeries[] retSet = new PrimitiveSeries[mySet.length];
+
+        ProcessingService.INSTANCE.divider().threshold(1).parallelism(Parallelism.CORES).divide(0, retSet.length, (first, limit) -> {
+            for (int i = first; i < limit; i++) {
+                retSet[i] = operator.apply(mySet[i]).materialise();
+            }
+        });
+
+        return new SeriesSet(retSet);
+    }
+
 }
@@ -165,6 +165,32 @@ public final class AnyTensor<N extends Comparable<N>> extends ArrayBasedTensor<N
         return retVal;
     }
 
+    /**
+     * An einsum-style contraction with another tensor, e.g. "ijk,kl->ijl". See {@link TensorContraction}
+     * for details. The calculation is done in double precision regardless of the element type.
+     */
+    public AnyTensor<N> contract(final String specification, final AnyTensor<N> other) {
+
+        if (other.dimensions() != this.dimensions()) {
+            throw new IllegalArgumentException("The tensors must have the same number of dimensions!");
+        }
+
+        TensorContraction contraction = TensorContraction.of(specification, this.shape(), other.shape());
+
+        long[] shape = contraction.shape();
+        for (int i = 0; i < shape.length; i++) {
+            if (shape[i] != this.dimensions()) {
+                throw new IllegalArgumentException("The result would not be a tensor: " + Arrays.toString(shape));
+            }
+        }
+
+        AnyTensor<N> retVal = new AnyTensor<>(myFactory, shape.length, this.dimensions());
+
+        contraction.invoke(myArray, other.getArray(), retVal.getArray());
+
+        return retVal;
+    }
+
     @Override
     public long count(final int dimension) {
         return myArray.count(dimension);
@@ -0,0 +1,369 @@
+/*
+ * Copyright 1997-2025 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.tensor;
+
+import java.util.Arrays;
+import java.util.function.IntSupplier;
+
+import org.ojalgo.array.ArrayAnyD;
+import org.ojalgo.concurrent.Parallelism;
+import org.ojalgo.concurrent.ProcessingService;
+import org.ojalgo.matrix.operation.MultiplyNeither;
+import org.ojalgo.structure.Access1D;
+import org.ojalgo.structure.AccessAnyD;
+import org.ojalgo.structure.Mutate1D;
+import org.ojalgo.structure.StructureAnyD;
+
+/**
+ * An einsum-style contraction of two tensors, such as "ij,jk->ik" (matrix multiplication), "bij,bjk->bik"
+ * (batched matrix multiplication) or "ijk,jl->ilk" (mode-n product).
+ * <p>
+ * The index mapping is planned once, when the instance is created, for a specific specification and pair of
+ * operand shapes. Each index label is classified as a batch index (present in both operands and in the
+ * result), a contracted index (present in both operands but not in the result), a free left/right index
+ * (present in one operand and in the result) or a summed index (present in only one operand). For every
+ * batch the operands are then packed into contiguous column-major [free × contracted] and [contracted × free]
+ * blocks using precomputed offset tables, and the inner product is delegated to
+ * {@link MultiplyNeither#newPrimitive64(long, long)}. Independent batches are processed in parallel.
+ * <p>
+ * Labels are single letters; a label may occur at most once per operand. If the "->" part is omitted the
+ * result consists of the labels that occur exactly once, in alphabetical order (same as numpy). A full
+ * contraction (no result labels) produces a single element rank 1 result. All calculations are done in
+ * double precision.
+ *
+ * @author apete
+ */
+public final class TensorContraction {
+
+    public static IntSupplier PARALLELISM = Parallelism.THREADS;
+    /**
+     * The minimum number of multiply-add operations required before batches are processed in parallel.
+     */
+    public static int THRESHOLD = 32_768;
+
+    /**
+     * Convenience method that plans and executes a contraction in one go. When the same contraction is to be
+     * performed repeatedly, instantiate it once using {@link #of(String, long[], long[])} instead.
+     */
+    public static ArrayAnyD<Double> einsum(final String specification, final AccessAnyD<?> left, final AccessAnyD<?> right) {
+        return TensorContraction.of(specification, left.shape(), right.shape()).invoke(left, right);
+    }
+
+    public static TensorContraction of(final String specification, final long[] leftShape, final long[] rightShape) {
+
+        String spec = specification.replaceAll("\\s", "");
+
+        int arrow = spec.indexOf("->");
+        String operands = arrow >= 0 ? spec.substring(0, arrow) : spec;
+
+        int comma = operands.indexOf(',');
+        if (comma < 0 || operands.indexOf(',', comma + 1) >= 0) {
+            throw new IllegalArgumentException("Exactly 2 operands required: " + specification);
+        }
+
+        char[] left = TensorContraction.labels(operands.substring(0, comma), leftShape.length, specification);
+        char[] right = TensorContraction.labels(operands.substring(comma + 1), rightShape.length, specification);
+        char[] result = arrow >= 0 ? TensorContraction.labels(spec.substring(arrow + 2), -1, specification) : TensorContraction.implicit(left, right);
+
+        return new TensorContraction(left, leftShape, right, rightShape, result);
+    }
+
+    private static long[] dimensions(final char[] labels, final long[] dimensions) {
+        long[] retVal = new long[labels.length];
+        for (int i = 0; i < labels.length; i++) {
+            retVal[i] = dimensions[labels[i]];
+        }
+        return retVal;
+    }
+
+    private static char[] implicit(final char[] left, final char[] right) {
+
+        StringBuilder builder = new StringBuilder();
+
+        for (char label = 'A'; label <= 'z'; label++) {
+            if (TensorContraction.indexOf(left, label) >= 0 ^ TensorContraction.indexOf(right, label) >= 0) {
+                builder.append(label);
+            }
+        }
+
+        return builder.toString().toCharArray();
+    }
+
+    private static int indexOf(final char[] labels, final char label) {
+        for (int i = 0; i < labels.length; i++) {
+            if (labels[i] == label) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static char[] labels(final String term, final int rank, final String specification) {
+
+        char[] retVal = term.toCharArray();
+
+        if (rank >= 0 && retVal.length != rank) {
+            throw new IllegalArgumentException("Term '" + term + "' doesn't match an operand of rank " + rank + ": " + specification);
+        }
+
+        for (int i = 0; i < retVal.length; i++) {
+            if (!Character.isLetter(retVal[i]) || retVal[i] > 'z') {
+                throw new IllegalArgumentException("Illegal label '" + retVal[i] + "': " + specification);
+            }
+            if (TensorContraction.indexOf(retVal, retVal[i]) != i) {
+                throw new IllegalArgumentException("Repeated label '" + retVal[i] + "': " + specification);
+            }
+        }
+
+        return retVal;
+    }
+
+    /**
+     * Flat offsets (into an operand with the given labels and shape) for every combination of the selected
+     * labels, enumerated with the first label varying fastest. Labels not present in the operand contribute
+     * nothing.
+     */
+    private static long[] offsets(final char[] selected, final long[] dimensions, final char[] labels, final long[] shape) {
+
+        int nbSelected = selected.length;
+
+        long[] strides = new long[nbSelected];
+        int[] counts = new int[nbSelected];
+        int total = 1;
+
+        for (int s = 0; s < nbSelected; s++) {
+            int position = TensorContraction.indexOf(labels, selected[s]);
+            if (position >= 0) {
+                long stride = 1L;
+                for (int p = 0; p < position; p++) {
+                    stride *= shape[p];
+                }
+                strides[s] = stride;
+            }
+            counts[s] = Math.toIntExact(dimensions[selected[s]]);
+            total = Math.multiplyExact(total, counts[s]);
+        }
+
+        long[] retVal = new long[total];
+
+        int[] reference = new int[nbSelected];
+        long offset = 0L;
+        for (int i = 0; i < total; i++) {
+            retVal[i] = offset;
+            for (int s = 0; s < nbSelected; s++) {
+                if (++reference[s] < counts[s]) {
+                    offset += strides[s];
+                    break;
+                }
+                offset -= strides[s] * (counts[s] - 1);
+                reference[s] = 0;
+            }
+        }
+
+        return retVal;
+    }
+
+    /**
+     * Packs an operand into a column-major [free × inner] (left) or [inner × free] (right) block.
+     */
+    private static void pack(final double[] packed, final Access1D<?> operand, final long base, final long[] free, final long[] inner,
+            final long[] summed, final boolean freeFirst) {
+
+        int nbFree = free.length;
+        int nbInner = inner.length;
+        int nbSummed = summed.length;
+
+        for (int p = 0; p < nbInner; p++) {
+            for (int f = 0; f < nbFree; f++) {
+                long offset = base + free[f] + inner[p];
+                double value = 0D;
+                for (int s = 0; s < nbSummed; s++) {
+                    value += operand.doubleValue(offset + summed[s]);
+                }
+                packed[freeFirst ? f + p * nbFree : p + f * nbInner] = value;
+            }
+        }
+    }
+
+    /**
+     * The candidate labels (in that order) that are in the first set and not in the second. Either set may be
+     * null meaning that criteria is ignored.
+     */
+    private static char[] select(final char[] candidates, final char[] in, final char[] notIn) {
+
+        StringBuilder builder = new StringBuilder();
+
+        for (char label : candidates) {
+            if ((in == null || TensorContraction.indexOf(in, label) >= 0) && (notIn == null || TensorContraction.indexOf(notIn, label) < 0)) {
+                builder.append(label);
+            }
+        }
+
+        return builder.toString().toCharArray();
+    }
+
+    private final long[] myLeftBatch;
+    private final long[] myLeftFree;
+    private final long[] myLeftInner;
+    private final long[] myLeftShape;
+    private final long[] myLeftSummed;
+    private final long[] myResultBatch;
+    private final long[] myResultLeft;
+    private final long[] myResultRight;
+    private final long[] myResultShape;
+    private final long[] myRightBatch;
+    private final long[] myRightFree;
+    private final long[] myRightInner;
+    private final long[] myRightShape;
+    private final long[] myRightSummed;
+
+    private TensorContraction(final char[] left, final long[] leftShape, final char[] right, final long[] rightShape, final char[] result) {
+
+        super();
+
+        long[] dimensions = new long['z' + 1];
+
+        for (int i = 0; i < left.length; i++) {
+            dimensions[left[i]] = leftShape[i];
+        }
+        for (int i = 0; i < right.length; i++) {
+            long prev = dimensions[right[i]];
+            if (prev != 0L && prev != rightShape[i]) {
+                throw new IllegalArgumentException("Dimension mismatch for label '" + right[i] + "': " + prev + " != " + rightShape[i]);
+            }
+            dimensions[right[i]] = rightShape[i];
+        }
+        for (char label : result) {
+            if (dimensions[label] == 0L) {
+                throw new IllegalArgumentException("Result label '" + label + "' not present in any operand!");
+            }
+        }
+
+        char[] batch = TensorContraction.select(TensorContraction.select(result, left, null), right, null);
+        char[] freeLeft = TensorContraction.select(result, left, right);
+        char[] freeRight = TensorContraction.select(result, right, left);
+        char[] inner = TensorContraction.select(left, right, result);
+        char[] summedLeft = TensorContraction.select(TensorContraction.select(left, null, right), null, result);
+        char[] summedRight = TensorContraction.select(TensorContraction.select(right, null, left), null, result);
+
+        myLeftShape = leftShape.clone();
+        myRightShape = rightShape.clone();
+        myResultShape = result.length > 0 ? TensorContraction.dimensions(result, dimensions) : new long[] { 1L };
+
+        myLeftBatch = TensorContraction.offsets(batch, dimensions, left, leftShape);
+        myLeftFree = TensorContraction.offsets(freeLeft, dimensions, left, leftShape);
+        myLeftInner = TensorContraction.offsets(inner, dimensions, left, leftShape);
+        myLeftSummed = TensorContraction.offsets(summedLeft, dimensions, left, leftShape);
+
+        myRightBatch = TensorContraction.offsets(batch, dimensions, right, rightShape);
+        myRightFree = TensorContraction.offsets(freeRight, dimensions, right, rightShape);
+        myRightInner = TensorContraction.offsets(inner, dimensions, right, rightShape);
+        myRightSummed = TensorContraction.offsets(summedRight, dimensions, right, rightShape);
+
+        myResultBatch = TensorContraction.offsets(batch, dimensions, result, myResultShape);
+        myResultLeft = TensorContraction.offsets(freeLeft, dimensions, result, myResultShape);
+        myResultRight = TensorContraction.offsets(freeRight, dimensions, result, myResultShape);
+    }
+
+    /**
+     * Creates a new {@link ArrayAnyD#R064} instance of the appropriate shape, and fills it with the result.
+     */
+    public ArrayAnyD<Double> invoke(final Access1D<?> left, final Access1D<?> right) {
+
+        ArrayAnyD<Double> retVal = ArrayAnyD.R064.make(myResultShape);
+
+        this.invoke(left, right, retVal);
+
+        return retVal;
+    }
+
+    /**
+     * @param left The left operand, elements in the same (first index varies fastest) order as
+     *        {@link StructureAnyD#index(long[], long[])}
+     * @param right The right operand
+     * @param result Receives the result – every element is overwritten
+     */
+    public void invoke(final Access1D<?> left, final Access1D<?> right, final Mutate1D result) {
+
+        if (left.count() != StructureAnyD.count(myLeftShape) || right.count() != StructureAnyD.count(myRightShape)) {
+            throw new IllegalArgumentException("The operands don't match the shapes this contraction was planned for!");
+        }
+
+        int nbBatches = myResultBatch.length;
+        int nbRows = myLeftFree.length;
+        int nbCols = myRightFree.length;
+        int complexity = myLeftInner.length;
+
+        MultiplyNeither.Primitive64 multiplier = MultiplyNeither.newPrimitive64(nbRows, nbCols);
+
+        boolean innerParallel = nbRows > MultiplyNeither.THRESHOLD && nbCols > MultiplyNeither.THRESHOLD;
+        long work = (long) nbBatches * nbRows * nbCols * complexity;
+
+        if (nbBatches > 1 && !innerParallel && work > THRESHOLD) {
+
+            ProcessingService.INSTANCE.divider().parallelism(PARALLELISM).threshold(1).divide(0, nbBatches,
+                    (first, limit) -> this.conquer(left, right, result, multiplier, first, limit));
+
+        } else {
+
+            this.conquer(left, right, result, multiplier, 0, nbBatches);
+        }
+    }
+
+    public long[] shape() {
+        return myResultShape.clone();
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(myLeftShape) + " × " + Arrays.toString(myRightShape) + " -> " + Arrays.toString(myResultShape);
+    }
+
+    private void conquer(final Access1D<?> left, final Access1D<?> right, final Mutate1D result, final MultiplyNeither.Primitive64 multiplier,
+            final int first, final int limit) {
+
+        int nbRows = myLeftFree.length;
+        int nbCols = myRightFree.length;
+        int complexity = myLeftInner.length;
+
+        double[] packedLeft = new double[nbRows * complexity];
+        double[] packedRight = new double[complexity * nbCols];
+        double[] product = new double[nbRows * nbCols];
+
+        for (int b = first; b < limit; b++) {
+
+            TensorContraction.pack(packedLeft, left, myLeftBatch[b], myLeftFree, myLeftInner, myLeftSummed, true);
+            TensorContraction.pack(packedRight, right, myRightBatch[b], myRightFree, myRightInner, myRightSummed, false);
+
+            multiplier.invoke(product, packedLeft, complexity, packedRight);
+
+            long base = myResultBatch[b];
+            for (int j = 0; j < nbCols; j++) {
+                long column = base + myResultRight[j];
+                for (int i = 0; i < nbRows; i++) {
+                    result.set(column + myResultLeft[i], product[i + j * nbRows]);
+                }
+            }
+        }
+    }
+
+}
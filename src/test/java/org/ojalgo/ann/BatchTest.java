@@ -32,6 +32,7 @@ import org.ojalgo.data.DataBatch;
 import org.ojalgo.matrix.store.MatrixStore;
 import org.ojalgo.matrix.store.R064Store;
 import org.ojalgo.random.Uniform;
+import org.ojalgo.type.context.NumberContext;
 
 public class BatchTest extends ANNTest {
 
@@ -119,6 +120,58 @@ public class BatchTest extends ANNTest {
         }
     }
 
+    /**
+     * Data-parallel training should produce the same network as sequential training with the same batch
+     * size, and repeated runs with the same number of workers should produce identical results.
+     */
+    @Test
+    public void testTrainParallel() {
+
+        ArtificialNeuralNetwork annSeq = BatchTest.generate();
+        ArtificialNeuralNetwork annPar3 = this.copy(annSeq);
+        ArtificialNeuralNetwork annPar4a = this.copy(annSeq);
+        ArtificialNeuralNetwork annPar4b = this.copy(annSeq);
+
+        NetworkTrainer trnSeq = annSeq.newTrainer(BATCH_SIZE).rate(0.1).ridge(0.01);
+        NetworkTrainer trnPar3 = annPar3.newTrainer(BATCH_SIZE).rate(0.1).ridge(0.01).parallelism(3);
+        NetworkTrainer trnPar4a = annPar4a.newTrainer(BATCH_SIZE).rate(0.1).ridge(0.01).parallelism(4);
+        NetworkTrainer trnPar4b = annPar4b.newTrainer(BATCH_SIZE).rate(0.1).ridge(0.01).parallelism(4);
+
+        DataBatch inputBatch = trnSeq.newInputBatch();
+        DataBatch outputBatch = trnSeq.newOutputBatch();
+
+        for (int l = 0; l < 20; l++) {
+
+            inputBatch.reset();
+            outputBatch.reset();
+
+            for (int b = 0; b < BATCH_SIZE; b++) {
+
+                ArrayR064 input = ArrayR064.make(NB_INPUTS);
+                input.fillAll(Uniform.standard());
+
+                ArrayR064 output = ArrayR064.make(NB_OUTPUTS);
+                output.set((l + b) % NB_OUTPUTS, 1.0);
+
+                inputBatch.addRow(input);
+                outputBatch.addRow(output);
+            }
+
+            trnSeq.train(inputBatch, outputBatch);
+            trnPar3.train(inputBatch, outputBatch);
+            trnPar4a.train(inputBatch, outputBatch);
+            trnPar4b.train(inputBatch, outputBatch);
+        }
+
+        for (int l = 0; l < annSeq.depth(); l++) {
+            TestUtils.assertEquals(trnSeq.getWeights().get(l), trnPar3.getWeights().get(l), NumberContext.of(12));
+            TestUtils.assertEquals(trnSeq.getWeights().get(l), trnPar4a.getWeights().get(l), NumberContext.of(12));
+            TestUtils.assertEquals(trnPar4a.getWeights().get(l), trnPar4b.getWeights().get(l), NumberContext.of(16));
+        }
+
+        TestUtils.assertEquals(annPar4a, annPar4b);
+    }
+
     private ArtificialNeuralNetwork copy(final ArtificialNeuralNetwork source) {
         File copyFile = new File(dirBatchTest, "copy.ann");
         source.writeTo(copyFile);
@@ -0,0 +1,163 @@
+/*
+ * Copyright 1997-2025 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.ann;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.ojalgo.TestUtils;
+import org.ojalgo.ann.ArtificialNeuralNetwork.Activator;
+import org.ojalgo.matrix.store.MatrixStore;
+import org.ojalgo.matrix.store.R032Store;
+import org.ojalgo.matrix.store.R064Store;
+import org.ojalgo.random.Uniform;
+import org.ojalgo.type.context.NumberContext;
+
+public class ConcurrentInvokerTest extends ANNTest {
+
+    private static final int NB_INPUTS = 5;
+    private static final int NB_OUTPUTS = 3;
+    private static final int NB_ROWS = 23;
+
+    private static ArtificialNeuralNetwork generate() {
+        return ArtificialNeuralNetwork.builder(R064Store.FACTORY, NB_INPUTS).layer(7, Activator.RELU).layer(4, Activator.TANH).layer(NB_OUTPUTS, Activator.SOFTMAX)
+                .get();
+    }
+
+    private static R064Store input() {
+        return R064Store.FACTORY.makeFilled(NB_ROWS, NB_INPUTS, new Uniform(-1, 2));
+    }
+
+    /**
+     * Row by row, using the plain {@link NetworkInvoker}
+     */
+    private static R064Store reference(final ArtificialNeuralNetwork network, final R064Store input) {
+
+        NetworkInvoker invoker = network.newInvoker();
+
+        R064Store retVal = R064Store.FACTORY.make(NB_ROWS, NB_OUTPUTS);
+        for (int i = 0; i < NB_ROWS; i++) {
+            retVal.fillRow(i, invoker.invoke(input.sliceRow(i)));
+        }
+        return retVal;
+    }
+
+    @Test
+    public void testConcurrentUse() throws Exception {
+
+        ArtificialNeuralNetwork network = ConcurrentInvokerTest.generate();
+        ConcurrentInvoker invoker = network.newConcurrentInvoker(4);
+
+        List<R064Store> inputs = new ArrayList<>();
+        List<R064Store> expected = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            R064Store input = ConcurrentInvokerTest.input();
+            inputs.add(input);
+            expected.add(ConcurrentInvokerTest.reference(network, input));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+
+            List<Future<R064Store>> futures = new ArrayList<>();
+            for (R064Store input : inputs) {
+                futures.add(executor.submit(() -> {
+                    R064Store output = R064Store.FACTORY.make(NB_ROWS, NB_OUTPUTS);
+                    for (int r = 0; r < 50; r++) {
+                        invoker.invoke(input, output);
+                    }
+                    return output;
+                }));
+            }
+
+            for (int t = 0; t < futures.size(); t++) {
+                TestUtils.assertEquals(expected.get(t), futures.get(t).get(), NumberContext.of(12));
+            }
+
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testPrimitive32() {
+
+        ArtificialNeuralNetwork network = ConcurrentInvokerTest.generate();
+        R064Store input = ConcurrentInvokerTest.input();
+        R064Store expected = ConcurrentInvokerTest.reference(network, input);
+
+        ConcurrentInvoker invoker = network.newConcurrentInvoker(8, R032Store.FACTORY);
+
+        R064Store actual = R064Store.FACTORY.make(NB_ROWS, NB_OUTPUTS);
+        invoker.invoke(input, actual);
+
+        TestUtils.assertEquals(expected, actual, NumberContext.of(5));
+    }
+
+    @Test
+    public void testPrimitive64() {
+
+        ArtificialNeuralNetwork network = ConcurrentInvokerTest.generate();
+        R064Store input = ConcurrentInvokerTest.input();
+        R064Store expected = ConcurrentInvokerTest.reference(network, input);
+
+        for (int batchSize : new int[] { 1, 5, 23, 64 }) {
+
+            ConcurrentInvoker invoker = network.newConcurrentInvoker(batchSize);
+
+            R064Store actual = R064Store.FACTORY.make(NB_ROWS, NB_OUTPUTS);
+            invoker.invoke(input, actual);
+
+            TestUtils.assertEquals(expected, actual, NumberContext.of(12));
+        }
+
+        ConcurrentInvoker single = network.newConcurrentInvoker(1);
+        MatrixStore<Double> actual = single.invoke(input.sliceRow(3));
+        TestUtils.assertEquals(expected.sliceRow(3), actual, NumberContext.of(12));
+    }
+
+    /**
+     * The invoker works on a snapshot of the weights.
+     */
+    @Test
+    public void testSnapshot() {
+
+        ArtificialNeuralNetwork network = ConcurrentInvokerTest.generate();
+        R064Store input = ConcurrentInvokerTest.input();
+        R064Store expected = ConcurrentInvokerTest.reference(network, input);
+
+        ConcurrentInvoker invoker = network.newConcurrentInvoker(8);
+
+        network.newTrainer().weight(0, 0, 0, 100.0).bias(1, 0, 100.0);
+
+        R064Store actual = R064Store.FACTORY.make(NB_ROWS, NB_OUTPUTS);
+        invoker.invoke(input, actual);
+
+        TestUtils.assertEquals(expected, actual, NumberContext.of(12));
+        TestUtils.assertFalse(expected.equals(ConcurrentInvokerTest.reference(network, input), NumberContext.of(12)));
+    }
+
+}
@@ -0,0 +1,289 @@
+/*
+ * Copyright 1997-2025 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.ann;
+
+import java.io.File;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.ojalgo.TestUtils;
+import org.ojalgo.ann.ArtificialNeuralNetwork.Activator;
+import org.ojalgo.array.ArrayR064;
+import org.ojalgo.data.DataBatch;
+import org.ojalgo.matrix.store.MatrixStore;
+import org.ojalgo.matrix.store.PhysicalStore;
+import org.ojalgo.matrix.store.R032Store;
+import org.ojalgo.matrix.store.R064Store;
+import org.ojalgo.random.Uniform;
+import org.ojalgo.type.context.NumberContext;
+
+public class ConvolutionTest extends ANNTest {
+
+    private static final int BATCH_SIZE = 3;
+    private static final double DELTA = 1E-6;
+    private static final NumberContext PRECISION = NumberContext.of(10);
+
+    private static ArtificialNeuralNetwork generate(final PhysicalStore.Factory<Double, ?> factory) {
+        return ArtificialNeuralNetwork.builder(factory, 8, 8, 2).convolution(3, 3, Activator.SIGMOID).maxPooling(2).flatten().layer(2, Activator.SOFTMAX)
+                .get();
+    }
+
+    /**
+     * Straight forward nested loops
+     */
+    private static double reference(final ConvolutionLayer layer, final PhysicalStore<Double> input, final int b, final int oy, final int ox, final int f) {
+
+        int[] parameters = layer.getParameters();
+        int height = parameters[0], width = parameters[1], channels = parameters[2], kernel = parameters[3], stride = parameters[6], padding = parameters[7];
+
+        double sum = layer.getBias(f);
+        for (int ky = 0; ky < kernel; ky++) {
+            for (int kx = 0; kx < kernel; kx++) {
+                int y = oy * stride + ky - padding;
+                int x = ox * stride + kx - padding;
+                if (y >= 0 && y < height && x >= 0 && x < width) {
+                    for (int c = 0; c < channels; c++) {
+                        sum += input.doubleValue(b, (y * width + x) * channels + c) * layer.getWeight((ky * kernel + kx) * channels + c, f);
+                    }
+                }
+            }
+        }
+        return layer.getActivator().invoke(sum);
+    }
+
+    /**
+     * The loss is the dot product of the layer output and a fixed (random) matrix. That matrix (transposed) is
+     * then the downstream gradient, and the gradients calculated by backpropagation are compared to numerical
+     * (central difference) derivatives.
+     */
+    private static void doTestGradients(final CalculationLayer layer) {
+
+        int nbInputs = layer.countInputNodes();
+        int nbOutputs = layer.countOutputNodes();
+
+        R064Store input = R064Store.FACTORY.makeFilled(BATCH_SIZE, nbInputs, new Uniform(-1, 2));
+        R064Store output = R064Store.FACTORY.make(BATCH_SIZE, nbOutputs);
+        R064Store target = R064Store.FACTORY.makeFilled(nbOutputs, BATCH_SIZE, new Uniform(-1, 2));
+
+        layer.invoke(input, output);
+
+        R064Store downstream = target.copy();
+        R064Store upstream = R064Store.FACTORY.make(nbInputs, BATCH_SIZE);
+        PhysicalStore<Double> weightsGradient = R064Store.FACTORY.make(layer.getStructure());
+        PhysicalStore<Double> biasGradient = R064Store.FACTORY.make(layer.getBiasStore());
+
+        layer.backpropagate(input, output, upstream, downstream, 1.0, weightsGradient, biasGradient);
+
+        for (int b = 0; b < BATCH_SIZE; b++) {
+            for (int i = 0; i < nbInputs; i++) {
+                double original = input.doubleValue(b, i);
+                input.set(b, i, original + DELTA);
+                double plus = ConvolutionTest.loss(layer, input, target);
+                input.set(b, i, original - DELTA);
+                double minus = ConvolutionTest.loss(layer, input, target);
+                input.set(b, i, original);
+                TestUtils.assertEquals((plus - minus) / (2.0 * DELTA), upstream.doubleValue(i, b), NumberContext.of(6));
+            }
+        }
+
+        PhysicalStore<Double> weights = layer.getWeightsStore();
+        for (long i = 0L; i < weights.count(); i++) {
+            double original = weights.doubleValue(i);
+            weights.set(i, original + DELTA);
+            double plus = ConvolutionTest.loss(layer, input, target);
+            weights.set(i, original - DELTA);
+            double minus = ConvolutionTest.loss(layer, input, target);
+            weights.set(i, original);
+            TestUtils.assertEquals((plus - minus) / (2.0 * DELTA), weightsGradient.doubleValue(i), NumberContext.of(6));
+        }
+
+        PhysicalStore<Double> bias = layer.getBiasStore();
+        for (long j = 0L; j < bias.count(); j++) {
+            double original = bias.doubleValue(j);
+            bias.set(j, original + DELTA);
+            double plus = ConvolutionTest.loss(layer, input, target);
+            bias.set(j, original - DELTA);
+            double minus = ConvolutionTest.loss(layer, input, target);
+            bias.set(j, original);
+            TestUtils.assertEquals((plus - minus) / (2.0 * DELTA), biasGradient.doubleValue(j), NumberContext.of(6));
+        }
+    }
+
+    private static double loss(final CalculationLayer layer, final PhysicalStore<Double> input, final PhysicalStore<Double> target) {
+
+        R064Store output = R064Store.FACTORY.make(input.countRows(), layer.countOutputNodes());
+        layer.invoke(input, output);
+
+        double retVal = 0.0;
+        for (int b = 0; b < output.getRowDim(); b++) {
+            for (int j = 0; j < output.getColDim(); j++) {
+                retVal += output.doubleValue(b, j) * target.doubleValue(j, b);
+            }
+        }
+        return retVal;
+    }
+
+    @TempDir
+    File dirConvolutionTest;
+
+    @Test
+    public void testConvolutionGradients() {
+
+        ConvolutionLayer layer = new ConvolutionLayer(R064Store.FACTORY, Activator.SIGMOID, 5, 6, 2, 3, 3, 2, 2, 1);
+        layer.randomise();
+
+        ConvolutionTest.doTestGradients(layer);
+    }
+
+    @Test
+    public void testConvolutionMatchesReference() {
+
+        for (int[] parameters : new int[][] { { 7, 7, 3, 3, 3, 4, 1, 0 }, { 9, 8, 2, 3, 3, 3, 2, 1 }, { 6, 6, 1, 5, 5, 2, 1, 2 } }) {
+
+            ConvolutionLayer layer = new ConvolutionLayer(R064Store.FACTORY, Activator.TANH, parameters);
+            layer.randomise();
+
+            R064Store input = R064Store.FACTORY.makeFilled(BATCH_SIZE, layer.countInputNodes(), new Uniform(-1, 2));
+            R064Store output = R064Store.FACTORY.make(BATCH_SIZE, layer.countOutputNodes());
+            layer.invoke(input, output);
+
+            int outputHeight = ConvolutionLayer.countOutputs(parameters[0], parameters[3], parameters[6], parameters[7]);
+            int outputWidth = ConvolutionLayer.countOutputs(parameters[1], parameters[4], parameters[6], parameters[7]);
+            int filters = parameters[5];
+
+            for (int b = 0; b < BATCH_SIZE; b++) {
+                for (int oy = 0; oy < outputHeight; oy++) {
+                    for (int ox = 0; ox < outputWidth; ox++) {
+                        for (int f = 0; f < filters; f++) {
+                            double expected = ConvolutionTest.reference(layer, input, b, oy, ox, f);
+                            TestUtils.assertEquals(expected, output.doubleValue(b, (oy * outputWidth + ox) * filters + f), PRECISION);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Forcing the FFT based forward pass should give the same result as im2col – also after the weights have
+     * changed (the kernel spectra are cached).
+     */
+    @Test
+    public void testFFTMatchesIm2col() {
+
+        int threshold = ConvolutionLayer.FFT_THRESHOLD;
+
+        for (int[] parameters : new int[][] { { 7, 7, 3, 3, 3, 4, 1, 0 }, { 9, 8, 2, 3, 3, 3, 2, 1 }, { 12, 10, 1, 5, 4, 2, 3, 2 } }) {
+
+            ConvolutionLayer layer = new ConvolutionLayer(R064Store.FACTORY, Activator.RELU, parameters);
+            layer.randomise();
+
+            R064Store input = R064Store.FACTORY.makeFilled(BATCH_SIZE, layer.countInputNodes(), new Uniform(-1, 2));
+            R064Store expected = R064Store.FACTORY.make(BATCH_SIZE, layer.countOutputNodes());
+            R064Store actual = R064Store.FACTORY.make(BATCH_SIZE, layer.countOutputNodes());
+
+            for (int round = 0; round < 3; round++) {
+
+                try {
+                    ConvolutionLayer.FFT_THRESHOLD = Integer.MAX_VALUE;
+                    layer.invoke(input, expected);
+                    ConvolutionLayer.FFT_THRESHOLD = 1;
+                    layer.invoke(input, actual);
+                } finally {
+                    ConvolutionLayer.FFT_THRESHOLD = threshold;
+                }
+
+                TestUtils.assertEquals(expected, actual, PRECISION);
+
+                if (round == 0) {
+                    layer.setWeight(1, 0, 2.0);
+                } else {
+                    layer.scale(0.5);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testPoolingGradients() {
+
+        PoolingLayer max = new PoolingLayer(R064Store.FACTORY, true, 6, 4, 2, 2, 2);
+        ConvolutionTest.doTestGradients(max);
+
+        PoolingLayer average = new PoolingLayer(R064Store.FACTORY, false, 5, 5, 3, 3, 2);
+        ConvolutionTest.doTestGradients(average);
+    }
+
+    @Test
+    public void testTraining() {
+
+        for (Optimiser optimiser : new Optimiser[] { Optimiser.SGD, Optimiser.adam() }) {
+
+            ArtificialNeuralNetwork network = ConvolutionTest.generate(R064Store.FACTORY);
+            NetworkTrainer trainer = network.newTrainer(4).rate(0.05).optimiser(optimiser);
+            NetworkInvoker invoker = network.newInvoker(4);
+
+            DataBatch input = trainer.newInputBatch();
+            DataBatch output = trainer.newOutputBatch();
+            for (int b = 0; b < 4; b++) {
+                ArrayR064 image = ArrayR064.make(8 * 8 * 2);
+                image.fillAll(Uniform.standard());
+                input.addRow(image);
+                ArrayR064 label = ArrayR064.make(2);
+                label.set(b % 2, 1.0);
+                output.addRow(label);
+            }
+
+            double initial = trainer.error(output, invoker.invoke(input));
+            for (int i = 0; i < 100; i++) {
+                trainer.train(input, output);
+            }
+            double trained = trainer.error(output, invoker.invoke(input));
+
+            TestUtils.assertTrue(optimiser.toString(), trained < initial);
+        }
+    }
+
+    @Test
+    public void testWriteAndReadBack() {
+
+        for (PhysicalStore.Factory<Double, ?> factory : new PhysicalStore.Factory[] { R032Store.FACTORY, R064Store.FACTORY }) {
+
+            ArtificialNeuralNetwork network1 = ConvolutionTest.generate(factory);
+
+            File file = new File(dirConvolutionTest, "convolution.ann");
+            network1.writeTo(file);
+            ArtificialNeuralNetwork network2 = ArtificialNeuralNetwork.from(file);
+
+            TestUtils.assertEquals(network1, network2);
+
+            ArrayR064 input = ArrayR064.make(8 * 8 * 2);
+            input.fillAll(Uniform.standard());
+
+            MatrixStore<Double> expected = network1.newInvoker().invoke(input);
+            MatrixStore<Double> actual = network2.newInvoker().invoke(input);
+
+            TestUtils.assertEquals(expected, actual);
+        }
+    }
+
+}
@@ -40,7 +40,7 @@ public class DesignTestANN extends ANNTest {
         R064Store arguments = R064Store.FACTORY.row(1.0, 2.0, 3.0, 4.0, 1.0, 2.0, 3.0);
         R064Store results = R064Store.FACTORY.row(0.02364054, 0.06426166, 0.1746813, 0.474833, 0.02364054, 0.06426166, 0.1746813);
 
-        ArtificialNeuralNetwork.Activator.SOFTMAX.activate(arguments);
+        ArtificialNeuralNetwork.Activator.SOFTMAX.activate(arguments, R064Store.FACTORY.make(1, arguments.count()));
 
         for (int i = 0; i < results.count(); i++) {
             double expected = results.doubleValue(i);
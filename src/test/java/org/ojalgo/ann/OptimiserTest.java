@@ -0,0 +1,248 @@
+/*
+ * Copyright 1997-2025 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.ann;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.ojalgo.TestUtils;
+import org.ojalgo.ann.ArtificialNeuralNetwork.Activator;
+import org.ojalgo.array.ArrayR064;
+import org.ojalgo.data.DataBatch;
+import org.ojalgo.function.aggregator.Aggregator;
+import org.ojalgo.matrix.store.MatrixStore;
+import org.ojalgo.matrix.store.R064Store;
+import org.ojalgo.random.Uniform;
+import org.ojalgo.type.context.NumberContext;
+
+public class OptimiserTest extends ANNTest {
+
+    private static final int BATCH_SIZE = 4;
+    private static final NumberContext PRECISION = NumberContext.of(10);
+    private static final double RATE = 0.05;
+
+    private static List<MatrixStore<Double>> change(final List<MatrixStore<Double>> before, final List<MatrixStore<Double>> after) {
+        List<MatrixStore<Double>> retVal = new ArrayList<>();
+        for (int l = 0; l < before.size(); l++) {
+            retVal.add(after.get(l).subtract(before.get(l)).copy());
+        }
+        return retVal;
+    }
+
+    private static List<MatrixStore<Double>> copy(final List<MatrixStore<Double>> weights) {
+        List<MatrixStore<Double>> retVal = new ArrayList<>();
+        for (MatrixStore<Double> layer : weights) {
+            retVal.add(layer.copy());
+        }
+        return retVal;
+    }
+
+    private static ArtificialNeuralNetwork generate() {
+        return ArtificialNeuralNetwork.builder(R064Store.FACTORY, 3).layer(4, Activator.TANH).layer(2, Activator.SIGMOID).get();
+    }
+
+    @TempDir
+    File dirOptimiserTest;
+
+    private DataBatch myInput;
+    private DataBatch myOutput;
+
+    /**
+     * Switching to Adam, after a few plain SGD updates, starts Adam from scratch – the bias correction uses the
+     * number of Adam steps, not the number of updates the trainer has made.
+     */
+    @Test
+    public void testAdamAfterSwitch() {
+        this.doTestFirstStep(Optimiser.adam(), 1.0, 3);
+    }
+
+    /**
+     * The first Adam step moves every parameter (with a nonzero gradient) by exactly the learning rate, in the
+     * same direction as plain SGD would.
+     */
+    @Test
+    public void testAdamFirstStep() {
+        this.doTestFirstStep(Optimiser.adam(), 1.0, 0);
+    }
+
+    @Test
+    public void testClipping() {
+
+        ArtificialNeuralNetwork ann = OptimiserTest.generate();
+        NetworkTrainer trainer = ann.newTrainer(BATCH_SIZE).rate(RATE).clipping(1E-3);
+        this.generateData(trainer);
+
+        List<MatrixStore<Double>> before = OptimiserTest.copy(trainer.getWeights());
+        trainer.train(myInput, myOutput);
+        List<MatrixStore<Double>> change = OptimiserTest.change(before, trainer.getWeights());
+
+        double sumOfSquares = 0.0;
+        for (MatrixStore<Double> layer : change) {
+            double norm = layer.aggregateAll(Aggregator.NORM2).doubleValue();
+            sumOfSquares += norm * norm;
+        }
+
+        TestUtils.assertEquals(RATE * 1E-3, Math.sqrt(sumOfSquares), PRECISION);
+    }
+
+    /**
+     * All optimisers should be able to reduce the error on a fixed training set.
+     */
+    @Test
+    public void testErrorDecreases() {
+
+        for (Optimiser optimiser : new Optimiser[] { Optimiser.SGD, Optimiser.momentum(), Optimiser.rmsprop(), Optimiser.adam() }) {
+
+            ArtificialNeuralNetwork ann = OptimiserTest.generate();
+            NetworkTrainer trainer = ann.newTrainer(BATCH_SIZE).rate(0.01).optimiser(optimiser);
+            NetworkInvoker invoker = ann.newInvoker(BATCH_SIZE);
+            this.generateData(trainer);
+
+            double initial = trainer.error(myOutput, invoker.invoke(myInput));
+            for (int i = 0; i < 200; i++) {
+                trainer.train(myInput, myOutput);
+            }
+            double trained = trainer.error(myOutput, invoker.invoke(myInput));
+
+            TestUtils.assertTrue(optimiser.toString(), trained < initial);
+        }
+    }
+
+    @Test
+    public void testMomentumZeroIsSGD() {
+
+        ArtificialNeuralNetwork ann1 = OptimiserTest.generate();
+        ArtificialNeuralNetwork ann2 = this.copy(ann1);
+
+        NetworkTrainer trainer1 = ann1.newTrainer(BATCH_SIZE).rate(RATE).ridge(0.01);
+        NetworkTrainer trainer2 = ann2.newTrainer(BATCH_SIZE).rate(RATE).ridge(0.01).optimiser(Optimiser.momentum(0.0));
+        this.generateData(trainer1);
+
+        for (int i = 0; i < 5; i++) {
+            trainer1.train(myInput, myOutput);
+            trainer2.train(myInput, myOutput);
+        }
+
+        for (int l = 0; l < ann1.depth(); l++) {
+            TestUtils.assertEquals(trainer1.getWeights().get(l), trainer2.getWeights().get(l), PRECISION);
+        }
+    }
+
+    /**
+     * The first RMSProp step moves every parameter by the learning rate divided by sqrt(1-decay).
+     */
+    @Test
+    public void testRMSPropFirstStep() {
+        this.doTestFirstStep(Optimiser.rmsprop(0.75), 2.0, 0);
+    }
+
+    @Test
+    public void testSchedule() {
+
+        ArtificialNeuralNetwork ann1 = OptimiserTest.generate();
+        ArtificialNeuralNetwork ann2 = this.copy(ann1);
+
+        NetworkTrainer trainer1 = ann1.newTrainer(BATCH_SIZE).rate(RATE / 2.0);
+        NetworkTrainer trainer2 = ann2.newTrainer(BATCH_SIZE).rate(RATE).schedule(step -> step < 3 ? 0.5 : 0.0);
+        this.generateData(trainer1);
+
+        for (int i = 0; i < 3; i++) {
+            trainer1.train(myInput, myOutput);
+            trainer2.train(myInput, myOutput);
+        }
+
+        List<MatrixStore<Double>> before = OptimiserTest.copy(trainer2.getWeights());
+        for (int i = 0; i < 3; i++) {
+            trainer2.train(myInput, myOutput);
+        }
+
+        for (int l = 0; l < ann1.depth(); l++) {
+            TestUtils.assertEquals(trainer1.getWeights().get(l), trainer2.getWeights().get(l), PRECISION);
+            TestUtils.assertEquals(before.get(l), trainer2.getWeights().get(l));
+        }
+    }
+
+    private ArtificialNeuralNetwork copy(final ArtificialNeuralNetwork source) {
+        File copyFile = new File(dirOptimiserTest, "copy.ann");
+        source.writeTo(copyFile);
+        return ArtificialNeuralNetwork.from(copyFile);
+    }
+
+    private void doTestFirstStep(final Optimiser optimiser, final double expectedFactor, final int nbWarmUpSteps) {
+
+        ArtificialNeuralNetwork annSGD = OptimiserTest.generate();
+        ArtificialNeuralNetwork annOpt = this.copy(annSGD);
+
+        NetworkTrainer trnSGD = annSGD.newTrainer(BATCH_SIZE).rate(RATE);
+        NetworkTrainer trnOpt = annOpt.newTrainer(BATCH_SIZE).rate(RATE);
+        this.generateData(trnSGD);
+
+        if (nbWarmUpSteps > 0) {
+            // A (constant) schedule forces the gradient based update path, where the trainer counts updates
+            trnSGD.schedule(step -> 1.0);
+            trnOpt.schedule(step -> 1.0);
+        }
+        for (int i = 0; i < nbWarmUpSteps; i++) {
+            trnSGD.train(myInput, myOutput);
+            trnOpt.train(myInput, myOutput);
+        }
+        trnOpt.optimiser(optimiser);
+
+        List<MatrixStore<Double>> before = OptimiserTest.copy(trnSGD.getWeights());
+
+        trnSGD.train(myInput, myOutput);
+        trnOpt.train(myInput, myOutput);
+
+        List<MatrixStore<Double>> changeSGD = OptimiserTest.change(before, trnSGD.getWeights());
+        List<MatrixStore<Double>> changeOpt = OptimiserTest.change(before, trnOpt.getWeights());
+
+        for (int l = 0; l < changeSGD.size(); l++) {
+            MatrixStore<Double> sgd = changeSGD.get(l);
+            MatrixStore<Double> opt = changeOpt.get(l);
+            for (long i = 0L; i < sgd.count(); i++) {
+                double expected = expectedFactor * RATE * Math.signum(sgd.doubleValue(i));
+                TestUtils.assertEquals(expected, opt.doubleValue(i), NumberContext.of(4));
+            }
+        }
+    }
+
+    private void generateData(final NetworkTrainer trainer) {
+
+        myInput = trainer.newInputBatch();
+        myOutput = trainer.newOutputBatch();
+
+        for (int b = 0; b < BATCH_SIZE; b++) {
+
+            ArrayR064 input = ArrayR064.make(3);
+            input.fillAll(Uniform.standard());
+            myInput.addRow(input);
+
+            ArrayR064 output = ArrayR064.make(2);
+            output.set(b % 2, 1.0);
+            myOutput.addRow(output);
+        }
+    }
+
+}
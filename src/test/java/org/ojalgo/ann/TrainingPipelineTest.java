@@ -0,0 +1,265 @@
+/*
+ * Copyright 1997-2025 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.ann;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.ojalgo.TestUtils;
+import org.ojalgo.ann.ArtificialNeuralNetwork.Activator;
+import org.ojalgo.array.ArrayAnyD;
+import org.ojalgo.array.ArrayR064;
+import org.ojalgo.data.DataBatch;
+import org.ojalgo.data.batch.BatchNode;
+import org.ojalgo.matrix.store.R064Store;
+import org.ojalgo.netio.DataInterpreter;
+import org.ojalgo.netio.FromFileReader;
+import org.ojalgo.netio.IDX;
+import org.ojalgo.netio.ToFileWriter;
+import org.ojalgo.random.Uniform;
+import org.ojalgo.type.context.NumberContext;
+
+public class TrainingPipelineTest extends ANNTest {
+
+    private static final int BATCH_SIZE = 4;
+    private static final int NB_INPUTS = 3;
+    private static final int NB_OUTPUTS = 2;
+
+    private static ArtificialNeuralNetwork generate() {
+        return ArtificialNeuralNetwork.builder(R064Store.FACTORY, NB_INPUTS).layer(4, Activator.TANH).layer(NB_OUTPUTS, Activator.SOFTMAX).get();
+    }
+
+    private static List<Supplier<FromFileReader<Integer>>> sources(final int nbSources, final int nbItemsPerSource) {
+
+        List<Supplier<FromFileReader<Integer>>> retVal = new ArrayList<>();
+
+        for (int s = 0; s < nbSources; s++) {
+
+            List<Integer> items = new ArrayList<>();
+            for (int i = 0; i < nbItemsPerSource; i++) {
+                items.add(Integer.valueOf(s * nbItemsPerSource + i));
+            }
+
+            retVal.add(() -> {
+                Iterator<Integer> iterator = items.iterator();
+                return () -> iterator.hasNext() ? iterator.next() : null;
+            });
+        }
+
+        return retVal;
+    }
+
+    private static void write(final File file, final int type, final int[] structure, final int[] data) throws IOException {
+        try (DataOutputStream output = new DataOutputStream(new FileOutputStream(file))) {
+            output.writeByte(0);
+            output.writeByte(0);
+            output.writeByte(type);
+            output.writeByte(structure.length);
+            for (int dim : structure) {
+                output.writeInt(dim);
+            }
+            for (int value : data) {
+                output.writeByte(value);
+            }
+        }
+    }
+
+    @TempDir
+    File dirTrainingPipelineTest;
+
+    private final ArrayR064[] myInputs = new ArrayR064[128];
+
+    public TrainingPipelineTest() {
+
+        super();
+
+        for (int i = 0; i < myInputs.length; i++) {
+            myInputs[i] = ArrayR064.make(NB_INPUTS);
+            myInputs[i].fillAll(Uniform.standard());
+        }
+    }
+
+    @Test
+    public void testBatchNode() {
+
+        BatchNode<String> node = BatchNode.newBuilder(new File(dirTrainingPipelineTest, "node"), DataInterpreter.STRING).fragmentation(4).parallelism(2)
+                .build();
+
+        try (ToFileWriter<String> writer = node.newWriter()) {
+            for (int i = 0; i < 40; i++) {
+                writer.write(Integer.toString(i));
+            }
+        } catch (IOException cause) {
+            throw new RuntimeException(cause);
+        }
+
+        List<String> seen = Collections.synchronizedList(new ArrayList<>());
+
+        NetworkTrainer trainer = TrainingPipelineTest.generate().newTrainer(BATCH_SIZE);
+
+        TrainingPipeline<String> pipeline = TrainingPipeline.newBuilder(node, (String item, DataBatch input, DataBatch output) -> {
+            seen.add(item);
+            int index = Integer.parseInt(item);
+            input.addRow(myInputs[index]);
+            output.addRowWithSingleUnit(index % NB_OUTPUTS);
+        }).build(trainer);
+
+        TestUtils.assertEquals(10, pipeline.train());
+        TestUtils.assertEquals(40, seen.size());
+        TestUtils.assertEquals(40, seen.stream().distinct().count());
+
+        node.dispose();
+    }
+
+    /**
+     * Every item is decoded exactly once per epoch, and the order changes between epochs.
+     */
+    @Test
+    public void testEpochs() {
+
+        List<Integer> seen = Collections.synchronizedList(new ArrayList<>());
+
+        NetworkTrainer trainer = TrainingPipelineTest.generate().newTrainer(BATCH_SIZE);
+
+        TrainingPipeline<Integer> pipeline = TrainingPipeline.newBuilder(TrainingPipelineTest.sources(8, 16), (Integer item, DataBatch input, DataBatch output) -> {
+            seen.add(item);
+            input.addRow(myInputs[item.intValue()]);
+            output.addRowWithSingleUnit(item.intValue() % NB_OUTPUTS);
+        }).parallelism(3).prefetch(1).queue(8).shuffle(32).seed(123L).build(trainer);
+
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 128; i++) {
+            expected.add(Integer.valueOf(i));
+        }
+
+        TestUtils.assertEquals(32, pipeline.train());
+        List<Integer> first = new ArrayList<>(seen);
+        seen.clear();
+
+        TestUtils.assertEquals(32, pipeline.train());
+        List<Integer> second = new ArrayList<>(seen);
+
+        TestUtils.assertEquals(2, pipeline.countEpochs());
+        TestUtils.assertFalse(first.equals(second));
+
+        Collections.sort(first);
+        Collections.sort(second);
+        TestUtils.assertEquals(expected, first);
+        TestUtils.assertEquals(expected, second);
+    }
+
+    @Test
+    public void testIDX() throws IOException {
+
+        int nbRecords = 10;
+        int[] images = new int[nbRecords * 3 * 2];
+        int[] labels = new int[nbRecords];
+        for (int i = 0; i < images.length; i++) {
+            images[i] = (7 * i) % 256;
+        }
+        for (int i = 0; i < labels.length; i++) {
+            labels[i] = i % NB_OUTPUTS;
+        }
+
+        File imagesFile = new File(dirTrainingPipelineTest, "images.idx");
+        File labelsFile = new File(dirTrainingPipelineTest, "labels.idx");
+        TrainingPipelineTest.write(imagesFile, 0x08, new int[] { nbRecords, 3, 2 }, images);
+        TrainingPipelineTest.write(labelsFile, 0x08, new int[] { nbRecords }, labels);
+
+        TestUtils.assertEquals(nbRecords, IDX.countRecords(imagesFile));
+
+        ArrayAnyD<Double> parsed = IDX.parse(imagesFile);
+        try (FromFileReader<ArrayR064> reader = IDX.newReader(imagesFile, 3L, 7L)) {
+            for (int r = 3; r < 7; r++) {
+                ArrayR064 record = reader.read();
+                TestUtils.assertEquals(6, record.count());
+                for (int i = 0; i < 6; i++) {
+                    TestUtils.assertEquals(parsed.doubleValue(r * 6 + i), record.doubleValue(i));
+                }
+            }
+            TestUtils.assertTrue(reader.read() == null);
+        }
+        Assertions.assertThrows(IllegalArgumentException.class, () -> IDX.newReader(imagesFile, 7L, nbRecords + 1L));
+
+        NetworkTrainer trainer = ArtificialNeuralNetwork.builder(R064Store.FACTORY, 6).layer(NB_OUTPUTS, Activator.SOFTMAX).get().newTrainer(2);
+
+        TrainingPipeline.Builder<?> builder = TrainingPipeline.newBuilder(imagesFile, labelsFile, 3, (item, input, output) -> {
+            input.addRow(item.getKey());
+            output.addRowWithSingleUnit((int) item.getValue().doubleValue(0));
+        });
+        Assertions.assertThrows(IllegalArgumentException.class, () -> builder.queue(0));
+
+        TrainingPipeline<?> pipeline = builder.build(trainer);
+
+        TestUtils.assertEquals(5, pipeline.train());
+    }
+
+    /**
+     * Without shuffling and parallelism the pipeline trains on exactly the same batches, in the same order,
+     * as a plain loop would. The incomplete last batch is dropped.
+     */
+    @Test
+    public void testSameAsLoop() {
+
+        ArtificialNeuralNetwork ann1 = TrainingPipelineTest.generate();
+        File copyFile = new File(dirTrainingPipelineTest, "copy.ann");
+        ann1.writeTo(copyFile);
+        ArtificialNeuralNetwork ann2 = ArtificialNeuralNetwork.from(copyFile);
+
+        NetworkTrainer trainer1 = ann1.newTrainer(BATCH_SIZE).rate(0.1);
+        NetworkTrainer trainer2 = ann2.newTrainer(BATCH_SIZE).rate(0.1);
+
+        DataBatch input = trainer1.newInputBatch();
+        DataBatch output = trainer1.newOutputBatch();
+        for (int i = 0; i < 6 * BATCH_SIZE; i++) {
+            input.addRow(myInputs[i]);
+            output.addRowWithSingleUnit(i % NB_OUTPUTS);
+            if (input.isFull()) {
+                trainer1.train(input, output);
+                input.reset();
+                output.reset();
+            }
+        }
+
+        TrainingPipeline<Integer> pipeline = TrainingPipeline.newBuilder(TrainingPipelineTest.sources(2, 13), (Integer item, DataBatch in, DataBatch out) -> {
+            in.addRow(myInputs[item.intValue()]);
+            out.addRowWithSingleUnit(item.intValue() % NB_OUTPUTS);
+        }).parallelism(1).shuffle(0).build(trainer2);
+
+        TestUtils.assertEquals(6, pipeline.train());
+
+        for (int l = 0; l < ann1.depth(); l++) {
+            TestUtils.assertEquals(trainer1.getWeights().get(l), trainer2.getWeights().get(l), NumberContext.of(12));
+        }
+    }
+
+}
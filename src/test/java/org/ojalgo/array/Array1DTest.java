@@ -46,6 +46,37 @@ public class Array1DTest extends ArrayTests {
         Array1DTest.doSortTest(tmpRows);
     }
 
+    /**
+     * Sorting a slice of a 64-bit integer array must not go via double – that would lose the lowest bits of
+     * these values.
+     */
+    @Test
+    public void testSortingLargeIntegers() {
+
+        long base = 1L << 53;
+        long[] values = { 0L, base + 3L, base + 1L, base + 2L, base, 0L };
+
+        Array1D<Double> array = Array1D.Z064.make(values.length);
+        for (int i = 0; i < values.length; i++) {
+            array.set(i, values[i]);
+        }
+
+        Array1D<Double> slice = array.sliceRange(1L, 5L);
+
+        slice.sortAscending();
+        for (int i = 0; i < 4; i++) {
+            TestUtils.assertEquals(base + i, slice.longValue(i));
+        }
+
+        slice.sortDescending();
+        for (int i = 0; i < 4; i++) {
+            TestUtils.assertEquals(base + 3L - i, slice.longValue(i));
+        }
+
+        TestUtils.assertEquals(0L, array.longValue(0));
+        TestUtils.assertEquals(0L, array.longValue(5));
+    }
+
     @Test
     public void testSortingOddSizedArrayAscending() {
 
@@ -66,6 +97,16 @@ public class Array1DTest extends ArrayTests {
         Array1DTest.doSortTest(tmpRows);
     }
 
+    @Test
+    public void testSortingSliceDescending() {
+
+        Array1D<Double> array = Array1D.R064.copy(new double[] { 9, 1, 4, 2, 8, 3, 0 });
+
+        array.sliceRange(1L, 6L).sortDescending();
+
+        TestUtils.assertEquals(Array1D.R064.copy(new double[] { 9, 8, 4, 3, 2, 1, 0 }), array);
+    }
+
     private static void doSortTest(final double[][] rows) {
 
         final Array1D<Double> tmpExpexted = Array1D.R064.copy(rows[0]);
@@ -27,6 +27,7 @@ import java.util.List;
 import java.util.Random;
 import java.util.Set;
 
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.ojalgo.TestUtils;
 
@@ -142,4 +143,60 @@ public class NumberListTest extends ArrayTests {
         TestUtils.assertEquals(2L * chunk + 1L, tmNumberList.count());
     }
 
+    @Test
+    public void testChunkedAddAll() {
+
+        NumberList<Double> chunked = NumberList.factory(ArrayR064.FACTORY).segment(64).chunked().make();
+        NumberList<Double> offHeap = NumberList.factory(OffHeapArray.R064).segment(64).chunked().make();
+        NumberList<Double> plain = NumberList.factory(ArrayR064.FACTORY).make();
+
+        double[] values = new double[1_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = RANDOM.nextDouble();
+        }
+
+        chunked.add(values[0]);
+        chunked.addAll(values, 1, 499);
+        chunked.addAll(values, 500, 500);
+
+        offHeap.addAll(values, 0, 700);
+        for (int i = 700; i < values.length; i++) {
+            offHeap.add(values[i]);
+        }
+
+        plain.addAll(values, 0, 3);
+        plain.addAll(values, 3, 997);
+
+        TestUtils.assertEquals(values.length, chunked.size());
+        TestUtils.assertEquals(values.length, offHeap.size());
+        TestUtils.assertEquals(values.length, plain.size());
+
+        TestUtils.assertEquals(0L, chunked.capacity() % 64L);
+        TestUtils.assertEquals(0L, offHeap.capacity() % 64L);
+
+        for (int i = 0; i < values.length; i++) {
+            TestUtils.assertEquals(values[i], chunked.doubleValue(i));
+            TestUtils.assertEquals(values[i], offHeap.doubleValue(i));
+            TestUtils.assertEquals(values[i], plain.doubleValue(i));
+        }
+    }
+
+    /**
+     * offset + length would overflow int – must be rejected before anything is added.
+     */
+    @Test
+    public void testAddAllOutOfBounds() {
+
+        NumberList<Double> list = NumberList.factory(ArrayR064.FACTORY).make();
+        double[] values = { 1.0, 2.0, 3.0, 4.0 };
+        long capacity = list.capacity();
+
+        Assertions.assertThrows(ArrayIndexOutOfBoundsException.class, () -> list.addAll(values, Integer.MAX_VALUE, 2));
+        Assertions.assertThrows(ArrayIndexOutOfBoundsException.class, () -> list.addAll(values, 2, Integer.MAX_VALUE));
+        Assertions.assertThrows(ArrayIndexOutOfBoundsException.class, () -> list.addAll(values, 3, 2));
+
+        TestUtils.assertEquals(0, list.size());
+        TestUtils.assertEquals(capacity, list.capacity());
+    }
+
 }
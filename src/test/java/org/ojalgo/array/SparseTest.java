@@ -78,6 +78,33 @@ public class SparseTest extends ArrayTests {
         TestUtils.assertEquals(index, sparseArray.indexOfLargest());
     }
 
+    @Test
+    public void testPutAll() {
+
+        SparseArray<Double> array = SparseArray.factory(ArrayR064.FACTORY).make(100L);
+        array.set(50L, 5.0);
+
+        long[] indices = { 7L, 3L, 99L, 3L, 0L, 42L, 7L, 3L };
+        double[] values = { 1.0, 2.0, 3.0, 4.0, 5.0, 0.0, 6.0, 7.0 };
+
+        array.putAll(indices, values);
+
+        // Existing content replaced, zeros dropped, and the last value at duplicate indices wins
+        TestUtils.assertEquals(4, array.countNonzeros());
+        TestUtils.assertEquals(5.0, array.doubleValue(0L));
+        TestUtils.assertEquals(7.0, array.doubleValue(3L));
+        TestUtils.assertEquals(6.0, array.doubleValue(7L));
+        TestUtils.assertEquals(0.0, array.doubleValue(42L));
+        TestUtils.assertEquals(0.0, array.doubleValue(50L));
+        TestUtils.assertEquals(3.0, array.doubleValue(99L));
+
+        long previous = -1L;
+        for (NonzeroView<Double> nonzero : array.nonzeros()) {
+            TestUtils.assertTrue(nonzero.index() > previous);
+            previous = nonzero.index();
+        }
+    }
+
     @Test
     @Tag("slow")
     @Tag("unstable")
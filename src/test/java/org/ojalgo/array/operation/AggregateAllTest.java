@@ -0,0 +1,137 @@
+/*
+ * Copyright 1997-2025 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.array.operation;
+
+import org.junit.jupiter.api.Test;
+import org.ojalgo.TestUtils;
+import org.ojalgo.array.ArrayR064;
+import org.ojalgo.array.OffHeapArray;
+import org.ojalgo.concurrent.Parallelism;
+import org.ojalgo.function.aggregator.Aggregator;
+import org.ojalgo.function.aggregator.AggregatorFunction;
+import org.ojalgo.function.aggregator.PrimitiveAggregator;
+import org.ojalgo.matrix.store.R064Store;
+import org.ojalgo.random.Normal;
+import org.ojalgo.type.context.NumberContext;
+
+public class AggregateAllTest extends ArrayOperationTests {
+
+    private static final NumberContext ACCURACY = NumberContext.of(12);
+
+    @Test
+    public void testCompensatedSum() {
+
+        int length = 1_000_001;
+
+        double[] data = new double[length];
+        data[0] = 1.0;
+        for (int i = 1; i < length; i++) {
+            data[i] = 1E-16;
+        }
+
+        // A naive sum would never move away from 1.0
+        TestUtils.assertEquals(1.0 + 1E-10, AggregateAll.invoke(data, 0, length, 1, Aggregator.SUM, Parallelism.ONE), NumberContext.of(15));
+        TestUtils.assertEquals(1.0 + 1E-10, AggregateAll.invoke(data, 0, length, 1, Aggregator.SUM, Parallelism.FOUR), NumberContext.of(15));
+    }
+
+    @Test
+    public void testEmptyRange() {
+
+        double[] data = { 1.0, 2.0, 3.0, 4.0 };
+        ArrayR064 array = ArrayR064.wrap(data);
+
+        for (Aggregator aggregator : Aggregator.values()) {
+
+            double expected = PrimitiveAggregator.getSet().get(aggregator).doubleValue();
+
+            TestUtils.assertEquals(aggregator.name(), expected, AggregateAll.invoke(data, 2, 2, 1, aggregator), ACCURACY);
+            TestUtils.assertEquals(aggregator.name(), expected, AggregateAll.invoke(array, 2L, 2L, aggregator), ACCURACY);
+        }
+    }
+
+    @Test
+    public void testInfiniteElement() {
+
+        R064Store matrix = R064Store.FACTORY.column(new double[] { 1.0, Double.POSITIVE_INFINITY, 2.0 });
+        ArrayR064 array = ArrayR064.wrap(matrix.data);
+
+        for (Aggregator aggregator : new Aggregator[] { Aggregator.AVERAGE, Aggregator.NORM1, Aggregator.NORM2, Aggregator.SUM, Aggregator.SUM2 }) {
+            TestUtils.assertEquals(aggregator.name(), Double.POSITIVE_INFINITY, matrix.aggregateAll(aggregator).doubleValue());
+            TestUtils.assertEquals(aggregator.name(), Double.POSITIVE_INFINITY, array.aggregateRange(0L, 3L, aggregator).doubleValue());
+        }
+    }
+
+    @Test
+    public void testOverflow() {
+
+        R064Store matrix = R064Store.FACTORY.column(new double[] { 1E200, 1E200 });
+        ArrayR064 array = ArrayR064.wrap(matrix.data);
+
+        for (Aggregator aggregator : new Aggregator[] { Aggregator.NORM2, Aggregator.SUM2 }) {
+            TestUtils.assertEquals(aggregator.name(), Double.POSITIVE_INFINITY, matrix.aggregateAll(aggregator).doubleValue());
+            TestUtils.assertEquals(aggregator.name(), Double.POSITIVE_INFINITY, array.aggregateRange(0L, 2L, aggregator).doubleValue());
+        }
+
+        matrix = R064Store.FACTORY.column(new double[] { Double.MAX_VALUE, Double.MAX_VALUE });
+        array = ArrayR064.wrap(matrix.data);
+
+        TestUtils.assertEquals(Double.POSITIVE_INFINITY, matrix.aggregateAll(Aggregator.SUM).doubleValue());
+        TestUtils.assertEquals(Double.POSITIVE_INFINITY, array.aggregateRange(0L, 2L, Aggregator.SUM).doubleValue());
+    }
+
+    @Test
+    public void testSameAsAggregatorFunctions() {
+
+        R064Store matrix = R064Store.FACTORY.makeFilled(97, 53, new Normal());
+        ArrayR064 array = ArrayR064.wrap(matrix.data);
+        OffHeapArray offHeap = (OffHeapArray) OffHeapArray.R064.make(array.count());
+        offHeap.fillMatching(array);
+
+        for (Aggregator aggregator : Aggregator.values()) {
+
+            AggregatorFunction<Double> function = PrimitiveAggregator.getSet().get(aggregator);
+            for (int i = 0; i < matrix.data.length; i++) {
+                function.invoke(matrix.data[i]);
+            }
+            double expected = function.doubleValue();
+
+            TestUtils.assertEquals(aggregator.name(), expected, matrix.aggregateAll(aggregator).doubleValue(), ACCURACY);
+            TestUtils.assertEquals(aggregator.name(), expected, array.aggregateAll(aggregator).doubleValue(), ACCURACY);
+            TestUtils.assertEquals(aggregator.name(), expected, array.aggregateAll(aggregator, Parallelism.FOUR), ACCURACY);
+            TestUtils.assertEquals(aggregator.name(), expected, offHeap.aggregateAll(aggregator).doubleValue(), ACCURACY);
+            TestUtils.assertEquals(aggregator.name(), expected, AggregateAll.invoke(offHeap, 0L, offHeap.count(), aggregator, Parallelism.FOUR), ACCURACY);
+
+            function.reset();
+            for (int j = 3; j < 53; j++) {
+                function.invoke(matrix.doubleValue(7, j));
+            }
+            TestUtils.assertEquals(aggregator.name(), function.doubleValue(), matrix.aggregateRow(7, 3, aggregator).doubleValue(), ACCURACY);
+
+            function.reset();
+            for (int i = 5; i < 97; i++) {
+                function.invoke(matrix.doubleValue(i, 11));
+            }
+            TestUtils.assertEquals(aggregator.name(), function.doubleValue(), matrix.aggregateColumn(5, 11, aggregator).doubleValue(), ACCURACY);
+        }
+    }
+
+}
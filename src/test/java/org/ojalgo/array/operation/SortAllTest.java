@@ -0,0 +1,152 @@
+/*
+ * Copyright 1997-2025 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.array.operation;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.ojalgo.TestUtils;
+
+public class SortAllTest extends ArrayOperationTests {
+
+    private static final Random RANDOM = new Random(123L);
+
+    private static double[] newValues(final int length) {
+        double[] retVal = new double[length];
+        for (int i = 0; i < length; i++) {
+            // Limited number of distinct values to get plenty of ties
+            retVal[i] = RANDOM.nextInt(length / 4 + 1);
+        }
+        return retVal;
+    }
+
+    @Test
+    public void testArgsortAndRank() {
+
+        double[] values = { 3.0, 1.0, 2.0, 1.0 };
+
+        int[] permutation = SortAll.argsort(values);
+        for (int i = 1; i < permutation.length; i++) {
+            TestUtils.assertTrue(values[permutation[i - 1]] <= values[permutation[i]]);
+        }
+
+        double[] ranks = SortAll.rank(values);
+        TestUtils.assertEquals(new double[] { 4.0, 1.5, 3.0, 1.5 }, ranks);
+    }
+
+    @Test
+    public void testKeyValueSort() {
+
+        for (int length : new int[] { 0, 1, 10, 1_000, 100_000 }) {
+
+            long[] keys = new long[length];
+            double[] values = new double[length];
+            for (int i = 0; i < length; i++) {
+                keys[i] = RANDOM.nextInt(length);
+                values[i] = keys[i] + 0.5;
+            }
+
+            long[] expected = keys.clone();
+            Arrays.sort(expected);
+
+            SortAll.sort(keys, values);
+
+            for (int i = 0; i < length; i++) {
+                TestUtils.assertEquals(expected[i], keys[i]);
+                TestUtils.assertEquals(keys[i] + 0.5, values[i]);
+            }
+        }
+    }
+
+    @Test
+    public void testKeyValueSortIsStable() {
+
+        for (int length : new int[] { 10, 1_000, 100_000 }) {
+
+            long[] keys = new long[length];
+            double[] values = new double[length];
+            Object[] objects = new Object[length];
+            for (int i = 0; i < length; i++) {
+                keys[i] = RANDOM.nextInt(length / 10 + 1);
+                values[i] = i;
+                objects[i] = Integer.valueOf(i);
+            }
+            long[] copy = keys.clone();
+
+            SortAll.sort(keys, values);
+            SortAll.sort(copy, objects);
+
+            for (int i = 1; i < length; i++) {
+                if (keys[i - 1] == keys[i]) {
+                    TestUtils.assertTrue(values[i - 1] < values[i]);
+                    TestUtils.assertTrue((Integer) objects[i - 1] < (Integer) objects[i]);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testPermutationSort() {
+
+        for (int length : new int[] { 0, 1, 10, 1_000, 100_000 }) {
+
+            double[] values = SortAllTest.newValues(length);
+            double[] original = values.clone();
+            double[] expected = values.clone();
+            Arrays.sort(expected);
+
+            int[] permutation = new int[length];
+            Arrays.setAll(permutation, i -> i);
+
+            SortAll.sort(values, permutation);
+
+            TestUtils.assertEquals(expected, values);
+            for (int i = 0; i < length; i++) {
+                TestUtils.assertEquals(original[permutation[i]], values[i]);
+            }
+        }
+    }
+
+    @Test
+    public void testSelect() {
+
+        for (int length : new int[] { 1, 7, 100, 10_000 }) {
+
+            double[] values = SortAllTest.newValues(length);
+            double[] expected = values.clone();
+            Arrays.sort(expected);
+
+            for (int k : new int[] { 0, length / 4, length / 2, length - 1 }) {
+                TestUtils.assertEquals(expected[k], SortAll.select(values.clone(), k));
+            }
+
+            int[] ranks = { 0, length / 4, length / 2, 3 * length / 4, length - 1 };
+            double[] work = values.clone();
+            SortAll.select(work, ranks);
+            for (int k : ranks) {
+                TestUtils.assertEquals(expected[k], work[k]);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright 1997-2025 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.ojalgo.TestUtils;
+import org.ojalgo.matrix.store.R064Store;
+import org.ojalgo.random.Normal;
+import org.ojalgo.structure.Access1D;
+import org.ojalgo.type.context.NumberContext;
+
+public class CovarianceEstimatorTest {
+
+    private static final NumberContext ACCURACY = NumberContext.of(10);
+    private static final int NB_SAMPLES = 250;
+    private static final int NB_VARIABLES = 6;
+
+    /**
+     * Correlated samples, rows are samples
+     */
+    private static R064Store data() {
+        R064Store random = R064Store.FACTORY.makeFilled(NB_SAMPLES, NB_VARIABLES, new Normal(1.0, 2.0));
+        R064Store mixing = R064Store.FACTORY.makeFilled(NB_VARIABLES, NB_VARIABLES, new Normal());
+        R064Store retVal = R064Store.FACTORY.make(NB_SAMPLES, NB_VARIABLES);
+        retVal.fillByMultiplying(random, mixing);
+        return retVal;
+    }
+
+    @Test
+    public void testBatchUpdates() {
+
+        R064Store data = CovarianceEstimatorTest.data();
+
+        CovarianceEstimator estimator = CovarianceEstimator.of(NB_VARIABLES);
+        for (int first = 0; first < NB_SAMPLES; first += 37) {
+            int limit = Math.min(first + 37, NB_SAMPLES);
+            estimator.update(data.limits(limit, NB_VARIABLES).offsets(first, 0).collect(R064Store.FACTORY));
+        }
+
+        TestUtils.assertEquals(NB_SAMPLES, estimator.count());
+        TestUtils.assertEquals(DataProcessors.covariances(R064Store.FACTORY, data), estimator.getCovariances(), ACCURACY);
+    }
+
+    @Test
+    public void testCombineAndCollector() {
+
+        R064Store data = CovarianceEstimatorTest.data();
+        R064Store expected = DataProcessors.covariances(R064Store.FACTORY, data);
+
+        CovarianceEstimator combined = CovarianceEstimator.of(NB_VARIABLES);
+        for (int part = 0; part < 3; part++) {
+            CovarianceEstimator partial = CovarianceEstimator.of(NB_VARIABLES);
+            for (int i = part; i < NB_SAMPLES; i += 3) {
+                partial.update(data.sliceRow(i));
+            }
+            combined.combine(partial);
+        }
+        TestUtils.assertEquals(expected, combined.getCovariances(), ACCURACY);
+
+        List<Access1D<?>> rows = new ArrayList<>();
+        for (int i = 0; i < NB_SAMPLES; i++) {
+            rows.add(data.sliceRow(i));
+        }
+        R064Store collected = rows.parallelStream().collect(CovarianceEstimator.newCollector(NB_VARIABLES));
+        TestUtils.assertEquals(expected, collected, ACCURACY);
+    }
+
+    @Test
+    public void testCorrelations() {
+
+        R064Store data = CovarianceEstimatorTest.data();
+
+        CovarianceEstimator estimator = CovarianceEstimator.of(NB_VARIABLES);
+        estimator.update(data);
+
+        Access1D<?>[] columns = new Access1D<?>[NB_VARIABLES];
+        for (int j = 0; j < NB_VARIABLES; j++) {
+            columns[j] = data.sliceColumn(j);
+        }
+
+        TestUtils.assertEquals(DataProcessors.correlations(R064Store.FACTORY, columns), estimator.getCorrelations(), ACCURACY);
+    }
+
+    /**
+     * Compare with a direct calculation using explicit (exponentially decaying) weights.
+     */
+    @Test
+    public void testDecay() {
+
+        double decay = 0.97;
+
+        R064Store data = CovarianceEstimatorTest.data();
+
+        double[] weights = new double[NB_SAMPLES];
+        double sumOfWeights = 0.0, sumOfSquaredWeights = 0.0;
+        for (int s = 0; s < NB_SAMPLES; s++) {
+            weights[s] = Math.pow(decay, NB_SAMPLES - 1 - s);
+            sumOfWeights += weights[s];
+            sumOfSquaredWeights += weights[s] * weights[s];
+        }
+
+        double[] means = new double[NB_VARIABLES];
+        for (int j = 0; j < NB_VARIABLES; j++) {
+            for (int s = 0; s < NB_SAMPLES; s++) {
+                means[j] += weights[s] * data.doubleValue(s, j) / sumOfWeights;
+            }
+        }
+
+        R064Store expected = R064Store.FACTORY.make(NB_VARIABLES, NB_VARIABLES);
+        for (int i = 0; i < NB_VARIABLES; i++) {
+            for (int j = 0; j < NB_VARIABLES; j++) {
+                double sum = 0.0;
+                for (int s = 0; s < NB_SAMPLES; s++) {
+                    sum += weights[s] * (data.doubleValue(s, i) - means[i]) * (data.doubleValue(s, j) - means[j]);
+                }
+                expected.set(i, j, sum / (sumOfWeights - sumOfSquaredWeights / sumOfWeights));
+            }
+        }
+
+        CovarianceEstimator sampleBySample = CovarianceEstimator.of(NB_VARIABLES, decay);
+        for (int s = 0; s < NB_SAMPLES; s++) {
+            sampleBySample.update(data.sliceRow(s));
+        }
+        TestUtils.assertEquals(expected, sampleBySample.getCovariances(), ACCURACY);
+        TestUtils.assertEquals(R064Store.wrap(means, NB_VARIABLES), sampleBySample.getMeans(), ACCURACY);
+
+        CovarianceEstimator batched = CovarianceEstimator.of(NB_VARIABLES, decay);
+        batched.update(data.limits(100, NB_VARIABLES).collect(R064Store.FACTORY));
+        for (int s = 100; s < NB_SAMPLES; s++) {
+            batched.update(data.sliceRow(s));
+        }
+        TestUtils.assertEquals(expected, batched.getCovariances(), ACCURACY);
+    }
+
+    @Test
+    public void testSampleBySample() {
+
+        R064Store data = CovarianceEstimatorTest.data();
+        R064Store expected = DataProcessors.covariances(R064Store.FACTORY, data);
+
+        CovarianceEstimator estimator = CovarianceEstimator.of(NB_VARIABLES);
+        for (int i = 0; i < NB_SAMPLES; i++) {
+            estimator.update(data.sliceRow(i));
+        }
+        TestUtils.assertEquals(expected, estimator.getCovariances(), ACCURACY);
+
+        int threshold = CovarianceEstimator.THRESHOLD;
+        try {
+            CovarianceEstimator.THRESHOLD = 2;
+            CovarianceEstimator parallel = CovarianceEstimator.of(NB_VARIABLES);
+            for (int i = 0; i < NB_SAMPLES; i++) {
+                parallel.update(data.sliceRow(i));
+            }
+            TestUtils.assertEquals(expected, parallel.getCovariances(), ACCURACY);
+        } finally {
+            CovarianceEstimator.THRESHOLD = threshold;
+        }
+    }
+
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright 1997-2025 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.data;
+
+import org.junit.jupiter.api.Test;
+import org.ojalgo.TestUtils;
+import org.ojalgo.matrix.decomposition.SingularValue;
+import org.ojalgo.matrix.store.MatrixStore;
+import org.ojalgo.matrix.store.R064Store;
+import org.ojalgo.random.Normal;
+import org.ojalgo.type.context.NumberContext;
+
+public class IncrementalPCATest {
+
+    private static final NumberContext ACCURACY = NumberContext.of(8);
+    private static final int NB_SAMPLES = 300;
+    private static final int NB_VARIABLES = 6;
+
+    /**
+     * Samples in rows, with (apart from some tiny noise) only rank latent dimensions
+     */
+    private static R064Store data(final int rank, final double noise) {
+        R064Store latent = R064Store.FACTORY.makeFilled(NB_SAMPLES, rank, new Normal(2.0, 3.0));
+        R064Store mixing = R064Store.FACTORY.makeFilled(rank, NB_VARIABLES, new Normal());
+        R064Store retVal = R064Store.FACTORY.make(NB_SAMPLES, NB_VARIABLES);
+        retVal.fillByMultiplying(latent, mixing);
+        if (noise > 0.0) {
+            Normal random = new Normal(0.0, noise);
+            for (int i = 0; i < NB_SAMPLES; i++) {
+                for (int j = 0; j < NB_VARIABLES; j++) {
+                    retVal.add(i, j, random.doubleValue());
+                }
+            }
+        }
+        return retVal;
+    }
+
+    private static void update(final IncrementalPCA pca, final R064Store data, final int batchSize) {
+        for (int first = 0; first < NB_SAMPLES; first += batchSize) {
+            int limit = Math.min(first + batchSize, NB_SAMPLES);
+            pca.update(data.limits(limit, NB_VARIABLES).offsets(first, 0).collect(R064Store.FACTORY));
+        }
+    }
+
+    /**
+     * The components should span the same subspace as the eigenvectors of the covariance matrix, and the
+     * variances should be its eigenvalues.
+     */
+    private static void assertMatchesCovariances(final MatrixStore<Double> covariances, final IncrementalPCA pca, final NumberContext accuracy) {
+
+        SingularValue<Double> svd = SingularValue.R064.make(covariances);
+        svd.decompose(covariances);
+
+        int k = pca.countComponents();
+        R064Store components = pca.getComponents();
+        R064Store variances = pca.getVariances();
+
+        for (int c = 0; c < k; c++) {
+            TestUtils.assertEquals(svd.getSingularValues().doubleValue(c), variances.doubleValue(c), accuracy);
+            double dot = svd.getU().sliceColumn(c).dot(components.sliceColumn(c));
+            TestUtils.assertEquals(1.0, Math.abs(dot), accuracy);
+        }
+    }
+
+    @Test
+    public void testFullRankMatchesBatch() {
+
+        R064Store data = IncrementalPCATest.data(NB_VARIABLES, 0.0);
+
+        IncrementalPCA pca = IncrementalPCA.of(NB_VARIABLES, NB_VARIABLES);
+        IncrementalPCATest.update(pca, data, 23);
+
+        TestUtils.assertEquals(NB_SAMPLES, pca.count());
+        TestUtils.assertEquals(NB_VARIABLES, pca.countComponents());
+
+        IncrementalPCATest.assertMatchesCovariances(DataProcessors.covariances(R064Store.FACTORY, data), pca, ACCURACY);
+    }
+
+    @Test
+    public void testForgettingFactor() {
+
+        R064Store data = IncrementalPCATest.data(NB_VARIABLES, 0.0);
+
+        IncrementalPCA pca = IncrementalPCA.of(NB_VARIABLES, NB_VARIABLES, 0.98);
+        CovarianceEstimator estimator = CovarianceEstimator.of(NB_VARIABLES, 0.98);
+
+        for (int first = 0; first < NB_SAMPLES; first += 17) {
+            int limit = Math.min(first + 17, NB_SAMPLES);
+            R064Store batch = data.limits(limit, NB_VARIABLES).offsets(first, 0).collect(R064Store.FACTORY);
+            pca.update(batch);
+            estimator.update(batch);
+        }
+
+        TestUtils.assertEquals(estimator.getMeans(), pca.getMeans(), ACCURACY);
+        IncrementalPCATest.assertMatchesCovariances(estimator.getCovariances(), pca, ACCURACY);
+    }
+
+    @Test
+    public void testLowRankApproximation() {
+
+        R064Store data = IncrementalPCATest.data(2, 1E-6);
+
+        IncrementalPCA pca = IncrementalPCA.of(NB_VARIABLES, 2);
+        IncrementalPCATest.update(pca, data, 10);
+
+        TestUtils.assertEquals(2, pca.countComponents());
+        IncrementalPCATest.assertMatchesCovariances(DataProcessors.covariances(R064Store.FACTORY, data), pca, NumberContext.of(6));
+    }
+
+    @Test
+    public void testTransform() {
+
+        R064Store data = IncrementalPCATest.data(3, 0.0);
+
+        IncrementalPCA pca = IncrementalPCA.of(NB_VARIABLES, 3);
+        IncrementalPCATest.update(pca, data, 50);
+
+        R064Store scores = R064Store.FACTORY.make(NB_SAMPLES, 3);
+        pca.transform(data, scores);
+
+        R064Store means = pca.getMeans();
+        R064Store centered = R064Store.FACTORY.make(NB_SAMPLES, NB_VARIABLES);
+        for (int i = 0; i < NB_SAMPLES; i++) {
+            for (int j = 0; j < NB_VARIABLES; j++) {
+                centered.set(i, j, data.doubleValue(i, j) - means.doubleValue(j));
+            }
+        }
+
+        // Centered data is reconstructed from the scores (the data is exactly rank 3)
+        TestUtils.assertEquals(centered, scores.multiply(pca.getComponents().transpose()), ACCURACY);
+
+        R064Store row = R064Store.FACTORY.make(1, 3);
+        pca.transform(data.sliceRow(7), row);
+        TestUtils.assertEquals(scores.sliceRow(7), row, ACCURACY);
+    }
+
+}
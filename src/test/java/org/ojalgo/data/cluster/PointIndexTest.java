@@ -0,0 +1,114 @@
+package org.ojalgo.data.cluster;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.ojalgo.TestUtils;
+
+public class PointIndexTest extends ClusterTests {
+
+    private static List<Point> random(final int nbPoints, final int dimensions, final long seed) {
+
+        Random random = new Random(seed);
+        Point.Factory factory = Point.newFactory(dimensions);
+
+        List<Point> retVal = new ArrayList<>(nbPoints);
+        for (int i = 0; i < nbPoints; i++) {
+            float[] coordinates = new float[dimensions];
+            for (int d = 0; d < dimensions; d++) {
+                coordinates[d] = random.nextFloat();
+            }
+            retVal.add(factory.newPoint(coordinates));
+        }
+        return retVal;
+    }
+
+    /**
+     * Same as {@link BasicTest#testAuto()}, but forcing the use of a {@link PointIndex}.
+     */
+    @Test
+    public void testClusterUsingIndex() {
+
+        Point.Factory factory = Point.newFactory(2);
+
+        Set<Point> cluster1 = new HashSet<>();
+        Set<Point> cluster2 = new HashSet<>();
+        for (int i = 0; i < 100; i++) {
+            cluster1.add(factory.newPoint(1 + (i % 10) / 10F, (i / 10) / 2F));
+            cluster2.add(factory.newPoint(9 + (i % 10) / 10F, -(i / 10) / 2F));
+        }
+
+        List<Point> points = new ArrayList<>();
+        points.addAll(cluster1);
+        points.addAll(cluster2);
+
+        int threshold = PointIndex.THRESHOLD;
+        try {
+            PointIndex.THRESHOLD = 10;
+            List<Set<Point>> clusters = Point.cluster(points);
+            if (DEBUG) {
+                this.printClusters("index", clusters);
+            }
+            TestUtils.assertEquals(2, clusters.size());
+            TestUtils.assertTrue(clusters.contains(cluster1));
+            TestUtils.assertTrue(clusters.contains(cluster2));
+        } finally {
+            PointIndex.THRESHOLD = threshold;
+        }
+    }
+
+    @Test
+    public void testNearest() {
+
+        List<Point> points = PointIndexTest.random(20_000, 3, 1L);
+        PointIndex index = PointIndex.of(points);
+
+        TestUtils.assertEquals(points.size(), index.size());
+
+        for (Point query : PointIndexTest.random(50, 3, 2L)) {
+
+            List<Point> expected = new ArrayList<>(points);
+            expected.sort(Comparator.comparingDouble(query::distance));
+
+            List<Point> actual = index.nearest(query, 7);
+
+            TestUtils.assertEquals(7, actual.size());
+            for (int i = 0; i < actual.size(); i++) {
+                TestUtils.assertEquals(query.distance(expected.get(i)), query.distance(actual.get(i)));
+            }
+        }
+
+        Point member = points.get(123);
+        TestUtils.assertEquals(member, index.nearest(member, 1).get(0));
+    }
+
+    @Test
+    public void testWithin() {
+
+        List<Point> points = PointIndexTest.random(5_000, 4, 3L);
+        PointIndex index = PointIndex.of(points);
+
+        for (Point query : PointIndexTest.random(50, 4, 4L)) {
+
+            double threshold = 0.05;
+
+            Set<Point> expected = new HashSet<>();
+            for (Point point : points) {
+                if (query.distance(point) <= threshold) {
+                    expected.add(point);
+                }
+            }
+
+            List<Point> actual = index.within(query, threshold);
+
+            TestUtils.assertEquals(expected.size(), actual.size());
+            TestUtils.assertEquals(expected, new HashSet<>(actual));
+        }
+    }
+
+}
@@ -0,0 +1,158 @@
+package org.ojalgo.data.cluster;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.ojalgo.TestUtils;
+import org.ojalgo.matrix.store.R064Store;
+import org.ojalgo.random.Uniform;
+import org.ojalgo.type.context.NumberContext;
+
+public class PrimitiveKMeansTest extends ClusterTests {
+
+    private static final int DIMENSIONS = 5;
+    private static final int K = 4;
+    private static final int PER_CLUSTER = 500;
+
+    /**
+     * K well separated blobs – the rows are ordered by blob.
+     */
+    private static R064Store blobs(final long seed) {
+
+        Random random = new Random(seed);
+
+        R064Store retVal = R064Store.FACTORY.make(K * PER_CLUSTER, DIMENSIONS);
+        for (int i = 0; i < retVal.getRowDim(); i++) {
+            int blob = i / PER_CLUSTER;
+            for (int c = 0; c < DIMENSIONS; c++) {
+                retVal.set(i, c, PrimitiveKMeansTest.center(blob, c) + random.nextGaussian());
+            }
+        }
+        return retVal;
+    }
+
+    private static double center(final int blob, final int dimension) {
+        return dimension == blob % DIMENSIONS ? 20.0 * (1 + blob / DIMENSIONS) : 0.0;
+    }
+
+    private static Set<Set<Integer>> partition(final PrimitiveKMeans.Result result) {
+        Set<Set<Integer>> retVal = new HashSet<>();
+        for (int[] cluster : result.getClusters()) {
+            Set<Integer> members = new HashSet<>();
+            for (int i : cluster) {
+                members.add(i);
+            }
+            retVal.add(members);
+        }
+        return retVal;
+    }
+
+    @Test
+    public void testBlobsAreFound() {
+
+        R064Store data = PrimitiveKMeansTest.blobs(123L);
+
+        PrimitiveKMeans.Result result = PrimitiveKMeans.newBuilder(K).seed(456L).build().cluster(data);
+
+        int[] assignments = result.getAssignments();
+        List<int[]> clusters = result.getClusters();
+
+        TestUtils.assertEquals(K, clusters.size());
+        for (int[] cluster : clusters) {
+            TestUtils.assertEquals(PER_CLUSTER, cluster.length);
+        }
+        for (int i = 0; i < assignments.length; i++) {
+            TestUtils.assertEquals(assignments[i / PER_CLUSTER * PER_CLUSTER], assignments[i]);
+        }
+
+        R064Store centroids = result.getCentroids();
+        for (int blob = 0; blob < K; blob++) {
+            int j = assignments[blob * PER_CLUSTER];
+            for (int c = 0; c < DIMENSIONS; c++) {
+                TestUtils.assertEquals(PrimitiveKMeansTest.center(blob, c), centroids.doubleValue(j, c), 0.2);
+            }
+            TestUtils.assertEquals(j, result.assign(data.sliceRow(blob * PER_CLUSTER)));
+        }
+
+        // Expected inertia is roughly nbRows * DIMENSIONS (unit variance noise)
+        TestUtils.assertEquals(K * PER_CLUSTER * DIMENSIONS, result.getInertia(), 0.1 * K * PER_CLUSTER * DIMENSIONS);
+    }
+
+    @Test
+    public void testMiniBatch() {
+
+        PrimitiveKMeans.MiniBatch miniBatch = PrimitiveKMeans.newBuilder(K).seed(1L).build().newMiniBatch();
+
+        Random random = new Random(2L);
+        R064Store batch = R064Store.FACTORY.make(200, DIMENSIONS);
+
+        for (int b = 0; b < 50; b++) {
+            for (int i = 0; i < batch.getRowDim(); i++) {
+                int blob = random.nextInt(K);
+                for (int c = 0; c < DIMENSIONS; c++) {
+                    batch.set(i, c, PrimitiveKMeansTest.center(blob, c) + random.nextGaussian());
+                }
+            }
+            miniBatch.update(batch);
+        }
+
+        R064Store centroids = miniBatch.getCentroids();
+        R064Store center = R064Store.FACTORY.make(1, DIMENSIONS);
+
+        Set<Integer> found = new HashSet<>();
+        for (int blob = 0; blob < K; blob++) {
+            for (int c = 0; c < DIMENSIONS; c++) {
+                center.set(c, PrimitiveKMeansTest.center(blob, c));
+            }
+            int j = miniBatch.assign(center);
+            found.add(j);
+            for (int c = 0; c < DIMENSIONS; c++) {
+                TestUtils.assertEquals(PrimitiveKMeansTest.center(blob, c), centroids.doubleValue(j, c), 0.5);
+            }
+        }
+        TestUtils.assertEquals(K, found.size());
+    }
+
+    /**
+     * Running in parallel, or with the pruning switched off, should give the same clusters.
+     */
+    @Test
+    public void testParallelAndPruningGiveSameResult() {
+
+        R064Store data = PrimitiveKMeansTest.blobs(789L);
+
+        PrimitiveKMeans.Result pruned = PrimitiveKMeans.newBuilder(K).seed(1L).parallelism(() -> 1).build().cluster(data);
+        PrimitiveKMeans.Result lloyd = PrimitiveKMeans.newBuilder(K).seed(1L).parallelism(() -> 1).pruning(false).build().cluster(data);
+
+        TestUtils.assertEquals(pruned.getAssignments(), lloyd.getAssignments());
+        TestUtils.assertEquals(pruned.countIterations(), lloyd.countIterations());
+        TestUtils.assertEquals(pruned.getCentroids(), lloyd.getCentroids(), NumberContext.of(12));
+
+        int threshold = PrimitiveKMeans.THRESHOLD;
+        try {
+            PrimitiveKMeans.THRESHOLD = 64;
+            PrimitiveKMeans.Result parallel = PrimitiveKMeans.newBuilder(K).seed(1L).parallelism(() -> 4).build().cluster(data);
+            TestUtils.assertEquals(PrimitiveKMeansTest.partition(pruned), PrimitiveKMeansTest.partition(parallel));
+            TestUtils.assertEquals(pruned.getInertia(), parallel.getInertia(), NumberContext.of(8));
+        } finally {
+            PrimitiveKMeans.THRESHOLD = threshold;
+        }
+    }
+
+    @Test
+    public void testReproducible() {
+
+        R064Store data = R064Store.FACTORY.makeFilled(1000, 3, new Uniform());
+
+        PrimitiveKMeans.Result result1 = PrimitiveKMeans.newBuilder(7).seed(99L).build().cluster(data);
+        PrimitiveKMeans.Result result2 = PrimitiveKMeans.newBuilder(7).seed(99L).build().cluster(data);
+
+        TestUtils.assertEquals(result1.getAssignments(), result2.getAssignments());
+        TestUtils.assertEquals(result1.getCentroids(), result2.getCentroids());
+        TestUtils.assertEquals(result1.getInertia(), result2.getInertia());
+    }
+
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 1997-2025 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.data.domain.finance.portfolio.simulator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.ojalgo.TestUtils;
+import org.ojalgo.matrix.store.R064Store;
+import org.ojalgo.random.process.GeometricBrownianMotion;
+import org.ojalgo.random.process.RandomProcess;
+
+public class PortfolioSimulatorTest extends PortfolioSimulatorTests {
+
+    private static PortfolioSimulator newSimulator(final boolean correlated) {
+
+        List<GeometricBrownianMotion> processes = new ArrayList<>();
+        processes.add(new GeometricBrownianMotion(0.05, 0.20));
+        processes.add(new GeometricBrownianMotion(0.03, 0.10));
+        processes.add(new GeometricBrownianMotion(0.01, 0.05));
+
+        if (correlated) {
+            R064Store correlations = R064Store.FACTORY.makeEye(3, 3);
+            correlations.set(0, 1, 0.5);
+            correlations.set(1, 0, 0.5);
+            correlations.set(1, 2, -0.3);
+            correlations.set(2, 1, -0.3);
+            return new PortfolioSimulator(correlations, processes);
+        } else {
+            return new PortfolioSimulator(null, processes);
+        }
+    }
+
+    @Test
+    public void testExpectedValue() {
+
+        RandomProcess.SimulationResults results = PortfolioSimulatorTest.newSimulator(false).seed(1L).simulate(4_000, 12, 1.0 / 12.0);
+
+        TestUtils.assertEquals(3.0, results.getInitialValue());
+        TestUtils.assertEquals(4_000, results.countScenarios());
+        TestUtils.assertEquals(12, results.countSampleSets());
+
+        double expected = Math.exp(0.05) + Math.exp(0.03) + Math.exp(0.01);
+        TestUtils.assertEquals(expected, results.getSampleSet(11).getMean(), 0.02);
+    }
+
+    /**
+     * Same seed gives the same results, regardless of the parallelism, different seeds give different
+     * results.
+     */
+    @Test
+    public void testReproducible() {
+
+        RandomProcess.SimulationResults sequential = PortfolioSimulatorTest.newSimulator(true).seed(123L).parallelism(() -> 1).simulate(500, 20, 0.1, 5);
+
+        RandomProcess.SimulationResults parallel;
+        int threshold = PortfolioSimulator.THRESHOLD;
+        try {
+            PortfolioSimulator.THRESHOLD = 8;
+            parallel = PortfolioSimulatorTest.newSimulator(true).seed(123L).parallelism(() -> 4).simulate(500, 20, 0.1, 5);
+        } finally {
+            PortfolioSimulator.THRESHOLD = threshold;
+        }
+
+        RandomProcess.SimulationResults other = PortfolioSimulatorTest.newSimulator(true).seed(456L).simulate(500, 20, 0.1, 5);
+
+        for (int s = 0; s < 20; s++) {
+            TestUtils.assertEquals(sequential.getSampleSet(s), parallel.getSampleSet(s));
+        }
+        TestUtils.assertFalse(sequential.getSampleSet(19).getMean() == other.getSampleSet(19).getMean());
+    }
+
+}
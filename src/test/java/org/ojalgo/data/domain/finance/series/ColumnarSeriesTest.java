@@ -0,0 +1,167 @@
+/*
+ * Copyright 1997-2025 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.data.domain.finance.series;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.ojalgo.TestUtils;
+import org.ojalgo.array.OffHeapArray;
+import org.ojalgo.series.BasicSeries;
+import org.ojalgo.series.CalendarDateSeries;
+import org.ojalgo.series.ColumnarSeries;
+import org.ojalgo.series.primitive.ExplicitTimeSeries;
+import org.ojalgo.series.primitive.PrimitiveSeries;
+import org.ojalgo.type.CalendarDate;
+import org.ojalgo.type.CalendarDateUnit;
+
+public class ColumnarSeriesTest extends FinanceSeriesTests {
+
+    private static final File FILE = new File("./src/test/resources/org/ojalgo/data/domain/finance/series/Yahoo-AAPL-daily.csv");
+
+    private static void assertStorage(final ColumnarSeries series) {
+
+        int nbRows = 1000;
+
+        // Appended in reverse order – every row is an insert
+        for (int i = nbRows - 1; i >= 0; i--) {
+            series.append(1_000L * i, i, -i);
+        }
+
+        TestUtils.assertEquals(nbRows, series.size());
+        for (int i = 0; i < nbRows; i++) {
+            TestUtils.assertEquals(1_000L * i, series.key(i));
+            TestUtils.assertEquals(i, series.doubleValue(i, 0));
+            TestUtils.assertEquals(-i, series.doubleValue(i, 1));
+        }
+
+        series.close();
+    }
+
+    @Test
+    public void testIndex() {
+
+        Random random = new Random(123L);
+
+        ColumnarSeries series = ColumnarSeries.of(CalendarDateUnit.MILLIS, "value");
+
+        long[] times = new long[10_000];
+        long time = 0L;
+        for (int i = 0; i < times.length; i++) {
+            // Mostly regular, with occasional large gaps
+            time += random.nextInt(100) == 0 ? 1 + random.nextInt(100_000) : 1_000L;
+            times[i] = time;
+            series.append(time, i);
+        }
+
+        for (int i = 0; i < 5_000; i++) {
+            long query = random.nextInt(100) < 50 ? times[random.nextInt(times.length)] : (long) (random.nextDouble() * (time + 2_000L)) - 1_000L;
+            int expected = Arrays.binarySearch(times, query);
+            TestUtils.assertEquals(expected, series.index(query));
+            TestUtils.assertEquals(expected >= 0 ? expected : -(expected + 2), series.floorIndex(query));
+        }
+    }
+
+    @Test
+    public void testOffHeapAndMapped() throws Exception {
+
+        ColumnarSeriesTest.assertStorage(ColumnarSeries.of(OffHeapArray.R064, CalendarDateUnit.MILLIS, "a", "b"));
+
+        File directory = Files.createTempDirectory("ColumnarSeries").toFile();
+        try {
+            ColumnarSeriesTest.assertStorage(ColumnarSeries.mapped(directory, CalendarDateUnit.MILLIS, "a", "b"));
+        } finally {
+            for (File file : directory.listFiles()) {
+                file.delete();
+            }
+            directory.delete();
+        }
+    }
+
+    @Test
+    public void testSameAsCalendarDateSeries() {
+
+        DataSource dataSource = DataSource.newFileReader(FILE, YahooParser.INSTANCE);
+        CalendarDateSeries<Double> expected = dataSource.getCalendarDateSeries(CalendarDateUnit.DAY);
+
+        ColumnarSeries columnar = ColumnarSeries.of(CalendarDateUnit.DAY, "price", "other");
+        BasicSeries.NaturallySequenced<CalendarDate, Double> actual = columnar.field("price");
+        for (Map.Entry<CalendarDate, Double> entry : expected.entrySet()) {
+            actual.put(entry.getKey(), entry.getValue());
+        }
+
+        TestUtils.assertEquals(expected.size(), actual.size());
+        TestUtils.assertEquals(expected.firstKey(), actual.firstKey());
+        TestUtils.assertEquals(expected.lastKey(), actual.lastKey());
+        TestUtils.assertEquals(expected, actual);
+
+        CalendarDate from = expected.firstKey().step(100, CalendarDateUnit.DAY);
+        CalendarDate to = expected.lastKey().step(-100, CalendarDateUnit.DAY);
+        TestUtils.assertEquals(expected.subMap(from, to), actual.subMap(from, to));
+        TestUtils.assertEquals(expected.headMap(to), actual.headMap(to));
+        TestUtils.assertEquals(expected.tailMap(from), actual.tailMap(from));
+
+        ExplicitTimeSeries primitive = columnar.getPrimitiveTimeSeries(0);
+        TestUtils.assertEquals(expected.getPrimitiveKeys(), primitive.keys());
+        TestUtils.assertEquals(expected.asPrimitive(), primitive.getValueSeries());
+
+        expected.complete();
+        actual.complete();
+        TestUtils.assertEquals(expected, actual);
+        TestUtils.assertEquals(expected.size(), columnar.size());
+    }
+
+    @Test
+    public void testViews() {
+
+        ColumnarSeries series = ColumnarSeries.of(CalendarDateUnit.MINUTE, "open", "close");
+        for (int i = 0; i < 100; i++) {
+            series.append(60_000L * i, i, i + 0.5);
+        }
+
+        PrimitiveSeries close = series.asPrimitive(1);
+        long[] keys = series.getPrimitiveKeys();
+
+        // Shared, not copied
+        TestUtils.assertTrue(keys == series.getPrimitiveKeys());
+        TestUtils.assertTrue(keys == series.getPrimitiveTimeSeries(0).keys());
+
+        // Keys are filtered by the resolution
+        series.put(60_000L * 7 + 123L, 1, -7.0);
+        TestUtils.assertEquals(-7.0, close.value(7));
+        TestUtils.assertEquals(-7.0, series.field(1).doubleValue(new CalendarDate(60_000L * 7)));
+
+        // A new key inserts a row
+        series.field("open").put(new CalendarDate(60_000L * 100 + 123L), 100.0);
+        TestUtils.assertEquals(101, series.size());
+        TestUtils.assertEquals(CalendarDateUnit.MINUTE.adjustInto(60_000L * 100), series.key(100));
+        TestUtils.assertTrue(Double.isNaN(series.doubleValue(100, 1)));
+
+        // Appending didn't modify the previously returned keys
+        TestUtils.assertEquals(100, keys.length);
+    }
+
+}
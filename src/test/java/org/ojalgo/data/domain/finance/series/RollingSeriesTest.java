@@ -0,0 +1,231 @@
+/*
+ * Copyright 1997-2025 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.data.domain.finance.series;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.ojalgo.TestUtils;
+import org.ojalgo.matrix.store.R064Store;
+import org.ojalgo.series.CalendarDateSeries;
+import org.ojalgo.series.primitive.CoordinatedSet;
+import org.ojalgo.series.primitive.DataSeries;
+import org.ojalgo.series.primitive.PrimitiveSeries;
+import org.ojalgo.series.primitive.SeriesSet;
+import org.ojalgo.type.CalendarDate;
+import org.ojalgo.type.CalendarDateUnit;
+
+public class RollingSeriesTest extends FinanceSeriesTests {
+
+    private static final double ACCURACY = 1E-9;
+    private static final int WINDOW = 25;
+
+    /**
+     * A random walk with a large offset – that's what makes naive running sums lose precision.
+     */
+    private static PrimitiveSeries walk(final int size, final long seed) {
+
+        Random random = new Random(seed);
+
+        double[] values = new double[size];
+        double value = 1E6;
+        for (int i = 0; i < size; i++) {
+            values[i] = value += random.nextGaussian();
+        }
+
+        return DataSeries.wrap(values);
+    }
+
+    @Test
+    public void testAgainstBruteForce() {
+
+        PrimitiveSeries x = RollingSeriesTest.walk(2_000, 1L);
+        PrimitiveSeries y = RollingSeriesTest.walk(2_000, 2L);
+
+        PrimitiveSeries mean = x.rollingMean(WINDOW);
+        PrimitiveSeries variance = x.rollingVariance(WINDOW);
+        PrimitiveSeries covariance = x.rollingCovariance(y, WINDOW);
+        PrimitiveSeries min = x.rollingMinimum(WINDOW);
+        PrimitiveSeries max = x.rollingMaximum(WINDOW);
+
+        int size = x.size() - WINDOW + 1;
+        TestUtils.assertEquals(size, mean.size());
+        TestUtils.assertEquals(size, variance.size());
+        TestUtils.assertEquals(size, covariance.size());
+        TestUtils.assertEquals(size, min.size());
+        TestUtils.assertEquals(size, max.size());
+
+        for (int i = 0; i < size; i++) {
+
+            double sumX = 0.0, sumY = 0.0;
+            double expectedMin = Double.POSITIVE_INFINITY, expectedMax = Double.NEGATIVE_INFINITY;
+            for (int j = i; j < i + WINDOW; j++) {
+                sumX += x.value(j);
+                sumY += y.value(j);
+                expectedMin = Math.min(expectedMin, x.value(j));
+                expectedMax = Math.max(expectedMax, x.value(j));
+            }
+            double meanX = sumX / WINDOW;
+            double meanY = sumY / WINDOW;
+
+            double sumXX = 0.0, sumXY = 0.0;
+            for (int j = i; j < i + WINDOW; j++) {
+                sumXX += (x.value(j) - meanX) * (x.value(j) - meanX);
+                sumXY += (x.value(j) - meanX) * (y.value(j) - meanY);
+            }
+
+            TestUtils.assertEquals(meanX, mean.value(i), ACCURACY * meanX);
+            TestUtils.assertEquals(sumXX / (WINDOW - 1), variance.value(i), ACCURACY);
+            TestUtils.assertEquals(sumXY / (WINDOW - 1), covariance.value(i), ACCURACY);
+            TestUtils.assertEquals(expectedMin, min.value(i));
+            TestUtils.assertEquals(expectedMax, max.value(i));
+        }
+    }
+
+    @Test
+    public void testEWMA() {
+
+        PrimitiveSeries x = RollingSeriesTest.walk(500, 3L);
+        PrimitiveSeries ewma = x.ewma(0.1);
+
+        TestUtils.assertEquals(x.size(), ewma.size());
+
+        double expected = x.value(0);
+        for (int i = 0; i < x.size(); i++) {
+            expected = i == 0 ? expected : 0.9 * expected + 0.1 * x.value(i);
+            TestUtils.assertEquals(expected, ewma.value(i), ACCURACY * expected);
+        }
+
+        // With smoothing 1 there is no smoothing
+        TestUtils.assertEquals(x.values(), x.ewma(1.0).values());
+    }
+
+    @Test
+    public void testNaNAtFirstIndex() {
+
+        double[] values = new double[20];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i + 1;
+        }
+        values[0] = Double.NaN;
+        PrimitiveSeries series = DataSeries.wrap(values);
+
+        PrimitiveSeries mean = series.rollingMean(4);
+        PrimitiveSeries variance = series.rollingVariance(4);
+
+        TestUtils.assertTrue(Double.isNaN(mean.value(0)));
+        TestUtils.assertTrue(Double.isNaN(variance.value(0)));
+        for (int i = 1; i < mean.size(); i++) {
+            TestUtils.assertEquals(i + 2.5, mean.value(i), ACCURACY);
+            TestUtils.assertEquals(5.0 / 3.0, variance.value(i), ACCURACY);
+        }
+    }
+
+    @Test
+    public void testNaNInTheMiddle() {
+
+        double[] values = new double[20];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i + 1;
+        }
+        values[5] = Double.NaN;
+        PrimitiveSeries series = DataSeries.wrap(values);
+
+        PrimitiveSeries mean = series.rollingMean(4);
+        PrimitiveSeries variance = series.rollingVariance(4);
+
+        TestUtils.assertEquals(17, mean.size());
+        for (int i = 0; i < mean.size(); i++) {
+            if (i >= 2 && i <= 5) {
+                TestUtils.assertTrue(Double.isNaN(mean.value(i)));
+                TestUtils.assertTrue(Double.isNaN(variance.value(i)));
+            } else {
+                TestUtils.assertEquals(i + 2.5, mean.value(i), ACCURACY);
+                TestUtils.assertEquals(5.0 / 3.0, variance.value(i), ACCURACY);
+            }
+        }
+        TestUtils.assertEquals(8.5, mean.value(6), ACCURACY);
+        TestUtils.assertEquals(9.5, mean.value(7), ACCURACY);
+    }
+
+    @Test
+    public void testNaNMinMax() {
+
+        double[] values = { 1.0, Double.NaN, 5.0, 3.0, 9.0, 2.0, 6.0, 5.0, 3.0, 5.0, 8.0, 7.0 };
+        PrimitiveSeries series = DataSeries.wrap(values);
+
+        int window = 3;
+        PrimitiveSeries minimum = series.rollingMinimum(window);
+        PrimitiveSeries maximum = series.rollingMaximum(window);
+
+        TestUtils.assertEquals(10, maximum.size());
+        for (int i = 0; i < maximum.size(); i++) {
+            if (i <= 1) {
+                // The NaN is inside the window
+                TestUtils.assertTrue(Double.isNaN(minimum.value(i)));
+                TestUtils.assertTrue(Double.isNaN(maximum.value(i)));
+            } else {
+                double min = Double.POSITIVE_INFINITY;
+                double max = Double.NEGATIVE_INFINITY;
+                for (int j = i; j < i + window; j++) {
+                    min = Math.min(min, values[j]);
+                    max = Math.max(max, values[j]);
+                }
+                TestUtils.assertEquals(min, minimum.value(i));
+                TestUtils.assertEquals(max, maximum.value(i));
+            }
+        }
+        TestUtils.assertEquals(9.0, maximum.value(2));
+        TestUtils.assertEquals(2.0, minimum.value(3));
+    }
+
+    @Test
+    public void testSeriesSet() {
+
+        CalendarDate start = CalendarDate.make(CalendarDateUnit.DAY);
+
+        CalendarDateSeries<Double>[] uncoordinated = new CalendarDateSeries[5];
+        for (int s = 0; s < uncoordinated.length; s++) {
+            PrimitiveSeries walk = RollingSeriesTest.walk(300, 10L + s);
+            uncoordinated[s] = new CalendarDateSeries<>(CalendarDateUnit.DAY);
+            for (int i = 0; i < walk.size(); i++) {
+                uncoordinated[s].put(start.step(i, CalendarDateUnit.DAY), walk.value(i));
+            }
+        }
+
+        CoordinatedSet<CalendarDate> set = CoordinatedSet.from(uncoordinated);
+
+        SeriesSet rolling = set.rollingVariance(WINDOW);
+        R064Store data = rolling.getData(R064Store.FACTORY);
+
+        TestUtils.assertEquals(300 - WINDOW + 1, data.getRowDim());
+        TestUtils.assertEquals(uncoordinated.length, data.getColDim());
+
+        for (int s = 0; s < uncoordinated.length; s++) {
+            PrimitiveSeries expected = uncoordinated[s].asPrimitive().rollingVariance(WINDOW);
+            for (int i = 0; i < expected.size(); i++) {
+                TestUtils.assertEquals(expected.value(i), data.doubleValue(i, s));
+            }
+        }
+    }
+
+}
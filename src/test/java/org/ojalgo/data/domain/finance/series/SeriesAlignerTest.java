@@ -0,0 +1,149 @@
+/*
+ * Copyright 1997-2025 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.data.domain.finance.series;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Test;
+import org.ojalgo.TestUtils;
+import org.ojalgo.matrix.store.R064Store;
+import org.ojalgo.series.CalendarDateSeries;
+import org.ojalgo.series.CoordinationSet;
+import org.ojalgo.series.SeriesAligner;
+import org.ojalgo.series.primitive.DataSeries;
+import org.ojalgo.series.primitive.ExplicitTimeSeries;
+import org.ojalgo.type.CalendarDate;
+import org.ojalgo.type.CalendarDateUnit;
+
+public class SeriesAlignerTest extends FinanceSeriesTests {
+
+    /**
+     * Irregularly spaced "ticks", a few seconds apart on average
+     */
+    private static CalendarDateSeries<Double> ticks(final String name, final int size, final long seed) {
+
+        Random random = new Random(seed);
+
+        CalendarDateSeries<Double> retVal = new CalendarDateSeries<Double>(CalendarDateUnit.MILLIS).name(name);
+
+        long time = 1_600_000_000_000L + random.nextInt(60_000);
+        double value = 100.0;
+        for (int i = 0; i < size; i++) {
+            time += 1 + random.nextInt(10_000);
+            value += random.nextGaussian();
+            retVal.put(new CalendarDate(time), value);
+        }
+
+        return retVal;
+    }
+
+    @Test
+    public void testInterpolate() {
+
+        List<ExplicitTimeSeries> series = new ArrayList<>();
+        series.add(new ExplicitTimeSeries(new long[] { 0L, 10L, 20L }, DataSeries.wrap(new double[] { 0.0, 1.0, 2.0 })));
+        series.add(new ExplicitTimeSeries(new long[] { 5L }, DataSeries.wrap(new double[] { 7.0 })));
+
+        long[] times = { -5L, 0L, 5L, 10L, 15L, 25L };
+
+        R064Store interpolated = SeriesAligner.align(times, series, SeriesAligner.Policy.INTERPOLATE);
+        R064Store forward = SeriesAligner.align(times, series, SeriesAligner.Policy.FORWARD_FILL);
+
+        TestUtils.assertEquals(6, interpolated.getRowDim());
+        TestUtils.assertEquals(2, interpolated.getColDim());
+
+        double[] expected = { Double.NaN, 0.0, 0.5, 1.0, 1.5, 2.0 };
+        double[] expectedForward = { Double.NaN, 0.0, 0.0, 1.0, 1.0, 2.0 };
+        double[] expectedSecond = { Double.NaN, Double.NaN, 7.0, 7.0, 7.0, 7.0 };
+        for (int i = 0; i < times.length; i++) {
+            TestUtils.assertEquals(expected[i], interpolated.doubleValue(i, 0));
+            TestUtils.assertEquals(expectedForward[i], forward.doubleValue(i, 0));
+            TestUtils.assertEquals(expectedSecond[i], interpolated.doubleValue(i, 1));
+            TestUtils.assertEquals(expectedSecond[i], forward.doubleValue(i, 1));
+        }
+    }
+
+    @Test
+    public void testMerge() {
+
+        List<long[]> keys = new ArrayList<>();
+        TreeSet<Long> expected = new TreeSet<>();
+
+        for (int s = 0; s < 7; s++) {
+            long[] sKeys = SeriesAlignerTest.ticks("S" + s, 200 + 10 * s, s).getPrimitiveKeys();
+            keys.add(sKeys);
+            for (long key : sKeys) {
+                expected.add(key);
+            }
+        }
+        keys.add(new long[0]);
+        keys.add(keys.get(0));
+
+        long[] actual = SeriesAligner.merge(keys);
+
+        TestUtils.assertEquals(expected.size(), actual.length);
+        TestUtils.assertEquals(expected.stream().mapToLong(Long::longValue).toArray(), actual);
+    }
+
+    @Test
+    public void testResample() {
+
+        CoordinationSet<Double> set = new CoordinationSet<>();
+        for (int s = 0; s < 40; s++) {
+            set.put(SeriesAlignerTest.ticks("S" + s, 500, 100L + s));
+        }
+
+        CalendarDateUnit resolution = CalendarDateUnit.MINUTE;
+
+        R064Store actual = set.align(resolution, SeriesAligner.Policy.FORWARD_FILL);
+        long[] grid = SeriesAligner.grid(resolution, set.getLatestFirstKey().millis, set.getEarliestLastKey().millis);
+        List<String> names = set.getAllSeriesNames();
+
+        TestUtils.assertEquals(grid.length, actual.getRowDim());
+        TestUtils.assertEquals(names.size(), actual.getColDim());
+
+        for (int j = 0; j < names.size(); j++) {
+            CalendarDateSeries<Double> series = set.get(names.get(j));
+            for (int i = 0; i < grid.length; i++) {
+                // Brute force: the last observation in this, or an earlier, bucket
+                double expected = Double.NaN;
+                for (Map.Entry<CalendarDate, Double> entry : series.entrySet()) {
+                    if (resolution.adjustInto(entry.getKey().millis) <= grid[i]) {
+                        expected = entry.getValue();
+                    }
+                }
+                TestUtils.assertFalse(Double.isNaN(expected));
+                TestUtils.assertEquals(expected, actual.doubleValue(i, j));
+            }
+        }
+
+        long[] allKeys = set.getAllPrimitiveKeys();
+        long[] expectedKeys = set.getAllCalendarDates().stream().mapToLong(date -> date.millis).toArray();
+        TestUtils.assertTrue(Arrays.equals(expectedKeys, allKeys));
+    }
+
+}
@@ -23,10 +23,48 @@ package org.ojalgo.data.image;
 
 import org.junit.jupiter.api.Test;
 import org.ojalgo.TestUtils;
+import org.ojalgo.matrix.store.R064Store;
 import org.ojalgo.netio.BasicLogger;
 
 public class ImageDataTest extends DataImageTests {
 
+    @Test
+    public void testBlurAndEdges() {
+
+        ImageData image = ImageData.newGreyScale(40, 50);
+        for (int i = 0; i < 40; i++) {
+            for (int j = 0; j < 50; j++) {
+                image.set(i, j, j < 25 ? 40 : 200);
+            }
+        }
+
+        ImageData blurred = image.applyGaussianBlur(2.0);
+
+        TestUtils.assertEquals(40, blurred.getRowDim());
+        TestUtils.assertEquals(50, blurred.getColDim());
+        // Far from the edge nothing changes, at the edge it's smoothed out
+        int dark = image.intValue(20, 5);
+        int light = image.intValue(20, 45);
+        TestUtils.assertEquals(dark, blurred.intValue(20, 5));
+        TestUtils.assertEquals(light, blurred.intValue(20, 45));
+        TestUtils.assertTrue(blurred.intValue(20, 24) > dark && blurred.intValue(20, 24) < blurred.intValue(20, 25));
+        TestUtils.assertTrue(blurred.intValue(20, 25) < light);
+
+        R064Store horizontal = image.toGradient(false);
+        R064Store vertical = image.toGradient(true);
+
+        double step = (light - dark) / 2.0;
+        TestUtils.assertEquals(0.0, horizontal.doubleValue(20, 5));
+        TestUtils.assertEquals(step, horizontal.doubleValue(20, 24));
+        TestUtils.assertEquals(step, horizontal.doubleValue(20, 25));
+        TestUtils.assertEquals(0.0, vertical.doubleValue(20, 25));
+
+        ImageData edges = image.applyEdgeDetection();
+
+        TestUtils.assertEquals(0, edges.intValue(20, 5));
+        TestUtils.assertTrue(edges.intValue(20, 24) > 0);
+    }
+
     @Test
     public void testChannelSeparation() {
 
@@ -0,0 +1,225 @@
+/*
+ * Copyright 1997-2025 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.data.transform;
+
+import org.junit.jupiter.api.Test;
+import org.ojalgo.TestUtils;
+import org.ojalgo.array.ArrayR064;
+import org.ojalgo.data.transform.Convolution.Boundary;
+import org.ojalgo.function.aggregator.Aggregator;
+import org.ojalgo.matrix.store.R032Store;
+import org.ojalgo.matrix.store.R064Store;
+import org.ojalgo.random.Uniform;
+import org.ojalgo.structure.Access1D;
+import org.ojalgo.structure.Access2D;
+import org.ojalgo.type.context.NumberContext;
+
+public class ConvolutionTest extends DataTransformTests {
+
+    private static final NumberContext ACCURACY = NumberContext.of(10, 12);
+
+    /**
+     * Straight forward full 1D convolution.
+     */
+    private static R064Store reference(final Access1D<?> signal, final Access1D<?> kernel) {
+
+        int n = signal.size();
+        int m = kernel.size();
+
+        R064Store retVal = R064Store.FACTORY.make(n + m - 1, 1);
+        for (int t = 0; t < n + m - 1; t++) {
+            double sum = 0.0;
+            for (int j = 0; j < m; j++) {
+                if (t - j >= 0 && t - j < n) {
+                    sum += kernel.doubleValue(j) * signal.doubleValue(t - j);
+                }
+            }
+            retVal.set(t, sum);
+        }
+        return retVal;
+    }
+
+    /**
+     * Straight forward "same size" 2D convolution.
+     */
+    private static R064Store reference(final Access2D<?> input, final Access2D<?> kernel, final Boundary boundary) {
+
+        int nbRows = input.getRowDim();
+        int nbCols = input.getColDim();
+        int kRows = kernel.getRowDim();
+        int kCols = kernel.getColDim();
+
+        R064Store retVal = R064Store.FACTORY.make(nbRows, nbCols);
+        for (int i = 0; i < nbRows; i++) {
+            for (int j = 0; j < nbCols; j++) {
+                double sum = 0.0;
+                for (int a = 0; a < kRows; a++) {
+                    for (int b = 0; b < kCols; b++) {
+                        sum += kernel.doubleValue(a, b) * boundary.get(input, i + (kRows - 1) / 2 - a, j + (kCols - 1) / 2 - b);
+                    }
+                }
+                retVal.set(i, j, sum);
+            }
+        }
+        return retVal;
+    }
+
+    private static R064Store reverse(final Access2D<?> kernel) {
+        int nbRows = kernel.getRowDim();
+        int nbCols = kernel.getColDim();
+        R064Store retVal = R064Store.FACTORY.make(nbRows, nbCols);
+        for (int i = 0; i < nbRows; i++) {
+            for (int j = 0; j < nbCols; j++) {
+                retVal.set(i, j, kernel.doubleValue(nbRows - 1 - i, nbCols - 1 - j));
+            }
+        }
+        return retVal;
+    }
+
+    @Test
+    public void testDirectAndFFT1D() {
+
+        R064Store signal = R064Store.FACTORY.makeFilled(1000, 1, Uniform.of(-2, 4));
+
+        for (int m : new int[] { 1, 5, 64, 65, 200 }) {
+
+            R064Store kernel = R064Store.FACTORY.makeFilled(m, 1, Uniform.of(-1, 2));
+
+            R064Store expected = ConvolutionTest.reference(signal, kernel);
+
+            TestUtils.assertEquals(expected, Convolution.convolve(signal, kernel), ACCURACY);
+
+            R064Store reversed = R064Store.FACTORY.make(m, 1);
+            for (int j = 0; j < m; j++) {
+                reversed.set(j, kernel.doubleValue(m - 1 - j));
+            }
+            TestUtils.assertEquals(expected, Convolution.correlate(signal, reversed), ACCURACY);
+
+            // Same size, zero boundary, is the middle part of the full convolution
+            R064Store same = R064Store.FACTORY.make(1000, 1);
+            Convolution.convolve(signal, kernel, Boundary.ZERO, same);
+            for (int i = 0; i < 1000; i++) {
+                TestUtils.assertEquals(expected.doubleValue(i + (m - 1) / 2), same.doubleValue(i), ACCURACY);
+            }
+        }
+    }
+
+    @Test
+    public void testDirectAndFFT2D() {
+
+        R064Store input = R064Store.FACTORY.makeFilled(37, 50, Uniform.of(0, 255));
+
+        for (Boundary boundary : Boundary.values()) {
+
+            R064Store small = R064Store.FACTORY.makeFilled(3, 5, Uniform.of(-1, 2));
+            R064Store large = R064Store.FACTORY.makeFilled(9, 12, Uniform.of(-1, 2));
+
+            for (R064Store kernel : new R064Store[] { small, large }) {
+
+                R064Store expected = ConvolutionTest.reference(input, kernel, boundary);
+
+                R064Store actual = R064Store.FACTORY.make(37, 50);
+                Convolution.convolve(input, kernel, boundary, actual);
+                TestUtils.assertEquals(expected, actual, ACCURACY);
+
+                R032Store single = R032Store.FACTORY.make(37, 50);
+                Convolution.correlate(input, ConvolutionTest.reverse(kernel), boundary, single);
+                TestUtils.assertEquals(expected, single, NumberContext.of(6, 3));
+            }
+        }
+    }
+
+    @Test
+    public void testParallel() {
+
+        R064Store signal = R064Store.FACTORY.makeFilled(5000, 1, Uniform.of(-2, 4));
+        R064Store kernel = R064Store.FACTORY.makeFilled(100, 1, Uniform.of(-1, 2));
+        R064Store image = R064Store.FACTORY.makeFilled(60, 70, Uniform.of(0, 255));
+        R064Store kernel2D = R064Store.FACTORY.makeFilled(11, 11, Uniform.of(-1, 2));
+
+        R064Store sequential1D = Convolution.convolve(signal, kernel);
+        R064Store sequential2D = R064Store.FACTORY.make(60, 70);
+        Convolution.convolve(image, kernel2D, Boundary.EXTEND, sequential2D);
+
+        int threshold = Convolution.THRESHOLD;
+        try {
+            Convolution.THRESHOLD = 100;
+
+            TestUtils.assertEquals(sequential1D, Convolution.convolve(signal, kernel), ACCURACY);
+
+            R064Store parallel2D = R064Store.FACTORY.make(60, 70);
+            Convolution.convolve(image, kernel2D, Boundary.EXTEND, parallel2D);
+            TestUtils.assertEquals(sequential2D, parallel2D, ACCURACY);
+
+        } finally {
+            Convolution.THRESHOLD = threshold;
+        }
+    }
+
+    /**
+     * Separable convolution should be the same as convolving with the outer product of the two kernels.
+     */
+    @Test
+    public void testSeparable() {
+
+        R064Store input = R064Store.FACTORY.makeFilled(40, 30, Uniform.of(0, 255));
+
+        ArrayR064 gaussian = Convolution.newGaussianKernel(1.5);
+        ArrayR064 box = Convolution.newBoxKernel(2);
+
+        TestUtils.assertEquals(11, gaussian.size());
+        TestUtils.assertEquals(1.0, gaussian.aggregateAll(Aggregator.SUM).doubleValue(), ACCURACY);
+
+        R064Store outer = R064Store.FACTORY.make(gaussian.size(), box.size());
+        for (int i = 0; i < gaussian.size(); i++) {
+            for (int j = 0; j < box.size(); j++) {
+                outer.set(i, j, gaussian.doubleValue(i) * box.doubleValue(j));
+            }
+        }
+
+        for (Boundary boundary : Boundary.values()) {
+
+            R064Store expected = ConvolutionTest.reference(input, outer, boundary);
+
+            R064Store actual = R064Store.FACTORY.make(40, 30);
+            Convolution.convolve(input, gaussian, box, boundary, actual);
+
+            TestUtils.assertEquals(expected, actual, ACCURACY);
+        }
+
+        int limit = Convolution.DIRECT_LIMIT;
+        try {
+            Convolution.DIRECT_LIMIT = 4;
+
+            R064Store expected = ConvolutionTest.reference(input, outer, Boundary.EXTEND);
+
+            R064Store actual = R064Store.FACTORY.make(40, 30);
+            Convolution.convolve(input, gaussian, box, Boundary.EXTEND, actual);
+
+            TestUtils.assertEquals(expected, actual, ACCURACY);
+
+        } finally {
+            Convolution.DIRECT_LIMIT = limit;
+        }
+    }
+
+}
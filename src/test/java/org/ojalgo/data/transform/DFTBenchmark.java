@@ -49,6 +49,15 @@ public class DFTBenchmark {
     DiscreteFourierTransform.FFT fft;
     R064Store input;
     DiscreteFourierTransform.FullMatrix matrix;
+    /**
+     * Size 2^power + 1 – a mix of mixed radix and Bluestein sizes
+     */
+    DiscreteFourierTransform notPowerOf2;
+    R064Store notPowerOf2Input;
+    DiscreteFourierTransform.FullMatrix notPowerOf2Matrix;
+    DiscreteFourierTransform.Real real;
+    double[] realIm;
+    double[] realRe;
 
     @Benchmark
     public MatrixStore<ComplexNumber> fft() {
@@ -60,6 +69,22 @@ public class DFTBenchmark {
         return matrix.transform(input.data);
     }
 
+    @Benchmark
+    public MatrixStore<ComplexNumber> notPowerOf2() {
+        return notPowerOf2.transform(notPowerOf2Input.data);
+    }
+
+    @Benchmark
+    public MatrixStore<ComplexNumber> notPowerOf2Matrix() {
+        return notPowerOf2Matrix.transform(notPowerOf2Input.data);
+    }
+
+    @Benchmark
+    public double[] real() {
+        real.transform(input.data, realRe, realIm);
+        return realRe;
+    }
+
     @Setup
     public void setup() {
         int size = PowerOf2.powerOfInt2(power);
@@ -67,6 +92,13 @@ public class DFTBenchmark {
         fft = new DiscreteFourierTransform.FFT(input.size());
         matrix = new DiscreteFourierTransform.FullMatrix(input.size());
 
+        notPowerOf2Input = R064Store.FACTORY.makeFilled(size + 1, 1, Uniform.of(-2, 4));
+        notPowerOf2 = DiscreteFourierTransform.newInstance(notPowerOf2Input.size());
+        notPowerOf2Matrix = new DiscreteFourierTransform.FullMatrix(notPowerOf2Input.size());
+
+        real = DiscreteFourierTransform.newReal(size);
+        realRe = new double[real.countBins()];
+        realIm = new double[real.countBins()];
     }
 
 }
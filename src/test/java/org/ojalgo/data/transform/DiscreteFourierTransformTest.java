@@ -24,12 +24,15 @@ package org.ojalgo.data.transform;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 import org.ojalgo.TestUtils;
+import org.ojalgo.data.transform.DiscreteFourierTransform.Bluestein;
+import org.ojalgo.data.transform.DiscreteFourierTransform.MixedRadix;
 import org.ojalgo.function.constant.ComplexMath;
 import org.ojalgo.function.constant.PrimitiveMath;
 import org.ojalgo.function.polynomial.PolynomialR064;
 import org.ojalgo.function.special.PowerOf2;
 import org.ojalgo.matrix.MatrixC128;
 import org.ojalgo.matrix.MatrixC128.DenseReceiver;
+import org.ojalgo.matrix.store.GenericStore;
 import org.ojalgo.matrix.store.MatrixStore;
 import org.ojalgo.matrix.store.PhysicalStore;
 import org.ojalgo.matrix.store.R064Store;
@@ -272,6 +275,61 @@ final class DiscreteFourierTransformTest extends DataTransformTests {
         }
     }
 
+    /**
+     * Straight forward O(n²) DFT, but with the angle calculated modulo n to be accurate also for larger n.
+     */
+    private static PhysicalStore<ComplexNumber> reference(final Access1D<?> input) {
+
+        int size = input.size();
+
+        PhysicalStore<ComplexNumber> retVal = GenericStore.C128.make(size, 1);
+
+        for (int k = 0; k < size; k++) {
+            ComplexNumber sum = ComplexNumber.ZERO;
+            for (int j = 0; j < size; j++) {
+                double angle = -PrimitiveMath.TWO_PI * ((long) j * k % size) / size;
+                sum = sum.add(ComplexNumber.valueOf(input.get(j)).multiply(ComplexNumber.makePolar(PrimitiveMath.ONE, angle)));
+            }
+            retVal.set(k, sum);
+        }
+
+        return retVal;
+    }
+
+    /**
+     * Mixed radix and Bluestein should match the naive DFT, for real as well as complex input, and invert.
+     */
+    @Test
+    public void testMixedRadixAndBluestein() {
+
+        NumberContext accuracy = NumberContext.of(8, 10);
+
+        int[] dimensions = { 3, 5, 6, 7, 9, 11, 12, 15, 17, 20, 30, 45, 49, 60, 97, 100, 252, 390, 1000, 1009 };
+
+        for (int dim : dimensions) {
+
+            DiscreteFourierTransform fast = DiscreteFourierTransform.newInstance(dim);
+
+            if (MixedRadix.factorise(dim) != null) {
+                TestUtils.assertTrue(fast instanceof MixedRadix);
+            } else {
+                TestUtils.assertTrue(fast instanceof Bluestein);
+            }
+
+            R064Store input = R064Store.FACTORY.makeFilled(dim, 1, Uniform.of(-2, 4));
+
+            PhysicalStore<ComplexNumber> expected = DiscreteFourierTransformTest.reference(input);
+            TestUtils.assertComplexEquals(expected, fast.transform(input), accuracy);
+            TestUtils.assertComplexEquals(expected, fast.transform(input.data), accuracy);
+
+            PhysicalStore<ComplexNumber> actualComplex = GenericStore.C128.make(dim, 1);
+            fast.transform(expected, new DiscreteFourierTransform.Directive(true, false, false), actualComplex);
+            TestUtils.assertComplexEquals(DiscreteFourierTransformTest.reference(expected), actualComplex, accuracy);
+
+            TestUtils.assertEquals(input, fast.inverse(expected), accuracy);
+        }
+    }
+
     /**
      * Primarily tests there are no obvious problems using dimensions not power of 2.
      */
@@ -299,6 +357,97 @@ final class DiscreteFourierTransformTest extends DataTransformTests {
         }
     }
 
+    /**
+     * Forcing the parallel code path should not change anything.
+     */
+    @Test
+    public void testParallel2D() {
+
+        R064Store input = R064Store.FACTORY.makeFilled(48, 30, Uniform.of(-2, 4));
+
+        MatrixStore<ComplexNumber> sequential = DiscreteFourierTransform.transform2D(input);
+
+        int threshold = DiscreteFourierTransform.THRESHOLD;
+        try {
+            DiscreteFourierTransform.THRESHOLD = 100;
+
+            MatrixStore<ComplexNumber> parallel = DiscreteFourierTransform.transform2D(input);
+            TestUtils.assertEquals(sequential, parallel);
+
+            TestUtils.assertEquals(input, DiscreteFourierTransform.inverse2D(parallel), NumberContext.of(8, 10));
+
+        } finally {
+            DiscreteFourierTransform.THRESHOLD = threshold;
+        }
+    }
+
+    @Test
+    public void testRealBatched() {
+
+        int size = 30;
+        int nbSignals = 40;
+
+        R064Store signals = R064Store.FACTORY.makeFilled(nbSignals, size, Uniform.of(-2, 4));
+
+        DiscreteFourierTransform.Real real = DiscreteFourierTransform.newReal(size);
+
+        R064Store re = R064Store.FACTORY.make(nbSignals, real.countBins());
+        R064Store im = R064Store.FACTORY.make(nbSignals, real.countBins());
+
+        int threshold = DiscreteFourierTransform.THRESHOLD;
+        try {
+            DiscreteFourierTransform.THRESHOLD = 100;
+            real.transform(signals, re, im);
+        } finally {
+            DiscreteFourierTransform.THRESHOLD = threshold;
+        }
+
+        double[] expectedRe = new double[real.countBins()];
+        double[] expectedIm = new double[real.countBins()];
+
+        for (int s = 0; s < nbSignals; s++) {
+            real.transform(signals.sliceRow(s), expectedRe, expectedIm);
+            TestUtils.assertEquals(expectedRe, re.sliceRow(s).toRawCopy1D());
+            TestUtils.assertEquals(expectedIm, im.sliceRow(s).toRawCopy1D());
+        }
+    }
+
+    /**
+     * The real-to-complex transform should match the first half of the complex transform, for odd as well as
+     * even sizes, and invert.
+     */
+    @Test
+    public void testRealInput() {
+
+        NumberContext accuracy = NumberContext.of(8, 10);
+
+        for (int dim = 1; dim <= 40; dim++) {
+
+            R064Store input = R064Store.FACTORY.makeFilled(dim, 1, Uniform.of(-2, 4));
+
+            MatrixStore<ComplexNumber> expected = DiscreteFourierTransformTest.reference(input);
+
+            DiscreteFourierTransform.Real real = DiscreteFourierTransform.newReal(dim);
+
+            TestUtils.assertEquals(dim / 2 + 1, real.countBins());
+
+            double[] re = new double[real.countBins()];
+            double[] im = new double[real.countBins()];
+
+            real.transform(input.data, re, im);
+
+            for (int k = 0; k < re.length; k++) {
+                TestUtils.assertEquals(expected.get(k).doubleValue(), re[k], accuracy);
+                TestUtils.assertEquals(expected.get(k).i, im[k], accuracy);
+            }
+
+            double[] reverted = new double[dim];
+            real.inverse(re, im, reverted);
+
+            TestUtils.assertEquals(input, Access1D.wrap(reverted), accuracy);
+        }
+    }
+
     @Test
     public void testShiftAndRevertEven() {
 
@@ -0,0 +1,264 @@
+/*
+ * Copyright 1997-2025 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.decomposition;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.ojalgo.TestUtils;
+import org.ojalgo.matrix.store.MatrixStore;
+import org.ojalgo.matrix.store.R064Store;
+import org.ojalgo.random.Uniform;
+import org.ojalgo.type.context.NumberContext;
+
+public class WorkspaceTest extends MatrixDecompositionTests {
+
+    private static final NumberContext ACCURACY = NumberContext.of(10);
+    private static final int[] DIMENSIONS = { 8, 40 };
+
+    /**
+     * Element by element – {@link MatrixStore#copy()} of a tridiagonal {@link org.ojalgo.matrix.store.DiagonalStore}
+     * doesn't work here.
+     */
+    private static R064Store copy(final MatrixStore<Double> store) {
+        R064Store retVal = R064Store.FACTORY.make(store.countRows(), store.countColumns());
+        for (int j = 0; j < store.getColDim(); j++) {
+            for (int i = 0; i < store.getRowDim(); i++) {
+                retVal.set(i, j, store.doubleValue(i, j));
+            }
+        }
+        return retVal;
+    }
+
+    private static R064Store makeSPD(final int dim) {
+        R064Store random = R064Store.FACTORY.makeFilled(dim, dim, Uniform.standard());
+        R064Store retVal = R064Store.FACTORY.make(dim, dim);
+        retVal.fillByMultiplying(random, random.transpose());
+        for (int ij = 0; ij < dim; ij++) {
+            retVal.add(ij, ij, dim);
+        }
+        return retVal;
+    }
+
+    /**
+     * Solves the equation systems using new decomposition instances (the same way a request serving
+     * application would) and returns copies of the solutions.
+     */
+    private static List<MatrixStore<Double>> solve(final List<R064Store> bodies, final List<R064Store> rhss) {
+
+        List<MatrixStore<Double>> retVal = new ArrayList<>();
+
+        for (int i = 0; i < bodies.size(); i++) {
+
+            R064Store body = bodies.get(i);
+            R064Store rhs = rhss.get(i);
+
+            List<MatrixDecomposition.Solver<Double>> solvers = new ArrayList<>();
+            solvers.add(LU.R064.make(body));
+            solvers.add(new LUDecomposition.R064());
+            solvers.add(Cholesky.R064.make(body));
+            solvers.add(new CholeskyDecomposition.R064());
+            solvers.add(QR.R064.make(body));
+
+            for (MatrixDecomposition.Solver<Double> solver : solvers) {
+                TestUtils.assertTrue(solver.compute(body));
+                retVal.add(solver.getSolution(rhs).copy());
+                retVal.add(solver.getInverse().copy());
+            }
+        }
+
+        return retVal;
+    }
+
+    @Test
+    public void testNoAllocationAfterWarmUp() {
+
+        List<R064Store> bodies = new ArrayList<>();
+        List<R064Store> rhss = new ArrayList<>();
+        for (int dim : DIMENSIONS) {
+            bodies.add(WorkspaceTest.makeSPD(dim));
+            rhss.add(R064Store.FACTORY.makeFilled(dim, 3, Uniform.standard()));
+        }
+
+        List<MatrixStore<Double>> expected = WorkspaceTest.solve(bodies, rhss);
+
+        try {
+
+            long created = -1L;
+
+            for (int round = 0; round < 5; round++) {
+                try (Workspace workspace = Workspace.open()) {
+
+                    if (round == 1) {
+                        created = workspace.countCreated();
+                        workspace.strict(true);
+                    }
+
+                    List<MatrixStore<Double>> actual = WorkspaceTest.solve(bodies, rhss);
+
+                    TestUtils.assertEquals(expected.size(), actual.size());
+                    for (int i = 0; i < expected.size(); i++) {
+                        TestUtils.assertEquals(expected.get(i), actual.get(i), ACCURACY);
+                    }
+
+                    if (round > 0) {
+                        TestUtils.assertEquals(created, workspace.countCreated());
+                    }
+                }
+            }
+
+            TestUtils.assertTrue(created > 0L);
+
+        } finally {
+
+            try (Workspace workspace = Workspace.open()) {
+                workspace.strict(false);
+            }
+        }
+    }
+
+    @Test
+    public void testReuseDecompositionBetweenScopes() {
+
+        R064Store body = WorkspaceTest.makeSPD(DIMENSIONS[1]);
+        R064Store rhs = R064Store.FACTORY.makeFilled(DIMENSIONS[1], 2, Uniform.standard());
+
+        LU<Double> reference = LU.R064.make(body);
+        reference.decompose(body);
+        MatrixStore<Double> expected = reference.getSolution(rhs);
+
+        LU<Double> decomposition = new LUDecomposition.R064();
+        LU<Double> raw = new RawLU();
+
+        for (int round = 0; round < 3; round++) {
+
+            try (Workspace workspace = Workspace.open()) {
+                decomposition.decompose(body);
+                raw.decompose(body);
+                TestUtils.assertEquals(expected, decomposition.getSolution(rhs), ACCURACY);
+                TestUtils.assertEquals(expected, raw.getSolution(rhs), ACCURACY);
+            }
+
+            // The in-place storage borrowed in the scope above was given back, must not be reused here
+            decomposition.decompose(body);
+            raw.decompose(body);
+            TestUtils.assertEquals(expected, decomposition.getSolution(rhs), ACCURACY);
+            TestUtils.assertEquals(expected, raw.getSolution(rhs), ACCURACY);
+        }
+    }
+
+    /**
+     * Decompose in one scope, and then again in a second scope followed by another (LU) decomposition that
+     * borrows from the same pools. Anything cached from the first scope must not be reused in the second.
+     */
+    @Test
+    public void testReuseOtherDecompositionsBetweenScopes() {
+
+        int dim = DIMENSIONS[1];
+        R064Store matrixA = WorkspaceTest.makeSPD(dim);
+        R064Store matrixB = WorkspaceTest.makeSPD(dim);
+        R064Store other = WorkspaceTest.makeSPD(dim);
+
+        // References, decomposed without any workspace
+
+        Tridiagonal<Double> tridiagonal = Tridiagonal.R064.make(matrixA);
+        TestUtils.assertTrue(tridiagonal.decompose(matrixA));
+        MatrixStore<Double> expectedD = WorkspaceTest.copy(tridiagonal.getD());
+        MatrixStore<Double> expectedQ = tridiagonal.getQ().copy();
+
+        HessenbergDecomposition<Double> hessenberg = new HessenbergDecomposition.R064();
+        TestUtils.assertTrue(hessenberg.decompose(matrixA));
+        MatrixStore<Double> expectedH = hessenberg.getH().copy();
+        MatrixStore<Double> expectedHQ = hessenberg.getQ().copy();
+
+        List<MatrixStore<Double>> expectedV = new ArrayList<>();
+        List<MatrixStore<Double>> expectedEigenD = new ArrayList<>();
+        for (Eigenvalue.Generalisation type : Eigenvalue.Generalisation.values()) {
+            Eigenvalue.Generalised<Double> decomposition = Eigenvalue.R064.makeGeneralised(matrixA, type);
+            TestUtils.assertTrue(decomposition.decompose(matrixA, matrixB));
+            expectedV.add(decomposition.getV().copy());
+            expectedEigenD.add(decomposition.getD().copy());
+        }
+
+        // Instances only ever used within workspace scopes
+
+        tridiagonal = Tridiagonal.R064.make(matrixA);
+        hessenberg = new HessenbergDecomposition.R064();
+        List<Eigenvalue.Generalised<Double>> generalised = new ArrayList<>();
+        for (Eigenvalue.Generalisation type : Eigenvalue.Generalisation.values()) {
+            generalised.add(Eigenvalue.R064.makeGeneralised(matrixA, type));
+        }
+
+        for (int scope = 0; scope < 3; scope++) {
+            try (Workspace workspace = Workspace.open()) {
+
+                TestUtils.assertTrue(tridiagonal.decompose(matrixA));
+                TestUtils.assertTrue(hessenberg.decompose(matrixA));
+                hessenberg.getQ();
+                for (Eigenvalue.Generalised<Double> decomposition : generalised) {
+                    TestUtils.assertTrue(decomposition.decompose(matrixA, matrixB));
+                    decomposition.getV();
+                }
+
+                // Borrows from the same pools – overwrites anything wrongly kept from a previous scope
+                LU.R064.make(other).decompose(other);
+                Tridiagonal.R064.make(other).decompose(other);
+                new HessenbergDecomposition.R064().decompose(other);
+                for (Eigenvalue.Generalisation type : Eigenvalue.Generalisation.values()) {
+                    Eigenvalue.Generalised<Double> decomposition = Eigenvalue.R064.makeGeneralised(other, type);
+                    decomposition.decompose(other, matrixB);
+                    decomposition.getV();
+                }
+
+                TestUtils.assertEquals(expectedD, tridiagonal.getD(), ACCURACY);
+                TestUtils.assertEquals(expectedQ, tridiagonal.getQ(), ACCURACY);
+                TestUtils.assertEquals(expectedH, hessenberg.getH(), ACCURACY);
+                TestUtils.assertEquals(expectedHQ, hessenberg.getQ(), ACCURACY);
+                for (int g = 0; g < generalised.size(); g++) {
+                    TestUtils.assertEquals(expectedV.get(g), generalised.get(g).getV(), ACCURACY);
+                    TestUtils.assertEquals(expectedEigenD.get(g), generalised.get(g).getD(), ACCURACY);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testStrictThrowsOnAllocation() {
+
+        try (Workspace workspace = Workspace.open()) {
+
+            workspace.strict(true);
+
+            R064Store body = WorkspaceTest.makeSPD(7);
+
+            Assertions.assertThrows(IllegalStateException.class, () -> Cholesky.R064.make(body).decompose(body));
+
+            workspace.strict(false);
+
+            TestUtils.assertTrue(Cholesky.R064.make(body).decompose(body));
+            TestUtils.assertTrue(workspace.countBorrowed() > 0L);
+        }
+    }
+
+}
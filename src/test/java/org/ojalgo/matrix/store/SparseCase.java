@@ -242,4 +242,30 @@ public class SparseCase extends NonPhysicalTest {
         }
     }
 
+    @Test
+    public void testPrimitiveBuilder() {
+
+        int dim = 1_000;
+
+        Builder<Double> builder = SparseStore.R064.newBuilder(dim, dim);
+        R064Store expected = R064Store.FACTORY.make(dim, dim);
+
+        for (int k = 0; k < 500; k++) {
+            int row = Uniform.randomInteger(dim);
+            int col = Uniform.randomInteger(dim);
+            builder.set(row, col, row + col + 1.0);
+            expected.set(row, col, row + col + 1.0);
+        }
+
+        SparseStore<Double> sparse = builder.build();
+
+        TestUtils.assertEquals(expected, sparse);
+
+        long previous = -1L;
+        for (ElementView2D<Double, ?> element : sparse.nonzeros()) {
+            TestUtils.assertTrue(element.index() > previous);
+            previous = element.index();
+        }
+    }
+
 }
@@ -8,6 +8,8 @@ import java.io.IOException;
 
 import org.junit.jupiter.api.Test;
 import org.ojalgo.TestUtils;
+import org.ojalgo.array.ArrayAnyD;
+import org.ojalgo.array.ArrayR064;
 
 public class DataInterpreterTest extends NetioTests {
 
@@ -59,6 +61,30 @@ public class DataInterpreterTest extends NetioTests {
         TestUtils.assertArrayEquals(data, result);
     }
 
+    @Test
+    public void testIDXInterpreter() throws IOException {
+
+        DataInterpreter<ArrayAnyD<Double>> interpreter = DataInterpreter.newIDX(ArrayR064.FACTORY);
+
+        ArrayAnyD<Double> data = ArrayAnyD.factory(ArrayR064.FACTORY).make(4, 3, 2);
+        for (long i = 0L; i < data.count(); i++) {
+            data.set(i, i * 0.5 - 3.0);
+        }
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        DataOutputStream dos = new DataOutputStream(baos);
+        interpreter.serialize(data, dos);
+
+        ByteArrayInputStream bais = new ByteArrayInputStream(baos.toByteArray());
+        DataInputStream dis = new DataInputStream(bais);
+        ArrayAnyD<Double> result = interpreter.deserialize(dis);
+
+        TestUtils.assertEquals(data.count(), result.count());
+        for (long i = 0L; i < data.count(); i++) {
+            TestUtils.assertEquals(data.doubleValue(i), result.doubleValue(i));
+        }
+    }
+
     @Test
     public void testStringBytesInterpreter() throws IOException {
         DataInterpreterTest.doSingleTest(DataInterpreter.STRING_BYTES);
@@ -0,0 +1,232 @@
+/*
+ * Copyright 1997-2025 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.random;
+
+import org.junit.jupiter.api.Test;
+import org.ojalgo.TestUtils;
+
+public class PseudoRandomTest extends RandomTests {
+
+    /**
+     * The xoshiro256 state transition is linear over GF(2). Calculates the jump by repeated squaring of the
+     * 256x256 bit transition matrix – columns stored as long[4].
+     */
+    private static long[] jumpByMatrix(final long[] state, final int log2Steps) {
+
+        long[][] matrix = new long[256][];
+        for (int j = 0; j < 256; j++) {
+            long[] unit = new long[4];
+            unit[j / 64] = 1L << (j % 64);
+            PseudoRandom.Xoshiro256 generator = new PseudoRandom.Xoshiro256(unit[0], unit[1], unit[2], unit[3]);
+            generator.nextLong();
+            matrix[j] = generator.getState();
+        }
+
+        for (int p = 0; p < log2Steps; p++) {
+            long[][] squared = new long[256][];
+            for (int j = 0; j < 256; j++) {
+                squared[j] = PseudoRandomTest.multiply(matrix, matrix[j]);
+            }
+            matrix = squared;
+        }
+
+        return PseudoRandomTest.multiply(matrix, state);
+    }
+
+    private static long[] multiply(final long[][] matrix, final long[] vector) {
+        long[] retVal = new long[4];
+        for (int j = 0; j < 256; j++) {
+            if ((vector[j / 64] & 1L << (j % 64)) != 0L) {
+                for (int w = 0; w < 4; w++) {
+                    retVal[w] ^= matrix[j][w];
+                }
+            }
+        }
+        return retVal;
+    }
+
+    @Test
+    public void testCopyAndSplit() {
+
+        for (PseudoRandom generator : new PseudoRandom[] { new PseudoRandom.Philox(7L), new PseudoRandom.Xoshiro256(7L) }) {
+
+            generator.nextGaussian();
+
+            PseudoRandom copy = generator.copy();
+            for (int i = 0; i < 100; i++) {
+                TestUtils.assertEquals(generator.nextLong(), copy.nextLong());
+            }
+
+            PseudoRandom[] streams = generator.split(3);
+            PseudoRandom jumped = generator.copy();
+            jumped.jump();
+            jumped.jump();
+
+            TestUtils.assertEquals(generator.nextLong(), streams[0].nextLong());
+            TestUtils.assertEquals(jumped.nextLong(), streams[2].nextLong());
+            TestUtils.assertFalse(streams[1].nextLong() == streams[0].nextLong());
+        }
+    }
+
+    @Test
+    public void testExponentialDistribution() {
+
+        PseudoRandom generator = new PseudoRandom.Xoshiro256(123L);
+
+        double[] samples = new double[200_000];
+        generator.fillExponential(samples);
+
+        SampleSet sampleSet = SampleSet.wrap(samples);
+        TestUtils.assertEquals(1.0, sampleSet.getMean(), 0.01);
+        TestUtils.assertEquals(1.0, sampleSet.getVariance(), 0.02);
+
+        for (double x : new double[] { 0.1, 0.5, 1.0, 2.0, 5.0, 8.0 }) {
+            int count = 0;
+            for (double sample : samples) {
+                if (sample <= x) {
+                    count++;
+                }
+            }
+            TestUtils.assertEquals(1.0 - Math.exp(-x), (double) count / samples.length, 0.005);
+        }
+
+        Exponential exponential = new Exponential(2.0);
+        exponential.setRandom(new PseudoRandom.Philox(1L));
+        TestUtils.assertEquals(0.5, exponential.newSampleSet(100_000).getMean(), 0.01);
+    }
+
+    @Test
+    public void testGaussianDistribution() {
+
+        PseudoRandom generator = new PseudoRandom.Philox(123L);
+
+        double[] samples = new double[200_000];
+        generator.fillGaussian(samples);
+
+        SampleSet sampleSet = SampleSet.wrap(samples);
+        TestUtils.assertEquals(0.0, sampleSet.getMean(), 0.01);
+        TestUtils.assertEquals(1.0, sampleSet.getVariance(), 0.02);
+
+        Normal normal = new Normal();
+        for (double x : new double[] { -3.5, -2.0, -1.0, -0.25, 0.0, 0.5, 1.0, 2.0, 3.5 }) {
+            int count = 0;
+            for (double sample : samples) {
+                if (sample <= x) {
+                    count++;
+                }
+            }
+            TestUtils.assertEquals(normal.getDistribution(x), (double) count / samples.length, 0.005);
+        }
+    }
+
+    /**
+     * Known answers from the Random123 distribution
+     */
+    @Test
+    public void testPhiloxKnownAnswers() {
+
+        long[] output = new long[2];
+
+        PseudoRandom.Philox.block(0L, 0L, 0L, output);
+        TestUtils.assertEquals(0xe169c58d6627e8d5L, output[0]);
+        TestUtils.assertEquals(0x9b00dbd8bc57ac4cL, output[1]);
+
+        PseudoRandom.Philox.block(-1L, -1L, -1L, output);
+        TestUtils.assertEquals(0x41c83b0e408f276dL, output[0]);
+        TestUtils.assertEquals(0x6d5451fda20bc7c6L, output[1]);
+
+        PseudoRandom.Philox.block(0x85a308d3243f6a88L, 0x0370734413198a2eL, 0x299f31d0a4093822L, output);
+        TestUtils.assertEquals(0x94fdccebd16cfe09L, output[0]);
+        TestUtils.assertEquals(0x24126ea15001e420L, output[1]);
+    }
+
+    @Test
+    public void testPhiloxSkipAndStreams() {
+
+        for (long n : new long[] { 0L, 1L, 2L, 3L, 10L, 1001L }) {
+
+            PseudoRandom.Philox stepped = new PseudoRandom.Philox(42L);
+            stepped.nextLong();
+            PseudoRandom.Philox skipped = stepped.copy();
+
+            for (long i = 0L; i < n; i++) {
+                stepped.nextLong();
+            }
+            skipped.skip(n);
+
+            for (int i = 0; i < 5; i++) {
+                TestUtils.assertEquals(stepped.nextLong(), skipped.nextLong());
+            }
+        }
+
+        PseudoRandom.Philox jumped = new PseudoRandom.Philox(42L);
+        jumped.jump();
+        jumped.jump();
+        PseudoRandom.Philox stream = new PseudoRandom.Philox(42L, 2L);
+        for (int i = 0; i < 5; i++) {
+            TestUtils.assertEquals(stream.nextLong(), jumped.nextLong());
+        }
+
+        PseudoRandom.Philox reseeded = new PseudoRandom.Philox(1L, 5L);
+        reseeded.nextLong();
+        reseeded.setSeed(42L);
+        TestUtils.assertEquals(new PseudoRandom.Philox(42L).nextLong(), reseeded.nextLong());
+    }
+
+    @Test
+    public void testReproducibleDistributions() {
+
+        Normal normal1 = new Normal(1.0, 2.0);
+        normal1.setRandom(PseudoRandom.newXoshiro(99L));
+        Normal normal2 = new Normal(1.0, 2.0);
+        normal2.setRandom(PseudoRandom.newXoshiro(99L));
+
+        for (int i = 0; i < 100; i++) {
+            TestUtils.assertEquals(normal1.doubleValue(), normal2.doubleValue());
+        }
+    }
+
+    @Test
+    public void testXoshiroJump() {
+
+        PseudoRandom.Xoshiro256 generator = new PseudoRandom.Xoshiro256(2024L);
+        long[] initial = generator.getState();
+
+        // The first output for state {1,2,3,4} is rotl(1+4,23)+1
+        TestUtils.assertEquals(41943041L, new PseudoRandom.Xoshiro256(1L, 2L, 3L, 4L).nextLong());
+
+        PseudoRandom.Xoshiro256 jumped = generator.copy();
+        jumped.jump();
+        long[] expected = PseudoRandomTest.jumpByMatrix(initial, 128);
+        for (int w = 0; w < 4; w++) {
+            TestUtils.assertEquals(expected[w], jumped.getState()[w]);
+        }
+
+        PseudoRandom.Xoshiro256 longJumped = generator.copy();
+        longJumped.longJump();
+        expected = PseudoRandomTest.jumpByMatrix(initial, 192);
+        for (int w = 0; w < 4; w++) {
+            TestUtils.assertEquals(expected[w], longJumped.getState()[w]);
+        }
+    }
+
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright 1997-2025 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.random;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.DoubleStream;
+
+import org.junit.jupiter.api.Test;
+import org.ojalgo.TestUtils;
+import org.ojalgo.type.context.NumberContext;
+
+public class QuantileSketchTest extends RandomTests {
+
+    private static final double[] PROBABILITIES = { 0.001, 0.01, 0.1, 0.25, 0.5, 0.75, 0.9, 0.99, 0.999 };
+
+    /**
+     * The rank (in the sorted data) of the estimated value should be within the error bound of the rank
+     * corresponding to the probability.
+     */
+    private static void assertRankError(final double[] sorted, final QuantileSketch sketch, final double bound) {
+        for (double probability : PROBABILITIES) {
+            double estimate = sketch.getQuantile(probability);
+            int rank = Arrays.binarySearch(sorted, estimate);
+            if (rank < 0) {
+                rank = -rank - 1;
+            }
+            double error = Math.abs((double) rank / sorted.length - probability);
+            if (DEBUG) {
+                System.out.println(probability + " " + estimate + " " + error);
+            }
+            TestUtils.assertTrue(probability + " -> " + error, error <= bound);
+        }
+    }
+
+    private static double[] lognormal(final int size, final long seed) {
+        Random random = new Random(seed);
+        double[] retVal = new double[size];
+        for (int i = 0; i < size; i++) {
+            retVal[i] = Math.exp(random.nextGaussian());
+        }
+        return retVal;
+    }
+
+    @Test
+    public void testBoundedMemory() {
+
+        QuantileSketch sketch = QuantileSketch.make(100);
+
+        Random random = new Random(1L);
+        for (int i = 0; i < 1_000_000; i++) {
+            sketch.consume(random.nextDouble());
+        }
+
+        TestUtils.assertTrue(sketch.countCentroids() <= 100);
+        TestUtils.assertEquals(1_000_000L, sketch.count());
+        TestUtils.assertEquals(0.5, sketch.getMedian(), 0.01);
+    }
+
+    @Test
+    public void testMatchesSampleSet() {
+
+        double[] values = QuantileSketchTest.lognormal(100_000, 2L);
+
+        SampleSet exact = SampleSet.wrap(values);
+        QuantileSketch sketch = DoubleStream.of(values).boxed().collect(QuantileSketch.newCollector());
+
+        TestUtils.assertEquals(exact.count(), sketch.count());
+        TestUtils.assertEquals(exact.getMinimum(), sketch.getMinimum());
+        TestUtils.assertEquals(exact.getMaximum(), sketch.getMaximum());
+        TestUtils.assertEquals(exact.getMean(), sketch.getMean(), NumberContext.of(12));
+        TestUtils.assertEquals(exact.getVariance(), sketch.getVariance(), NumberContext.of(10));
+
+        TestUtils.assertEquals(exact.getQuartile1(), sketch.getQuartile1(), NumberContext.of(2));
+        TestUtils.assertEquals(exact.getMedian(), sketch.getMedian(), NumberContext.of(2));
+        TestUtils.assertEquals(exact.getQuartile3(), sketch.getQuartile3(), NumberContext.of(2));
+
+        TestUtils.assertEquals(exact.getMinimum(), sketch.getQuantile(0.0));
+        TestUtils.assertEquals(exact.getMaximum(), sketch.getQuantile(1.0));
+    }
+
+    /**
+     * Sketches built in parallel and merged should be about as accurate as one built sequentially.
+     */
+    @Test
+    public void testParallelAndMerged() {
+
+        double[] values = QuantileSketchTest.lognormal(200_000, 3L);
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+
+        QuantileSketch sequential = QuantileSketch.make();
+        for (double value : values) {
+            sequential.consume(value);
+        }
+        QuantileSketchTest.assertRankError(sorted, sequential, 1.0 / sequential.getCompression());
+
+        QuantileSketch parallel = DoubleStream.of(values).parallel().boxed().collect(QuantileSketch.newCollector());
+        QuantileSketchTest.assertRankError(sorted, parallel, 1.0 / parallel.getCompression());
+
+        QuantileSketch merged = QuantileSketch.make();
+        for (int part = 0; part < 16; part++) {
+            QuantileSketch partial = QuantileSketch.make();
+            for (int i = part; i < values.length; i += 16) {
+                partial.consume(values[i]);
+            }
+            merged.combine(partial);
+        }
+        QuantileSketchTest.assertRankError(sorted, merged, 1.0 / merged.getCompression());
+
+        TestUtils.assertEquals(sequential.count(), merged.count());
+        TestUtils.assertEquals(sequential.getMean(), merged.getMean(), NumberContext.of(12));
+        TestUtils.assertEquals(sequential.getVariance(), merged.getVariance(), NumberContext.of(10));
+        TestUtils.assertEquals(sequential.getMinimum(), merged.getMinimum());
+        TestUtils.assertEquals(sequential.getMaximum(), merged.getMaximum());
+    }
+
+    @Test
+    public void testSmallAndEmpty() {
+
+        QuantileSketch sketch = QuantileSketch.make();
+
+        TestUtils.assertEquals(0L, sketch.count());
+        TestUtils.assertTrue(Double.isNaN(sketch.getMedian()));
+
+        sketch.consume(3.0);
+        TestUtils.assertEquals(3.0, sketch.getMedian());
+
+        sketch.consume(1.0);
+        sketch.consume(2.0);
+        TestUtils.assertEquals(2.0, sketch.getMedian());
+        TestUtils.assertEquals(1.0, sketch.getVariance());
+
+        sketch.reset();
+        TestUtils.assertEquals(0L, sketch.count());
+        TestUtils.assertTrue(Double.isNaN(sketch.getMinimum()));
+    }
+
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright 1997-2025 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.random;
+
+import org.junit.jupiter.api.Test;
+import org.ojalgo.TestUtils;
+
+public class QuasiRandomTest extends RandomTests {
+
+    /**
+     * Each of the 2^m elementary intervals, of any shape, contains exactly one of the first 2^m points.
+     */
+    private static void assertNet(final QuasiRandom generator, final int m) {
+
+        int nbPoints = 1 << m;
+        double[] points = new double[nbPoints * 2];
+        generator.setIndex(0L);
+        generator.fill(points);
+
+        for (int a = 0; a <= m; a++) {
+            int cellsX = 1 << a;
+            int cellsY = 1 << (m - a);
+            int[] counts = new int[nbPoints];
+            for (int p = 0; p < nbPoints; p++) {
+                int x = (int) (points[2 * p] * cellsX);
+                int y = (int) (points[2 * p + 1] * cellsY);
+                counts[x * cellsY + y]++;
+            }
+            for (int count : counts) {
+                TestUtils.assertEquals(1, count);
+            }
+        }
+    }
+
+    private static double integrate(final QuasiRandom generator, final int nbPoints) {
+
+        int dimensions = generator.dimensions();
+        double[] point = new double[dimensions];
+
+        double sum = 0.0;
+        for (int p = 0; p < nbPoints; p++) {
+            generator.nextPoint(point);
+            double product = 1.0;
+            for (int d = 0; d < dimensions; d++) {
+                product *= 1.0 + (point[d] - 0.5) / (d + 1);
+            }
+            sum += product;
+        }
+        return sum / nbPoints;
+    }
+
+    @Test
+    public void testHaltonPoints() {
+
+        QuasiRandom halton = QuasiRandom.newHalton(2);
+        double[] point = new double[2];
+
+        double[][] expected = { { 0.5, 1.0 / 3.0 }, { 0.25, 2.0 / 3.0 }, { 0.75, 1.0 / 9.0 }, { 0.125, 4.0 / 9.0 } };
+        for (double[] element : expected) {
+            halton.nextPoint(point);
+            TestUtils.assertEquals(element[0], point[0], 1E-15);
+            TestUtils.assertEquals(element[1], point[1], 1E-15);
+        }
+
+        TestUtils.assertEquals(new int[] { 2, 3, 5, 7, 11, 13, 17, 19, 23, 29 }, QuasiRandom.primes(10));
+    }
+
+    @Test
+    public void testIntegration() {
+
+        for (QuasiRandom generator : new QuasiRandom[] { QuasiRandom.newSobol(8), QuasiRandom.newSobol(8, 1L), QuasiRandom.newHalton(8),
+                QuasiRandom.newHalton(8, 1L) }) {
+            // Plain Monte Carlo would have a standard error of about 0.0055
+            TestUtils.assertEquals(1.0, QuasiRandomTest.integrate(generator, 4096), 0.002);
+        }
+    }
+
+    @Test
+    public void testPrimitivePolynomials() {
+
+        int[] perDegree = new int[9];
+        for (long polynomial : QuasiRandom.Sobol.primitivePolynomials(52)) {
+            perDegree[63 - Long.numberOfLeadingZeros(polynomial)]++;
+        }
+        TestUtils.assertEquals(new int[] { 0, 1, 1, 2, 2, 6, 6, 18, 16 }, perDegree);
+
+        // Degree 5 polynomials, as listed by Joe & Kuo (the middle coefficients)
+        long[] polynomials = QuasiRandom.Sobol.primitivePolynomials(12);
+        long[] middle = { 2, 4, 7, 11, 13, 14 };
+        for (int i = 0; i < middle.length; i++) {
+            TestUtils.assertEquals(1L << 5 | middle[i] << 1 | 1L, polynomials[6 + i]);
+        }
+    }
+
+    @Test
+    public void testQuantile() {
+
+        Normal normal = new Normal();
+        for (double probability : new double[] { 1E-5, 0.001, 0.01, 0.02425, 0.1, 0.3, 0.5, 0.7, 0.9, 0.99, 1.0 - 1E-5 }) {
+            double quantile = QuasiRandom.quantile(probability);
+            TestUtils.assertEquals(probability, normal.getDistribution(quantile), probability * 1E-8);
+        }
+        TestUtils.assertEquals(0.0, QuasiRandom.quantile(0.5), 1E-15);
+        TestUtils.assertEquals(1.959963984540054, QuasiRandom.quantile(0.975), 1E-8);
+    }
+
+    @Test
+    public void testSkipAndSetIndex() {
+
+        for (QuasiRandom generator : new QuasiRandom[] { QuasiRandom.newSobol(5), QuasiRandom.newSobol(5, 3L), QuasiRandom.newHalton(5),
+                QuasiRandom.newHalton(5, 3L) }) {
+
+            double[] all = new double[5 * 100];
+            generator.setIndex(0L);
+            generator.fill(all);
+            TestUtils.assertEquals(100L, generator.getIndex());
+
+            double[] part = new double[5 * 10];
+            generator.setIndex(37L);
+            generator.fill(part);
+            generator.setIndex(0L);
+            generator.skip(37L);
+            double[] point = new double[5];
+            generator.nextPoint(point);
+
+            for (int i = 0; i < part.length; i++) {
+                TestUtils.assertEquals(all[37 * 5 + i], part[i]);
+                TestUtils.assertTrue(part[i] > 0.0 && part[i] < 1.0);
+            }
+            for (int d = 0; d < 5; d++) {
+                TestUtils.assertEquals(all[37 * 5 + d], point[d]);
+            }
+        }
+    }
+
+    @Test
+    public void testSobolNets() {
+
+        QuasiRandom sobol = QuasiRandom.newSobol(1);
+        double[] point = new double[1];
+        for (double expected : new double[] { 0.0, 0.5, 0.75, 0.25, 0.375, 0.875, 0.625, 0.125 }) {
+            sobol.nextPoint(point);
+            TestUtils.assertEquals(expected, point[0], 1E-9);
+        }
+
+        QuasiRandomTest.assertNet(QuasiRandom.newSobol(2), 10);
+        QuasiRandomTest.assertNet(QuasiRandom.newSobol(2, 123L), 10);
+    }
+
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 1997-2025 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.random.process;
+
+import org.junit.jupiter.api.Test;
+import org.ojalgo.TestUtils;
+import org.ojalgo.random.QuasiRandom;
+
+public class BrownianBridgeTest extends RandomProcessTests {
+
+    /**
+     * The path is a linear function of the variates. Feeding it unit vectors gives the columns of a matrix L
+     * such that L * L<sup>T</sup> must be the Wiener process covariance – min(t<sub>i</sub>, t<sub>j</sub>).
+     */
+    @Test
+    public void testCovariance() {
+
+        double[] times = { 0.1, 0.25, 0.3, 0.7, 1.0, 1.1, 2.0 };
+        BrownianBridge bridge = new BrownianBridge(times);
+
+        int size = times.length;
+        double[][] columns = new double[size][size];
+        double[] unit = new double[size];
+        for (int k = 0; k < size; k++) {
+            unit[k] = 1.0;
+            bridge.buildPath(unit, columns[k]);
+            unit[k] = 0.0;
+        }
+
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                double covariance = 0.0;
+                for (int k = 0; k < size; k++) {
+                    covariance += columns[k][i] * columns[k][j];
+                }
+                TestUtils.assertEquals(Math.min(times[i], times[j]), covariance, 1E-14);
+            }
+        }
+
+        // Increments are uncorrelated, with unit variance
+        double[][] increments = new double[size][size];
+        for (int k = 0; k < size; k++) {
+            unit[k] = 1.0;
+            bridge.buildIncrements(unit, increments[k]);
+            unit[k] = 0.0;
+        }
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                double covariance = 0.0;
+                for (int k = 0; k < size; k++) {
+                    covariance += increments[k][i] * increments[k][j];
+                }
+                TestUtils.assertEquals(i == j ? 1.0 : 0.0, covariance, 1E-14);
+            }
+        }
+    }
+
+    @Test
+    public void testGeometricBrownianMotion() {
+
+        int nbSteps = 16;
+        BrownianBridge bridge = new BrownianBridge(nbSteps, 1.0 / nbSteps);
+
+        GeometricBrownianMotion process = new GeometricBrownianMotion(0.05, 0.3);
+
+        RandomProcess.SimulationResults results = bridge.simulate(process, QuasiRandom.newSobol(nbSteps, 1L), 4096);
+
+        TestUtils.assertEquals(1.0, results.getInitialValue());
+        TestUtils.assertEquals(1.0, process.getValue());
+        TestUtils.assertEquals(4096, results.countScenarios());
+
+        // Plain Monte Carlo would have a standard error of about 0.005
+        TestUtils.assertEquals(Math.exp(0.05), results.getSampleSet(nbSteps - 1).getMean(), 0.001);
+        TestUtils.assertEquals(Math.exp(0.025), results.getSampleSet(nbSteps / 2 - 1).getMean(), 0.001);
+    }
+
+}
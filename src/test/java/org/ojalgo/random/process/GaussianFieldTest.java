@@ -0,0 +1,137 @@
+/*
+ * Copyright 1997-2025 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.random.process;
+
+import java.util.Collection;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.ojalgo.TestUtils;
+import org.ojalgo.function.constant.PrimitiveMath;
+import org.ojalgo.matrix.store.MatrixStore;
+import org.ojalgo.matrix.store.R064Store;
+import org.ojalgo.random.Normal1D;
+import org.ojalgo.type.context.NumberContext;
+import org.ojalgo.type.keyvalue.EntryPair.KeyedPrimitive;
+
+public class GaussianFieldTest extends RandomProcessTests {
+
+    private static final NumberContext ACCURACY = NumberContext.of(8, 8);
+
+    private static final GaussianField.Covariance<Double> COVARIANCE = new GaussianField.Covariance<>() {
+
+        @Override
+        public void calibrate(final Collection<KeyedPrimitive<Double>> observations, final GaussianField.Mean<Double> mean) {
+            // No calibration
+        }
+
+        @Override
+        public double invoke(final Double key1, final Double key2) {
+            double diff = key1.doubleValue() - key2.doubleValue();
+            double retVal = 1.5 * Math.exp(-diff * diff / 0.5);
+            if (key1.doubleValue() == key2.doubleValue()) {
+                retVal += 0.01;
+            }
+            return retVal;
+        }
+
+    };
+
+    private static final Double[] POINTS = { -0.3, 0.5, 1.25, 2.0, 3.7 };
+
+    /**
+     * Compare with the (non-incremental) regression using a pseudoinverse of the full covariance matrix
+     */
+    private static void assertSameAsFullDecomposition(final GaussianField<Double> field) {
+
+        Normal1D actual = field.getDistribution(POINTS);
+
+        MatrixStore<Double> coefficients = field.getRegressionCoefficients(POINTS);
+
+        R064Store locations = R064Store.FACTORY.copy(field.getM1(POINTS));
+        locations.modifyMatching(PrimitiveMath.ADD, coefficients.multiply(field.getM2differenses()));
+
+        R064Store covariances = R064Store.FACTORY.copy(field.getC11(POINTS));
+        covariances.modifyMatching(PrimitiveMath.SUBTRACT, coefficients.multiply(field.getC21(POINTS)));
+
+        TestUtils.assertEquals(locations, actual.getExpected(), ACCURACY);
+        for (int i = 0; i < POINTS.length; i++) {
+            TestUtils.assertEquals(Math.sqrt(covariances.doubleValue(i, i)), actual.getStandardDeviation().doubleValue(i), ACCURACY);
+        }
+    }
+
+    @Test
+    public void testIncrementalUpdates() {
+
+        Random random = new Random(1L);
+
+        GaussianField<Double> field = new GaussianField<>(COVARIANCE);
+
+        for (int i = 0; i < 60; i++) {
+            double key = 5.0 * random.nextDouble() - 1.0;
+            field.addObservation(key, Math.sin(key) + 0.1 * random.nextGaussian());
+            if (i % 10 == 9) {
+                GaussianFieldTest.assertSameAsFullDecomposition(field);
+            }
+        }
+
+        for (KeyedPrimitive<Double> observation : field.getObservations().subList(10, 30)) {
+            field.removeObservation(observation.getKey());
+        }
+        GaussianFieldTest.assertSameAsFullDecomposition(field);
+
+        field.addObservation(10.0, 1.0);
+        field.removeObservation(field.getObservations().get(0).getKey());
+        GaussianFieldTest.assertSameAsFullDecomposition(field);
+    }
+
+    @Test
+    public void testSlidingWindow() {
+
+        GaussianField<Double> windowed = new GaussianField<>(COVARIANCE);
+        windowed.setWindow(25);
+
+        for (int i = 0; i < 100; i++) {
+            double key = 0.05 * i;
+            windowed.addObservation(key, Math.cos(key));
+            if (i % 20 == 19) {
+                windowed.getDistribution(POINTS);
+            }
+        }
+
+        GaussianField<Double> reference = new GaussianField<>(COVARIANCE);
+        for (int i = 75; i < 100; i++) {
+            double key = 0.05 * i;
+            reference.addObservation(key, Math.cos(key));
+        }
+
+        Normal1D expected = reference.getDistribution(POINTS);
+        Normal1D actual = windowed.getDistribution(POINTS);
+
+        TestUtils.assertEquals(25, windowed.getObservations().size());
+        TestUtils.assertEquals(expected.getExpected(), actual.getExpected(), ACCURACY);
+        TestUtils.assertEquals(expected.getStandardDeviation(), actual.getStandardDeviation(), ACCURACY);
+
+        GaussianFieldTest.assertSameAsFullDecomposition(windowed);
+    }
+
+}
@@ -0,0 +1,220 @@
+/*
+ * Copyright 1997-2025 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.tensor;
+
+import java.util.function.IntSupplier;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.ojalgo.TestUtils;
+import org.ojalgo.array.ArrayAnyD;
+import org.ojalgo.array.ArrayR064;
+import org.ojalgo.concurrent.Parallelism;
+import org.ojalgo.matrix.store.MatrixStore;
+import org.ojalgo.matrix.store.R064Store;
+import org.ojalgo.random.Uniform;
+import org.ojalgo.structure.StructureAnyD;
+import org.ojalgo.type.context.NumberContext;
+
+public class TensorContractionTest {
+
+    private static final NumberContext ACCURACY = NumberContext.of(12);
+
+    /**
+     * Straight forward (slow) implementation used as reference.
+     */
+    private static ArrayAnyD<Double> reference(final String specification, final ArrayAnyD<Double> left, final ArrayAnyD<Double> right) {
+
+        String[] parts = specification.split("->", -1);
+        String[] operands = parts[0].split(",");
+        String resultLabels = parts[1];
+
+        long[] dimensions = new long[128];
+        for (int i = 0; i < operands[0].length(); i++) {
+            dimensions[operands[0].charAt(i)] = left.count(i);
+        }
+        for (int i = 0; i < operands[1].length(); i++) {
+            dimensions[operands[1].charAt(i)] = right.count(i);
+        }
+
+        String all = "";
+        for (char label : (operands[0] + operands[1]).toCharArray()) {
+            if (all.indexOf(label) < 0) {
+                all += label;
+            }
+        }
+
+        long[] resultShape = new long[resultLabels.length()];
+        for (int i = 0; i < resultShape.length; i++) {
+            resultShape[i] = dimensions[resultLabels.charAt(i)];
+        }
+        long[] allShape = new long[all.length()];
+        for (int i = 0; i < allShape.length; i++) {
+            allShape[i] = dimensions[all.charAt(i)];
+        }
+
+        ArrayAnyD<Double> retVal = ArrayAnyD.R064.make(resultShape);
+
+        for (long index = 0L, limit = StructureAnyD.count(allShape); index < limit; index++) {
+
+            long[] ref = StructureAnyD.reference(index, allShape);
+
+            long[] leftRef = new long[operands[0].length()];
+            for (int i = 0; i < leftRef.length; i++) {
+                leftRef[i] = ref[all.indexOf(operands[0].charAt(i))];
+            }
+            long[] rightRef = new long[operands[1].length()];
+            for (int i = 0; i < rightRef.length; i++) {
+                rightRef[i] = ref[all.indexOf(operands[1].charAt(i))];
+            }
+            long[] resultRef = new long[resultLabels.length()];
+            for (int i = 0; i < resultRef.length; i++) {
+                resultRef[i] = ref[all.indexOf(resultLabels.charAt(i))];
+            }
+
+            retVal.add(resultRef, left.doubleValue(leftRef) * right.doubleValue(rightRef));
+        }
+
+        return retVal;
+    }
+
+    private static void doTest(final String specification, final long[] leftShape, final long[] rightShape) {
+
+        ArrayAnyD<Double> left = ArrayAnyD.R064.makeFilled(leftShape, Uniform.standard());
+        ArrayAnyD<Double> right = ArrayAnyD.R064.makeFilled(rightShape, Uniform.standard());
+
+        ArrayAnyD<Double> expected = TensorContractionTest.reference(specification, left, right);
+        ArrayAnyD<Double> actual = TensorContraction.einsum(specification, left, right);
+
+        TestUtils.assertEquals(specification, expected.shape().length, actual.shape().length);
+        for (int i = 0; i < expected.shape().length; i++) {
+            TestUtils.assertEquals(specification, expected.count(i), actual.count(i));
+        }
+        TestUtils.assertEquals(specification, expected, actual, ACCURACY);
+    }
+
+    @Test
+    public void testAnyTensor() {
+
+        TensorFactoryAnyD<Double, AnyTensor<Double>> factory = AnyTensor.factory(ArrayR064.FACTORY);
+
+        AnyTensor<Double> tensor = factory.make(3, 3, 3);
+        tensor.fillAll(Uniform.standard());
+        AnyTensor<Double> matrix = factory.make(3, 3);
+        matrix.fillAll(Uniform.standard());
+
+        AnyTensor<Double> actual = tensor.contract("ijk,jl->ilk", matrix);
+
+        TestUtils.assertEquals(3, actual.rank());
+        TestUtils.assertEquals(3, actual.dimensions());
+
+        ArrayAnyD<Double> expected = TensorContractionTest.reference("ijk,jl->ilk", ArrayAnyD.R064.copy(tensor), ArrayAnyD.R064.copy(matrix));
+        TestUtils.assertEquals(expected, actual, ACCURACY);
+    }
+
+    @Test
+    public void testBatchedMatrixMultiplication() {
+        TensorContractionTest.doTest("bij,bjk->bik", new long[] { 7, 5, 6 }, new long[] { 7, 6, 4 });
+        TensorContractionTest.doTest("ijb,jkb->ikb", new long[] { 5, 6, 7 }, new long[] { 6, 4, 7 });
+    }
+
+    @Test
+    public void testImplicitResult() {
+
+        ArrayAnyD<Double> left = ArrayAnyD.R064.makeFilled(new long[] { 3, 4 }, Uniform.standard());
+        ArrayAnyD<Double> right = ArrayAnyD.R064.makeFilled(new long[] { 4, 5 }, Uniform.standard());
+
+        TestUtils.assertEquals(TensorContraction.einsum("ij,jk->ik", left, right), TensorContraction.einsum("ij,jk", left, right), ACCURACY);
+    }
+
+    @Test
+    public void testMatrixMultiplication() {
+
+        R064Store left = R064Store.FACTORY.makeFilled(9, 7, Uniform.standard());
+        R064Store right = R064Store.FACTORY.makeFilled(7, 8, Uniform.standard());
+
+        MatrixStore<Double> expected = left.multiply(right);
+
+        ArrayAnyD<Double> leftAnyD = ArrayAnyD.R064.make(9, 7);
+        leftAnyD.flatten().fillMatching(left);
+        ArrayAnyD<Double> rightAnyD = ArrayAnyD.R064.make(7, 8);
+        rightAnyD.flatten().fillMatching(right);
+
+        TestUtils.assertEquals(expected, TensorContraction.einsum("ij,jk->ik", leftAnyD, rightAnyD), ACCURACY);
+    }
+
+    @Test
+    public void testModeProductAndSummedIndices() {
+        TensorContractionTest.doTest("ijk,jl->ilk", new long[] { 3, 4, 5 }, new long[] { 4, 6 });
+        TensorContractionTest.doTest("ijk,lk->ijl", new long[] { 3, 4, 5 }, new long[] { 2, 5 });
+        TensorContractionTest.doTest("ijk,j->ik", new long[] { 3, 4, 5 }, new long[] { 4 });
+        TensorContractionTest.doTest("ij,kl->ik", new long[] { 3, 4 }, new long[] { 5, 2 });
+    }
+
+    @Test
+    public void testOuterProductAndFullContraction() {
+        TensorContractionTest.doTest("i,j->ij", new long[] { 3 }, new long[] { 4 });
+        TensorContractionTest.doTest("ij,ij->i", new long[] { 3, 4 }, new long[] { 3, 4 });
+        TensorContractionTest.doTest("ij,ji->ji", new long[] { 3, 4 }, new long[] { 4, 3 });
+
+        ArrayAnyD<Double> left = ArrayAnyD.R064.makeFilled(new long[] { 3, 4 }, Uniform.standard());
+        ArrayAnyD<Double> right = ArrayAnyD.R064.makeFilled(new long[] { 3, 4 }, Uniform.standard());
+
+        double expected = 0D;
+        for (long i = 0L; i < left.count(); i++) {
+            expected += left.doubleValue(i) * right.doubleValue(i);
+        }
+
+        ArrayAnyD<Double> actual = TensorContraction.einsum("ij,ij->", left, right);
+
+        TestUtils.assertEquals(1, actual.count());
+        TestUtils.assertEquals(expected, actual.doubleValue(0), ACCURACY);
+    }
+
+    @Test
+    public void testParallelBatches() {
+
+        IntSupplier parallelism = TensorContraction.PARALLELISM;
+        int threshold = TensorContraction.THRESHOLD;
+
+        try {
+            TensorContraction.PARALLELISM = Parallelism.FOUR;
+            TensorContraction.THRESHOLD = 1;
+            TensorContractionTest.doTest("bij,bjk->bik", new long[] { 13, 4, 3 }, new long[] { 13, 3, 5 });
+            TensorContractionTest.doTest("ibj,jkb->kib", new long[] { 4, 11, 3 }, new long[] { 3, 5, 11 });
+        } finally {
+            TensorContraction.PARALLELISM = parallelism;
+            TensorContraction.THRESHOLD = threshold;
+        }
+    }
+
+    @Test
+    public void testSpecificationErrors() {
+        long[] shape = { 2, 2 };
+        Assertions.assertThrows(IllegalArgumentException.class, () -> TensorContraction.of("ii,ij->j", shape, shape));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> TensorContraction.of("ijk,jk->i", shape, shape));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> TensorContraction.of("ij,jk->m", shape, shape));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> TensorContraction.of("ij,jk,kl->il", shape, shape));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> TensorContraction.of("ij,jk->ik", shape, new long[] { 3, 2 }));
+    }
+
+}